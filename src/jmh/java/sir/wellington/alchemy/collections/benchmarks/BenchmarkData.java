@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.benchmarks;
+
+import java.util.*;
+
+import org.openjdk.jmh.annotations.*;
+import sir.wellington.alchemy.collections.lists.Lists;
+import sir.wellington.alchemy.collections.maps.Maps;
+import sir.wellington.alchemy.collections.sets.IntSet;
+import sir.wellington.alchemy.collections.sets.Sets;
+
+/**
+ * The shared input for every benchmark.
+ * <p>
+ * {@link #first} always contains {@link #size} distinct elements.
+ * {@link #second} contains the same number of elements, of which {@link #hitRatio}
+ * are also present in {@link #first}, and the rest are not.
+ *
+ * @author SirWellington
+ */
+@State(Scope.Benchmark)
+public class BenchmarkData
+{
+
+    /**
+     * Capped at 1M so that every input, in every form, fits in the forked JVM's heap.
+     * Larger sizes can be passed with {@code -p size=}, along with a larger {@code -Xmx}.
+     */
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "INTEGER", "STRING" })
+    public ElementType elementType;
+
+    @Param({ "0.0", "0.5", "1.0" })
+    public double hitRatio;
+
+    public List<Object> first;
+    public List<Object> second;
+    public List<Object> probes;
+
+    public Set<Object> firstSet;
+    public Set<Object> secondSet;
+
+    public Map<Object, Object> firstMap;
+    public Map<Object, Object> secondMap;
+
+    /**
+     * The ids behind {@link #first} and {@link #second}, regardless of {@link #elementType}.
+     */
+    public IntSet firstIds;
+    public IntSet secondIds;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Random random = new Random(size);
+
+        firstIds = IntSet.create();
+        secondIds = IntSet.create();
+
+        first = new ArrayList<>(size);
+        second = new ArrayList<>(size);
+        probes = new ArrayList<>(size);
+
+        int hits = (int) (size * hitRatio);
+
+        for (int i = 0; i < size; i++)
+        {
+            first.add(elementType.elementFor(i));
+            firstIds.addInt(i);
+
+            //Misses are drawn from ids that can never appear in the first list
+            int secondId = i < hits ? i : size + i;
+            second.add(elementType.elementFor(secondId));
+            secondIds.addInt(secondId);
+
+            int probeId = random.nextDouble() < hitRatio ? random.nextInt(size) : size + random.nextInt(size);
+            probes.add(elementType.elementFor(probeId));
+        }
+
+        Collections.shuffle(second, random);
+
+        firstSet = Sets.copyOf(first);
+        secondSet = Sets.copyOf(second);
+
+        firstMap = Maps.create();
+        for (Object element : first)
+        {
+            firstMap.put(element, element);
+        }
+
+        secondMap = Maps.create();
+        for (Object element : second)
+        {
+            secondMap.put(element, element);
+        }
+    }
+
+    /**
+     * Provides a fresh, mutable copy of {@link #first} for operations that modify their input.
+     */
+    public List<Object> mutableCopyOfFirst()
+    {
+        return Lists.copy(first);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.benchmarks;
+
+/**
+ * The kinds of elements the benchmarks are run against.
+ *
+ * @author SirWellington
+ */
+public enum ElementType
+{
+    /**
+     * Boxed {@link Integer Integers}, which hash cheaply and compare quickly.
+     */
+    INTEGER
+    {
+        @Override
+        Object elementFor(int id)
+        {
+            return id;
+        }
+    },
+
+    /**
+     * {@link String Strings} of moderate length, which are more expensive to hash and compare.
+     */
+    STRING
+    {
+        @Override
+        Object elementFor(int id)
+        {
+            return "element-" + id;
+        }
+    };
+
+    /**
+     * Creates the element uniquely identified by {@code id}.
+     * The same id always produces an equal element.
+     */
+    abstract Object elementFor(int id);
+}
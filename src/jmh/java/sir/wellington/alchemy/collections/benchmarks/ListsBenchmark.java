@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sir.wellington.alchemy.collections.lists.Lists;
+
+/**
+ * Benchmarks for every operation in {@link Lists}.
+ *
+ * @author SirWellington
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class ListsBenchmark
+{
+
+    /**
+     * Operations like {@link Lists#removeFirst(List)} modify their input,
+     * so each invocation needs its own copy.
+     */
+    @State(Scope.Thread)
+    public static class MutableList
+    {
+        List<Object> list;
+
+        @Setup(Level.Invocation)
+        public void setUp(BenchmarkData data)
+        {
+            list = data.mutableCopyOfFirst();
+        }
+    }
+
+    @Benchmark
+    public List<Object> create()
+    {
+        return Lists.create();
+    }
+
+    @Benchmark
+    public List<Object> createFrom(BenchmarkData data)
+    {
+        return Lists.createFrom(data.first.get(0), data.second.get(0));
+    }
+
+    @Benchmark
+    public List<Object> copy(BenchmarkData data)
+    {
+        return Lists.copy(data.first);
+    }
+
+    @Benchmark
+    public List<Object> toList(BenchmarkData data)
+    {
+        return Lists.toList(data.firstSet);
+    }
+
+    @Benchmark
+    public List<Object> emptyList()
+    {
+        return Lists.emptyList();
+    }
+
+    @Benchmark
+    public List<Object> immutableCopyOf(BenchmarkData data)
+    {
+        return Lists.immutableCopyOf(data.first);
+    }
+
+    @Benchmark
+    public List<Object> nullToEmpty()
+    {
+        return Lists.nullToEmpty(null);
+    }
+
+    @Benchmark
+    public List<Object> combine(BenchmarkData data)
+    {
+        return Lists.combine(data.first, data.second);
+    }
+
+    @Benchmark
+    public Object oneOf(BenchmarkData data)
+    {
+        return Lists.oneOf(data.first);
+    }
+
+    @Benchmark
+    public void firstAndLast(BenchmarkData data, Blackhole blackhole)
+    {
+        blackhole.consume(Lists.first(data.first));
+        blackhole.consume(Lists.last(data.first));
+    }
+
+    @Benchmark
+    public Object removeFirst(MutableList state)
+    {
+        return Lists.removeFirst(state.list);
+    }
+
+    @Benchmark
+    public Object removeLast(MutableList state)
+    {
+        return Lists.removeLast(state.list);
+    }
+
+    @Benchmark
+    public void isEmpty(BenchmarkData data, Blackhole blackhole)
+    {
+        blackhole.consume(Lists.isEmpty(data.first));
+        blackhole.consume(Lists.notEmpty(data.first));
+    }
+}
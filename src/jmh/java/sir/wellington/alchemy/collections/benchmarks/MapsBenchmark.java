@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sir.wellington.alchemy.collections.maps.Maps;
+
+/**
+ * Benchmarks for every operation in {@link Maps}.
+ *
+ * @author SirWellington
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class MapsBenchmark
+{
+
+    @Benchmark
+    public Map<Object, Object> create()
+    {
+        return Maps.create();
+    }
+
+    @Benchmark
+    public Map<Object, Object> createSynchronized()
+    {
+        return Maps.createSynchronized();
+    }
+
+    @Benchmark
+    public Map<Object, Object> emptyMap()
+    {
+        return Maps.emptyMap();
+    }
+
+    @Benchmark
+    public Map<Object, Object> nullToEmpty()
+    {
+        return Maps.nullToEmpty(null);
+    }
+
+    @Benchmark
+    public Map<Object, Object> merge(BenchmarkData data)
+    {
+        return Maps.merge(data.firstMap, data.secondMap);
+    }
+
+    @Benchmark
+    public Map<Object, Object> mergeWith(BenchmarkData data)
+    {
+        return Maps.mergeWith((existing, incoming) -> existing, Arrays.asList(data.firstMap, data.secondMap));
+    }
+
+    @Benchmark
+    public Map<Object, Object> parallelMerge(BenchmarkData data)
+    {
+        return Maps.parallelMerge((existing, incoming) -> existing, Arrays.asList(data.firstMap, data.secondMap));
+    }
+
+    @Benchmark
+    public List<Map<Object, Object>> partitionedMerge(BenchmarkData data)
+    {
+        return Maps.partitionedMerge((existing, incoming) -> existing, Arrays.asList(data.firstMap, data.secondMap), 8);
+    }
+
+    @Benchmark
+    public Map<Object, Object> copyOf(BenchmarkData data)
+    {
+        return Maps.copyOf(data.firstMap);
+    }
+
+    @Benchmark
+    public Map<Object, Object> mutableCopyOf(BenchmarkData data)
+    {
+        return Maps.mutableCopyOf(data.firstMap);
+    }
+
+    @Benchmark
+    public Map<Object, Object> immutableCopyOf(BenchmarkData data)
+    {
+        return Maps.immutableCopyOf(data.firstMap);
+    }
+
+    @Benchmark
+    public void get(BenchmarkData data, Blackhole blackhole)
+    {
+        Map<Object, Object> map = data.firstMap;
+
+        for (Object probe : data.probes)
+        {
+            blackhole.consume(map.get(probe));
+        }
+    }
+
+    @Benchmark
+    public boolean isEmpty(BenchmarkData data)
+    {
+        return Maps.isEmpty(data.firstMap);
+    }
+}
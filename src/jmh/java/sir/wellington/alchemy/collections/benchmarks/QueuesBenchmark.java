@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.benchmarks;
+
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sir.wellington.alchemy.collections.queues.Queues;
+
+/**
+ * Compares handing elements from a producer thread to a consumer thread through each of the
+ * {@linkplain Queues Concurrent Queues}, and through a {@link LinkedBlockingQueue}.
+ * <p>
+ * Each benchmark runs one producer and one consumer as a JMH group. Neither side waits: a producer that finds the queue
+ * full, or a consumer that finds it empty, counts a failed attempt and returns. Compare the successful operations per
+ * second, with the thread counts of the group raised for the queues that allow more than one producer or consumer:
+ * <pre>
+ * mvn -P benchmarks test-compile exec:exec -Djmh.args="QueuesBenchmark -tg 4,4"
+ * </pre>
+ *
+ * @author SirWellington
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class QueuesBenchmark
+{
+
+    private static final Integer ELEMENT = 42;
+
+    @State(Scope.Group)
+    public static class QueueState
+    {
+
+        @Param({ "LINKED_BLOCKING", "SPSC", "MPSC", "MPMC" })
+        public String implementation;
+
+        @Param({ "1024" })
+        public int capacity;
+
+        public Queue<Integer> queue;
+
+        @Setup(Level.Iteration)
+        public void setUp()
+        {
+            switch (implementation)
+            {
+                case "SPSC":
+                    queue = Queues.createSpsc(capacity);
+                    break;
+                case "MPSC":
+                    queue = Queues.createMpsc(capacity);
+                    break;
+                case "MPMC":
+                    queue = Queues.createMpmc(capacity);
+                    break;
+                default:
+                    queue = new LinkedBlockingQueue<>(capacity);
+                    break;
+            }
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Attempts
+    {
+
+        public long succeeded;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            succeeded = 0;
+            failed = 0;
+        }
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public void offer(QueueState state, Attempts attempts)
+    {
+        if (state.queue.offer(ELEMENT))
+        {
+            attempts.succeeded++;
+        }
+        else
+        {
+            attempts.failed++;
+        }
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public void poll(QueueState state, Attempts attempts, Blackhole blackhole)
+    {
+        Integer element = state.queue.poll();
+
+        if (element != null)
+        {
+            attempts.succeeded++;
+            blackhole.consume(element);
+        }
+        else
+        {
+            attempts.failed++;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sir.wellington.alchemy.collections.sets.IntSet;
+import sir.wellington.alchemy.collections.sets.Sets;
+
+/**
+ * Benchmarks for every operation in {@link Sets}.
+ *
+ * @author SirWellington
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SetsBenchmark
+{
+
+    @Benchmark
+    public Set<Object> create()
+    {
+        return Sets.create();
+    }
+
+    @Benchmark
+    public Set<Object> createFrom(BenchmarkData data)
+    {
+        return Sets.createFrom(data.first.get(0), data.second.get(0));
+    }
+
+    @Benchmark
+    public Set<Object> emptySet()
+    {
+        return Sets.emptySet();
+    }
+
+    @Benchmark
+    public Set<Object> copyOf(BenchmarkData data)
+    {
+        return Sets.copyOf(data.first);
+    }
+
+    @Benchmark
+    public Set<Object> toSet(BenchmarkData data)
+    {
+        return Sets.toSet(data.first);
+    }
+
+    @Benchmark
+    public Object oneOf(BenchmarkData data)
+    {
+        return Sets.oneOf(data.firstSet);
+    }
+
+    @Benchmark
+    public Set<Object> intersectionOfSets(BenchmarkData data)
+    {
+        return Sets.intersectionOf(data.firstSet, data.secondSet);
+    }
+
+    @Benchmark
+    public Set<Object> intersectionOfSetAndList(BenchmarkData data)
+    {
+        return Sets.intersectionOf(data.firstSet, data.second);
+    }
+
+    @Benchmark
+    public Set<Object> unionOf(BenchmarkData data)
+    {
+        return Sets.unionOf(data.firstSet, data.secondSet);
+    }
+
+    @Benchmark
+    public IntSet intersectionOfIntSets(BenchmarkData data)
+    {
+        return Sets.intersectionOf(data.firstIds, data.secondIds);
+    }
+
+    @Benchmark
+    public IntSet unionOfIntSets(BenchmarkData data)
+    {
+        return Sets.unionOf(data.firstIds, data.secondIds);
+    }
+
+    @Benchmark
+    public boolean containTheSameElements(BenchmarkData data)
+    {
+        return Sets.containTheSameElements(data.firstSet, data.secondSet);
+    }
+
+    @Benchmark
+    public void contains(BenchmarkData data, Blackhole blackhole)
+    {
+        Set<Object> set = data.firstSet;
+
+        for (Object probe : data.probes)
+        {
+            blackhole.consume(set.contains(probe));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.codecs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values to and from bytes, so that they can be stored outside of the Java heap.
+ * <p>
+ * A codec either has a {@linkplain #fixedSize() fixed size}, which lets collections lay values out
+ * without any bookkeeping, or encodes each value into a {@linkplain #VARIABLE_SIZE variable} number of bytes,
+ * which collections record alongside the value.
+ * <p>
+ * Codecs read and write at absolute offsets, and never change the position or limit of the buffer,
+ * so that one buffer can be read by many threads at once. Codecs should be stateless.
+ *
+ * @param <T> The type of values.
+ * @author SirWellington
+ * @see Codecs
+ */
+public interface Codec<T>
+{
+
+    /**
+     * The {@link #fixedSize()} of a codec whose values take a different number of bytes each.
+     */
+    int VARIABLE_SIZE = -1;
+
+    /**
+     * @return The number of bytes every value takes, or {@link #VARIABLE_SIZE} if it depends on the value.
+     */
+    int fixedSize();
+
+    /**
+     * @param value Never null.
+     * @return The number of bytes {@link #write(Object, ByteBuffer, int)} will write for this value.
+     */
+    int sizeOf(T value);
+
+    /**
+     * Writes the value into {@code buffer}, starting at {@code offset}.
+     * There are always at least {@link #sizeOf(Object)} bytes available.
+     *
+     * @param value  Never null.
+     * @param buffer
+     * @param offset
+     */
+    void write(T value, ByteBuffer buffer, int offset);
+
+    /**
+     * Reads a value that was written at {@code offset}.
+     *
+     * @param buffer
+     * @param offset
+     * @param size   The number of bytes that were written for the value.
+     * @return
+     */
+    T read(ByteBuffer buffer, int offset, int size);
+}
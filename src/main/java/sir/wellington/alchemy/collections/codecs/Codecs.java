@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.codecs;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+/**
+ * {@linkplain Codec Codecs} for common types.
+ *
+ * @author SirWellington
+ */
+@NonInstantiable
+public final class Codecs
+{
+
+    Codecs() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    /**
+     * @return A 4-byte codec for {@link Integer Integers}.
+     */
+    public static Codec<Integer> integers()
+    {
+        return INTEGERS;
+    }
+
+    /**
+     * @return An 8-byte codec for {@link Long Longs}.
+     */
+    public static Codec<Long> longs()
+    {
+        return LONGS;
+    }
+
+    /**
+     * @return An 8-byte codec for {@link Double Doubles}.
+     */
+    public static Codec<Double> doubles()
+    {
+        return DOUBLES;
+    }
+
+    /**
+     * @return A 16-byte codec for {@link UUID UUIDs}.
+     */
+    public static Codec<UUID> uuids()
+    {
+        return UUIDS;
+    }
+
+    /**
+     * @return A variable-length codec that stores {@link String Strings} as UTF-8.
+     */
+    public static Codec<String> strings()
+    {
+        return STRINGS;
+    }
+
+    /**
+     * @return A variable-length codec that stores byte arrays as they are.
+     */
+    public static Codec<byte[]> byteArrays()
+    {
+        return BYTE_ARRAYS;
+    }
+
+    private static final Codec<Integer> INTEGERS = new Codec<Integer>()
+    {
+        @Override
+        public int fixedSize()
+        {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public int sizeOf(Integer value)
+        {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer buffer, int offset)
+        {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset, int size)
+        {
+            return buffer.getInt(offset);
+        }
+    };
+
+    private static final Codec<Long> LONGS = new Codec<Long>()
+    {
+        @Override
+        public int fixedSize()
+        {
+            return Long.BYTES;
+        }
+
+        @Override
+        public int sizeOf(Long value)
+        {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer buffer, int offset)
+        {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset, int size)
+        {
+            return buffer.getLong(offset);
+        }
+    };
+
+    private static final Codec<Double> DOUBLES = new Codec<Double>()
+    {
+        @Override
+        public int fixedSize()
+        {
+            return Double.BYTES;
+        }
+
+        @Override
+        public int sizeOf(Double value)
+        {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void write(Double value, ByteBuffer buffer, int offset)
+        {
+            buffer.putDouble(offset, value);
+        }
+
+        @Override
+        public Double read(ByteBuffer buffer, int offset, int size)
+        {
+            return buffer.getDouble(offset);
+        }
+    };
+
+    private static final Codec<UUID> UUIDS = new Codec<UUID>()
+    {
+        @Override
+        public int fixedSize()
+        {
+            return 2 * Long.BYTES;
+        }
+
+        @Override
+        public int sizeOf(UUID value)
+        {
+            return 2 * Long.BYTES;
+        }
+
+        @Override
+        public void write(UUID value, ByteBuffer buffer, int offset)
+        {
+            buffer.putLong(offset, value.getMostSignificantBits());
+            buffer.putLong(offset + Long.BYTES, value.getLeastSignificantBits());
+        }
+
+        @Override
+        public UUID read(ByteBuffer buffer, int offset, int size)
+        {
+            return new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+        }
+    };
+
+    private static final Codec<byte[]> BYTE_ARRAYS = new Codec<byte[]>()
+    {
+        @Override
+        public int fixedSize()
+        {
+            return VARIABLE_SIZE;
+        }
+
+        @Override
+        public int sizeOf(byte[] value)
+        {
+            return value.length;
+        }
+
+        @Override
+        public void write(byte[] value, ByteBuffer buffer, int offset)
+        {
+            ByteBuffer target = buffer.duplicate();
+
+            //Cast, so that this links against Buffer.position(int) on Java 8 as well
+            ((Buffer) target).position(offset);
+            target.put(value);
+        }
+
+        @Override
+        public byte[] read(ByteBuffer buffer, int offset, int size)
+        {
+            byte[] value = new byte[size];
+
+            ByteBuffer source = buffer.duplicate();
+            ((Buffer) source).position(offset);
+            source.get(value);
+
+            return value;
+        }
+    };
+
+    private static final Codec<String> STRINGS = new Codec<String>()
+    {
+        @Override
+        public int fixedSize()
+        {
+            return VARIABLE_SIZE;
+        }
+
+        /**
+         * Counts the UTF-8 bytes without encoding the String.
+         */
+        @Override
+        public int sizeOf(String value)
+        {
+            int size = 0;
+
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+
+                if (c < 0x80)
+                {
+                    size += 1;
+                }
+                else if (c < 0x800)
+                {
+                    size += 2;
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1)))
+                {
+                    size += 4;
+                    i++;
+                }
+                else if (Character.isSurrogate(c))
+                {
+                    //An unpaired surrogate cannot be encoded, and is replaced with a single '?'
+                    size += 1;
+                }
+                else
+                {
+                    size += 3;
+                }
+            }
+
+            return size;
+        }
+
+        @Override
+        public void write(String value, ByteBuffer buffer, int offset)
+        {
+            BYTE_ARRAYS.write(value.getBytes(StandardCharsets.UTF_8), buffer, offset);
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, int offset, int size)
+        {
+            return new String(BYTE_ARRAYS.read(buffer, offset, size), StandardCharsets.UTF_8);
+        }
+    };
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.codecs;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+/**
+ * A growable span of memory outside of the Java heap, made of direct {@link ByteBuffer} chunks, and addressed
+ * by a {@code long} position.
+ * <p>
+ * The chunk size is a power of two, so finding the chunk for a position is a shift and a mask.
+ * {@link #allocate(int)} hands out space for records that never straddle two chunks, so a record can always
+ * be read from a single buffer.
+ * <p>
+ * {@link #close()} releases the chunks right away where the JVM allows it; otherwise they are released
+ * when the garbage collector reclaims them.
+ *
+ * @author SirWellington
+ */
+@Internal
+@ThreadUnsafe
+public final class DirectMemory implements AutoCloseable
+{
+
+    private final static Logger LOG = LoggerFactory.getLogger(DirectMemory.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    public static final int MAX_CHUNK_SIZE = 1 << 30;
+
+    private final int chunkSize;
+    private final int shift;
+    private final int mask;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * The next position {@link #allocate(int)} will hand out.
+     */
+    private long top = 0;
+
+    private boolean closed = false;
+
+    /**
+     * @param chunkSize Must be a power of two, no larger than {@link #MAX_CHUNK_SIZE}.
+     * @throws IllegalArgumentException
+     */
+    public DirectMemory(int chunkSize) throws IllegalArgumentException
+    {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1)
+        {
+            throw new IllegalArgumentException("chunk size must be a power of two, up to " + MAX_CHUNK_SIZE + ": " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+        this.shift = Integer.numberOfTrailingZeros(chunkSize);
+        this.mask = chunkSize - 1;
+    }
+
+    public int chunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Reserves {@code size} bytes that lie within a single chunk, growing as needed.
+     *
+     * @param size
+     * @return The position of the reserved bytes.
+     * @throws IllegalArgumentException If {@code size} is larger than a chunk.
+     */
+    public long allocate(int size) throws IllegalArgumentException
+    {
+        checkOpen();
+
+        if (size < 0 || size > chunkSize)
+        {
+            throw new IllegalArgumentException("cannot allocate " + size + " bytes in chunks of " + chunkSize);
+        }
+
+        //Skip the rest of the chunk, rather than straddle two
+        if ((top & mask) + size > chunkSize)
+        {
+            top = ((top >>> shift) + 1) << shift;
+        }
+
+        long position = top;
+        top += size;
+        ensureCapacity(top);
+
+        return position;
+    }
+
+    /**
+     * @return The number of bytes handed out by {@link #allocate(int)}, including any skipped at the end of chunks.
+     */
+    public long allocated()
+    {
+        return top;
+    }
+
+    /**
+     * @return The number of bytes reserved off-heap.
+     */
+    public long capacity()
+    {
+        return (long) chunks.size() * chunkSize;
+    }
+
+    /**
+     * Adds chunks until there are at least {@code bytes} bytes, which are zeroed.
+     *
+     * @param bytes
+     */
+    public void ensureCapacity(long bytes)
+    {
+        checkOpen();
+
+        while (capacity() < bytes)
+        {
+            chunks.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+    }
+
+    /**
+     * @param position
+     * @return The chunk that holds {@code position}.
+     */
+    public ByteBuffer chunkAt(long position)
+    {
+        checkOpen();
+
+        return chunks.get((int) (position >>> shift));
+    }
+
+    /**
+     * @param position
+     * @return The offset of {@code position} within {@linkplain #chunkAt(long) its chunk}.
+     */
+    public int offsetOf(long position)
+    {
+        return (int) (position & mask);
+    }
+
+    public int getInt(long position)
+    {
+        return chunkAt(position).getInt(offsetOf(position));
+    }
+
+    public void putInt(long position, int value)
+    {
+        chunkAt(position).putInt(offsetOf(position), value);
+    }
+
+    public long getLong(long position)
+    {
+        return chunkAt(position).getLong(offsetOf(position));
+    }
+
+    public void putLong(long position, long value)
+    {
+        chunkAt(position).putLong(offsetOf(position), value);
+    }
+
+    /**
+     * Forgets everything allocated, keeping the first chunk for reuse and releasing the rest.
+     */
+    public void clear()
+    {
+        checkOpen();
+
+        while (chunks.size() > 1)
+        {
+            release(chunks.remove(chunks.size() - 1));
+        }
+
+        if (!chunks.isEmpty())
+        {
+            ByteBuffer first = chunks.get(0);
+            int i = 0;
+
+            for (; i + Long.BYTES <= chunkSize; i += Long.BYTES)
+            {
+                first.putLong(i, 0L);
+            }
+
+            for (; i < chunkSize; i++)
+            {
+                first.put(i, (byte) 0);
+            }
+        }
+
+        top = 0;
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Releases all of the memory. Any further use throws an {@link IllegalStateException}.
+     */
+    @Override
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+
+        closed = true;
+        chunks.forEach(DirectMemory::release);
+        chunks.clear();
+    }
+
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("memory has already been closed");
+        }
+    }
+
+    //==============================================================
+    // Releasing Direct Buffers
+    //==============================================================
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static
+    {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+
+        try
+        {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            //Only available from Java 9 onwards
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            unsafe = theUnsafe.get(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex)
+        {
+            LOG.debug("Direct buffers will be released by the garbage collector", ex);
+        }
+
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private static void release(ByteBuffer buffer)
+    {
+        if (INVOKE_CLEANER == null)
+        {
+            return;
+        }
+
+        try
+        {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex)
+        {
+            LOG.debug("Could not release direct buffer; leaving it to the garbage collector", ex);
+        }
+    }
+}
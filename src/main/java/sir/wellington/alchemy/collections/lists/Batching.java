@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+/**
+ * Splits elements into batches, for {@link Lists#partition(List, int)} and the {@code chunk} methods of {@link Lists}.
+ * <p>
+ * A list is partitioned into views of its {@linkplain List#subList(int, int) sublists}, made only when asked for,
+ * so no element is copied. Iterators and streams are read one batch at a time, as each batch is asked for,
+ * so no more than one batch, and at most one element of the next, is held at once.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class Batching
+{
+
+    /**
+     * Batches are presized up to this many elements; larger ones grow as they fill.
+     */
+    private static final int MAX_PRESIZE = 1 << 12;
+
+    Batching() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static <E> List<List<E>> partition(List<E> list, int size)
+    {
+        return list instanceof RandomAccess ? new RandomAccessPartition<>(list, size) : new Partition<>(list, size);
+    }
+
+    static <E> Iterator<List<E>> chunk(Iterator<E> elements, int size, long maxWeight, ToLongFunction<? super E> weigher)
+    {
+        return new ChunkIterator<>(elements, size, maxWeight, weigher);
+    }
+
+    static <E> Stream<List<E>> chunk(Stream<E> elements, int size, long maxWeight, ToLongFunction<? super E> weigher)
+    {
+        Iterator<List<E>> chunks = chunk(elements.iterator(), size, maxWeight, weigher);
+        Spliterator<List<E>> spliterator = Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL);
+
+        return StreamSupport.stream(spliterator, false).onClose(elements::close);
+    }
+
+    //==============================================================
+    // Partitions
+    //==============================================================
+
+    /**
+     * The consecutive sublists of a list, each {@code size} elements long, except perhaps the last.
+     * Since the sublists are views, the partition reflects changes to the elements of the list, and to its size.
+     */
+    private static class Partition<E> extends AbstractList<List<E>>
+    {
+
+        private final List<E> list;
+        private final int size;
+
+        private Partition(List<E> list, int size)
+        {
+            this.list = list;
+            this.size = size;
+        }
+
+        @Override
+        public List<E> get(int index)
+        {
+            int count = size();
+
+            if (index < 0 || index >= count)
+            {
+                throw new IndexOutOfBoundsException("index " + index + " is out of bounds for " + count + " partitions");
+            }
+
+            int from = index * size;
+            int to = (int) Math.min((long) from + size, list.size());
+
+            return list.subList(from, to);
+        }
+
+        @Override
+        public int size()
+        {
+            return (int) ((list.size() + (long) size - 1) / size);
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return list.isEmpty();
+        }
+    }
+
+    private static final class RandomAccessPartition<E> extends Partition<E> implements RandomAccess
+    {
+
+        private RandomAccessPartition(List<E> list, int size)
+        {
+            super(list, size);
+        }
+    }
+
+    //==============================================================
+    // Chunks
+    //==============================================================
+
+    /**
+     * Reads a batch at a time from an iterator, ending each batch when it holds {@code size} elements, or when
+     * the next element would take its weight past {@code maxWeight}. That element then starts the next batch.
+     * An element that alone weighs more than {@code maxWeight} gets a batch to itself.
+     */
+    private static final class ChunkIterator<E> implements Iterator<List<E>>
+    {
+
+        private final Iterator<E> elements;
+        private final int size;
+        private final long maxWeight;
+        private final ToLongFunction<? super E> weigher;
+
+        /**
+         * The element that did not fit in the last batch, which starts the next one.
+         */
+        private E pending;
+        private long pendingWeight;
+        private boolean hasPending = false;
+
+        private ChunkIterator(Iterator<E> elements, int size, long maxWeight, ToLongFunction<? super E> weigher)
+        {
+            this.elements = elements;
+            this.size = size;
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return hasPending || elements.hasNext();
+        }
+
+        @Override
+        public List<E> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            List<E> batch = new ArrayList<>(Math.min(size, MAX_PRESIZE));
+            long weight = 0;
+
+            if (hasPending)
+            {
+                batch.add(pending);
+                weight = pendingWeight;
+                pending = null;
+                hasPending = false;
+            }
+
+            while (batch.size() < size && elements.hasNext())
+            {
+                E element = elements.next();
+                long elementWeight = weigh(element);
+
+                if (!batch.isEmpty() && elementWeight > maxWeight - weight)
+                {
+                    pending = element;
+                    pendingWeight = elementWeight;
+                    hasPending = true;
+                    break;
+                }
+
+                batch.add(element);
+                weight += elementWeight;
+            }
+
+            return batch;
+        }
+
+        private long weigh(E element)
+        {
+            if (weigher == null)
+            {
+                return 0;
+            }
+
+            long weight = weigher.applyAsLong(element);
+
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("weight cannot be negative: " + weight + " for " + element);
+            }
+
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+import static sir.wellington.alchemy.collections.lists.Forking.*;
+
+/**
+ * The parallel bulk operations of {@link Lists}, run as fork-join tasks on a caller's pool.
+ * <p>
+ * Each operation splits its input into index ranges of at least {@link Forking#PARALLEL_THRESHOLD} elements, and writes
+ * the results of each range into its own slice of a presized array, so the tasks share no locks.
+ * Inputs smaller than the threshold are handled on the calling thread.
+ * Only {@link RandomAccess} lists can be read by index from several threads; other collections are first
+ * copied to an array, on the calling thread.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class BulkOperations
+{
+
+    /**
+     * Stands in for {@code null}, in concurrent maps that cannot hold it.
+     */
+    private static final Object NULL = new Object();
+
+    BulkOperations() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static <E> List<E> copy(Collection<E> collection, ForkJoinPool pool)
+    {
+        int size = collection.size();
+
+        if (size < PARALLEL_THRESHOLD || !isRandomAccess(collection))
+        {
+            List<E> list = RingList.create(size);
+            list.addAll(collection);
+            return list;
+        }
+
+        List<E> list = (List<E>) collection;
+
+        return RingList.filledBy(size, elements -> run(pool, new RangeTask(0, size, (from, to) ->
+        {
+            for (int i = from; i < to; i++)
+            {
+                elements[i] = list.get(i);
+            }
+        })));
+    }
+
+    static <E> List<E> combine(Collection<? extends List<E>> lists, ForkJoinPool pool)
+    {
+        long total = 0;
+
+        for (List<E> list : lists)
+        {
+            total += list == null ? 0 : list.size();
+        }
+
+        if (total > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException("lists are too large to combine: " + total);
+        }
+
+        int size = (int) total;
+
+        if (size < PARALLEL_THRESHOLD)
+        {
+            List<E> result = RingList.create(size);
+
+            for (List<E> list : lists)
+            {
+                if (list != null)
+                {
+                    result.addAll(list);
+                }
+            }
+
+            return result;
+        }
+
+        return RingList.filledBy(size, elements ->
+        {
+            //Each list is copied into its own slice of the result, which starts where the previous one ends
+            List<RecursiveAction> tasks = new ArrayList<>(lists.size());
+            int offset = 0;
+
+            for (List<E> list : lists)
+            {
+                if (list == null || list.isEmpty())
+                {
+                    continue;
+                }
+
+                int start = offset;
+                offset += list.size();
+
+                if (list instanceof RandomAccess)
+                {
+                    tasks.add(new RangeTask(0, list.size(), (from, to) ->
+                    {
+                        for (int i = from; i < to; i++)
+                        {
+                            elements[start + i] = list.get(i);
+                        }
+                    }));
+                }
+                else
+                {
+                    tasks.add(action(() ->
+                    {
+                        Object[] array = list.toArray();
+                        System.arraycopy(array, 0, elements, start, array.length);
+                    }));
+                }
+            }
+
+            run(pool, action(() -> RecursiveAction.invokeAll(tasks)));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> List<E> distinct(Collection<E> collection, ForkJoinPool pool)
+    {
+        Object[] elements = toArray(collection, pool);
+        int size = elements.length;
+
+        if (size < PARALLEL_THRESHOLD)
+        {
+            List<E> list = RingList.create(size);
+            list.addAll(new LinkedHashSet<>((List<E>) Arrays.asList(elements)));
+            return list;
+        }
+
+        //Phase 1: find the first index of each element; null is stood in for by a marker, which a ConcurrentHashMap can hold
+        ConcurrentHashMap<Object, Integer> firstIndexes = new ConcurrentHashMap<>(size);
+
+        run(pool, new RangeTask(0, size, (from, to) ->
+        {
+            for (int i = from; i < to; i++)
+            {
+                Object element = elements[i];
+                firstIndexes.merge(element == null ? NULL : element, i, Math::min);
+            }
+        }));
+
+        //Phase 2: keep the elements at those indexes, in order
+        int[] indexes = new int[firstIndexes.size()];
+        int count = 0;
+
+        for (Integer index : firstIndexes.values())
+        {
+            indexes[count++] = index;
+        }
+
+        Arrays.sort(indexes);
+
+        return RingList.filledBy(count, distinct ->
+        {
+            for (int i = 0; i < indexes.length; i++)
+            {
+                distinct[i] = elements[indexes[i]];
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> void sort(List<E> list, Comparator<? super E> comparator, ForkJoinPool pool)
+    {
+        int size = list.size();
+
+        if (size < PARALLEL_THRESHOLD)
+        {
+            list.sort(comparator);
+            return;
+        }
+
+        Comparator<Object> order = comparator == null
+                                   ? (Comparator<Object>) (Comparator<?>) Comparator.naturalOrder()
+                                   : (Comparator<Object>) comparator;
+
+        Object[] elements = toArray(list, pool);
+        Object[] buffer = new Object[size];
+
+        run(pool, new SortTask(elements, buffer, 0, size, false, order));
+
+        ListIterator<E> iterator = list.listIterator();
+
+        for (Object element : elements)
+        {
+            iterator.next();
+            iterator.set((E) element);
+        }
+    }
+
+    //==============================================================
+    // Tasks
+    //==============================================================
+
+    private static boolean isRandomAccess(Collection<?> collection)
+    {
+        return collection instanceof List && collection instanceof RandomAccess;
+    }
+
+    private static Object[] toArray(Collection<?> collection, ForkJoinPool pool)
+    {
+        int size = collection.size();
+
+        if (size < PARALLEL_THRESHOLD || !isRandomAccess(collection))
+        {
+            return collection.toArray();
+        }
+
+        List<?> list = (List<?>) collection;
+        Object[] elements = new Object[size];
+
+        run(pool, new RangeTask(0, size, (from, to) ->
+        {
+            for (int i = from; i < to; i++)
+            {
+                elements[i] = list.get(i);
+            }
+        }));
+
+        return elements;
+    }
+
+    @FunctionalInterface
+    private interface Range
+    {
+
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs a function over a range of indexes, splitting the range in half until it is small enough to run directly.
+     */
+    private static final class RangeTask extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final Range range;
+
+        private RangeTask(int from, int to, Range range)
+        {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= PARALLEL_THRESHOLD)
+            {
+                range.run(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, range), new RangeTask(middle, to, range));
+        }
+    }
+
+    /**
+     * A stable merge sort of {@code elements[from, to)}, which leaves the result in {@code buffer} instead, when asked.
+     * Both halves are sorted in parallel into the other array, and then merged back, also in parallel.
+     * Ranges of up to {@link Forking#PARALLEL_THRESHOLD} elements are sorted with {@link Arrays#sort(Object[], int, int, Comparator)},
+     * which is also stable.
+     */
+    private static final class SortTask extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] elements;
+        private final Object[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean intoBuffer;
+        private final Comparator<Object> order;
+
+        private SortTask(Object[] elements, Object[] buffer, int from, int to, boolean intoBuffer, Comparator<Object> order)
+        {
+            this.elements = elements;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.intoBuffer = intoBuffer;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= PARALLEL_THRESHOLD)
+            {
+                Arrays.sort(elements, from, to, order);
+
+                if (intoBuffer)
+                {
+                    System.arraycopy(elements, from, buffer, from, to - from);
+                }
+
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+
+            //The halves are sorted into whichever array this range is not, and then merged into the one it is
+            invokeAll(new SortTask(elements, buffer, from, middle, !intoBuffer, order),
+                      new SortTask(elements, buffer, middle, to, !intoBuffer, order));
+
+            Object[] source = intoBuffer ? elements : buffer;
+            Object[] target = intoBuffer ? buffer : elements;
+
+            new MergeTask(source, from, middle, middle, to, target, from, order).compute();
+        }
+    }
+
+    /**
+     * Merges two sorted runs of {@code source} into {@code target}, keeping elements of the left run ahead of equal
+     * elements of the right. Large merges are split around the middle of the longer run, and the matching position in
+     * the shorter one, and both parts merged in parallel.
+     */
+    private static final class MergeTask extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] source;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+        private final Object[] target;
+        private final int targetFrom;
+        private final Comparator<Object> order;
+
+        private MergeTask(Object[] source,
+                          int leftFrom,
+                          int leftTo,
+                          int rightFrom,
+                          int rightTo,
+                          Object[] target,
+                          int targetFrom,
+                          Comparator<Object> order)
+        {
+            this.source = source;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.target = target;
+            this.targetFrom = targetFrom;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute()
+        {
+            int leftSize = leftTo - leftFrom;
+            int rightSize = rightTo - rightFrom;
+
+            if (leftSize + rightSize <= PARALLEL_THRESHOLD)
+            {
+                merge();
+                return;
+            }
+
+            int leftSplit;
+            int rightSplit;
+
+            if (leftSize >= rightSize)
+            {
+                leftSplit = (leftFrom + leftTo) >>> 1;
+                //Right elements equal to the pivot stay after it
+                rightSplit = search(source[leftSplit], rightFrom, rightTo, false);
+            }
+            else
+            {
+                rightSplit = (rightFrom + rightTo) >>> 1;
+                //Left elements equal to the pivot stay before it
+                leftSplit = search(source[rightSplit], leftFrom, leftTo, true);
+            }
+
+            int targetSplit = targetFrom + (leftSplit - leftFrom) + (rightSplit - rightFrom);
+
+            invokeAll(new MergeTask(source, leftFrom, leftSplit, rightFrom, rightSplit, target, targetFrom, order),
+                      new MergeTask(source, leftSplit, leftTo, rightSplit, rightTo, target, targetSplit, order));
+        }
+
+        private void merge()
+        {
+            int left = leftFrom;
+            int right = rightFrom;
+            int index = targetFrom;
+
+            while (left < leftTo && right < rightTo)
+            {
+                if (order.compare(source[right], source[left]) < 0)
+                {
+                    target[index++] = source[right++];
+                }
+                else
+                {
+                    target[index++] = source[left++];
+                }
+            }
+
+            System.arraycopy(source, left, target, index, leftTo - left);
+            System.arraycopy(source, right, target, index + (leftTo - left), rightTo - right);
+        }
+
+        /**
+         * @return The first index in {@code [from, to)} whose element is after {@code pivot}, or, unless
+         *         {@code afterEqual}, not before it.
+         */
+        private int search(Object pivot, int from, int to, boolean afterEqual)
+        {
+            int low = from;
+            int high = to;
+
+            while (low < high)
+            {
+                int middle = (low + high) >>> 1;
+                int comparison = order.compare(source[middle], pivot);
+
+                if (comparison < 0 || (afterEqual && comparison == 0))
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A read-only view of several lists, one after the other, that copies none of their elements.
+ * <p>
+ * Random access finds the right segment with a binary search over the segment offsets,
+ * so {@link #get(int)} costs {@code O(log k)} for {@code k} segments, plus the segment's own {@code get}.
+ * Iteration walks each segment directly, by index for {@link RandomAccess} segments, and
+ * {@link #spliterator() Spliterators} split on segment boundaries first, so parallel streams
+ * hand whole segments to each worker.
+ * <p>
+ * The view reflects changes to the elements of the underlying lists, but the segment sizes are
+ * fixed when the view is created; the underlying lists must not be structurally modified afterwards.
+ * The view is {@link RandomAccess} only when every one of the lists is.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Lists#combineView(List, List...)
+ */
+public class ConcatenatedList<E> extends AbstractList<E>
+{
+
+    private final List<E>[] segments;
+
+    /**
+     * {@code offsets[i]} is the index in this list of the first element of {@code segments[i]}.
+     * The last entry is the total size.
+     */
+    private final int[] offsets;
+
+    private ConcatenatedList(List<E>[] segments)
+    {
+        this.segments = segments;
+        this.offsets = new int[segments.length + 1];
+
+        long offset = 0;
+        for (int i = 0; i < segments.length; i++)
+        {
+            offsets[i] = (int) offset;
+            offset += segments[i].size();
+
+            if (offset > Integer.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("combined size is too large: " + offset);
+            }
+        }
+
+        offsets[segments.length] = (int) offset;
+    }
+
+    /**
+     * Creates a view of the non-empty lists, which is a {@link RandomAccess} one if all of them are.
+     */
+    static <E> ConcatenatedList<E> of(List<List<E>> lists)
+    {
+        List<List<E>> nonEmpty = new ArrayList<>(lists.size());
+        boolean randomAccess = true;
+
+        for (List<E> list : lists)
+        {
+            if (!Lists.isEmpty(list))
+            {
+                nonEmpty.add(list);
+                randomAccess &= list instanceof RandomAccess;
+            }
+        }
+
+        List<E>[] segments = nonEmpty.toArray(newSegments(nonEmpty.size()));
+
+        return randomAccess ? new RandomAccessConcatenatedList<>(segments) : new ConcatenatedList<>(segments);
+    }
+
+    @Override
+    public E get(int index)
+    {
+        if (index < 0 || index >= size())
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+        }
+
+        int segment = segmentOf(index);
+        return segments[segment].get(index - offsets[segment]);
+    }
+
+    @Override
+    public int size()
+    {
+        return offsets[segments.length];
+    }
+
+    /**
+     * @return The number of non-empty lists in this view.
+     */
+    public int segmentCount()
+    {
+        return segments.length;
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>()
+        {
+            private int segment = 0;
+            private int position = 0;
+            private Iterator<E> sequential = null;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (segment < segments.length)
+                {
+                    List<E> current = segments[segment];
+
+                    if (current instanceof RandomAccess)
+                    {
+                        if (position < current.size())
+                        {
+                            return true;
+                        }
+                    }
+                    else
+                    {
+                        if (sequential == null)
+                        {
+                            sequential = current.iterator();
+                        }
+
+                        if (sequential.hasNext())
+                        {
+                            return true;
+                        }
+                    }
+
+                    segment++;
+                    position = 0;
+                    sequential = null;
+                }
+
+                return false;
+            }
+
+            @Override
+            public E next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                List<E> current = segments[segment];
+                return current instanceof RandomAccess ? current.get(position++) : sequential.next();
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action)
+    {
+        Objects.requireNonNull(action);
+
+        for (List<E> segment : segments)
+        {
+            segment.forEach(action);
+        }
+    }
+
+    @Override
+    public Spliterator<E> spliterator()
+    {
+        return new SegmentSpliterator(0, segments.length);
+    }
+
+    private int segmentOf(int index)
+    {
+        int segment = Arrays.binarySearch(offsets, 0, segments.length, index);
+
+        //An exact match is the first element of that segment;
+        //otherwise the element belongs to the segment before the insertion point.
+        return segment >= 0 ? segment : -segment - 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> List<E>[] newSegments(int length)
+    {
+        return (List<E>[]) new List<?>[length];
+    }
+
+    private static final class RandomAccessConcatenatedList<E> extends ConcatenatedList<E> implements RandomAccess
+    {
+
+        private RandomAccessConcatenatedList(List<E>[] segments)
+        {
+            super(segments);
+        }
+    }
+
+    /**
+     * Covers the segments from {@code first} (inclusive) to {@code end} (exclusive).
+     * Splits by halving the range of segments, and once only one segment is left,
+     * hands over to that segment's own spliterator.
+     */
+    private final class SegmentSpliterator implements Spliterator<E>
+    {
+
+        private int first;
+        private final int end;
+        private Spliterator<E> current;
+
+        SegmentSpliterator(int first, int end)
+        {
+            this.first = first;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action)
+        {
+            while (true)
+            {
+                if (current == null)
+                {
+                    if (first >= end)
+                    {
+                        return false;
+                    }
+
+                    current = segments[first++].spliterator();
+                }
+
+                if (current.tryAdvance(action))
+                {
+                    return true;
+                }
+
+                current = null;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action)
+        {
+            if (current != null)
+            {
+                current.forEachRemaining(action);
+                current = null;
+            }
+
+            while (first < end)
+            {
+                segments[first++].spliterator().forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit()
+        {
+            if (current != null)
+            {
+                if (first >= end)
+                {
+                    return current.trySplit();
+                }
+
+                //Hand off the rest of the current segment, and keep the whole segments after it
+                Spliterator<E> prefix = current;
+                current = null;
+                return prefix;
+            }
+
+            int remaining = end - first;
+
+            if (remaining == 0)
+            {
+                return null;
+            }
+
+            if (remaining == 1)
+            {
+                current = segments[first++].spliterator();
+                return current.trySplit();
+            }
+
+            int middle = first + remaining / 2;
+            Spliterator<E> prefix = new SegmentSpliterator(first, middle);
+            first = middle;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            long size = current == null ? 0 : current.estimateSize();
+            return size + offsets[end] - offsets[first];
+        }
+
+        @Override
+        public int characteristics()
+        {
+            if (current != null && first >= end)
+            {
+                return current.characteristics();
+            }
+
+            int characteristics = Spliterator.ORDERED | Spliterator.SIZED;
+
+            //Splits of a RandomAccess list are exactly sized, but those of other lists may not be
+            if (ConcatenatedList.this instanceof RandomAccess && current == null)
+            {
+                characteristics |= Spliterator.SUBSIZED;
+            }
+
+            return characteristics;
+        }
+    }
+}
@@ -0,0 +1,679 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.DoubleStream;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.*;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThanOrEqualTo;
+
+/**
+ * A {@link List} of {@code double} values backed by a single {@code double[]}.
+ * <p>
+ * Unlike a {@code List<Double>}, values are stored unboxed, so each element costs
+ * {@code 8} bytes and no pointer chase. The {@code double}-specific methods, like
+ * {@link #getDouble(int)} and {@link #addDouble(double)}, never box; the regular {@link List}
+ * methods are still available for interoperability, but box on every call.
+ *
+ * @author SirWellington
+ */
+@ThreadUnsafe
+public final class DoubleList extends AbstractList<Double> implements RandomAccess
+{
+
+    private static final double[] EMPTY = {};
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Some VMs reserve header words in an array, so allocating right up to
+     * {@link Integer#MAX_VALUE} can fail even when the heap has room.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private double[] elements;
+    private int size;
+
+    DoubleList(int initialCapacity)
+    {
+        this.elements = initialCapacity == 0 ? EMPTY : new double[initialCapacity];
+    }
+
+    /**
+     * Creates an empty {@link DoubleList}.
+     *
+     * @return
+     */
+    public static DoubleList create()
+    {
+        return new DoubleList(0);
+    }
+
+    /**
+     * Creates an empty {@link DoubleList} with room for {@code initialCapacity} values
+     * before it needs to grow.
+     *
+     * @param initialCapacity Must be {@code >= 0}.
+     * @return
+     * @throws IllegalArgumentException If {@code initialCapacity} is negative.
+     */
+    public static DoubleList create(int initialCapacity) throws IllegalArgumentException
+    {
+        checkThat(initialCapacity)
+            .usingMessage("initial capacity cannot be negative")
+            .is(greaterThanOrEqualTo(0));
+
+        return new DoubleList(initialCapacity);
+    }
+
+    public static DoubleList createFrom(double first, @Optional double... rest)
+    {
+        int restLength = rest == null ? 0 : rest.length;
+
+        DoubleList list = new DoubleList(1 + restLength);
+        list.addDouble(first);
+
+        if (rest != null)
+        {
+            list.addAll(rest);
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates a copy of the specified array.
+     *
+     * @param array
+     * @return
+     */
+    public static DoubleList copyOf(@Optional double[] array)
+    {
+        if (array == null)
+        {
+            return create();
+        }
+
+        DoubleList list = new DoubleList(array.length);
+        list.addAll(array);
+        return list;
+    }
+
+    /**
+     * Collects all of the values in the stream into a new {@link DoubleList}.
+     *
+     * @param stream
+     * @return
+     */
+    public static DoubleList copyOf(@Optional DoubleStream stream)
+    {
+        DoubleList list = create();
+
+        if (stream != null)
+        {
+            list.addAll(stream);
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates a copy of the specified list.
+     *
+     * @param list
+     * @return
+     */
+    public static DoubleList copy(@Optional DoubleList list)
+    {
+        if (list == null)
+        {
+            return create();
+        }
+
+        return copyOf(list.toDoubleArray());
+    }
+
+    /**
+     * Combines all of the lists, in order, into a new list that is sized exactly once.
+     *
+     * @param first
+     * @param additional
+     * @return
+     */
+    public static DoubleList combine(@Optional DoubleList first, @Optional DoubleList... additional)
+    {
+        long totalSize = first == null ? 0 : first.size;
+
+        if (additional != null)
+        {
+            for (DoubleList list : additional)
+            {
+                totalSize += list == null ? 0 : list.size;
+            }
+        }
+
+        if (totalSize > MAX_CAPACITY)
+        {
+            throw new OutOfMemoryError("combined size is too large: " + totalSize);
+        }
+
+        DoubleList result = new DoubleList((int) totalSize);
+
+        if (first != null)
+        {
+            result.addAll(first);
+        }
+
+        if (additional != null)
+        {
+            for (DoubleList list : additional)
+            {
+                if (list != null)
+                {
+                    result.addAll(list);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Gets the value at the specified index, without boxing.
+     *
+     * @param index
+     * @return
+     * @throws IndexOutOfBoundsException
+     */
+    public double getDouble(int index) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * Replaces the value at the specified index, without boxing.
+     *
+     * @param index
+     * @param value
+     * @return The value previously at {@code index}.
+     * @throws IndexOutOfBoundsException
+     */
+    public double setDouble(int index, double value) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+
+        double previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    /**
+     * Appends a value to the end of this list, without boxing.
+     *
+     * @param value
+     */
+    public void addDouble(double value)
+    {
+        if (size == elements.length)
+        {
+            grow(size + 1);
+        }
+
+        elements[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * Inserts a value at the specified index, shifting subsequent values to the right.
+     *
+     * @param index
+     * @param value
+     * @throws IndexOutOfBoundsException
+     */
+    public void addDouble(int index, double value) throws IndexOutOfBoundsException
+    {
+        checkPositionIndex(index);
+
+        if (size == elements.length)
+        {
+            grow(size + 1);
+        }
+
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Appends all of the values in the array to this list.
+     *
+     * @param values
+     */
+    public void addAll(@Required double[] values)
+    {
+        checkThat(values)
+            .usingMessage("values cannot be null")
+            .is(notNull());
+
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * Appends {@code length} values from the array, starting at {@code offset}.
+     *
+     * @param values
+     * @param offset
+     * @param length
+     * @throws IndexOutOfBoundsException If the range is outside of the array.
+     */
+    public void addAll(@Required double[] values, int offset, int length) throws IndexOutOfBoundsException
+    {
+        checkThat(values)
+            .usingMessage("values cannot be null")
+            .is(notNull());
+
+        if (offset < 0 || length < 0 || offset > values.length - length)
+        {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " + values.length);
+        }
+
+        if (length == 0)
+        {
+            return;
+        }
+
+        ensureCapacity(size + length);
+        System.arraycopy(values, offset, elements, size, length);
+        size += length;
+        modCount++;
+    }
+
+    /**
+     * Appends all of the values in the other list.
+     *
+     * @param other
+     */
+    public void addAll(@Required DoubleList other)
+    {
+        checkThat(other)
+            .usingMessage("list cannot be null")
+            .is(notNull());
+
+        addAll(other.elements, 0, other.size);
+    }
+
+    /**
+     * Appends every value produced by the stream to this list.
+     *
+     * @param stream
+     */
+    public void addAll(@Required DoubleStream stream)
+    {
+        checkThat(stream)
+            .usingMessage("stream cannot be null")
+            .is(notNull());
+
+        stream.sequential().forEachOrdered(this::addDouble);
+    }
+
+    /**
+     * Removes the value at the specified index, shifting subsequent values to the left.
+     *
+     * @param index
+     * @return The value removed.
+     * @throws IndexOutOfBoundsException
+     */
+    public double removeDoubleAt(int index) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+
+        double removed = elements[index];
+
+        int numberToMove = size - index - 1;
+        if (numberToMove > 0)
+        {
+            System.arraycopy(elements, index + 1, elements, index, numberToMove);
+        }
+
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Determines whether this list contains the specified value, without boxing.
+     *
+     * @param value
+     * @return
+     */
+    public boolean containsDouble(double value)
+    {
+        return indexOfDouble(value) >= 0;
+    }
+
+    /**
+     * Finds the first index of the specified value.
+     *
+     * @param value
+     * @return The index, or {@code -1} if the value is not in this list.
+     */
+    public int indexOfDouble(double value)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (same(elements[i], value))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the first value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public double first() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+        return elements[0];
+    }
+
+    /**
+     * Gets the last value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public double last() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+        return elements[size - 1];
+    }
+
+    /**
+     * Removes and retrieves the first value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public double removeFirst() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+        return removeDoubleAt(0);
+    }
+
+    /**
+     * Removes and retrieves the last value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public double removeLast() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+
+        size--;
+        modCount++;
+        return elements[size];
+    }
+
+    /**
+     * Picks a value from this list at random.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public double oneOf() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+
+        int index = ThreadLocalRandom.current().nextInt(size);
+        return elements[index];
+    }
+
+    /**
+     * Copies the values in this list into a new array.
+     *
+     * @return
+     */
+    public double[] toDoubleArray()
+    {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Streams the values in this list, without boxing.
+     *
+     * @return
+     */
+    public DoubleStream doubleStream()
+    {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /**
+     * Makes sure this list can hold at least {@code minCapacity} values without growing again.
+     *
+     * @param minCapacity
+     */
+    public void ensureCapacity(int minCapacity)
+    {
+        if (minCapacity > elements.length)
+        {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Shrinks the backing array so that it holds exactly {@link #size()} values.
+     */
+    public void trimToSize()
+    {
+        if (size < elements.length)
+        {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+            modCount++;
+        }
+    }
+
+    @Override
+    public Double get(int index)
+    {
+        return getDouble(index);
+    }
+
+    @Override
+    public Double set(int index, Double element)
+    {
+        return setDouble(index, unbox(element));
+    }
+
+    @Override
+    public boolean add(Double element)
+    {
+        addDouble(unbox(element));
+        return true;
+    }
+
+    @Override
+    public void add(int index, Double element)
+    {
+        addDouble(index, unbox(element));
+    }
+
+    @Override
+    public Double remove(int index)
+    {
+        return removeDoubleAt(index);
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return object instanceof Double && containsDouble((Double) object);
+    }
+
+    @Override
+    public int indexOf(Object object)
+    {
+        return object instanceof Double ? indexOfDouble((Double) object) : -1;
+    }
+
+    @Override
+    public void clear()
+    {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+
+        for (int i = 0; i < size; i++)
+        {
+            hashCode = 31 * hashCode + Double.hashCode(elements[i]);
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other == this)
+        {
+            return true;
+        }
+
+        if (!(other instanceof DoubleList))
+        {
+            return super.equals(other);
+        }
+
+        DoubleList that = (DoubleList) other;
+        if (that.size != this.size)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            if (!same(this.elements[i], that.elements[i]))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static double unbox(Double element)
+    {
+        checkThat(element)
+            .usingMessage("DoubleList cannot hold null values")
+            .is(notNull());
+
+        return element;
+    }
+
+    /**
+     * Compares values the same way {@link Double#equals(Object)} does, so that
+     * {@code NaN} equals itself and {@code -0.0} does not equal {@code 0.0}.
+     */
+    private static boolean same(double first, double second)
+    {
+        return Double.doubleToLongBits(first) == Double.doubleToLongBits(second);
+    }
+
+    private void grow(int minCapacity)
+    {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY)
+        {
+            throw new OutOfMemoryError("requested capacity is too large: " + minCapacity);
+        }
+
+        int oldCapacity = elements.length;
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+
+        if (newCapacity < minCapacity || newCapacity < 0)
+        {
+            newCapacity = minCapacity;
+        }
+
+        if (newCapacity < DEFAULT_CAPACITY)
+        {
+            newCapacity = DEFAULT_CAPACITY;
+        }
+
+        if (newCapacity > MAX_CAPACITY)
+        {
+            newCapacity = MAX_CAPACITY;
+        }
+
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index)
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkNotEmpty()
+    {
+        if (size == 0)
+        {
+            throw new IllegalArgumentException("list cannot be empty");
+        }
+    }
+}
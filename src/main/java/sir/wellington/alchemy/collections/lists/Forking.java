@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+/**
+ * The fork-join plumbing shared by the parallel operations of {@link Lists}, {@code Sets} and {@code Maps},
+ * so that they all split their work at the same size, and run it on a caller's pool the same way.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+public final class Forking
+{
+
+    /**
+     * Below this many elements, the cost of forking outweighs the work being split.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    Forking() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    /**
+     * Runs the task on the pool, and waits for it to finish.
+     *
+     * @param pool
+     * @param task
+     */
+    public static void run(ForkJoinPool pool, ForkJoinTask<?> task)
+    {
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool)
+        {
+            //Already one of the pool's workers; submitting and waiting would only tie up this thread
+            task.invoke();
+            return;
+        }
+
+        pool.invoke(task);
+    }
+
+    /**
+     * @param runnable
+     * @return A task that runs the {@code runnable}, so that it can fork other tasks from within the pool.
+     */
+    public static RecursiveAction action(Runnable runnable)
+    {
+        return new RecursiveAction()
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute()
+            {
+                runnable.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+
+/**
+ * A {@link List} that can never change, backed by a single array that is exactly as long as the list.
+ * <p>
+ * Unlike {@link Collections#unmodifiableList(List)}, which is a view of a list that can still be changed
+ * through the original, an {@code ImmutableList} owns a copy of its elements. It can be shared freely across threads.
+ * Every operation that would change the list throws an {@link UnsupportedOperationException}, even when it
+ * would have no effect, such as clearing an empty list.
+ * <p>
+ * The list is {@link Serializable} through a proxy that holds only its elements, so a list read back
+ * is always a fresh copy, or the shared empty list.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Lists#immutableCopyOf(List)
+ */
+@Immutable
+public final class ImmutableList<E> extends AbstractList<E> implements RandomAccess, Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ImmutableList<Object> EMPTY = new ImmutableList<>(new Object[0]);
+
+    private final Object[] elements;
+
+    /**
+     * Cached, since the elements never change. Zero until it is first computed.
+     */
+    private int hashCode;
+
+    private ImmutableList(Object[] elements)
+    {
+        this.elements = elements;
+    }
+
+    /**
+     * @param <E>
+     * @return The shared empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableList<E> empty()
+    {
+        return (ImmutableList<E>) EMPTY;
+    }
+
+    /**
+     * Copies the elements of the collection, in iteration order.
+     * Copying an {@code ImmutableList} returns it as-is.
+     *
+     * @param <E>
+     * @param collection A {@code null} collection is treated as empty.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableList<E> copyOf(@Optional Collection<? extends E> collection)
+    {
+        if (collection instanceof ImmutableList)
+        {
+            return (ImmutableList<E>) collection;
+        }
+
+        if (collection == null || collection.isEmpty())
+        {
+            return empty();
+        }
+
+        return new ImmutableList<>(collection.toArray());
+    }
+
+    /**
+     * @param <E>
+     * @param elements
+     * @return An {@code ImmutableList} of a copy of the array.
+     */
+    @SafeVarargs
+    public static <E> ImmutableList<E> of(E... elements)
+    {
+        if (elements == null || elements.length == 0)
+        {
+            return empty();
+        }
+
+        return new ImmutableList<>(Arrays.copyOf(elements, elements.length, Object[].class));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index)
+    {
+        if (index < 0 || index >= elements.length)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + elements.length);
+        }
+
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return elements.length == 0;
+    }
+
+    @Override
+    public int indexOf(Object object)
+    {
+        for (int i = 0; i < elements.length; i++)
+        {
+            if (Objects.equals(object, elements[i]))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object object)
+    {
+        for (int i = elements.length - 1; i >= 0; i--)
+        {
+            if (Objects.equals(object, elements[i]))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public Object[] toArray()
+    {
+        return elements.clone();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] array)
+    {
+        if (array.length < elements.length)
+        {
+            return (T[]) Arrays.copyOf(elements, elements.length, array.getClass());
+        }
+
+        System.arraycopy(elements, 0, array, 0, elements.length);
+
+        if (array.length > elements.length)
+        {
+            array[elements.length] = null;
+        }
+
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action)
+    {
+        Objects.requireNonNull(action);
+
+        for (Object element : elements)
+        {
+            action.accept((E) element);
+        }
+    }
+
+    @Override
+    public Spliterator<E> spliterator()
+    {
+        return Spliterators.spliterator(elements, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = hashCode;
+
+        if (hash == 0)
+        {
+            hash = 1;
+            for (Object element : elements)
+            {
+                hash = 31 * hash + Objects.hashCode(element);
+            }
+
+            hashCode = hash;
+        }
+
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other == this)
+        {
+            return true;
+        }
+
+        if (other instanceof ImmutableList)
+        {
+            ImmutableList<?> that = (ImmutableList<?>) other;
+            return hashCode() == that.hashCode() && Arrays.equals(elements, that.elements);
+        }
+
+        return super.equals(other);
+    }
+
+    //==============================================================
+    // Serialization
+    //==============================================================
+
+    private Object writeReplace()
+    {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException
+    {
+        throw new InvalidObjectException("ImmutableLists are serialized through their SerializedForm");
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public E set(int index, E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean add(E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(int index, E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public E remove(int index)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object object)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<E> operator)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void sort(Comparator<? super E> comparator)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex)
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("ImmutableLists cannot be modified");
+    }
+
+    /**
+     * Stands in for an {@link ImmutableList} in a stream, as the array of its elements.
+     */
+    private static final class SerializedForm implements Serializable
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] elements;
+
+        SerializedForm(ImmutableList<?> list)
+        {
+            this.elements = list.elements;
+        }
+
+        private Object readResolve()
+        {
+            return ImmutableList.of(elements);
+        }
+    }
+}
@@ -0,0 +1,675 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.*;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThanOrEqualTo;
+
+/**
+ * A {@link List} of {@code int} values backed by a single {@code int[]}.
+ * <p>
+ * Unlike a {@code List<Integer>}, values are stored unboxed, so each element costs
+ * {@code 4} bytes and no pointer chase. The {@code int}-specific methods, like
+ * {@link #getInt(int)} and {@link #addInt(int)}, never box; the regular {@link List}
+ * methods are still available for interoperability, but box on every call.
+ *
+ * @author SirWellington
+ */
+@ThreadUnsafe
+public final class IntList extends AbstractList<Integer> implements RandomAccess
+{
+
+    private static final int[] EMPTY = {};
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Some VMs reserve header words in an array, so allocating right up to
+     * {@link Integer#MAX_VALUE} can fail even when the heap has room.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[] elements;
+    private int size;
+
+    IntList(int initialCapacity)
+    {
+        this.elements = initialCapacity == 0 ? EMPTY : new int[initialCapacity];
+    }
+
+    /**
+     * Creates an empty {@link IntList}.
+     *
+     * @return
+     */
+    public static IntList create()
+    {
+        return new IntList(0);
+    }
+
+    /**
+     * Creates an empty {@link IntList} with room for {@code initialCapacity} values
+     * before it needs to grow.
+     *
+     * @param initialCapacity Must be {@code >= 0}.
+     * @return
+     * @throws IllegalArgumentException If {@code initialCapacity} is negative.
+     */
+    public static IntList create(int initialCapacity) throws IllegalArgumentException
+    {
+        checkThat(initialCapacity)
+            .usingMessage("initial capacity cannot be negative")
+            .is(greaterThanOrEqualTo(0));
+
+        return new IntList(initialCapacity);
+    }
+
+    public static IntList createFrom(int first, @Optional int... rest)
+    {
+        int restLength = rest == null ? 0 : rest.length;
+
+        IntList list = new IntList(1 + restLength);
+        list.addInt(first);
+
+        if (rest != null)
+        {
+            list.addAll(rest);
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates a copy of the specified array.
+     *
+     * @param array
+     * @return
+     */
+    public static IntList copyOf(@Optional int[] array)
+    {
+        if (array == null)
+        {
+            return create();
+        }
+
+        IntList list = new IntList(array.length);
+        list.addAll(array);
+        return list;
+    }
+
+    /**
+     * Collects all of the values in the stream into a new {@link IntList}.
+     *
+     * @param stream
+     * @return
+     */
+    public static IntList copyOf(@Optional IntStream stream)
+    {
+        IntList list = create();
+
+        if (stream != null)
+        {
+            list.addAll(stream);
+        }
+
+        return list;
+    }
+
+    /**
+     * Creates a copy of the specified list.
+     *
+     * @param list
+     * @return
+     */
+    public static IntList copy(@Optional IntList list)
+    {
+        if (list == null)
+        {
+            return create();
+        }
+
+        return copyOf(list.toIntArray());
+    }
+
+    /**
+     * Combines all of the lists, in order, into a new list that is sized exactly once.
+     *
+     * @param first
+     * @param additional
+     * @return
+     */
+    public static IntList combine(@Optional IntList first, @Optional IntList... additional)
+    {
+        long totalSize = first == null ? 0 : first.size;
+
+        if (additional != null)
+        {
+            for (IntList list : additional)
+            {
+                totalSize += list == null ? 0 : list.size;
+            }
+        }
+
+        if (totalSize > MAX_CAPACITY)
+        {
+            throw new OutOfMemoryError("combined size is too large: " + totalSize);
+        }
+
+        IntList result = new IntList((int) totalSize);
+
+        if (first != null)
+        {
+            result.addAll(first);
+        }
+
+        if (additional != null)
+        {
+            for (IntList list : additional)
+            {
+                if (list != null)
+                {
+                    result.addAll(list);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Gets the value at the specified index, without boxing.
+     *
+     * @param index
+     * @return
+     * @throws IndexOutOfBoundsException
+     */
+    public int getInt(int index) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * Replaces the value at the specified index, without boxing.
+     *
+     * @param index
+     * @param value
+     * @return The value previously at {@code index}.
+     * @throws IndexOutOfBoundsException
+     */
+    public int setInt(int index, int value) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+
+        int previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    /**
+     * Appends a value to the end of this list, without boxing.
+     *
+     * @param value
+     */
+    public void addInt(int value)
+    {
+        if (size == elements.length)
+        {
+            grow(size + 1);
+        }
+
+        elements[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * Inserts a value at the specified index, shifting subsequent values to the right.
+     *
+     * @param index
+     * @param value
+     * @throws IndexOutOfBoundsException
+     */
+    public void addInt(int index, int value) throws IndexOutOfBoundsException
+    {
+        checkPositionIndex(index);
+
+        if (size == elements.length)
+        {
+            grow(size + 1);
+        }
+
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Appends all of the values in the array to this list.
+     *
+     * @param values
+     */
+    public void addAll(@Required int[] values)
+    {
+        checkThat(values)
+            .usingMessage("values cannot be null")
+            .is(notNull());
+
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * Appends {@code length} values from the array, starting at {@code offset}.
+     *
+     * @param values
+     * @param offset
+     * @param length
+     * @throws IndexOutOfBoundsException If the range is outside of the array.
+     */
+    public void addAll(@Required int[] values, int offset, int length) throws IndexOutOfBoundsException
+    {
+        checkThat(values)
+            .usingMessage("values cannot be null")
+            .is(notNull());
+
+        if (offset < 0 || length < 0 || offset > values.length - length)
+        {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " + values.length);
+        }
+
+        if (length == 0)
+        {
+            return;
+        }
+
+        ensureCapacity(size + length);
+        System.arraycopy(values, offset, elements, size, length);
+        size += length;
+        modCount++;
+    }
+
+    /**
+     * Appends all of the values in the other list.
+     *
+     * @param other
+     */
+    public void addAll(@Required IntList other)
+    {
+        checkThat(other)
+            .usingMessage("list cannot be null")
+            .is(notNull());
+
+        addAll(other.elements, 0, other.size);
+    }
+
+    /**
+     * Appends every value produced by the stream to this list.
+     *
+     * @param stream
+     */
+    public void addAll(@Required IntStream stream)
+    {
+        checkThat(stream)
+            .usingMessage("stream cannot be null")
+            .is(notNull());
+
+        stream.sequential().forEachOrdered(this::addInt);
+    }
+
+    /**
+     * Removes the value at the specified index, shifting subsequent values to the left.
+     *
+     * @param index
+     * @return The value removed.
+     * @throws IndexOutOfBoundsException
+     */
+    public int removeIntAt(int index) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+
+        int removed = elements[index];
+
+        int numberToMove = size - index - 1;
+        if (numberToMove > 0)
+        {
+            System.arraycopy(elements, index + 1, elements, index, numberToMove);
+        }
+
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Determines whether this list contains the specified value, without boxing.
+     *
+     * @param value
+     * @return
+     */
+    public boolean containsInt(int value)
+    {
+        return indexOfInt(value) >= 0;
+    }
+
+    /**
+     * Finds the first index of the specified value.
+     *
+     * @param value
+     * @return The index, or {@code -1} if the value is not in this list.
+     */
+    public int indexOfInt(int value)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (same(elements[i], value))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the first value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public int first() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+        return elements[0];
+    }
+
+    /**
+     * Gets the last value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public int last() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+        return elements[size - 1];
+    }
+
+    /**
+     * Removes and retrieves the first value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public int removeFirst() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+        return removeIntAt(0);
+    }
+
+    /**
+     * Removes and retrieves the last value in the list.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public int removeLast() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+
+        size--;
+        modCount++;
+        return elements[size];
+    }
+
+    /**
+     * Picks a value from this list at random.
+     *
+     * @return
+     * @throws IllegalArgumentException If the list is empty.
+     */
+    public int oneOf() throws IllegalArgumentException
+    {
+        checkNotEmpty();
+
+        int index = ThreadLocalRandom.current().nextInt(size);
+        return elements[index];
+    }
+
+    /**
+     * Copies the values in this list into a new array.
+     *
+     * @return
+     */
+    public int[] toIntArray()
+    {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Streams the values in this list, without boxing.
+     *
+     * @return
+     */
+    public IntStream intStream()
+    {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /**
+     * Makes sure this list can hold at least {@code minCapacity} values without growing again.
+     *
+     * @param minCapacity
+     */
+    public void ensureCapacity(int minCapacity)
+    {
+        if (minCapacity > elements.length)
+        {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Shrinks the backing array so that it holds exactly {@link #size()} values.
+     */
+    public void trimToSize()
+    {
+        if (size < elements.length)
+        {
+            elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+            modCount++;
+        }
+    }
+
+    @Override
+    public Integer get(int index)
+    {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer element)
+    {
+        return setInt(index, unbox(element));
+    }
+
+    @Override
+    public boolean add(Integer element)
+    {
+        addInt(unbox(element));
+        return true;
+    }
+
+    @Override
+    public void add(int index, Integer element)
+    {
+        addInt(index, unbox(element));
+    }
+
+    @Override
+    public Integer remove(int index)
+    {
+        return removeIntAt(index);
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return object instanceof Integer && containsInt((Integer) object);
+    }
+
+    @Override
+    public int indexOf(Object object)
+    {
+        return object instanceof Integer ? indexOfInt((Integer) object) : -1;
+    }
+
+    @Override
+    public void clear()
+    {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 1;
+
+        for (int i = 0; i < size; i++)
+        {
+            hashCode = 31 * hashCode + Integer.hashCode(elements[i]);
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other == this)
+        {
+            return true;
+        }
+
+        if (!(other instanceof IntList))
+        {
+            return super.equals(other);
+        }
+
+        IntList that = (IntList) other;
+        if (that.size != this.size)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            if (!same(this.elements[i], that.elements[i]))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int unbox(Integer element)
+    {
+        checkThat(element)
+            .usingMessage("IntList cannot hold null values")
+            .is(notNull());
+
+        return element;
+    }
+
+    private static boolean same(int first, int second)
+    {
+        return first == second;
+    }
+
+    private void grow(int minCapacity)
+    {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY)
+        {
+            throw new OutOfMemoryError("requested capacity is too large: " + minCapacity);
+        }
+
+        int oldCapacity = elements.length;
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+
+        if (newCapacity < minCapacity || newCapacity < 0)
+        {
+            newCapacity = minCapacity;
+        }
+
+        if (newCapacity < DEFAULT_CAPACITY)
+        {
+            newCapacity = DEFAULT_CAPACITY;
+        }
+
+        if (newCapacity > MAX_CAPACITY)
+        {
+            newCapacity = MAX_CAPACITY;
+        }
+
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index)
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkNotEmpty()
+    {
+        if (size == 0)
+        {
+            throw new IllegalArgumentException("list cannot be empty");
+        }
+    }
+}
@@ -18,12 +18,19 @@ package sir.wellington.alchemy.collections.lists;
 
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sir.wellington.alchemy.collections.codecs.Codec;
+import sir.wellington.alchemy.collections.codecs.Codecs;
+import sir.wellington.alchemy.collections.codecs.DirectMemory;
 import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
 import tech.sirwellington.alchemy.annotations.arguments.Optional;
 import tech.sirwellington.alchemy.annotations.arguments.*;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
 import tech.sirwellington.alchemy.arguments.assertions.Assertions;
 import tech.sirwellington.alchemy.arguments.assertions.CollectionAssertions;
 
@@ -66,7 +73,8 @@ public final class Lists
     }
 
     /**
-     * Creates an {@link ArrayList}.
+     * Creates a {@link RingList}, which is also a {@link Deque}, and can add and remove elements
+     * at either end in constant time.
      *
      * @param <E>
      *
@@ -74,7 +82,7 @@ public final class Lists
      */
     public static <E> List<E> create()
     {
-        return new ArrayList<>();
+        return RingList.create();
     }
 
     public static <E> List<E> createFrom(@Required E first, @Optional E... rest)
@@ -83,7 +91,7 @@ public final class Lists
             .usingMessage("missing first value")
             .is(Assertions.<E>notNull());
 
-        List<E> list = Lists.create();
+        List<E> list = RingList.create(1 + (rest == null ? 0 : rest.length));
 
         list.add(first);
 
@@ -103,18 +111,51 @@ public final class Lists
      */
     public static <E> List<E> copy(@Optional Collection<E> collection)
     {
-        List<E> list = create();
         if (isEmpty(collection))
         {
-            return list;
+            return create();
         }
 
+        List<E> list = RingList.create(collection.size());
         list.addAll(collection);
         return list;
     }
 
     /**
-     * Creates a new Empty List that is immutable, so no new values
+     * Copies the collection in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     * @see #parallelCopy(Collection, ForkJoinPool)
+     */
+    public static <E> List<E> parallelCopy(@Optional Collection<E> collection)
+    {
+        return parallelCopy(collection, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a copy of the collection, like {@link #copy(Collection)}, with each of the threads of {@code pool}
+     * copying a range of its elements straight into the new list.
+     * <p>
+     * Only {@link RandomAccess} lists of at least 8192 elements are
+     * copied in parallel; anything else is copied on the calling thread.
+     *
+     * @param <E>
+     * @param collection
+     * @param pool       The pool to copy in.
+     * @return
+     * @throws IllegalArgumentException If {@code pool} is null.
+     */
+    public static <E> List<E> parallelCopy(@Optional Collection<E> collection, @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkPool(pool);
+
+        return isEmpty(collection) ? create() : BulkOperations.copy(collection, pool);
+    }
+
+    /**
+     * Returns the shared Empty List, which is immutable, so no new values
      * can be added to it.
      *
      * @param <E>
@@ -122,8 +163,38 @@ public final class Lists
      */
     public static <E> List<E> emptyList()
     {
-        List<E> list = create();
-        return Collections.unmodifiableList(list);
+        return ImmutableList.empty();
+    }
+
+    /**
+     * Creates an {@link OffHeapList}, which stores its elements outside of the Java heap,
+     * encoded with the specified {@link Codec}. The list must be {@linkplain OffHeapList#close() closed}
+     * to release its memory.
+     *
+     * @param <E>
+     * @param codec
+     * @return
+     * @see Codecs
+     */
+    @ThreadUnsafe
+    public static <E> OffHeapList<E> createOffHeap(@Required Codec<E> codec)
+    {
+        return createOffHeap(codec, DirectMemory.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an {@link OffHeapList} that allocates its memory {@code chunkSize} bytes at a time.
+     *
+     * @param <E>
+     * @param codec
+     * @param chunkSize Must be a power of two; no single element can be larger.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @ThreadUnsafe
+    public static <E> OffHeapList<E> createOffHeap(@Required Codec<E> codec, int chunkSize) throws IllegalArgumentException
+    {
+        return new OffHeapList<>(codec, chunkSize);
     }
 
     public static <E> List<E> toList(Collection<E> set)
@@ -133,17 +204,23 @@ public final class Lists
 
     public static <E> E oneOf(@NonEmpty List<E> list)
     {
-        checkListNotEmpty(list);
-
-        Random random = new Random();
-        int index = random.nextInt(list.size());
-
-        return list.get(index);
+        return Sampler.random().oneOf(list);
     }
 
     public static <E> List<E> combine(@Optional List<E> first, @Optional List<E>...additional)
     {
-        List<E> result = Lists.create();
+        long size = isEmpty(first) ? 0 : first.size();
+
+        if (additional != null)
+        {
+            for (List<E> list : additional)
+            {
+                size += isEmpty(list) ? 0 : list.size();
+            }
+        }
+
+        //Sized up front, so that the result never has to grow
+        List<E> result = new ArrayList<>((int) Math.min(size, Integer.MAX_VALUE));
 
         if (!isEmpty(first))
         {
@@ -164,19 +241,368 @@ public final class Lists
         return result;
     }
 
+    /**
+     * Combines the lists into a single read-only view, without copying any of their elements.
+     * Use this instead of {@link #combine(List, List...)} when the result is only read.
+     * <p>
+     * The lists must not be structurally modified while the view is in use.
+     *
+     * @param <E>
+     * @param first
+     * @param additional
+     * @return
+     * @see ConcatenatedList
+     */
+    @SafeVarargs
+    public static <E> ConcatenatedList<E> combineView(@Optional List<E> first, @Optional List<E>... additional)
+    {
+        List<List<E>> lists = new ArrayList<>(1 + (additional == null ? 0 : additional.length));
+        lists.add(first);
+
+        if (additional != null)
+        {
+            for (List<E> list : additional)
+            {
+                lists.add(list);
+            }
+        }
+
+        return ConcatenatedList.of(lists);
+    }
+
+    /**
+     * Combines the lists in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param <E>
+     * @param first
+     * @param additional
+     * @return
+     * @see #parallelCombine(Collection, ForkJoinPool)
+     */
+    public static <E> List<E> parallelCombine(@Optional List<E> first, @Optional List<E>... additional)
+    {
+        List<List<E>> lists = new ArrayList<>(1 + (additional == null ? 0 : additional.length));
+        lists.add(first);
+
+        if (additional != null)
+        {
+            lists.addAll(Arrays.asList(additional));
+        }
+
+        return parallelCombine(lists, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Combines the lists, in order, into a new list that is sized up front, like {@link #combine(List, List...)}.
+     * Each list is copied into its own slice of the result, and large {@link RandomAccess} lists are split further,
+     * across the threads of {@code pool}. Below 8192 elements in all,
+     * the lists are combined on the calling thread. {@code null} lists are skipped.
+     *
+     * @param <E>
+     * @param lists
+     * @param pool  The pool to combine in.
+     * @return
+     * @throws IllegalArgumentException If {@code lists} or {@code pool} is null, or the result would be too large
+     *                                  for a list.
+     */
+    public static <E> List<E> parallelCombine(@Required Collection<? extends List<E>> lists, @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkThat(lists)
+            .usingMessage("lists cannot be null")
+            .is(Assertions.notNull());
+        checkPool(pool);
+
+        return BulkOperations.combine(lists, pool);
+    }
+
+    /**
+     * Finds the distinct elements of the collection in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     * @see #parallelDistinct(Collection, ForkJoinPool)
+     */
+    public static <E> List<E> parallelDistinct(@Optional Collection<E> collection)
+    {
+        return parallelDistinct(collection, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Copies the distinct elements of the collection, by {@link Object#equals(Object) equals()}, into a new list,
+     * in the order they first appear. The threads of {@code pool} record the first position of each element in a
+     * shared {@link java.util.concurrent.ConcurrentHashMap}, and the elements at those positions are kept.
+     * Below 8192 elements, duplicates are removed on the calling thread.
+     *
+     * @param <E>
+     * @param collection
+     * @param pool       The pool to search in.
+     * @return
+     * @throws IllegalArgumentException If {@code pool} is null.
+     * @see sir.wellington.alchemy.collections.sets.Sets#parallelCopyOf(Collection, ForkJoinPool)
+     */
+    public static <E> List<E> parallelDistinct(@Optional Collection<E> collection, @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkPool(pool);
+
+        return isEmpty(collection) ? create() : BulkOperations.distinct(collection, pool);
+    }
+
+    /**
+     * Sorts the list in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param <E>
+     * @param list
+     * @param comparator
+     * @throws IllegalArgumentException
+     * @see #parallelSort(List, Comparator, ForkJoinPool)
+     */
+    public static <E> void parallelSort(@Required List<E> list, @Optional Comparator<? super E> comparator) throws IllegalArgumentException
+    {
+        parallelSort(list, comparator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts the list in place, like {@link List#sort(Comparator)}, with a merge sort that splits both the sorting and
+     * the merging across the threads of {@code pool}. The sort is stable. Unlike
+     * {@link Arrays#parallelSort(Object[], Comparator)}, it runs in the pool given, rather than always the common pool.
+     * Below 8192 elements, the list is sorted on the calling thread.
+     *
+     * @param <E>
+     * @param list
+     * @param comparator Compares the elements; if {@code null}, they are sorted by their natural order.
+     * @param pool       The pool to sort in.
+     * @throws IllegalArgumentException If {@code list} or {@code pool} is null.
+     */
+    public static <E> void parallelSort(@Required List<E> list,
+                                        @Optional Comparator<? super E> comparator,
+                                        @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkThat(list)
+            .usingMessage("list cannot be null")
+            .is(Assertions.notNull());
+        checkPool(pool);
+
+        BulkOperations.sort(list, comparator, pool);
+    }
+
+    /**
+     * Splits the list into consecutive sublists of {@code size} elements each, and the last of whatever remains.
+     * <p>
+     * The partition is a lazy view: each sublist is a {@linkplain List#subList(int, int) view} of {@code list},
+     * made only when it is asked for, so no element is copied. Like any sublist, the views must not be used after
+     * the list is structurally modified, except through them. The partition is {@link RandomAccess} when the list is.
+     * <pre>
+     * for (List&lt;Row&gt; batch : Lists.partition(rows, 500))
+     * {
+     *     database.insert(batch);
+     * }
+     * </pre>
+     *
+     * @param <E>
+     * @param list
+     * @param size The number of elements in each sublist; must be positive.
+     * @return
+     * @throws IllegalArgumentException If {@code size} is not positive.
+     * @see #chunk(Iterator, int)
+     */
+    public static <E> List<List<E>> partition(@Optional List<E> list, int size) throws IllegalArgumentException
+    {
+        checkBatchSize(size);
+
+        return Batching.partition(nullToEmpty(list), size);
+    }
+
+    /**
+     * Reads the elements into batches of {@code size}, one batch at a time, as each is asked for.
+     * Unlike {@link #partition(List, int)}, this works on inputs that are too large to hold in memory, since
+     * only the batch being returned is held; the iterator is read no further ahead than that.
+     * Each batch is a new, mutable list.
+     *
+     * @param <E>
+     * @param elements
+     * @param size     The most elements in each batch; must be positive.
+     * @return
+     * @throws IllegalArgumentException If {@code elements} is null, or {@code size} is not positive.
+     */
+    public static <E> Iterator<List<E>> chunk(@Required Iterator<E> elements, int size) throws IllegalArgumentException
+    {
+        checkThat(elements)
+            .usingMessage("elements cannot be null")
+            .is(Assertions.notNull());
+        checkBatchSize(size);
+
+        return Batching.chunk(elements, size, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Like {@link #chunk(Iterator, int)}, for a stream. The stream is read lazily, as batches are consumed,
+     * and closing the returned stream closes {@code elements}.
+     *
+     * @param <E>
+     * @param elements
+     * @param size     The most elements in each batch; must be positive.
+     * @return
+     * @throws IllegalArgumentException If {@code elements} is null, or {@code size} is not positive.
+     */
+    public static <E> Stream<List<E>> chunk(@Required Stream<E> elements, int size) throws IllegalArgumentException
+    {
+        checkThat(elements)
+            .usingMessage("elements cannot be null")
+            .is(Assertions.notNull());
+        checkBatchSize(size);
+
+        return Batching.chunk(elements, size, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Reads the elements into batches whose total weight, such as their size in bytes, is at most {@code maxWeight}.
+     *
+     * @param <E>
+     * @param elements
+     * @param maxWeight
+     * @param weigher
+     * @return
+     * @throws IllegalArgumentException
+     * @see #chunkByWeight(Iterator, int, long, ToLongFunction)
+     */
+    public static <E> Iterator<List<E>> chunkByWeight(@Required Iterator<E> elements,
+                                                      long maxWeight,
+                                                      @Required ToLongFunction<? super E> weigher) throws IllegalArgumentException
+    {
+        return chunkByWeight(elements, Integer.MAX_VALUE, maxWeight, weigher);
+    }
+
+    /**
+     * Reads the elements into batches, one batch at a time, like {@link #chunk(Iterator, int)}, ending each batch
+     * before it would hold more than {@code maxSize} elements, or weigh more than {@code maxWeight} in all.
+     * This suits requests that are limited both in the number of items and in bytes.
+     * <p>
+     * The element that would take a batch over its weight starts the next batch instead, so at most one element
+     * beyond the current batch is read ahead. An element that alone weighs more than {@code maxWeight}
+     * is returned in a batch of its own.
+     *
+     * @param <E>
+     * @param elements
+     * @param maxSize   The most elements in each batch; must be positive.
+     * @param maxWeight The most that the elements of each batch can weigh together; must be positive.
+     * @param weigher   Weighs each element, once. Weights cannot be negative.
+     * @return
+     * @throws IllegalArgumentException If an argument is invalid. The returned iterator throws it too, if
+     *                                  {@code weigher} returns a negative weight.
+     */
+    public static <E> Iterator<List<E>> chunkByWeight(@Required Iterator<E> elements,
+                                                      int maxSize,
+                                                      long maxWeight,
+                                                      @Required ToLongFunction<? super E> weigher) throws IllegalArgumentException
+    {
+        checkThat(elements)
+            .usingMessage("elements cannot be null")
+            .is(Assertions.notNull());
+        checkWeightArguments(maxSize, maxWeight, weigher);
+
+        return Batching.chunk(elements, maxSize, maxWeight, weigher);
+    }
+
+    /**
+     * Like {@link #chunkByWeight(Iterator, long, ToLongFunction)}, for a stream.
+     *
+     * @param <E>
+     * @param elements
+     * @param maxWeight
+     * @param weigher
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> Stream<List<E>> chunkByWeight(@Required Stream<E> elements,
+                                                    long maxWeight,
+                                                    @Required ToLongFunction<? super E> weigher) throws IllegalArgumentException
+    {
+        return chunkByWeight(elements, Integer.MAX_VALUE, maxWeight, weigher);
+    }
+
+    /**
+     * Like {@link #chunkByWeight(Iterator, int, long, ToLongFunction)}, for a stream. The stream is read lazily,
+     * as batches are consumed, and closing the returned stream closes {@code elements}.
+     *
+     * @param <E>
+     * @param elements
+     * @param maxSize
+     * @param maxWeight
+     * @param weigher
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> Stream<List<E>> chunkByWeight(@Required Stream<E> elements,
+                                                    int maxSize,
+                                                    long maxWeight,
+                                                    @Required ToLongFunction<? super E> weigher) throws IllegalArgumentException
+    {
+        checkThat(elements)
+            .usingMessage("elements cannot be null")
+            .is(Assertions.notNull());
+        checkWeightArguments(maxSize, maxWeight, weigher);
+
+        return Batching.chunk(elements, maxSize, maxWeight, weigher);
+    }
+
+    private static void checkBatchSize(int size)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("batch size must be positive: " + size);
+        }
+    }
+
+    private static void checkWeightArguments(int maxSize, long maxWeight, ToLongFunction<?> weigher)
+    {
+        checkBatchSize(maxSize);
+
+        if (maxWeight <= 0)
+        {
+            throw new IllegalArgumentException("max weight must be positive: " + maxWeight);
+        }
+
+        checkThat(weigher)
+            .usingMessage("weigher cannot be null")
+            .is(Assertions.notNull());
+    }
+
+    private static void checkPool(ForkJoinPool pool)
+    {
+        checkThat(pool)
+            .usingMessage("pool cannot be null")
+            .is(Assertions.notNull());
+    }
+
     public static <E> List<E> nullToEmpty(@Optional List<E> list)
     {
         return list == null ? Lists.<E>emptyList() : list;
     }
 
+    /**
+     * Copies the list into an {@link ImmutableList}, which later changes to {@code list} do not affect.
+     *
+     * @param <E>
+     * @param list
+     * @return
+     */
     public static <E> List<E> immutableCopyOf(@Optional List<E> list)
     {
-        if (isEmpty(list))
-        {
-            return emptyList();
-        }
+        return ImmutableList.copyOf(list);
+    }
 
-        return Collections.unmodifiableList(list);
+    /**
+     * Copies the collection into a {@link PersistentVector}, whose updates return new versions that share most of
+     * their structure, instead of copying every element.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     */
+    public static <E> PersistentVector<E> persistentCopyOf(@Optional Collection<E> collection)
+    {
+        return PersistentVector.copyOf(collection);
     }
 
     /**
@@ -213,6 +639,7 @@ public final class Lists
 
     /**
      * Removes and retrieves the first element in the list.
+     * This takes constant time when the list is also a {@link Deque}, like those from {@link #create()}.
      *
      * @param <E>
      * @param list Cannot be null or empty.
@@ -223,6 +650,11 @@ public final class Lists
     {
         checkListNotEmpty(list);
 
+        if (list instanceof Deque)
+        {
+            return ((Deque<E>) list).removeFirst();
+        }
+
         return list.remove(0);
     }
 
@@ -238,6 +670,11 @@ public final class Lists
     {
         checkListNotEmpty(list);
 
+        if (list instanceof Deque)
+        {
+            return ((Deque<E>) list).removeLast();
+        }
+
         int lastIndex = list.size() - 1;
         return list.remove(lastIndex);
     }
@@ -0,0 +1,270 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import sir.wellington.alchemy.collections.codecs.Codec;
+import sir.wellington.alchemy.collections.codecs.DirectMemory;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A {@link java.util.List List} whose elements are encoded with a {@link Codec} and stored outside of the Java heap,
+ * so that they add nothing to the work of the garbage collector.
+ * <p>
+ * Elements with a {@linkplain Codec#fixedSize() fixed size} are laid out back to back, so the list
+ * costs nothing beyond the encoded elements. Variable-sized elements are stored with their length, and an
+ * off-heap index of 8 bytes per element records where each one starts.
+ * <p>
+ * Every {@link #get(int)} decodes a new copy of the element. Elements can be {@linkplain #add(Object) appended}
+ * and {@linkplain #set(int, Object) replaced}, and the list can be {@linkplain #clear() cleared}, but not otherwise
+ * removed from. Replacing a variable-sized element with a larger one leaves the old bytes unused until the list is cleared.
+ * <p>
+ * The memory is held until the list is {@linkplain #close() closed}, after which any access to the elements
+ * throws an {@link IllegalStateException}.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Lists#createOffHeap(Codec)
+ */
+@ThreadUnsafe
+public final class OffHeapList<E> extends AbstractList<E> implements RandomAccess, AutoCloseable
+{
+
+    /**
+     * The length that precedes each variable-sized element.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES;
+
+    private final Codec<E> codec;
+    private final DirectMemory data;
+
+    /**
+     * The position of each variable-sized element in {@link #data}; {@code null} when the elements have a fixed size.
+     */
+    private final DirectMemory index;
+
+    private final int fixedSize;
+    private final int elementsPerChunk;
+
+    private int size = 0;
+
+    OffHeapList(Codec<E> codec, int chunkSize)
+    {
+        checkThat(codec).usingMessage("codec cannot be null").is(notNull());
+
+        this.codec = codec;
+        this.data = new DirectMemory(chunkSize);
+        this.fixedSize = codec.fixedSize();
+
+        if (fixedSize == Codec.VARIABLE_SIZE)
+        {
+            this.index = new DirectMemory(chunkSize);
+            this.elementsPerChunk = 0;
+        }
+        else if (fixedSize > 0 && fixedSize <= chunkSize)
+        {
+            this.index = null;
+            this.elementsPerChunk = chunkSize / fixedSize;
+        }
+        else
+        {
+            data.close();
+            throw new IllegalArgumentException("codec size must be positive, and fit within a chunk: " + fixedSize);
+        }
+    }
+
+    @Override
+    public E get(int index)
+    {
+        checkIndex(index);
+
+        long position = positionOf(index);
+        ByteBuffer chunk = data.chunkAt(position);
+        int offset = data.offsetOf(position);
+
+        if (isFixedSize())
+        {
+            return codec.read(chunk, offset, fixedSize);
+        }
+
+        return codec.read(chunk, offset + HEADER_SIZE, chunk.getInt(offset));
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean add(E element)
+    {
+        checkElement(element);
+
+        if (isFixedSize())
+        {
+            long position = positionOf(size);
+            data.ensureCapacity(position + fixedSize);
+            codec.write(element, data.chunkAt(position), data.offsetOf(position));
+        }
+        else
+        {
+            long position = writeRecord(element);
+            index.putLong(index.allocate(Long.BYTES), position);
+        }
+
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public E set(int index, E element)
+    {
+        checkIndex(index);
+        checkElement(element);
+
+        E previous = get(index);
+        long position = positionOf(index);
+
+        if (isFixedSize())
+        {
+            codec.write(element, data.chunkAt(position), data.offsetOf(position));
+            return previous;
+        }
+
+        ByteBuffer chunk = data.chunkAt(position);
+        int offset = data.offsetOf(position);
+        int elementSize = codec.sizeOf(element);
+
+        //Overwrite in place when the new element fits; otherwise it goes at the end
+        if (elementSize <= chunk.getInt(offset))
+        {
+            chunk.putInt(offset, elementSize);
+            codec.write(element, chunk, offset + HEADER_SIZE);
+        }
+        else
+        {
+            this.index.putLong((long) index * Long.BYTES, writeRecord(element));
+        }
+
+        return previous;
+    }
+
+    /**
+     * Removes every element, keeping a single chunk of memory for reuse.
+     */
+    @Override
+    public void clear()
+    {
+        data.clear();
+
+        if (index != null)
+        {
+            index.clear();
+        }
+
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @return The number of bytes reserved off-heap for this list.
+     */
+    public long offHeapBytes()
+    {
+        return data.capacity() + (index == null ? 0 : index.capacity());
+    }
+
+    public boolean isClosed()
+    {
+        return data.isClosed();
+    }
+
+    /**
+     * Releases the off-heap memory. The list cannot be used afterwards.
+     */
+    @Override
+    public void close()
+    {
+        data.close();
+
+        if (index != null)
+        {
+            index.close();
+        }
+    }
+
+    private boolean isFixedSize()
+    {
+        return index == null;
+    }
+
+    private long positionOf(int index)
+    {
+        if (isFixedSize())
+        {
+            long chunk = index / elementsPerChunk;
+            return chunk * data.chunkSize() + (long) (index % elementsPerChunk) * fixedSize;
+        }
+
+        return this.index.getLong((long) index * Long.BYTES);
+    }
+
+    /**
+     * Writes a variable-sized element, preceded by its length.
+     */
+    private long writeRecord(E element)
+    {
+        int elementSize = codec.sizeOf(element);
+
+        if (elementSize > data.chunkSize() - HEADER_SIZE)
+        {
+            throw new IllegalArgumentException("element of " + elementSize + " bytes does not fit in chunks of " + data.chunkSize());
+        }
+
+        long position = data.allocate(HEADER_SIZE + elementSize);
+        ByteBuffer chunk = data.chunkAt(position);
+        int offset = data.offsetOf(position);
+
+        chunk.putInt(offset, elementSize);
+        codec.write(element, chunk, offset + HEADER_SIZE);
+
+        return position;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private static void checkElement(Object element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("off-heap lists cannot store null elements");
+        }
+    }
+}
@@ -0,0 +1,742 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * An immutable {@link List} whose updates return a new version, sharing all but {@code O(log32 n)} of its structure
+ * with the old one.
+ * <p>
+ * The elements live in a radix-balanced trie: every node holds 32 children, and the index of an element, 5 bits at a
+ * time, is the path to it. The last 1 to 32 elements are kept apart, in a tail, so that {@link #plus(Object) appending}
+ * and {@link #minusLast() removing from the end} usually copy just the tail. {@link #with(int, Object) Replacing} an element
+ * copies the nodes on its path.
+ * <p>
+ * Many updates in a row are cheaper through a {@link Transient}, which changes the nodes it has already copied in place.
+ * <p>
+ * {@code null} elements are allowed. The {@link List} methods that would change the list throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Lists#persistentCopyOf(Collection)
+ */
+@Immutable
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess
+{
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+
+    private static final PersistentVector<Object> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+
+    /**
+     * How far to shift an index for the child of the root; {@link #BITS} times the depth of the trie.
+     */
+    private final int shift;
+
+    private final Node root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Node root, Object[] tail)
+    {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * @param <E>
+     * @return The shared empty vector.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty()
+    {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Copies the elements of the collection, in order. Copying a {@code PersistentVector} returns it as-is.
+     *
+     * @param <E>
+     * @param collection A {@code null} collection is treated as empty.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> copyOf(@Optional Collection<? extends E> collection)
+    {
+        if (collection instanceof PersistentVector)
+        {
+            return (PersistentVector<E>) collection;
+        }
+
+        if (collection == null || collection.isEmpty())
+        {
+            return empty();
+        }
+
+        return PersistentVector.<E>empty().asTransient().addAll(collection).persistent();
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> PersistentVector<E> of(@Optional E... elements)
+    {
+        return elements == null ? empty() : copyOf(Arrays.asList(elements));
+    }
+
+    //==============================================================
+    // Reads
+    //==============================================================
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index)
+    {
+        checkIndex(index, size);
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Iterates a block of 32 elements at a time, rather than walking down the trie for each one.
+     */
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>()
+        {
+            private int index = 0;
+            private Object[] block = size == 0 ? null : arrayFor(0);
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next()
+            {
+                if (index >= size)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                if (index > 0 && (index & MASK) == 0)
+                {
+                    block = arrayFor(index);
+                }
+
+                return (E) block[index++ & MASK];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action)
+    {
+        Objects.requireNonNull(action);
+
+        for (int start = 0; start < size; start += WIDTH)
+        {
+            Object[] block = arrayFor(start);
+            int end = Math.min(WIDTH, size - start);
+
+            for (int i = 0; i < end; i++)
+            {
+                action.accept((E) block[i]);
+            }
+        }
+    }
+
+    //==============================================================
+    // Versions
+    //==============================================================
+
+    /**
+     * @param element
+     * @return A version of this vector with {@code element} appended.
+     */
+    public PersistentVector<E> plus(@Optional E element)
+    {
+        if (size - tailOffset(size) < WIDTH)
+        {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        Node tailNode = new Node(null, tail);
+        int newShift = shift;
+        Node newRoot;
+
+        if (rootIsFull(size, shift))
+        {
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(null, shift, tailNode);
+            newShift += BITS;
+        }
+        else
+        {
+            newRoot = pushTail(null, size, shift, root, tailNode);
+        }
+
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] { element });
+    }
+
+    /**
+     * @param collection
+     * @return A version of this vector with the elements of {@code collection} appended, in order.
+     */
+    public PersistentVector<E> plusAll(@Required Collection<? extends E> collection)
+    {
+        checkThat(collection).usingMessage("collection cannot be null").is(notNull());
+
+        if (collection.isEmpty())
+        {
+            return this;
+        }
+
+        return asTransient().addAll(collection).persistent();
+    }
+
+    /**
+     * @param index
+     * @param element
+     * @return A version of this vector with the element at {@code index} replaced by {@code element}.
+     * @throws IndexOutOfBoundsException
+     */
+    public PersistentVector<E> with(int index, @Optional E element) throws IndexOutOfBoundsException
+    {
+        checkIndex(index, size);
+
+        if (index >= tailOffset(size))
+        {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+
+        return new PersistentVector<>(size, shift, replace(null, shift, root, index, element), tail);
+    }
+
+    /**
+     * @return A version of this vector without its last element.
+     * @throws NoSuchElementException If the vector is empty.
+     */
+    public PersistentVector<E> minusLast() throws NoSuchElementException
+    {
+        if (size == 0)
+        {
+            throw new NoSuchElementException("vector is empty");
+        }
+
+        if (size == 1)
+        {
+            return empty();
+        }
+
+        if (size - tailOffset(size) > 1)
+        {
+            return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+
+        Object[] newTail = arrayFor(size - 2);
+        Node newRoot = popTail(null, size, shift, root);
+        int newShift = shift;
+
+        if (newRoot == null)
+        {
+            newRoot = EMPTY_NODE;
+        }
+
+        if (shift > BITS && newRoot.array[1] == null)
+        {
+            newRoot = (Node) newRoot.array[0];
+            newShift -= BITS;
+        }
+
+        return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Starts a batch of updates, based on this vector, which remains as it is.
+     *
+     * @return
+     */
+    public Transient<E> asTransient()
+    {
+        return new Transient<>(this);
+    }
+
+    /**
+     * A mutable version of a {@link PersistentVector}, for making many updates in a row.
+     * <p>
+     * The first update to a node copies it, and marks the copy as owned by this transient; later updates to that node
+     * change it in place. {@link #persistent()} ends the batch, returning the result as a new vector, and any further use
+     * of the transient throws an {@link IllegalStateException}.
+     *
+     * @param <E>
+     */
+    @ThreadUnsafe
+    public static final class Transient<E>
+    {
+
+        /**
+         * Marks the nodes this transient owns; {@code null} once it has been made persistent.
+         */
+        private Object owner = new Object();
+
+        private int size;
+        private int shift;
+        private Node root;
+
+        /**
+         * Always 32 long, so that elements are appended in place.
+         */
+        private Object[] tail;
+
+        private Transient(PersistentVector<E> vector)
+        {
+            this.size = vector.size;
+            this.shift = vector.shift;
+            this.root = new Node(owner, vector.root.array.clone());
+            this.tail = Arrays.copyOf(vector.tail, WIDTH);
+        }
+
+        public Transient<E> add(@Optional E element)
+        {
+            checkOwned();
+
+            if (size - tailOffset(size) < WIDTH)
+            {
+                tail[size & MASK] = element;
+                size++;
+                return this;
+            }
+
+            Node tailNode = new Node(owner, tail);
+            tail = new Object[WIDTH];
+            tail[0] = element;
+
+            if (rootIsFull(size, shift))
+            {
+                Node newRoot = new Node(owner, new Object[WIDTH]);
+                newRoot.array[0] = root;
+                newRoot.array[1] = newPath(owner, shift, tailNode);
+                root = newRoot;
+                shift += BITS;
+            }
+            else
+            {
+                root = pushTail(owner, size, shift, root, tailNode);
+            }
+
+            size++;
+            return this;
+        }
+
+        public Transient<E> addAll(@Required Collection<? extends E> collection)
+        {
+            checkThat(collection).usingMessage("collection cannot be null").is(notNull());
+
+            for (E element : collection)
+            {
+                add(element);
+            }
+
+            return this;
+        }
+
+        public Transient<E> set(int index, @Optional E element) throws IndexOutOfBoundsException
+        {
+            checkOwned();
+            checkIndex(index, size);
+
+            if (index >= tailOffset(size))
+            {
+                tail[index & MASK] = element;
+            }
+            else
+            {
+                root = replace(owner, shift, root, index, element);
+            }
+
+            return this;
+        }
+
+        public Transient<E> removeLast() throws NoSuchElementException
+        {
+            checkOwned();
+
+            if (size == 0)
+            {
+                throw new NoSuchElementException("vector is empty");
+            }
+
+            if (size == 1 || size - tailOffset(size) > 1)
+            {
+                size--;
+                tail[size & MASK] = null;
+                return this;
+            }
+
+            Object[] newTail = arrayFor(size - 2).clone();
+            Node newRoot = popTail(owner, size, shift, root);
+
+            if (newRoot == null)
+            {
+                newRoot = new Node(owner, new Object[WIDTH]);
+            }
+
+            if (shift > BITS && newRoot.array[1] == null)
+            {
+                newRoot = editable(owner, (Node) newRoot.array[0]);
+                shift -= BITS;
+            }
+
+            root = newRoot;
+            tail = newTail;
+            size--;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(int index) throws IndexOutOfBoundsException
+        {
+            checkOwned();
+            checkIndex(index, size);
+
+            return (E) arrayFor(index)[index & MASK];
+        }
+
+        public int size()
+        {
+            checkOwned();
+            return size;
+        }
+
+        /**
+         * Ends the batch of updates.
+         *
+         * @return A vector with every update made so far.
+         * @throws IllegalStateException If the transient has already been made persistent.
+         */
+        public PersistentVector<E> persistent() throws IllegalStateException
+        {
+            checkOwned();
+            owner = null;
+
+            if (size == 0)
+            {
+                return empty();
+            }
+
+            Object[] trimmed = Arrays.copyOf(tail, size - tailOffset(size));
+            return new PersistentVector<>(size, shift, root, trimmed);
+        }
+
+        private Object[] arrayFor(int index)
+        {
+            return index >= tailOffset(size) ? tail : leafFor(root, shift, index);
+        }
+
+        private void checkOwned()
+        {
+            if (owner == null)
+            {
+                throw new IllegalStateException("transient has already been made persistent");
+            }
+        }
+    }
+
+    //==============================================================
+    // Trie
+    //==============================================================
+
+    private static final class Node
+    {
+
+        /**
+         * The {@link Transient} that may change this node in place, if any.
+         */
+        private final Object owner;
+
+        private final Object[] array;
+
+        private Node(Object owner, Object[] array)
+        {
+            this.owner = owner;
+            this.array = array;
+        }
+    }
+
+    /**
+     * @return The index of the first element in the tail, of a vector of {@code size} elements.
+     */
+    private static int tailOffset(int size)
+    {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * @return Whether the trie has no room for another block of 32 elements, without growing a level.
+     */
+    private static boolean rootIsFull(int size, int shift)
+    {
+        return (size >>> BITS) > (1 << shift);
+    }
+
+    private Object[] arrayFor(int index)
+    {
+        return index >= tailOffset(size) ? tail : leafFor(root, shift, index);
+    }
+
+    private static Object[] leafFor(Node root, int shift, int index)
+    {
+        Node node = root;
+
+        for (int level = shift; level > 0; level -= BITS)
+        {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+
+        return node.array;
+    }
+
+    /**
+     * @return The node itself, if {@code owner} may change it in place; otherwise a copy that {@code owner} may change.
+     */
+    private static Node editable(Object owner, Node node)
+    {
+        return owner != null && node.owner == owner ? node : new Node(owner, node.array.clone());
+    }
+
+    /**
+     * Adds the full tail of a vector of {@code size} elements to the trie, as its last block.
+     */
+    private static Node pushTail(Object owner, int size, int level, Node parent, Node tailNode)
+    {
+        int childIndex = ((size - 1) >>> level) & MASK;
+        Node result = editable(owner, parent);
+        Node child;
+
+        if (level == BITS)
+        {
+            child = tailNode;
+        }
+        else
+        {
+            Node existing = (Node) parent.array[childIndex];
+            child = existing == null ? newPath(owner, level - BITS, tailNode) : pushTail(owner, size, level - BITS, existing, tailNode);
+        }
+
+        result.array[childIndex] = child;
+        return result;
+    }
+
+    /**
+     * @return A chain of nodes down to {@code node}, {@code level} bits deep.
+     */
+    private static Node newPath(Object owner, int level, Node node)
+    {
+        if (level == 0)
+        {
+            return node;
+        }
+
+        Node result = new Node(owner, new Object[WIDTH]);
+        result.array[0] = newPath(owner, level - BITS, node);
+        return result;
+    }
+
+    private static Node replace(Object owner, int level, Node node, int index, Object element)
+    {
+        Node result = editable(owner, node);
+
+        if (level == 0)
+        {
+            result.array[index & MASK] = element;
+        }
+        else
+        {
+            int childIndex = (index >>> level) & MASK;
+            result.array[childIndex] = replace(owner, level - BITS, (Node) node.array[childIndex], index, element);
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the last block from the trie of a vector of {@code size} elements, whose tail holds a single element.
+     *
+     * @return The node without the block, or {@code null} if it would be empty.
+     */
+    private static Node popTail(Object owner, int size, int level, Node node)
+    {
+        int childIndex = ((size - 2) >>> level) & MASK;
+
+        if (level > BITS)
+        {
+            Node child = popTail(owner, size, level - BITS, (Node) node.array[childIndex]);
+
+            if (child == null && childIndex == 0)
+            {
+                return null;
+            }
+
+            Node result = editable(owner, node);
+            result.array[childIndex] = child;
+            return result;
+        }
+
+        if (childIndex == 0)
+        {
+            return null;
+        }
+
+        Node result = editable(owner, node);
+        result.array[childIndex] = null;
+        return result;
+    }
+
+    private static void checkIndex(int index, int size)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public E set(int index, E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean add(E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(int index, E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public E remove(int index)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object object)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<E> operator)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void sort(Comparator<? super E> comparator)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("PersistentVectors cannot be modified; use plus() and with() for new versions");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+/**
+ * The random numbers behind the samplers, so that they can run on the {@link ThreadLocalRandom}
+ * or on a seeded {@link SplittableRandom} alike.
+ *
+ * @author SirWellington
+ */
+@Internal
+interface RandomSource
+{
+
+    /**
+     * @param bound Must be positive.
+     * @return A value between 0 (inclusive) and {@code bound} (exclusive).
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return A value between 0 (inclusive) and 1 (exclusive).
+     */
+    double nextDouble();
+
+    /**
+     * Uses the {@link ThreadLocalRandom} of whichever thread is calling, so it never contends and never allocates.
+     */
+    @ThreadSafe
+    RandomSource THREAD_LOCAL = new RandomSource()
+    {
+        @Override
+        public int nextInt(int bound)
+        {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+
+        @Override
+        public double nextDouble()
+        {
+            return ThreadLocalRandom.current().nextDouble();
+        }
+    };
+
+    /**
+     * Creates a source that always produces the same sequence for the same {@code seed}.
+     */
+    @ThreadUnsafe
+    static RandomSource seeded(long seed)
+    {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        return new RandomSource()
+        {
+            @Override
+            public int nextInt(int bound)
+            {
+                return random.nextInt(bound);
+            }
+
+            @Override
+            public double nextDouble()
+            {
+                return random.nextDouble();
+            }
+        };
+    }
+}
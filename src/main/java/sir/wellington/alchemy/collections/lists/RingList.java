@@ -0,0 +1,720 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.lists;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThanOrEqualTo;
+
+/**
+ * A {@link List} and {@link Deque} backed by a circular array.
+ * <p>
+ * Elements can be added and removed at either end in constant time, and read or replaced by index in constant time,
+ * so the list can be drained from the front, like a queue, without shifting the elements that remain.
+ * Adding or removing in the middle shifts whichever side of the index is shorter.
+ * <p>
+ * Unlike {@link ArrayDeque}, the list accepts {@code null} elements. As with {@link LinkedList}, this means that
+ * {@link #pollFirst()} and {@link #peekFirst()}, and their variants, also return {@code null} when the list is empty.
+ * <p>
+ * The list is {@link Serializable} and {@link Cloneable}; both write only its elements, in order, so a copy starts
+ * again from the beginning of an array just large enough for them.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Lists#create()
+ */
+@ThreadUnsafe
+public final class RingList<E> extends AbstractList<E> implements Deque<E>, RandomAccess, Cloneable, Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Object[] EMPTY = {};
+
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The capacity is always a power of two, so that wrapping an index around is a mask.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private transient Object[] elements;
+
+    /**
+     * The position of the first element in {@link #elements}.
+     */
+    private transient int head = 0;
+    private int size = 0;
+
+    RingList(int initialCapacity)
+    {
+        this.elements = initialCapacity == 0 ? EMPTY : new Object[capacityFor(initialCapacity)];
+    }
+
+    /**
+     * Creates an empty {@link RingList}.
+     *
+     * @param <E>
+     * @return
+     */
+    public static <E> RingList<E> create()
+    {
+        return new RingList<>(0);
+    }
+
+    /**
+     * Creates an empty {@link RingList} with room for {@code initialCapacity} elements before it needs to grow.
+     *
+     * @param <E>
+     * @param initialCapacity Must be {@code >= 0}.
+     * @return
+     * @throws IllegalArgumentException If {@code initialCapacity} is negative.
+     */
+    public static <E> RingList<E> create(int initialCapacity) throws IllegalArgumentException
+    {
+        checkThat(initialCapacity)
+            .usingMessage("initial capacity cannot be negative")
+            .is(greaterThanOrEqualTo(0));
+
+        return new RingList<>(initialCapacity);
+    }
+
+    /**
+     * Creates a list of {@code size} elements, which {@code fill} writes straight into its array, from index 0.
+     * Lets the bulk operations of {@link Lists} fill a list from several threads, without copying it afterwards.
+     */
+    static <E> RingList<E> filledBy(int size, Consumer<Object[]> fill)
+    {
+        RingList<E> list = new RingList<>(size);
+        fill.accept(list.elements);
+        list.size = size;
+        return list;
+    }
+
+    //==============================================================
+    // List
+    //==============================================================
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public E get(int index)
+    {
+        checkIndex(index);
+        return elementAt(index);
+    }
+
+    @Override
+    public E set(int index, E element)
+    {
+        checkIndex(index);
+
+        int position = positionOf(index);
+        E previous = cast(elements[position]);
+        elements[position] = element;
+
+        return previous;
+    }
+
+    @Override
+    public boolean add(E element)
+    {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element)
+    {
+        checkPositionIndex(index);
+
+        if (index == size)
+        {
+            addLast(element);
+            return;
+        }
+
+        if (index == 0)
+        {
+            addFirst(element);
+            return;
+        }
+
+        ensureCapacity(size + 1);
+
+        if (index < size / 2)
+        {
+            //Shift the front back by one
+            head = (head - 1) & mask();
+
+            for (int i = 0; i < index; i++)
+            {
+                elements[positionOf(i)] = elements[positionOf(i + 1)];
+            }
+        }
+        else
+        {
+            //Shift the back forward by one
+            for (int i = size; i > index; i--)
+            {
+                elements[positionOf(i)] = elements[positionOf(i - 1)];
+            }
+        }
+
+        elements[positionOf(index)] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index)
+    {
+        checkIndex(index);
+
+        if (index == 0)
+        {
+            return removeFirst();
+        }
+
+        if (index == size - 1)
+        {
+            return removeLast();
+        }
+
+        E removed = elementAt(index);
+
+        if (index < size / 2)
+        {
+            for (int i = index; i > 0; i--)
+            {
+                elements[positionOf(i)] = elements[positionOf(i - 1)];
+            }
+
+            elements[head] = null;
+            head = (head + 1) & mask();
+        }
+        else
+        {
+            for (int i = index; i < size - 1; i++)
+            {
+                elements[positionOf(i)] = elements[positionOf(i + 1)];
+            }
+
+            elements[positionOf(size - 1)] = null;
+        }
+
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object object)
+    {
+        return removeFirstOccurrence(object);
+    }
+
+    @Override
+    public int indexOf(Object object)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (Objects.equals(object, elementAt(i)))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object object)
+    {
+        for (int i = size - 1; i >= 0; i--)
+        {
+            if (Objects.equals(object, elementAt(i)))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return indexOf(object) >= 0;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            elements[positionOf(i)] = null;
+        }
+
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex)
+    {
+        int removed = toIndex - fromIndex;
+
+        if (removed <= 0)
+        {
+            return;
+        }
+
+        if (fromIndex < size - toIndex)
+        {
+            //Fewer elements come before the range, so move those forward
+            for (int i = fromIndex - 1; i >= 0; i--)
+            {
+                elements[positionOf(i + removed)] = elements[positionOf(i)];
+            }
+
+            for (int i = 0; i < removed; i++)
+            {
+                elements[positionOf(i)] = null;
+            }
+
+            head = (head + removed) & mask();
+        }
+        else
+        {
+            for (int i = toIndex; i < size; i++)
+            {
+                elements[positionOf(i - removed)] = elements[positionOf(i)];
+            }
+
+            for (int i = size - removed; i < size; i++)
+            {
+                elements[positionOf(i)] = null;
+            }
+        }
+
+        size -= removed;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray()
+    {
+        return toArray(new Object[size]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] array)
+    {
+        T[] result = array.length >= size ? array : (T[]) java.lang.reflect.Array.newInstance(array.getClass().getComponentType(), size);
+
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, result, 0, firstPart);
+        System.arraycopy(elements, 0, result, firstPart, size - firstPart);
+
+        if (result.length > size)
+        {
+            result[size] = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Makes sure this list can hold at least {@code minCapacity} elements without growing again.
+     *
+     * @param minCapacity
+     */
+    public void ensureCapacity(int minCapacity)
+    {
+        if (minCapacity > elements.length)
+        {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Copies this list into a new array, just large enough for its elements. The elements themselves are not copied.
+     *
+     * @return
+     */
+    @Override
+    public RingList<E> clone()
+    {
+        try
+        {
+            @SuppressWarnings("unchecked")
+            RingList<E> clone = (RingList<E>) super.clone();
+
+            clone.elements = size == 0 ? EMPTY : toArray(new Object[capacityFor(size)]);
+            clone.head = 0;
+            clone.modCount = 0;
+
+            return clone;
+        }
+        catch (CloneNotSupportedException ex)
+        {
+            throw new InternalError(ex);
+        }
+    }
+
+    //==============================================================
+    // Deque
+    //==============================================================
+
+    @Override
+    public void addFirst(E element)
+    {
+        ensureCapacity(size + 1);
+
+        head = (head - 1) & mask();
+        elements[head] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void addLast(E element)
+    {
+        ensureCapacity(size + 1);
+
+        elements[positionOf(size)] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean offerFirst(E element)
+    {
+        addFirst(element);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E element)
+    {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public E removeFirst()
+    {
+        checkNotEmpty();
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast()
+    {
+        checkNotEmpty();
+        return pollLast();
+    }
+
+    @Override
+    public E pollFirst()
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+
+        E element = cast(elements[head]);
+        elements[head] = null;
+        head = (head + 1) & mask();
+        size--;
+        modCount++;
+
+        return element;
+    }
+
+    @Override
+    public E pollLast()
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+
+        int position = positionOf(size - 1);
+        E element = cast(elements[position]);
+        elements[position] = null;
+        size--;
+        modCount++;
+
+        return element;
+    }
+
+    @Override
+    public E getFirst()
+    {
+        checkNotEmpty();
+        return elementAt(0);
+    }
+
+    @Override
+    public E getLast()
+    {
+        checkNotEmpty();
+        return elementAt(size - 1);
+    }
+
+    @Override
+    public E peekFirst()
+    {
+        return size == 0 ? null : elementAt(0);
+    }
+
+    @Override
+    public E peekLast()
+    {
+        return size == 0 ? null : elementAt(size - 1);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object object)
+    {
+        int index = indexOf(object);
+
+        if (index < 0)
+        {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object object)
+    {
+        int index = lastIndexOf(object);
+
+        if (index < 0)
+        {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E element)
+    {
+        return offerLast(element);
+    }
+
+    @Override
+    public E remove()
+    {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll()
+    {
+        return pollFirst();
+    }
+
+    @Override
+    public E element()
+    {
+        return getFirst();
+    }
+
+    @Override
+    public E peek()
+    {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E element)
+    {
+        addFirst(element);
+    }
+
+    @Override
+    public E pop()
+    {
+        return removeFirst();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator()
+    {
+        ListIterator<E> iterator = listIterator(size);
+
+        return new Iterator<E>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasPrevious();
+            }
+
+            @Override
+            public E next()
+            {
+                return iterator.previous();
+            }
+
+            @Override
+            public void remove()
+            {
+                iterator.remove();
+            }
+        };
+    }
+
+    //==============================================================
+    // Serialization
+    //==============================================================
+
+    /**
+     * Writes the size, followed by each element in order.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        out.defaultWriteObject();
+
+        for (int i = 0; i < size; i++)
+        {
+            out.writeObject(elementAt(i));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+
+        if (size < 0 || size > MAX_CAPACITY)
+        {
+            throw new InvalidObjectException("invalid size: " + size);
+        }
+
+        elements = size == 0 ? EMPTY : new Object[capacityFor(size)];
+        head = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            elements[i] = in.readObject();
+        }
+    }
+
+    //==============================================================
+    // Internal
+    //==============================================================
+
+    private int mask()
+    {
+        return elements.length - 1;
+    }
+
+    private int positionOf(int index)
+    {
+        return (head + index) & mask();
+    }
+
+    private E elementAt(int index)
+    {
+        return cast(elements[positionOf(index)]);
+    }
+
+    /**
+     * Copies the elements into a larger array, starting again from its beginning.
+     */
+    private void grow(int minCapacity)
+    {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY)
+        {
+            throw new OutOfMemoryError("requested capacity is too large: " + minCapacity);
+        }
+
+        Object[] grown = new Object[capacityFor(Math.max(minCapacity, elements.length * 2))];
+        toArray(grown);
+
+        elements = grown;
+        head = 0;
+    }
+
+    private static int capacityFor(int minCapacity)
+    {
+        if (minCapacity > MAX_CAPACITY)
+        {
+            throw new OutOfMemoryError("requested capacity is too large: " + minCapacity);
+        }
+
+        if (minCapacity <= MIN_CAPACITY)
+        {
+            return MIN_CAPACITY;
+        }
+
+        return Integer.highestOneBit(minCapacity - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E cast(Object element)
+    {
+        return (E) element;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkPositionIndex(int index)
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkNotEmpty()
+    {
+        if (size == 0)
+        {
+            throw new NoSuchElementException("list is empty");
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import tech.sirwellington.alchemy.annotations.arguments.NonEmpty;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+import tech.sirwellington.alchemy.arguments.assertions.Assertions;
+import tech.sirwellington.alchemy.arguments.assertions.CollectionAssertions;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThanOrEqualTo;
+
+/**
+ * Picks elements at random from collections, without copying them.
+ * <ul>
+ * <li>{@link #oneOf(Collection) oneOf} picks a single element.</li>
+ * <li>{@link #sample(Collection, int) sample} picks {@code k} distinct elements, using
+ * Floyd's algorithm on {@link RandomAccess} lists, so that only {@code k} indexes are drawn.</li>
+ * <li>{@link #reservoir(Iterator, int) reservoir} picks {@code k} elements from a sequence of unknown length
+ * in a single pass, using Li's "Algorithm L", which skips over most of the elements without drawing a number for them.</li>
+ * </ul>
+ * Every element has the same chance of being picked.
+ * <p>
+ * {@link #random()} is backed by the {@link java.util.concurrent.ThreadLocalRandom}, and can be shared across threads.
+ * {@link #seeded(long)} creates a sampler that makes the same choices every time, for reproducible tests.
+ *
+ * @author SirWellington
+ */
+public final class Sampler
+{
+
+    private static final Sampler RANDOM = new Sampler(RandomSource.THREAD_LOCAL);
+
+    private final RandomSource random;
+
+    Sampler(RandomSource random)
+    {
+        this.random = random;
+    }
+
+    /**
+     * @return A sampler backed by the {@link java.util.concurrent.ThreadLocalRandom}.
+     */
+    @ThreadSafe
+    public static Sampler random()
+    {
+        return RANDOM;
+    }
+
+    /**
+     * Creates a sampler that makes the same choices, in the same order, for the same {@code seed}.
+     *
+     * @param seed
+     * @return
+     */
+    @ThreadUnsafe
+    public static Sampler seeded(long seed)
+    {
+        return new Sampler(RandomSource.seeded(seed));
+    }
+
+    /**
+     * Picks a random element from the list, in constant time for {@link RandomAccess} lists.
+     *
+     * @param <E>
+     * @param list
+     * @return
+     * @throws IllegalArgumentException If the list is null or empty.
+     */
+    public <E> E oneOf(@NonEmpty List<E> list) throws IllegalArgumentException
+    {
+        Lists.checkListNotEmpty(list);
+
+        return list.get(random.nextInt(list.size()));
+    }
+
+    /**
+     * Picks a random element from the collection by walking its iterator to a random position,
+     * which takes linear time, but allocates nothing besides the iterator.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     * @throws IllegalArgumentException If the collection is null or empty.
+     */
+    public <E> E oneOf(@NonEmpty Collection<E> collection) throws IllegalArgumentException
+    {
+        checkNotEmpty(collection);
+
+        if (collection instanceof List)
+        {
+            return oneOf((List<E>) collection);
+        }
+
+        int index = random.nextInt(collection.size());
+        Iterator<E> iterator = collection.iterator();
+
+        for (int i = 0; i < index; i++)
+        {
+            iterator.next();
+        }
+
+        return iterator.next();
+    }
+
+    /**
+     * Picks {@code k} distinct elements of the collection at random, in random order.
+     * If the collection has {@code k} or fewer elements, all of them are returned, shuffled.
+     * <p>
+     * For {@link RandomAccess} lists, this takes {@code O(k)} time and space.
+     * Other collections are sampled with a single pass of a reservoir.
+     *
+     * @param <E>
+     * @param collection
+     * @param k          The number of elements to pick.
+     * @return
+     * @throws IllegalArgumentException If the collection is null, or {@code k} is negative.
+     */
+    public <E> List<E> sample(@Required Collection<E> collection, int k) throws IllegalArgumentException
+    {
+        checkThat(collection).usingMessage("collection cannot be null").is(Assertions.notNull());
+        checkSampleSize(k);
+
+        if (!(collection instanceof List && collection instanceof RandomAccess))
+        {
+            //The reservoir keeps elements in the order it met them
+            List<E> result = reservoir(collection.iterator(), k);
+            shuffle(result);
+            return result;
+        }
+
+        List<E> list = (List<E>) collection;
+        int size = list.size();
+
+        if (k >= size)
+        {
+            List<E> result = new ArrayList<>(list);
+            shuffle(result);
+            return result;
+        }
+
+        //Floyd's algorithm: each step picks an index from [0, j], and if it has been chosen already,
+        //takes j instead, which no earlier step could have picked.
+        Set<Integer> chosen = new HashSet<>((int) (k / 0.75f) + 1);
+        List<E> result = new ArrayList<>(k);
+
+        for (int j = size - k; j < size; j++)
+        {
+            int index = random.nextInt(j + 1);
+
+            if (!chosen.add(index))
+            {
+                chosen.add(j);
+                index = j;
+            }
+
+            result.add(list.get(index));
+        }
+
+        //Floyd's picks are uniform as a set, but not in their order
+        shuffle(result);
+        return result;
+    }
+
+    /**
+     * Picks {@code k} elements at random in a single pass over the iterable.
+     *
+     * @param <E>
+     * @param iterable
+     * @param k
+     * @return
+     * @throws IllegalArgumentException
+     * @see #reservoir(Iterator, int)
+     */
+    public <E> List<E> reservoir(@Required Iterable<E> iterable, int k) throws IllegalArgumentException
+    {
+        checkThat(iterable).usingMessage("iterable cannot be null").is(Assertions.notNull());
+
+        return reservoir(iterable.iterator(), k);
+    }
+
+    /**
+     * Picks {@code k} elements at random in a single pass over the stream, which is consumed.
+     *
+     * @param <E>
+     * @param stream
+     * @param k
+     * @return
+     * @throws IllegalArgumentException
+     * @see #reservoir(Iterator, int)
+     */
+    public <E> List<E> reservoir(@Required Stream<E> stream, int k) throws IllegalArgumentException
+    {
+        checkThat(stream).usingMessage("stream cannot be null").is(Assertions.notNull());
+
+        return reservoir(stream.iterator(), k);
+    }
+
+    /**
+     * Picks {@code k} elements at random in a single pass, without knowing ahead of time how many elements there are.
+     * Only {@code k} elements are held at any time. If there are {@code k} or fewer elements, all of them are returned.
+     * <p>
+     * The elements are returned in no particular order.
+     *
+     * @param <E>
+     * @param iterator
+     * @param k        The number of elements to pick.
+     * @return
+     * @throws IllegalArgumentException If the iterator is null, or {@code k} is negative.
+     */
+    public <E> List<E> reservoir(@Required Iterator<E> iterator, int k) throws IllegalArgumentException
+    {
+        checkThat(iterator).usingMessage("iterator cannot be null").is(Assertions.notNull());
+        checkSampleSize(k);
+
+        List<E> reservoir = new ArrayList<>(Math.min(k, 1024));
+
+        while (reservoir.size() < k && iterator.hasNext())
+        {
+            reservoir.add(iterator.next());
+        }
+
+        if (k == 0 || !iterator.hasNext())
+        {
+            return reservoir;
+        }
+
+        //Algorithm L: rather than drawing a number for every element, draw how many elements to skip
+        //before the next one that enters the reservoir.
+        double weight = Math.exp(Math.log(nextOpenDouble()) / k);
+
+        while (true)
+        {
+            long skip = (long) Math.floor(Math.log(nextOpenDouble()) / Math.log1p(-weight));
+
+            for (long i = 0; i < skip; i++)
+            {
+                if (!iterator.hasNext())
+                {
+                    return reservoir;
+                }
+
+                iterator.next();
+            }
+
+            if (!iterator.hasNext())
+            {
+                return reservoir;
+            }
+
+            reservoir.set(random.nextInt(k), iterator.next());
+            weight *= Math.exp(Math.log(nextOpenDouble()) / k);
+        }
+    }
+
+    /**
+     * Shuffles the list in place, with the Fisher-Yates shuffle.
+     */
+    private <E> void shuffle(List<E> list)
+    {
+        for (int i = list.size() - 1; i > 0; i--)
+        {
+            Collections.swap(list, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * @return A value between 0 (exclusive) and 1 (inclusive), which is safe to take the logarithm of.
+     */
+    private double nextOpenDouble()
+    {
+        return 1.0 - random.nextDouble();
+    }
+
+    private static void checkSampleSize(int k)
+    {
+        checkThat(k)
+            .usingMessage("sample size cannot be negative: " + k)
+            .is(greaterThanOrEqualTo(0));
+    }
+
+    private static <E> void checkNotEmpty(Collection<E> collection)
+    {
+        checkThat(collection)
+            .usingMessage("collection cannot be null")
+            .is(Assertions.<Collection<E>>notNull())
+            .usingMessage("collection cannot be empty")
+            .is(CollectionAssertions.<E>nonEmptyCollection());
+    }
+}
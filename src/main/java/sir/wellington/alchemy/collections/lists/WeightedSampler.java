@@ -0,0 +1,346 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+import tech.sirwellington.alchemy.annotations.arguments.NonEmpty;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+import tech.sirwellington.alchemy.arguments.assertions.Assertions;
+import tech.sirwellington.alchemy.arguments.assertions.CollectionAssertions;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+
+/**
+ * Picks elements at random in proportion to their weights, in constant time.
+ * <p>
+ * The weights are compiled into an alias table, using Vose's method: each of the {@code n} columns of the table
+ * holds an element and, for the share of the column it does not fill, an alias to another element.
+ * A pick chooses a column and a point within it from a single random number, so {@link #pick()} takes
+ * {@code O(1)} time and allocates nothing.
+ * <p>
+ * Changing a weight rebuilds the table, in {@code O(n)}, and publishes it atomically.
+ * Picks never block, and always see a complete table, either the old one or the new one.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ */
+@ThreadSafe
+public final class WeightedSampler<E>
+{
+
+    private final List<E> elements;
+    private final RandomSource random;
+
+    /**
+     * The current weights, which only writers read, while holding the lock on {@code this}.
+     */
+    private final double[] weights;
+
+    private volatile AliasTable table;
+
+    WeightedSampler(List<E> elements, double[] weights, RandomSource random)
+    {
+        checkThat(elements)
+            .usingMessage("elements cannot be null")
+            .is(Assertions.<List<E>>notNull())
+            .usingMessage("elements cannot be empty")
+            .is(CollectionAssertions.<E>nonEmptyList());
+
+        checkThat(weights).usingMessage("weights cannot be null").is(Assertions.notNull());
+
+        checkThat(weights.length)
+            .usingMessage("expected " + elements.size() + " weights, but got " + weights.length)
+            .is(Assertions.equalTo(elements.size()));
+
+        this.elements = Collections.unmodifiableList(new ArrayList<>(elements));
+        this.weights = weights.clone();
+        this.random = random;
+
+        for (double weight : this.weights)
+        {
+            checkWeight(weight);
+        }
+
+        this.table = new AliasTable(this.weights);
+    }
+
+    /**
+     * Creates a sampler that picks each element in proportion to the weight at the same position.
+     *
+     * @param <E>
+     * @param elements
+     * @param weights  Must be the same length as {@code elements}. Each weight must be finite and non-negative,
+     *                 and at least one must be positive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> WeightedSampler<E> create(@NonEmpty List<E> elements, @Required double[] weights) throws IllegalArgumentException
+    {
+        return new WeightedSampler<>(elements, weights, RandomSource.THREAD_LOCAL);
+    }
+
+    /**
+     * Creates a sampler that picks each element in proportion to the weight that {@code weigher} gives it.
+     *
+     * @param <E>
+     * @param elements
+     * @param weigher
+     * @return
+     * @throws IllegalArgumentException
+     * @see #create(List, double[])
+     */
+    public static <E> WeightedSampler<E> create(@NonEmpty List<E> elements, @Required ToDoubleFunction<? super E> weigher) throws IllegalArgumentException
+    {
+        checkThat(elements).usingMessage("elements cannot be null").is(Assertions.notNull());
+        checkThat(weigher).usingMessage("weigher cannot be null").is(Assertions.notNull());
+
+        double[] weights = new double[elements.size()];
+        for (int i = 0; i < weights.length; i++)
+        {
+            weights[i] = weigher.applyAsDouble(elements.get(i));
+        }
+
+        return create(elements, weights);
+    }
+
+    /**
+     * Picks an element at random, in proportion to its weight.
+     *
+     * @return
+     */
+    public E pick()
+    {
+        return elements.get(table.pick(random.nextDouble()));
+    }
+
+    /**
+     * Changes the weight of the element at {@code index}, and rebuilds the table.
+     *
+     * @param index
+     * @param weight Must be finite and non-negative.
+     * @throws IllegalArgumentException If the weight is invalid, or it would leave every weight at zero.
+     * @throws IndexOutOfBoundsException
+     */
+    public synchronized void setWeight(int index, double weight) throws IllegalArgumentException, IndexOutOfBoundsException
+    {
+        checkIndex(index);
+        checkWeight(weight);
+
+        double previous = weights[index];
+        weights[index] = weight;
+
+        try
+        {
+            table = new AliasTable(weights);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            weights[index] = previous;
+            throw ex;
+        }
+    }
+
+    /**
+     * Replaces all of the weights at once, rebuilding the table only once.
+     *
+     * @param weights Must have one weight for each element.
+     * @throws IllegalArgumentException
+     * @see #create(List, double[])
+     */
+    public synchronized void setWeights(@Required double[] weights) throws IllegalArgumentException
+    {
+        checkThat(weights).usingMessage("weights cannot be null").is(Assertions.notNull());
+
+        checkThat(weights.length)
+            .usingMessage("expected " + elements.size() + " weights, but got " + weights.length)
+            .is(Assertions.equalTo(elements.size()));
+
+        for (double weight : weights)
+        {
+            checkWeight(weight);
+        }
+
+        table = new AliasTable(weights);
+        System.arraycopy(weights, 0, this.weights, 0, weights.length);
+    }
+
+    /**
+     * @param index
+     * @return The current weight of the element at {@code index}.
+     * @throws IndexOutOfBoundsException
+     */
+    public double weightOf(int index) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+
+        return table.weights[index];
+    }
+
+    /**
+     * @param index
+     * @return The chance, between 0 and 1, of the element at {@code index} being picked.
+     * @throws IndexOutOfBoundsException
+     */
+    public double probabilityOf(int index) throws IndexOutOfBoundsException
+    {
+        checkIndex(index);
+
+        AliasTable table = this.table;
+        return table.weights[index] / table.totalWeight;
+    }
+
+    /**
+     * @return The elements, in the order they were given.
+     */
+    public List<E> elements()
+    {
+        return elements;
+    }
+
+    public int size()
+    {
+        return elements.size();
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= elements.size())
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + elements.size());
+        }
+    }
+
+    private static void checkWeight(double weight)
+    {
+        if (!(weight >= 0.0) || Double.isInfinite(weight))
+        {
+            throw new IllegalArgumentException("weights must be finite and non-negative: " + weight);
+        }
+    }
+
+    /**
+     * An immutable alias table, built with Vose's method.
+     */
+    private static final class AliasTable
+    {
+
+        private final double[] weights;
+        private final double totalWeight;
+
+        /**
+         * {@code probability[i]} is the share of column {@code i} that belongs to element {@code i};
+         * the rest belongs to element {@code alias[i]}.
+         */
+        private final double[] probability;
+        private final int[] alias;
+
+        AliasTable(double[] weights)
+        {
+            int n = weights.length;
+
+            double total = 0;
+            for (double weight : weights)
+            {
+                total += weight;
+            }
+
+            if (!(total > 0.0) || Double.isInfinite(total))
+            {
+                throw new IllegalArgumentException("the total weight must be positive and finite: " + total);
+            }
+
+            this.weights = weights.clone();
+            this.totalWeight = total;
+            this.probability = new double[n];
+            this.alias = new int[n];
+
+            //Scale the weights so that the average column is exactly full
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+
+            for (int i = 0; i < n; i++)
+            {
+                scaled[i] = weights[i] * n / total;
+
+                if (scaled[i] < 1.0)
+                {
+                    small[smallCount++] = i;
+                }
+                else
+                {
+                    large[largeCount++] = i;
+                }
+            }
+
+            //Fill each under-full column with part of an over-full one
+            while (smallCount > 0 && largeCount > 0)
+            {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+
+                probability[less] = scaled[less];
+                alias[less] = more;
+
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+
+                if (scaled[more] < 1.0)
+                {
+                    small[smallCount++] = more;
+                }
+                else
+                {
+                    large[largeCount++] = more;
+                }
+            }
+
+            //Whatever is left is full, give or take rounding error
+            while (largeCount > 0)
+            {
+                probability[large[--largeCount]] = 1.0;
+            }
+
+            while (smallCount > 0)
+            {
+                probability[small[--smallCount]] = 1.0;
+            }
+        }
+
+        /**
+         * @param random A value between 0 (inclusive) and 1 (exclusive), which picks both the column
+         *               and the point within it.
+         * @return The index of the picked element.
+         */
+        int pick(double random)
+        {
+            double scaled = random * probability.length;
+            int column = (int) scaled;
+
+            //Guards against rounding up to the length
+            if (column >= probability.length)
+            {
+                column = probability.length - 1;
+            }
+
+            return (scaled - column) < probability[column] ? column : alias[column];
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.equalTo;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThan;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThanOrEqualTo;
+
+/**
+ * Configures and creates {@linkplain CachingMap CachingMaps}. By default, a cache is unbounded,
+ * never expires its entries, and does not record statistics.
+ *
+ * <pre>
+ * CachingMap&lt;String, User&gt; users = Maps.&lt;String, User&gt;cacheBuilder()
+ *     .withMaximumSize(10_000)
+ *     .withExpiryAfterWrite(10, TimeUnit.MINUTES)
+ *     .withStats()
+ *     .build(database::findUser);
+ * </pre>
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#cacheBuilder()
+ */
+public final class CacheBuilder<K, V>
+{
+
+    static final long UNBOUNDED = Long.MAX_VALUE;
+
+    long maximum = UNBOUNDED;
+    ToIntBiFunction<? super K, ? super V> weigher = null;
+    EvictionPolicy evictionPolicy = EvictionPolicy.W_TINY_LFU;
+    long expiryAfterWrite = 0;
+    long expiryAfterAccess = 0;
+    boolean recordStats = false;
+    LongSupplier ticker = System::nanoTime;
+
+    CacheBuilder()
+    {
+    }
+
+    /**
+     * Bounds the cache to {@code maximumSize} entries.
+     *
+     * @param maximumSize
+     * @return
+     * @throws IllegalArgumentException If {@code maximumSize} is negative, or a maximum was already set.
+     */
+    public CacheBuilder<K, V> withMaximumSize(long maximumSize) throws IllegalArgumentException
+    {
+        checkMaximum(maximumSize);
+
+        this.maximum = maximumSize;
+        return this;
+    }
+
+    /**
+     * Bounds the cache by the total weight of its entries, instead of their number.
+     *
+     * @param maximumWeight
+     * @param weigher       Weighs each entry when it is written. Weights cannot be negative.
+     * @return
+     * @throws IllegalArgumentException If {@code maximumWeight} is negative, or a maximum was already set.
+     */
+    public CacheBuilder<K, V> withMaximumWeight(long maximumWeight,
+                                                @Required ToIntBiFunction<? super K, ? super V> weigher) throws IllegalArgumentException
+    {
+        checkMaximum(maximumWeight);
+        checkThat(weigher).usingMessage("weigher cannot be null").is(notNull());
+
+        this.maximum = maximumWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * @param evictionPolicy Decides what is evicted when the cache is full. The default is {@link EvictionPolicy#W_TINY_LFU}.
+     * @return
+     */
+    public CacheBuilder<K, V> withEvictionPolicy(@Required EvictionPolicy evictionPolicy)
+    {
+        checkThat(evictionPolicy).usingMessage("eviction policy cannot be null").is(notNull());
+
+        this.evictionPolicy = evictionPolicy;
+        return this;
+    }
+
+    /**
+     * Expires each entry once {@code duration} has passed since it was created, or its value last replaced.
+     *
+     * @param duration
+     * @param unit
+     * @return
+     * @throws IllegalArgumentException If {@code duration} is not positive.
+     */
+    public CacheBuilder<K, V> withExpiryAfterWrite(long duration, @Required TimeUnit unit) throws IllegalArgumentException
+    {
+        this.expiryAfterWrite = toNanos(duration, unit);
+        return this;
+    }
+
+    /**
+     * Expires each entry once {@code duration} has passed since it was last read or written.
+     *
+     * @param duration
+     * @param unit
+     * @return
+     * @throws IllegalArgumentException If {@code duration} is not positive.
+     */
+    public CacheBuilder<K, V> withExpiryAfterAccess(long duration, @Required TimeUnit unit) throws IllegalArgumentException
+    {
+        this.expiryAfterAccess = toNanos(duration, unit);
+        return this;
+    }
+
+    /**
+     * Records the hits, misses, loads, evictions, and expirations of the cache.
+     *
+     * @return
+     * @see CachingMap#stats()
+     */
+    public CacheBuilder<K, V> withStats()
+    {
+        this.recordStats = true;
+        return this;
+    }
+
+    /**
+     * Replaces {@link System#nanoTime()} as the source of time, for testing expiry.
+     */
+    CacheBuilder<K, V> withTicker(LongSupplier ticker)
+    {
+        this.ticker = ticker;
+        return this;
+    }
+
+    public CachingMap<K, V> build()
+    {
+        return new CachingMap<>(this, null);
+    }
+
+    /**
+     * Builds a cache that loads missing values with {@code loader}, through {@link CachingMap#getOrLoad(Object)}.
+     *
+     * @param loader Returns the value of a key, or {@code null} if it has none.
+     * @return
+     */
+    public CachingMap<K, V> build(@Required Function<? super K, ? extends V> loader)
+    {
+        checkThat(loader).usingMessage("loader cannot be null").is(notNull());
+
+        return new CachingMap<>(this, loader);
+    }
+
+    private void checkMaximum(long maximum)
+    {
+        checkThat(this.maximum)
+            .usingMessage("the maximum was already set to " + this.maximum)
+            .is(equalTo(UNBOUNDED));
+
+        checkThat(maximum)
+            .usingMessage("maximum cannot be negative: " + maximum)
+            .is(greaterThanOrEqualTo(0L));
+    }
+
+    private static long toNanos(long duration, TimeUnit unit)
+    {
+        checkThat(unit).usingMessage("unit cannot be null").is(notNull());
+        checkThat(duration).usingMessage("duration must be positive: " + duration).is(greaterThan(0L));
+
+        return unit.toNanos(duration);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+/**
+ * An entry of a {@link CachingMap}, linked into the queues of its eviction policy and its {@link TimerWheel}.
+ * Nodes are only touched while holding the lock of their map.
+ *
+ * @author SirWellington
+ */
+@Internal
+@ThreadUnsafe
+final class CacheNode<K, V>
+{
+
+    final K key;
+    V value;
+    int weight;
+
+    long writeTime;
+    long accessTime;
+
+    /**
+     * When the entry expires, in the nanoseconds of the map's ticker.
+     */
+    long expiresAt;
+
+    /**
+     * Which queue of the eviction policy the node is in.
+     */
+    int queue;
+
+    /**
+     * The frequency the node is counted under, for {@link EvictionPolicy#LFU}.
+     */
+    CachePolicies.FrequencyBucket<K, V> bucket;
+
+    CacheNode<K, V> previous;
+    CacheNode<K, V> next;
+
+    CacheNode<K, V> previousInTimer;
+    CacheNode<K, V> nextInTimer;
+
+    CacheNode(K key, V value, int weight)
+    {
+        this.key = key;
+        this.value = value;
+        this.weight = weight;
+    }
+
+    /**
+     * Creates the sentinel at the head of a circular queue.
+     */
+    static <K, V> CacheNode<K, V> sentinel()
+    {
+        CacheNode<K, V> sentinel = new CacheNode<>(null, null, 0);
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        sentinel.previousInTimer = sentinel;
+        sentinel.nextInTimer = sentinel;
+        return sentinel;
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+/**
+ * The {@linkplain EvictionPolicy eviction policies} of a {@link CachingMap}, which order its nodes in intrusive,
+ * doubly linked queues, so that every operation takes constant time.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class CachePolicies
+{
+
+    CachePolicies() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static <K, V> Policy<K, V> create(EvictionPolicy policy, long maximum)
+    {
+        switch (policy)
+        {
+            case LRU:
+                return new Lru<>();
+            case LFU:
+                return new Lfu<>();
+            default:
+                return new WindowTinyLfu<>(maximum);
+        }
+    }
+
+    /**
+     * Tracks the nodes of a cache, and picks which of them to evict.
+     */
+    static abstract class Policy<K, V>
+    {
+
+        abstract void onAdd(CacheNode<K, V> node);
+
+        abstract void onAccess(CacheNode<K, V> node);
+
+        abstract void onRemove(CacheNode<K, V> node);
+
+        /**
+         * Called when the weight of a node that is already tracked changes by {@code delta}.
+         */
+        void onWeightChange(CacheNode<K, V> node, int delta)
+        {
+        }
+
+        /**
+         * @return The node to evict next, or {@code null} if there are none.
+         */
+        abstract CacheNode<K, V> victim();
+    }
+
+    //==============================================================
+    // LRU
+    //==============================================================
+
+    static final class Lru<K, V> extends Policy<K, V>
+    {
+
+        private final NodeQueue<K, V> queue = new NodeQueue<>();
+
+        @Override
+        void onAdd(CacheNode<K, V> node)
+        {
+            queue.addLast(node);
+        }
+
+        @Override
+        void onAccess(CacheNode<K, V> node)
+        {
+            queue.moveToEnd(node);
+        }
+
+        @Override
+        void onRemove(CacheNode<K, V> node)
+        {
+            NodeQueue.unlink(node);
+        }
+
+        @Override
+        CacheNode<K, V> victim()
+        {
+            return queue.first();
+        }
+    }
+
+    //==============================================================
+    // LFU
+    //==============================================================
+
+    /**
+     * Keeps a queue of nodes for each frequency in use, and the queues in order of frequency,
+     * so that the least frequent node is always at the head of the first queue.
+     */
+    static final class Lfu<K, V> extends Policy<K, V>
+    {
+
+        private final FrequencyBucket<K, V> head = new FrequencyBucket<>(0);
+
+        Lfu()
+        {
+            head.previousBucket = head;
+            head.nextBucket = head;
+        }
+
+        @Override
+        void onAdd(CacheNode<K, V> node)
+        {
+            FrequencyBucket<K, V> first = head.nextBucket;
+
+            if (first == head || first.frequency != 1)
+            {
+                first = head.insertAfter(1);
+            }
+
+            first.queue.addLast(node);
+            node.bucket = first;
+        }
+
+        @Override
+        void onAccess(CacheNode<K, V> node)
+        {
+            FrequencyBucket<K, V> current = node.bucket;
+
+            if (current.frequency == Integer.MAX_VALUE)
+            {
+                current.queue.moveToEnd(node);
+                return;
+            }
+
+            FrequencyBucket<K, V> next = current.nextBucket;
+
+            if (next == head || next.frequency != current.frequency + 1)
+            {
+                next = current.insertAfter(current.frequency + 1);
+            }
+
+            NodeQueue.unlink(node);
+            next.queue.addLast(node);
+            node.bucket = next;
+
+            current.removeIfEmpty();
+        }
+
+        @Override
+        void onRemove(CacheNode<K, V> node)
+        {
+            FrequencyBucket<K, V> bucket = node.bucket;
+
+            NodeQueue.unlink(node);
+            node.bucket = null;
+
+            if (bucket != null)
+            {
+                bucket.removeIfEmpty();
+            }
+        }
+
+        @Override
+        CacheNode<K, V> victim()
+        {
+            FrequencyBucket<K, V> first = head.nextBucket;
+            return first == head ? null : first.queue.first();
+        }
+    }
+
+    static final class FrequencyBucket<K, V>
+    {
+
+        private final int frequency;
+        private final NodeQueue<K, V> queue = new NodeQueue<>();
+
+        private FrequencyBucket<K, V> previousBucket;
+        private FrequencyBucket<K, V> nextBucket;
+
+        private FrequencyBucket(int frequency)
+        {
+            this.frequency = frequency;
+        }
+
+        private FrequencyBucket<K, V> insertAfter(int frequency)
+        {
+            FrequencyBucket<K, V> bucket = new FrequencyBucket<>(frequency);
+            bucket.previousBucket = this;
+            bucket.nextBucket = nextBucket;
+            nextBucket.previousBucket = bucket;
+            nextBucket = bucket;
+            return bucket;
+        }
+
+        private void removeIfEmpty()
+        {
+            if (queue.isEmpty() && previousBucket != null)
+            {
+                previousBucket.nextBucket = nextBucket;
+                nextBucket.previousBucket = previousBucket;
+                previousBucket = null;
+                nextBucket = null;
+            }
+        }
+    }
+
+    //==============================================================
+    // Window TinyLFU
+    //==============================================================
+
+    /**
+     * New nodes enter an LRU window of 1% of the capacity. Nodes pushed out of the window join the probation
+     * segment of the main, segmented LRU; a second use there promotes them to the protected segment, which takes
+     * up to 80% of the main space. When the cache is over capacity, the newest node on probation competes with the
+     * oldest, and the one the {@link FrequencySketch} has seen less often is evicted.
+     */
+    static final class WindowTinyLfu<K, V> extends Policy<K, V>
+    {
+
+        private static final int WINDOW = 0;
+        private static final int PROBATION = 1;
+        private static final int PROTECTED = 2;
+
+        private final NodeQueue<K, V> window = new NodeQueue<>();
+        private final NodeQueue<K, V> probation = new NodeQueue<>();
+        private final NodeQueue<K, V> protectedQueue = new NodeQueue<>();
+
+        private final FrequencySketch sketch;
+        private final long windowMaximum;
+        private final long protectedMaximum;
+
+        private long windowWeight = 0;
+        private long protectedWeight = 0;
+
+        WindowTinyLfu(long maximum)
+        {
+            this.sketch = new FrequencySketch(maximum);
+            this.windowMaximum = Math.max(1, maximum / 100);
+            this.protectedMaximum = (long) ((maximum - windowMaximum) * 0.8);
+        }
+
+        @Override
+        void onAdd(CacheNode<K, V> node)
+        {
+            sketch.increment(hashOf(node));
+
+            node.queue = WINDOW;
+            window.addLast(node);
+            windowWeight += node.weight;
+
+            //Nodes that overflow the window move on to probation, where they compete for space
+            while (windowWeight > windowMaximum && window.first() != node)
+            {
+                CacheNode<K, V> candidate = window.first();
+                NodeQueue.unlink(candidate);
+                windowWeight -= candidate.weight;
+
+                candidate.queue = PROBATION;
+                probation.addLast(candidate);
+            }
+        }
+
+        @Override
+        void onAccess(CacheNode<K, V> node)
+        {
+            sketch.increment(hashOf(node));
+
+            switch (node.queue)
+            {
+                case WINDOW:
+                    window.moveToEnd(node);
+                    break;
+                case PROBATION:
+                    NodeQueue.unlink(node);
+                    node.queue = PROTECTED;
+                    protectedQueue.addLast(node);
+                    protectedWeight += node.weight;
+                    demoteProtected();
+                    break;
+                default:
+                    protectedQueue.moveToEnd(node);
+                    break;
+            }
+        }
+
+        @Override
+        void onRemove(CacheNode<K, V> node)
+        {
+            NodeQueue.unlink(node);
+
+            if (node.queue == WINDOW)
+            {
+                windowWeight -= node.weight;
+            }
+            else if (node.queue == PROTECTED)
+            {
+                protectedWeight -= node.weight;
+            }
+        }
+
+        @Override
+        void onWeightChange(CacheNode<K, V> node, int delta)
+        {
+            if (node.queue == WINDOW)
+            {
+                windowWeight += delta;
+            }
+            else if (node.queue == PROTECTED)
+            {
+                protectedWeight += delta;
+                demoteProtected();
+            }
+        }
+
+        @Override
+        CacheNode<K, V> victim()
+        {
+            CacheNode<K, V> victim = probation.first();
+
+            if (victim == null)
+            {
+                victim = protectedQueue.first();
+            }
+
+            if (victim == null)
+            {
+                return window.first();
+            }
+
+            //The newest arrival on probation is admitted only if it is used more than the node it would replace
+            CacheNode<K, V> candidate = probation.last();
+
+            if (candidate == null || candidate == victim)
+            {
+                return victim;
+            }
+
+            return sketch.frequency(hashOf(candidate)) > sketch.frequency(hashOf(victim)) ? victim : candidate;
+        }
+
+        private void demoteProtected()
+        {
+            while (protectedWeight > protectedMaximum && protectedQueue.first() != null)
+            {
+                CacheNode<K, V> demoted = protectedQueue.first();
+                NodeQueue.unlink(demoted);
+                protectedWeight -= demoted.weight;
+
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        }
+
+        private static int hashOf(CacheNode<?, ?> node)
+        {
+            return Hashing.mix(node.key.hashCode());
+        }
+    }
+
+    //==============================================================
+    // Queues
+    //==============================================================
+
+    /**
+     * A circular, doubly linked queue of nodes, with a sentinel at its head.
+     */
+    static final class NodeQueue<K, V>
+    {
+
+        private final CacheNode<K, V> sentinel = CacheNode.sentinel();
+
+        boolean isEmpty()
+        {
+            return sentinel.next == sentinel;
+        }
+
+        CacheNode<K, V> first()
+        {
+            return isEmpty() ? null : sentinel.next;
+        }
+
+        CacheNode<K, V> last()
+        {
+            return isEmpty() ? null : sentinel.previous;
+        }
+
+        void addLast(CacheNode<K, V> node)
+        {
+            node.previous = sentinel.previous;
+            node.next = sentinel;
+            sentinel.previous.next = node;
+            sentinel.previous = node;
+        }
+
+        void moveToEnd(CacheNode<K, V> node)
+        {
+            unlink(node);
+            addLast(node);
+        }
+
+        static <K, V> void unlink(CacheNode<K, V> node)
+        {
+            if (node.next != null)
+            {
+                node.next.previous = node.previous;
+                node.previous.next = node.next;
+                node.next = null;
+                node.previous = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+
+/**
+ * A snapshot of the statistics of a {@link CachingMap}. Every count is zero unless the cache was built
+ * {@linkplain CacheBuilder#withStats() to record them}.
+ *
+ * @author SirWellington
+ * @see CachingMap#stats()
+ */
+@Immutable
+public final class CacheStats
+{
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long expirationCount;
+
+    CacheStats(long hitCount,
+               long missCount,
+               long loadSuccessCount,
+               long loadFailureCount,
+               long totalLoadTime,
+               long evictionCount,
+               long evictionWeight,
+               long expirationCount)
+    {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.expirationCount = expirationCount;
+    }
+
+    /**
+     * @return The number of lookups that found an entry.
+     */
+    public long hitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups that found no entry, whether or not one was then loaded.
+     */
+    public long missCount()
+    {
+        return missCount;
+    }
+
+    public long requestCount()
+    {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return The fraction of lookups that were hits, or {@code 1.0} when there have been none.
+     */
+    public double hitRate()
+    {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @return The number of values that were loaded, and were not {@code null}.
+     */
+    public long loadSuccessCount()
+    {
+        return loadSuccessCount;
+    }
+
+    /**
+     * @return The number of loads that threw, or returned {@code null}.
+     */
+    public long loadFailureCount()
+    {
+        return loadFailureCount;
+    }
+
+    /**
+     * @return The total time spent loading, in nanoseconds. Loads shared by several callers are counted once.
+     */
+    public long totalLoadTime()
+    {
+        return totalLoadTime;
+    }
+
+    /**
+     * @return The average time a load took, in nanoseconds.
+     */
+    public double averageLoadPenalty()
+    {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+
+    /**
+     * @return The number of entries evicted to keep the cache within its maximum.
+     */
+    public long evictionCount()
+    {
+        return evictionCount;
+    }
+
+    public long evictionWeight()
+    {
+        return evictionWeight;
+    }
+
+    /**
+     * @return The number of entries removed because they expired.
+     */
+    public long expirationCount()
+    {
+        return expirationCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CacheStats{" + "hitCount=" + hitCount + ", missCount=" + missCount + ", loadSuccessCount=" + loadSuccessCount +
+               ", loadFailureCount=" + loadFailureCount + ", totalLoadTime=" + totalLoadTime + ", evictionCount=" + evictionCount +
+               ", evictionWeight=" + evictionWeight + ", expirationCount=" + expirationCount + '}';
+    }
+}
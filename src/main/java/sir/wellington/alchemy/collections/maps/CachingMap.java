@@ -0,0 +1,892 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A bounded, expiring cache that is also a {@link ConcurrentMap}, so that it can be used wherever a {@link Map} is.
+ * <p>
+ * When the cache grows past its maximum size or weight, its {@link EvictionPolicy} picks which entries to evict,
+ * in constant time. Entries can expire a fixed time after they are written, or last accessed; expired entries are
+ * never returned, and are removed in amortized constant time by a {@link TimerWheel} as the cache is used,
+ * without ever scanning the whole map. The wheel ticks about once a second, so {@link #size()} and {@link #weightedSize()}
+ * may count entries that expired since the last tick.
+ * <p>
+ * {@link #getOrLoad(Object)} and {@link #computeIfAbsent(Object, Function)} load missing values outside of any lock.
+ * Concurrent calls for the same key share a single load, rather than each loading it again.
+ * <p>
+ * Every other operation briefly takes a single lock, since even a read reorders the eviction queues.
+ * Keys and values cannot be {@code null}.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see CacheBuilder
+ * @see Maps#cacheBuilder()
+ */
+@ThreadSafe
+public final class CachingMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
+{
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<K, CacheNode<K, V>> data = new HashMap<>();
+    private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final CachePolicies.Policy<K, V> policy;
+    private final TimerWheel<K, V> timers;
+
+    private final long maximum;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final long expiryAfterWrite;
+    private final long expiryAfterAccess;
+    private final Function<? super K, ? extends V> loader;
+    private final LongSupplier ticker;
+    private final boolean recordStats;
+    private final Counters counters = new Counters();
+
+    private long weightedSize = 0;
+
+    private transient Set<Entry<K, V>> entrySet;
+
+    CachingMap(CacheBuilder<K, V> builder, Function<? super K, ? extends V> loader)
+    {
+        this.maximum = builder.maximum;
+        this.weigher = builder.weigher;
+        this.expiryAfterWrite = builder.expiryAfterWrite;
+        this.expiryAfterAccess = builder.expiryAfterAccess;
+        this.loader = loader;
+        this.ticker = builder.ticker;
+        this.recordStats = builder.recordStats;
+
+        this.policy = CachePolicies.create(builder.evictionPolicy, maximum == CacheBuilder.UNBOUNDED ? Hashing.DEFAULT_EXPECTED_SIZE : maximum);
+        this.timers = expires() ? new TimerWheel<>(ticker.getAsLong()) : null;
+    }
+
+    //==============================================================
+    // Caching
+    //==============================================================
+
+    /**
+     * Gets the value of {@code key}, loading it with the cache's loader if it is missing.
+     *
+     * @param key
+     * @return The value, or {@code null} if the loader has none.
+     * @throws IllegalStateException If the cache was built without a loader.
+     * @see CacheBuilder#build(Function)
+     */
+    public V getOrLoad(K key) throws IllegalStateException
+    {
+        if (loader == null)
+        {
+            throw new IllegalStateException("cache was built without a loader");
+        }
+
+        return computeIfAbsent(key, loader);
+    }
+
+    /**
+     * Gets the value of {@code key}, or loads it with {@code mappingFunction} when it is missing.
+     * The function is applied outside of the cache's lock, and concurrent calls for the same key wait for
+     * the first one's result, instead of applying it again. Whatever the function throws is thrown to every one of them.
+     *
+     * @param key
+     * @param mappingFunction Must not load the same key again, from the same thread.
+     * @return The value, or {@code null} if the function returned {@code null}.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
+    {
+        checkThat(key).usingMessage("key cannot be null").is(notNull());
+        checkThat(mappingFunction).usingMessage("function cannot be null").is(notNull());
+
+        V value = get(key);
+        return value != null ? value : load(key, mappingFunction);
+    }
+
+    /**
+     * Takes a snapshot of the cache's statistics.
+     *
+     * @return
+     * @see CacheBuilder#withStats()
+     */
+    public CacheStats stats()
+    {
+        return new CacheStats(counters.hits.sum(),
+                              counters.misses.sum(),
+                              counters.loadSuccesses.sum(),
+                              counters.loadFailures.sum(),
+                              counters.loadTime.sum(),
+                              counters.evictions.sum(),
+                              counters.evictionWeight.sum(),
+                              counters.expirations.sum());
+    }
+
+    /**
+     * @return The total weight of the entries, which is their number unless the cache has a weigher.
+     */
+    public long weightedSize()
+    {
+        lock.lock();
+        try
+        {
+            expireEntries(ticker.getAsLong());
+            return weightedSize;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entries that have expired. The cache does this as it is used, so this is only needed
+     * to release expired entries from a cache that is no longer being used.
+     */
+    public void cleanUp()
+    {
+        lock.lock();
+        try
+        {
+            expireEntries(ticker.getAsLong());
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    //==============================================================
+    // Map Operations
+    //==============================================================
+
+    @Override
+    public V get(Object key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            CacheNode<K, V> node = liveNode(key, now);
+
+            if (node == null)
+            {
+                record(counters.misses);
+                return null;
+            }
+
+            onAccess(node, now);
+            record(counters.hits);
+            return node.value;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks for {@code key} without counting a hit or miss, or making the entry any less likely to be evicted.
+     */
+    @Override
+    public boolean containsKey(Object key)
+    {
+        if (key == null)
+        {
+            return false;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            return liveNode(key, now) != null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V put(K key, V value)
+    {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value)
+    {
+        return put(key, value, true);
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            CacheNode<K, V> node = liveNode(key, now);
+
+            if (node == null)
+            {
+                return null;
+            }
+
+            removeNode(node);
+            return node.value;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        if (key == null || value == null)
+        {
+            return false;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            CacheNode<K, V> node = liveNode(key, now);
+
+            if (node == null || !node.value.equals(value))
+            {
+                return false;
+            }
+
+            removeNode(node);
+            return true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        checkThat(newValue).usingMessage("value cannot be null").is(notNull());
+
+        if (key == null || oldValue == null)
+        {
+            return false;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            CacheNode<K, V> node = liveNode(key, now);
+
+            if (node == null || !node.value.equals(oldValue))
+            {
+                return false;
+            }
+
+            update(node, newValue, now);
+            return true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V replace(K key, V value)
+    {
+        checkThat(value).usingMessage("value cannot be null").is(notNull());
+
+        if (key == null)
+        {
+            return null;
+        }
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            CacheNode<K, V> node = liveNode(key, now);
+
+            if (node == null)
+            {
+                return null;
+            }
+
+            V previous = node.value;
+            update(node, value, now);
+            return previous;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the entries, including any that expired within about the last second, which the timer wheel removes at its next tick.
+     * Expired entries are never returned, or iterated over.
+     */
+    @Override
+    public int size()
+    {
+        lock.lock();
+        try
+        {
+            expireEntries(ticker.getAsLong());
+            return data.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unlike {@link #size()}, ignores entries that have expired, but not yet been removed.
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            for (CacheNode<K, V> node : data.values())
+            {
+                if (timers == null || node.expiresAt - now > 0)
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        lock.lock();
+        try
+        {
+            for (CacheNode<K, V> node : new ArrayList<>(data.values()))
+            {
+                removeNode(node);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The entries are a snapshot, taken when the iterator is created. Removing an entry through the iterator
+     * removes it from the cache, unless its value has changed since.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        Set<Entry<K, V>> entries = entrySet;
+
+        if (entries == null)
+        {
+            entries = new AbstractSet<Entry<K, V>>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    Iterator<Entry<K, V>> snapshot = snapshot().iterator();
+
+                    return new Iterator<Entry<K, V>>()
+                    {
+                        private Entry<K, V> last;
+
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return snapshot.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next()
+                        {
+                            last = snapshot.next();
+                            return last;
+                        }
+
+                        @Override
+                        public void remove()
+                        {
+                            if (last == null)
+                            {
+                                throw new IllegalStateException();
+                            }
+
+                            CachingMap.this.remove(last.getKey(), last.getValue());
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return CachingMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty()
+                {
+                    return CachingMap.this.isEmpty();
+                }
+
+                @Override
+                public void clear()
+                {
+                    CachingMap.this.clear();
+                }
+            };
+
+            entrySet = entries;
+        }
+
+        return entries;
+    }
+
+    //==============================================================
+    // Internal
+    //==============================================================
+
+    private V put(K key, V value, boolean onlyIfAbsent)
+    {
+        checkThat(key).usingMessage("key cannot be null").is(notNull());
+        checkThat(value).usingMessage("value cannot be null").is(notNull());
+
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            CacheNode<K, V> node = liveNode(key, now);
+
+            if (node != null)
+            {
+                V previous = node.value;
+
+                if (onlyIfAbsent)
+                {
+                    onAccess(node, now);
+                }
+                else
+                {
+                    update(node, value, now);
+                }
+
+                return previous;
+            }
+
+            node = new CacheNode<>(key, value, weigh(key, value));
+
+            if (node.weight > maximum)
+            {
+                //Could never fit, so it is evicted right away
+                recordEviction(node);
+                return null;
+            }
+
+            //Room is made before the new entry is added, so that it is not the first victim of frequency-based policies
+            evictEntries(node.weight);
+
+            node.writeTime = now;
+            node.accessTime = now;
+            data.put(key, node);
+            weightedSize += node.weight;
+            policy.onAdd(node);
+
+            if (timers != null)
+            {
+                node.expiresAt = expiryOf(node);
+                timers.schedule(node);
+            }
+
+            return null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the value of {@code key}, unless another thread is already loading it, in which case this waits for its result.
+     */
+    private V load(K key, Function<? super K, ? extends V> function)
+    {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+
+        if (inFlight != null)
+        {
+            return join(inFlight);
+        }
+
+        try
+        {
+            //Another load may have finished between the miss and claiming the key
+            V existing = peek(key);
+
+            if (existing != null)
+            {
+                future.complete(existing);
+                return existing;
+            }
+
+            long start = ticker.getAsLong();
+            V value;
+
+            try
+            {
+                value = function.apply(key);
+            }
+            catch (RuntimeException | Error ex)
+            {
+                record(counters.loadFailures);
+                recordLoadTime(start);
+                future.completeExceptionally(ex);
+                throw ex;
+            }
+
+            recordLoadTime(start);
+
+            if (value == null)
+            {
+                record(counters.loadFailures);
+                future.complete(null);
+                return null;
+            }
+
+            record(counters.loadSuccesses);
+
+            //A value put while this one was loading wins
+            V previous = putIfAbsent(key, value);
+            V result = previous == null ? value : previous;
+
+            future.complete(result);
+            return result;
+        }
+        finally
+        {
+            loading.remove(key, future);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future)
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException ex)
+        {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets a live value without counting a hit, or a use.
+     */
+    private V peek(Object key)
+    {
+        lock.lock();
+        try
+        {
+            CacheNode<K, V> node = liveNode(key, ticker.getAsLong());
+            return node == null ? null : node.value;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The node of {@code key}, or {@code null} if there is none, or it has expired.
+     */
+    private CacheNode<K, V> liveNode(Object key, long now)
+    {
+        CacheNode<K, V> node = data.get(key);
+
+        if (node != null && timers != null && node.expiresAt - now <= 0)
+        {
+            expire(node);
+            return null;
+        }
+
+        return node;
+    }
+
+    private void onAccess(CacheNode<K, V> node, long now)
+    {
+        policy.onAccess(node);
+
+        if (expiryAfterAccess > 0)
+        {
+            node.accessTime = now;
+            node.expiresAt = expiryOf(node);
+            timers.reschedule(node);
+        }
+    }
+
+    private void update(CacheNode<K, V> node, V value, long now)
+    {
+        int weight = weigh(node.key, value);
+        int delta = weight - node.weight;
+
+        node.value = value;
+        node.weight = weight;
+        node.writeTime = now;
+        node.accessTime = now;
+        weightedSize += delta;
+
+        if (delta != 0)
+        {
+            policy.onWeightChange(node, delta);
+        }
+
+        policy.onAccess(node);
+
+        if (timers != null)
+        {
+            node.expiresAt = expiryOf(node);
+            timers.reschedule(node);
+        }
+
+        evictEntries(0);
+    }
+
+    /**
+     * Evicts entries until {@code extraWeight} more would fit.
+     */
+    private void evictEntries(long extraWeight)
+    {
+        while (weightedSize > maximum - extraWeight)
+        {
+            CacheNode<K, V> victim = policy.victim();
+
+            if (victim == null)
+            {
+                return;
+            }
+
+            removeNode(victim);
+            recordEviction(victim);
+        }
+    }
+
+    private void recordEviction(CacheNode<K, V> node)
+    {
+        if (recordStats)
+        {
+            counters.evictions.increment();
+            counters.evictionWeight.add(node.weight);
+        }
+    }
+
+    private void expireEntries(long now)
+    {
+        if (timers != null)
+        {
+            timers.advance(now, this::expire);
+        }
+    }
+
+    private void expire(CacheNode<K, V> node)
+    {
+        removeNode(node);
+        record(counters.expirations);
+    }
+
+    private void removeNode(CacheNode<K, V> node)
+    {
+        data.remove(node.key);
+        weightedSize -= node.weight;
+        policy.onRemove(node);
+
+        if (timers != null)
+        {
+            timers.deschedule(node);
+        }
+    }
+
+    private List<Entry<K, V>> snapshot()
+    {
+        lock.lock();
+        try
+        {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+
+            List<Entry<K, V>> entries = new ArrayList<>(data.size());
+
+            for (CacheNode<K, V> node : data.values())
+            {
+                if (timers == null || node.expiresAt - now > 0)
+                {
+                    entries.add(new SimpleImmutableEntry<>(node.key, node.value));
+                }
+            }
+
+            return entries;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private boolean expires()
+    {
+        return expiryAfterWrite > 0 || expiryAfterAccess > 0;
+    }
+
+    private long expiryOf(CacheNode<K, V> node)
+    {
+        long afterWrite = node.writeTime + expiryAfterWrite;
+        long afterAccess = node.accessTime + expiryAfterAccess;
+
+        if (expiryAfterAccess == 0)
+        {
+            return afterWrite;
+        }
+
+        if (expiryAfterWrite == 0)
+        {
+            return afterAccess;
+        }
+
+        //Whichever comes first; compared by difference, since the ticker may be negative
+        return afterAccess - afterWrite < 0 ? afterAccess : afterWrite;
+    }
+
+    private int weigh(K key, V value)
+    {
+        if (weigher == null)
+        {
+            return 1;
+        }
+
+        int weight = weigher.applyAsInt(key, value);
+
+        if (weight < 0)
+        {
+            throw new IllegalArgumentException("weight cannot be negative: " + weight);
+        }
+
+        return weight;
+    }
+
+    private void recordLoadTime(long start)
+    {
+        if (recordStats)
+        {
+            counters.loadTime.add(ticker.getAsLong() - start);
+        }
+    }
+
+    private void record(LongAdder counter)
+    {
+        if (recordStats)
+        {
+            counter.increment();
+        }
+    }
+
+    private static final class Counters
+    {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder loadSuccesses = new LongAdder();
+        private final LongAdder loadFailures = new LongAdder();
+        private final LongAdder loadTime = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder evictionWeight = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+    }
+}
@@ -0,0 +1,714 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A thread-safe multimap, which maps each key to one or more values, without a separate collection object per key.
+ * <p>
+ * Values are stored as compactly as their number allows:
+ * <ul>
+ * <li>A single value is stored inline, directly in the underlying {@link ConcurrentHashMap}.</li>
+ * <li>Up to {@value #ARRAY_LIMIT} values are stored in an immutable array, which is copied on each change.</li>
+ * <li>Beyond that, the values move to a concurrent collection, which is changed in place.</li>
+ * </ul>
+ * Puts and removes never lock: each one reads the current values of its key, and publishes the change with a
+ * compare-and-set, retrying if another thread changed the key first. Once the values have moved to a concurrent
+ * collection, they are changed with its own non-blocking operations. Reads never block either.
+ * <p>
+ * {@link #get(Object)} and {@link #weaklyConsistentCopy()} return immutable copies. While a key has at most
+ * {@value #ARRAY_LIMIT} values, its copy is exactly the values at one moment in time. There is no moment at which
+ * every key can be read together, though: like the iterators of {@link ConcurrentHashMap}, a copy of several keys,
+ * or of a key with more values, is weakly consistent, and reflects each change made while it is taken at most once.
+ * <p>
+ * Keys and values cannot be {@code null}.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @param <C> The type of collection that holds the values of a key.
+ * @author SirWellington
+ * @see ListMultimap
+ * @see SetMultimap
+ */
+@ThreadSafe
+public abstract class ConcurrentMultimap<K, V, C extends Collection<V>>
+{
+
+    /**
+     * The most values a key keeps in an immutable array, before moving them to a concurrent collection.
+     */
+    static final int ARRAY_LIMIT = 16;
+
+    /**
+     * Holds each key's values: either a single value inline, an {@link ArrayValues}, or a {@link SharedValues}.
+     * Both holders are private, so neither can be mistaken for a value stored inline.
+     */
+    private final ConcurrentHashMap<K, Object> map = new ConcurrentHashMap<>();
+
+    ConcurrentMultimap()
+    {
+    }
+
+    //==============================================================
+    // Policy of Subclasses
+    //==============================================================
+
+    /**
+     * @return Whether a key can be mapped to the same value more than once.
+     */
+    abstract boolean allowsDuplicates();
+
+    /**
+     * @return The concurrent collection a key's values move to once they outgrow an array.
+     */
+    abstract Collection<V> newSharedCollection();
+
+    /**
+     * @return An immutable collection of the values, in order.
+     */
+    abstract C immutableCopyOf(Collection<V> values);
+
+    abstract C emptyCollection();
+
+    //==============================================================
+    // Reads
+    //==============================================================
+
+    /**
+     * @param key
+     * @return An immutable copy of the key's values, which is empty if the key has none.
+     */
+    public C get(Object key)
+    {
+        Object values = key == null ? null : map.get(key);
+
+        if (values == null)
+        {
+            return emptyCollection();
+        }
+
+        return immutableCopyOf(asCollection(values));
+    }
+
+    public boolean containsKey(Object key)
+    {
+        return valueCount(key) > 0;
+    }
+
+    public boolean containsEntry(Object key, Object value)
+    {
+        if (key == null || value == null)
+        {
+            return false;
+        }
+
+        Object values = map.get(key);
+
+        if (values == null)
+        {
+            return false;
+        }
+        else if (values instanceof ArrayValues)
+        {
+            return indexOf(((ArrayValues) values).values, value) >= 0;
+        }
+        else if (values instanceof SharedValues)
+        {
+            return ((SharedValues<?>) values).values.contains(value);
+        }
+
+        return values.equals(value);
+    }
+
+    /**
+     * @param key
+     * @return The number of values mapped to {@code key}.
+     */
+    public int valueCount(Object key)
+    {
+        Object values = key == null ? null : map.get(key);
+        return values == null ? 0 : countOf(values);
+    }
+
+    /**
+     * Counts the values of every key, which takes time proportional to the number of keys, and for keys with more than
+     * {@value #ARRAY_LIMIT} values, possibly to the number of values.
+     *
+     * @return The total number of values, across all keys.
+     */
+    public long size()
+    {
+        long size = 0;
+
+        for (Object values : map.values())
+        {
+            size += countOf(values);
+        }
+
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        for (Object values : map.values())
+        {
+            if (countOf(values) > 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return An immutable copy of the keys that have at least one value.
+     */
+    public Set<K> keySet()
+    {
+        Set<K> keys = new HashSet<>();
+        map.forEach((key, values) ->
+        {
+            if (countOf(values) > 0)
+            {
+                keys.add(key);
+            }
+        });
+
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * Takes an immutable copy of every key and its values. Each key's values are copied as {@link #get(Object)} would,
+     * one key after another, so the copy is not a snapshot of a single moment: it may include a change made to one key
+     * while missing an earlier change made to another.
+     *
+     * @return
+     */
+    public Map<K, C> weaklyConsistentCopy()
+    {
+        Map<K, C> copy = new HashMap<>(Hashing.capacityFor(map.size(), Hashing.DEFAULT_LOAD_FACTOR));
+
+        map.forEach((key, values) ->
+        {
+            C copyOfValues = immutableCopyOf(asCollection(values));
+
+            if (!copyOfValues.isEmpty())
+            {
+                copy.put(key, copyOfValues);
+            }
+        });
+
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Calls {@code action} once for each key and value, without copying the values.
+     *
+     * @param action
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action)
+    {
+        checkThat(action).usingMessage("action cannot be null").is(notNull());
+
+        map.forEach((key, values) ->
+        {
+            for (V value : asCollection(values))
+            {
+                action.accept(key, value);
+            }
+        });
+    }
+
+    //==============================================================
+    // Updates
+    //==============================================================
+
+    /**
+     * Maps {@code key} to {@code value}.
+     *
+     * @param key
+     * @param value
+     * @return Whether the multimap changed.
+     * @throws IllegalArgumentException If {@code key} or {@code value} is null.
+     */
+    public boolean put(K key, V value) throws IllegalArgumentException
+    {
+        checkKey(key);
+        checkValue(value);
+
+        return putValue(key, value);
+    }
+
+    /**
+     * Maps {@code key} to each of {@code values}. While the key has at most {@value #ARRAY_LIMIT} values, they are all
+     * added at once, with a single compare-and-set.
+     *
+     * @param key
+     * @param values
+     * @return Whether the multimap changed.
+     * @throws IllegalArgumentException If {@code key}, {@code values}, or any of the values is null.
+     */
+    public boolean putAll(K key, Collection<? extends V> values) throws IllegalArgumentException
+    {
+        checkKey(key);
+        checkThat(values).usingMessage("values cannot be null").is(notNull());
+
+        Object[] added = values.toArray();
+
+        for (Object value : added)
+        {
+            checkValue(value);
+        }
+
+        if (added.length == 0)
+        {
+            return false;
+        }
+
+        if (added.length == 1)
+        {
+            return putValue(key, cast(added[0]));
+        }
+
+        while (true)
+        {
+            Object current = map.get(key);
+
+            if (current instanceof SharedValues)
+            {
+                return addAllShared(key, shared(current), added);
+            }
+
+            Object[] existing = current == null ? new Object[0] : arrayOf(current);
+            Object[] combined = combine(existing, added);
+
+            if (combined.length == existing.length)
+            {
+                return false;
+            }
+
+            Object updated = combined.length <= ARRAY_LIMIT ? holderOf(combined) : newShared(combined);
+
+            if (publish(key, current, updated))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes one mapping of {@code key} to {@code value}.
+     *
+     * @param key
+     * @param value
+     * @return Whether the multimap changed.
+     */
+    public boolean remove(Object key, Object value)
+    {
+        if (key == null || value == null)
+        {
+            return false;
+        }
+
+        while (true)
+        {
+            Object current = map.get(key);
+
+            if (current == null)
+            {
+                return false;
+            }
+
+            if (current instanceof SharedValues)
+            {
+                SharedValues<V> shared = shared(current);
+
+                if (!shared.values.remove(value))
+                {
+                    //A retired collection may have handed the value on to its replacement
+                    if (shared.retired)
+                    {
+                        continue;
+                    }
+
+                    return false;
+                }
+
+                if (shared.values.isEmpty())
+                {
+                    retire(key, shared);
+                }
+
+                return true;
+            }
+
+            Object[] values = arrayOf(current);
+            int index = indexOf(values, value);
+
+            if (index < 0)
+            {
+                return false;
+            }
+
+            boolean removed = values.length == 1 ? map.remove(key, current) : map.replace(cast(key), current, holderOf(without(values, index)));
+
+            if (removed)
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code key} and all of its values.
+     *
+     * @param key
+     * @return An immutable collection of the values removed.
+     */
+    public C removeAll(Object key)
+    {
+        if (key == null)
+        {
+            return emptyCollection();
+        }
+
+        while (true)
+        {
+            Object current = map.get(key);
+
+            if (current == null)
+            {
+                return emptyCollection();
+            }
+
+            if (map.remove(key, current))
+            {
+                if (current instanceof SharedValues)
+                {
+                    return immutableCopyOf(drain(shared(current)));
+                }
+
+                return immutableCopyOf(asCollection(current));
+            }
+        }
+    }
+
+    public void clear()
+    {
+        for (K key : map.keySet())
+        {
+            removeAll(key);
+        }
+    }
+
+    //==============================================================
+    // Internal
+    //==============================================================
+
+    private boolean putValue(K key, V value)
+    {
+        while (true)
+        {
+            Object current = map.get(key);
+
+            if (current == null)
+            {
+                if (map.putIfAbsent(key, value) == null)
+                {
+                    return true;
+                }
+
+                continue;
+            }
+
+            if (current instanceof SharedValues)
+            {
+                Boolean added = addShared(shared(current), value);
+
+                if (added != null)
+                {
+                    return added;
+                }
+
+                continue;
+            }
+
+            Object[] values = arrayOf(current);
+
+            if (!allowsDuplicates() && indexOf(values, value) >= 0)
+            {
+                return false;
+            }
+
+            Object[] appended = Arrays.copyOf(values, values.length + 1);
+            appended[values.length] = value;
+
+            Object updated = appended.length <= ARRAY_LIMIT ? holderOf(appended) : newShared(appended);
+
+            if (publish(key, current, updated))
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Adds a value to a concurrent collection, unless it has been retired.
+     *
+     * @return Whether the value was added, or {@code null} if the collection was retired, and the put must be retried.
+     */
+    private Boolean addShared(SharedValues<V> shared, V value)
+    {
+        boolean added = shared.values.add(value);
+
+        if (!shared.retired)
+        {
+            return added;
+        }
+
+        //The collection is being retired. Whoever removes the value from it is responsible for it:
+        //if it's us, we put it again; otherwise, it has already been handed on.
+        if (!added || shared.values.remove(value))
+        {
+            return null;
+        }
+
+        return true;
+    }
+
+    private boolean addAllShared(K key, SharedValues<V> shared, Object[] values)
+    {
+        boolean changed = false;
+
+        for (Object value : values)
+        {
+            Boolean added = addShared(shared, cast(value));
+            changed |= added == null ? putValue(key, cast(value)) : added;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Removes a concurrent collection that has become empty. Any value that another thread adds to it in the meantime
+     * is taken back out, and put again.
+     */
+    private void retire(Object key, SharedValues<V> shared)
+    {
+        shared.retired = true;
+        map.remove(key, shared);
+
+        List<V> remaining = drain(shared);
+
+        if (!remaining.isEmpty())
+        {
+            for (V value : remaining)
+            {
+                putValue(cast(key), value);
+            }
+        }
+    }
+
+    /**
+     * Retires a concurrent collection and takes out all of its values. Each value is taken out by exactly one thread,
+     * whether this one or a thread that added it concurrently.
+     */
+    private List<V> drain(SharedValues<V> shared)
+    {
+        shared.retired = true;
+
+        List<V> drained = new ArrayList<>();
+
+        for (V value : shared.values)
+        {
+            if (shared.values.remove(value))
+            {
+                drained.add(value);
+            }
+        }
+
+        return drained;
+    }
+
+    private boolean publish(K key, Object current, Object updated)
+    {
+        if (current == null)
+        {
+            return map.putIfAbsent(key, updated) == null;
+        }
+
+        return map.replace(key, current, updated);
+    }
+
+    private SharedValues<V> newShared(Object[] values)
+    {
+        Collection<V> collection = newSharedCollection();
+
+        for (Object value : values)
+        {
+            collection.add(cast(value));
+        }
+
+        return new SharedValues<>(collection);
+    }
+
+    /**
+     * Appends the values being added, leaving out duplicates if they are not allowed.
+     */
+    private Object[] combine(Object[] existing, Object[] added)
+    {
+        if (allowsDuplicates())
+        {
+            Object[] combined = Arrays.copyOf(existing, existing.length + added.length);
+            System.arraycopy(added, 0, combined, existing.length, added.length);
+            return combined;
+        }
+
+        Set<Object> distinct = new LinkedHashSet<>(Arrays.asList(existing));
+        Collections.addAll(distinct, added);
+
+        return distinct.size() == existing.length ? existing : distinct.toArray();
+    }
+
+    private static Object holderOf(Object[] values)
+    {
+        return values.length == 1 ? values[0] : new ArrayValues(values);
+    }
+
+    private static Object[] arrayOf(Object values)
+    {
+        return values instanceof ArrayValues ? ((ArrayValues) values).values : new Object[] { values };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<V> asCollection(Object values)
+    {
+        if (values instanceof SharedValues)
+        {
+            return ((SharedValues<V>) values).values;
+        }
+
+        return (Collection<V>) Arrays.asList(arrayOf(values));
+    }
+
+    private static int countOf(Object values)
+    {
+        if (values instanceof ArrayValues)
+        {
+            return ((ArrayValues) values).values.length;
+        }
+        else if (values instanceof SharedValues)
+        {
+            return ((SharedValues<?>) values).values.size();
+        }
+
+        return 1;
+    }
+
+    private static int indexOf(Object[] values, Object value)
+    {
+        return indexOf(values, value, values.length);
+    }
+
+    private static int indexOf(Object[] values, Object value, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (values[i].equals(value))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static Object[] without(Object[] values, int index)
+    {
+        Object[] result = new Object[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> SharedValues<V> shared(Object values)
+    {
+        return (SharedValues<V>) values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value)
+    {
+        return (T) value;
+    }
+
+    private static void checkKey(Object key)
+    {
+        checkThat(key).usingMessage("key cannot be null").is(notNull());
+    }
+
+    private static void checkValue(Object value)
+    {
+        checkThat(value).usingMessage("values cannot be null").is(notNull());
+    }
+
+    /**
+     * An immutable array of values. It relies on identity for equality, so that
+     * {@link ConcurrentHashMap#replace(Object, Object, Object)} acts as a compare-and-set.
+     */
+    private static final class ArrayValues
+    {
+
+        private final Object[] values;
+
+        private ArrayValues(Object[] values)
+        {
+            this.values = values;
+        }
+    }
+
+    /**
+     * A concurrent collection of values, changed in place.
+     * Once retired, it is no longer mapped to its key, and values added to it must be put again.
+     */
+    private static final class SharedValues<V>
+    {
+
+        private final Collection<V> values;
+
+        private volatile boolean retired = false;
+
+        private SharedValues(Collection<V> values)
+        {
+            this.values = values;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return weaklyConsistentCopy().toString();
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+/**
+ * Estimates how many times each key has been counted, in a fixed table of {@link #depth()} rows
+ * of {@link #width()} counters, however many keys there are.
+ * <p>
+ * Each key is counted in one counter per row, and its estimate is the smallest of them. Other keys share those
+ * counters, so an estimate can be too high, but never too low: with a width of {@code e / epsilon} and a depth of
+ * {@code ln(1 / delta)}, it is within {@code epsilon} times the {@linkplain #totalCount() total count}
+ * with a probability of {@code 1 - delta}.
+ * <p>
+ * Counts use conservative update: an add raises each of the key's counters only as far as its new estimate, rather
+ * than adding to all of them, which leaves less noise for the keys that share them. Adds of the same key take
+ * one of many striped locks, since two of them reading the same estimate would otherwise lose a count; the counters
+ * themselves are raised with compare-and-set, and reads never lock.
+ * <p>
+ * Sketches of the same dimensions {@linkplain #merge(CountMinSketch) merge} by adding their counters, and
+ * {@link #decay(double)} scales every count down, so that a sketch decayed on a schedule favors recent counts.
+ *
+ * @param <K> The type of keys.
+ * @author SirWellington
+ * @see Maps#createCountMinSketch(double, double)
+ * @see TopK
+ */
+@ThreadSafe
+public final class CountMinSketch<K>
+{
+
+    static final int MAX_DEPTH = 16;
+
+    static final int MAX_COUNTERS = 1 << 28;
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+    private final LongAdder total = new LongAdder();
+
+    private final Object[] locks;
+
+    private CountMinSketch(int width, int depth)
+    {
+        if (depth < 1 || depth > MAX_DEPTH)
+        {
+            throw new IllegalArgumentException("depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+
+        if (width < 1 || width > MAX_COUNTERS || (long) roundUp(width) * depth > MAX_COUNTERS)
+        {
+            throw new IllegalArgumentException("width must be positive, with up to " + MAX_COUNTERS + " counters in all: " + width);
+        }
+
+        this.width = roundUp(width);
+        this.depth = depth;
+        this.counters = new AtomicLongArray(this.width * depth);
+
+        int stripes = Math.min(1024, Integer.highestOneBit(Math.max(4, Runtime.getRuntime().availableProcessors() * 8) - 1) << 1);
+        this.locks = new Object[stripes];
+
+        for (int i = 0; i < stripes; i++)
+        {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @param <K>
+     * @param epsilon The error of estimates, as a share of the total count; between 0 and 1, exclusive.
+     * @param delta   The probability of an estimate exceeding that error; between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <K> CountMinSketch<K> create(double epsilon, double delta) throws IllegalArgumentException
+    {
+        checkProbability(epsilon, "epsilon");
+        checkProbability(delta, "delta");
+
+        long width = (long) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1.0 / delta));
+
+        if (width > MAX_COUNTERS)
+        {
+            throw new IllegalArgumentException("epsilon is too small for a sketch of up to " + MAX_COUNTERS + " counters: " + epsilon);
+        }
+
+        return new CountMinSketch<>((int) width, Math.max(1, depth));
+    }
+
+    /**
+     * @param <K>
+     * @param width Rounded up to a power of two.
+     * @param depth Between 1 and 16.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <K> CountMinSketch<K> createWithDimensions(int width, int depth) throws IllegalArgumentException
+    {
+        return new CountMinSketch<>(width, depth);
+    }
+
+    //==============================================================
+    // Counting
+    //==============================================================
+
+    /**
+     * @param key
+     * @return The new estimate for the key.
+     * @throws IllegalArgumentException If {@code key} is null.
+     */
+    public long add(@Required K key) throws IllegalArgumentException
+    {
+        return add(key, 1);
+    }
+
+    /**
+     * @param key
+     * @param count Cannot be negative.
+     * @return The new estimate for the key.
+     * @throws IllegalArgumentException If {@code key} is null, or {@code count} is negative.
+     */
+    public long add(@Required K key, long count) throws IllegalArgumentException
+    {
+        checkKey(key);
+
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("count cannot be negative: " + count);
+        }
+
+        long hash = hashOf(key);
+
+        if (count == 0)
+        {
+            return estimate(hash);
+        }
+
+        long target;
+
+        synchronized (locks[(int) (hash >>> 48) & (locks.length - 1)])
+        {
+            target = estimate(hash) + count;
+
+            for (int row = 0; row < depth; row++)
+            {
+                raise(indexOf(hash, row), target);
+            }
+        }
+
+        total.add(count);
+        return target;
+    }
+
+    /**
+     * @param key
+     * @return At least the number of times the key has been counted, and probably not much more.
+     */
+    public long estimate(K key)
+    {
+        return key == null ? 0 : estimate(hashOf(key));
+    }
+
+    /**
+     * @return The sum of every count added, scaled down along with them by {@link #decay(double)}.
+     */
+    public long totalCount()
+    {
+        return total.sum();
+    }
+
+    public int width()
+    {
+        return width;
+    }
+
+    public int depth()
+    {
+        return depth;
+    }
+
+    /**
+     * @param other
+     * @return Whether the sketches have the same width and depth, and so can be merged.
+     */
+    public boolean isCompatible(CountMinSketch<K> other)
+    {
+        return other != null && other.width == width && other.depth == depth;
+    }
+
+    /**
+     * Adds the counts of another sketch to this one, such as that of another shard. Estimates from the result
+     * are as accurate as those of one sketch that counted both.
+     *
+     * @param other
+     * @throws IllegalArgumentException If the sketches are not {@linkplain #isCompatible(CountMinSketch) compatible}.
+     */
+    public void merge(@Required CountMinSketch<K> other) throws IllegalArgumentException
+    {
+        if (!isCompatible(other))
+        {
+            throw new IllegalArgumentException("sketches differ in width or depth");
+        }
+
+        long otherTotal = other.totalCount();
+
+        for (int i = 0; i < counters.length(); i++)
+        {
+            long value = other.counters.get(i);
+
+            if (value != 0)
+            {
+                counters.addAndGet(i, value);
+            }
+        }
+
+        total.add(otherTotal);
+    }
+
+    /**
+     * Scales every count down by {@code factor}, rounding down. Called on a schedule, this gives counts that decay
+     * exponentially with time; a factor of 0.5 every minute gives a half-life of a minute.
+     * Counts added while it runs may or may not be scaled.
+     *
+     * @param factor Between 0 and 1; 0 clears the sketch.
+     * @throws IllegalArgumentException
+     */
+    public void decay(double factor) throws IllegalArgumentException
+    {
+        if (!(factor >= 0.0 && factor <= 1.0))
+        {
+            throw new IllegalArgumentException("factor must be between 0 and 1: " + factor);
+        }
+
+        for (int i = 0; i < counters.length(); i++)
+        {
+            long value;
+
+            do
+            {
+                value = counters.get(i);
+            }
+            while (value != 0 && !counters.compareAndSet(i, value, (long) (value * factor)));
+        }
+
+        long previous = total.sumThenReset();
+        total.add((long) (previous * factor));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CountMinSketch{" + "width=" + width + ", depth=" + depth + ", totalCount=" + totalCount() + '}';
+    }
+
+    private long estimate(long hash)
+    {
+        long estimate = Long.MAX_VALUE;
+
+        for (int row = 0; row < depth; row++)
+        {
+            estimate = Math.min(estimate, counters.get(indexOf(hash, row)));
+        }
+
+        return estimate;
+    }
+
+    private void raise(int index, long target)
+    {
+        long value = counters.get(index);
+
+        while (value < target && !counters.compareAndSet(index, value, target))
+        {
+            value = counters.get(index);
+        }
+    }
+
+    /**
+     * Derives the counter of each row from two halves of the hash, as {@code h1 + row * h2}.
+     */
+    private int indexOf(long hash, int row)
+    {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+
+        return row * width + ((first + row * second) & (width - 1));
+    }
+
+    private static int roundUp(int width)
+    {
+        return Integer.bitCount(width) == 1 ? width : Integer.highestOneBit(width) << 1;
+    }
+
+    private static long hashOf(Object key)
+    {
+        return Hashing.mix64(key.hashCode());
+    }
+
+    private static void checkKey(Object key)
+    {
+        if (key == null)
+        {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+    }
+
+    private static void checkProbability(double value, String name)
+    {
+        if (!(value > 0.0 && value < 1.0))
+        {
+            throw new IllegalArgumentException(name + " must be between 0 and 1, exclusive: " + value);
+        }
+    }
+}
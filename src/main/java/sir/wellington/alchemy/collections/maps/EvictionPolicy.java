@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+/**
+ * Decides which entries a bounded {@link CachingMap} evicts when it is full.
+ *
+ * @author SirWellington
+ * @see CacheBuilder#withEvictionPolicy(EvictionPolicy)
+ */
+public enum EvictionPolicy
+{
+    /**
+     * Least Recently Used: evicts the entry that was read or written longest ago.
+     * Works well when recent entries are the likeliest to be used again, but a single scan
+     * over many keys flushes the whole cache.
+     */
+    LRU,
+
+    /**
+     * Least Frequently Used: evicts the entry read or written the fewest times, and among those, the oldest.
+     * Resists scans, but entries that were popular once stay long after they stop being used.
+     */
+    LFU,
+
+    /**
+     * Window TinyLFU: new entries enter a small LRU window, and leave it for the main, segmented LRU
+     * only when an approximate count of their recent use exceeds that of the entry they would replace.
+     * Frequencies are counted in a compact sketch that periodically halves, so that it forgets old popularity.
+     * Combines the strengths of {@link #LRU} and {@link #LFU}, and is the default.
+     */
+    W_TINY_LFU
+}
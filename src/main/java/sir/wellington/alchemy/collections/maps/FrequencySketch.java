@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+/**
+ * Estimates how often each key has been seen recently, in 4-bit counters packed 16 to a {@code long}.
+ * <p>
+ * Each key is counted in four counters, and its frequency is the smallest of them, so estimates can be high
+ * but never low. Once a sample of {@code 10} increments per {@code long} has been counted, every counter
+ * is halved, so that the sketch follows changes in popularity.
+ *
+ * @author SirWellington
+ * @see EvictionPolicy#W_TINY_LFU
+ */
+@Internal
+@ThreadUnsafe
+final class FrequencySketch
+{
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int MIN_TABLE_SIZE = 16;
+    private static final int MAX_TABLE_SIZE = 1 << 22;
+
+    /**
+     * Clears the top bit of each counter, after they have been shifted right.
+     */
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+
+    private static final long[] SEEDS = {
+        0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+
+    private int additions = 0;
+
+    /**
+     * @param expectedEntries Roughly how many entries are tracked. Beyond about four million,
+     *                        the sketch stops growing, and its estimates become less precise.
+     */
+    FrequencySketch(long expectedEntries)
+    {
+        long size = Math.max(MIN_TABLE_SIZE, Math.min(expectedEntries, MAX_TABLE_SIZE));
+        int length = Integer.highestOneBit((int) size - 1) << 1;
+
+        this.table = new long[length];
+        this.mask = length - 1;
+        this.sampleSize = 10 * length;
+    }
+
+    int frequency(int hash)
+    {
+        int frequency = MAX_FREQUENCY;
+
+        for (int depth = 0; depth < SEEDS.length; depth++)
+        {
+            int offset = offsetOf(hash, depth);
+            int count = (int) ((table[indexOf(hash, depth)] >>> offset) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+
+        return frequency;
+    }
+
+    void increment(int hash)
+    {
+        boolean added = false;
+
+        for (int depth = 0; depth < SEEDS.length; depth++)
+        {
+            int index = indexOf(hash, depth);
+            int offset = offsetOf(hash, depth);
+
+            if (((table[index] >>> offset) & 0xF) != MAX_FREQUENCY)
+            {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize)
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Halves every counter, and the count of additions with them.
+     */
+    void reset()
+    {
+        for (int i = 0; i < table.length; i++)
+        {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int depth)
+    {
+        long index = (hash + SEEDS[depth]) * SEEDS[depth];
+        index += index >>> 32;
+        return (int) index & mask;
+    }
+
+    /**
+     * Picks one of the 16 counters in a {@code long}, from a different byte of the hash at each depth.
+     */
+    private static int offsetOf(int hash, int depth)
+    {
+        return ((hash >>> (depth << 3)) & 0xF) << 2;
+    }
+}
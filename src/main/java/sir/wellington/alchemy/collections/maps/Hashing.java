@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.*;
+
+/**
+ * Hash mixing and table sizing shared by the open-addressing maps.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class Hashing
+{
+
+    /**
+     * The largest power-of-two table that an array can hold.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * 2<sup>64</sup> divided by the golden ratio. Multiplying by it spreads sequential keys
+     * evenly across the table.
+     */
+    private static final long LONG_PHI = 0x9E3779B97F4A7C15L;
+
+    private static final int INT_PHI = 0x9E3779B9;
+
+    Hashing() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static int mix(int key)
+    {
+        int hash = key * INT_PHI;
+        return hash ^ (hash >>> 16);
+    }
+
+    static int mix(long key)
+    {
+        long hash = key * LONG_PHI;
+        hash ^= (hash >>> 32);
+        return (int) (hash ^ (hash >>> 16));
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which spreads {@code key} over all 64 bits, for structures that need
+     * several independent indexes from one hash.
+     */
+    static long mix64(long key)
+    {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static void checkLoadFactor(float loadFactor)
+    {
+        checkThat((double) loadFactor)
+            .usingMessage("load factor must be between 0 and 1, exclusive: " + loadFactor)
+            .is(greaterThan(0.0))
+            .is(lessThan(1.0));
+    }
+
+    static void checkExpectedSize(int expectedSize)
+    {
+        checkThat(expectedSize)
+            .usingMessage("expected size cannot be negative: " + expectedSize)
+            .is(greaterThanOrEqualTo(0));
+    }
+
+    /**
+     * Finds the smallest power-of-two table that can hold {@code expectedSize} entries
+     * without exceeding the {@code loadFactor}.
+     */
+    static int capacityFor(int expectedSize, float loadFactor)
+    {
+        checkExpectedSize(expectedSize);
+
+        long needed = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+        if (needed >= MAX_CAPACITY)
+        {
+            return MAX_CAPACITY;
+        }
+
+        int capacity = Integer.highestOneBit((int) Math.max(2, needed) - 1) << 1;
+        return Math.max(2, capacity);
+    }
+
+    /**
+     * The number of entries a table of {@code capacity} can hold before it grows.
+     * At least one slot is always left free, so probing for a missing key terminates.
+     */
+    static int maxFill(int capacity, float loadFactor)
+    {
+        return Math.min((int) Math.ceil(capacity * (double) loadFactor), capacity - 1);
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+
+/**
+ * A {@link Map} that can never change, stored as a single open-addressed array of alternating keys and values,
+ * without the per-entry nodes of a {@link HashMap}.
+ * <p>
+ * Lookups use linear probing over the keys, in a table that is at most three-quarters full.
+ * {@code null} keys and values are allowed. Every operation that would change the map throws an
+ * {@link UnsupportedOperationException}, even when it would have no effect.
+ * <p>
+ * Iteration follows the layout of the table, not the order the entries were given in.
+ * <p>
+ * The map is {@link Serializable} through a proxy that holds only its keys and values; the table is rebuilt when it is
+ * read back.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#immutableCopyOf(Map)
+ */
+@Immutable
+public final class ImmutableMap<K, V> extends AbstractMap<K, V> implements Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Stands in for a {@code null} key, since a {@code null} key slot is an empty one.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private static final ImmutableMap<Object, Object> EMPTY = new ImmutableMap<>(new Object[2], 0, 0);
+
+    /**
+     * The key for slot {@code i} is at {@code 2i}, and its value at {@code 2i + 1}.
+     * The number of slots is a power of two, and at least one is always free.
+     */
+    private final Object[] table;
+    private final int size;
+
+    /**
+     * The sum of the hash codes of the entries, as {@link Map#hashCode()} defines it.
+     */
+    private final int hashCode;
+
+    private transient Set<Entry<K, V>> entrySet;
+
+    private ImmutableMap(Object[] table, int size, int hashCode)
+    {
+        this.table = table;
+        this.size = size;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * @param <K>
+     * @param <V>
+     * @return The shared empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableMap<K, V> empty()
+    {
+        return (ImmutableMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Copies the entries of the map. Copying an {@code ImmutableMap} returns it as-is.
+     *
+     * @param <K>
+     * @param <V>
+     * @param map A {@code null} map is treated as empty.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableMap<K, V> copyOf(@Optional Map<? extends K, ? extends V> map)
+    {
+        if (map instanceof ImmutableMap)
+        {
+            return (ImmutableMap<K, V>) map;
+        }
+
+        if (map == null || map.isEmpty())
+        {
+            return empty();
+        }
+
+        int slots = Hashing.capacityFor(map.size(), Hashing.DEFAULT_LOAD_FACTOR);
+        Object[] table = new Object[slots * 2];
+        int mask = slots - 1;
+        int size = 0;
+        int hashCode = 0;
+
+        for (Entry<? extends K, ? extends V> entry : map.entrySet())
+        {
+            Object key = entry.getKey() == null ? NULL_KEY : entry.getKey();
+            int slot = Hashing.mix(key.hashCode()) & mask;
+
+            while (table[slot * 2] != null && !table[slot * 2].equals(key))
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            if (table[slot * 2] == null)
+            {
+                size++;
+            }
+            else
+            {
+                hashCode -= entryHashCode(table[slot * 2], table[slot * 2 + 1]);
+            }
+
+            table[slot * 2] = key;
+            table[slot * 2 + 1] = entry.getValue();
+            hashCode += entryHashCode(key, entry.getValue());
+        }
+
+        return new ImmutableMap<>(table, size, hashCode);
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        int slot = slotOf(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue)
+    {
+        int slot = slotOf(key);
+        return slot < 0 ? defaultValue : valueAt(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        for (int slot = 0; slot < table.length / 2; slot++)
+        {
+            if (table[slot * 2] != null && Objects.equals(value, table[slot * 2 + 1]))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action)
+    {
+        Objects.requireNonNull(action);
+
+        for (int slot = 0; slot < table.length / 2; slot++)
+        {
+            if (table[slot * 2] != null)
+            {
+                action.accept(keyAt(slot), valueAt(slot));
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        Set<Entry<K, V>> entries = entrySet;
+
+        if (entries == null)
+        {
+            entries = new AbstractSet<Entry<K, V>>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object object)
+                {
+                    if (!(object instanceof Entry))
+                    {
+                        return false;
+                    }
+
+                    Entry<?, ?> entry = (Entry<?, ?>) object;
+                    int slot = slotOf(entry.getKey());
+                    return slot >= 0 && Objects.equals(valueAt(slot), entry.getValue());
+                }
+            };
+
+            entrySet = entries;
+        }
+
+        return entries;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other instanceof ImmutableMap && ((ImmutableMap<?, ?>) other).hashCode != hashCode)
+        {
+            return false;
+        }
+
+        return super.equals(other);
+    }
+
+    /**
+     * @return The slot holding {@code key}, or -1 if there is none.
+     */
+    private int slotOf(Object key)
+    {
+        Object stored = key == null ? NULL_KEY : key;
+        int mask = table.length / 2 - 1;
+        int slot = Hashing.mix(stored.hashCode()) & mask;
+
+        for (Object candidate = table[slot * 2]; candidate != null; candidate = table[slot * 2])
+        {
+            if (candidate.equals(stored))
+            {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int slot)
+    {
+        Object key = table[slot * 2];
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot)
+    {
+        return (V) table[slot * 2 + 1];
+    }
+
+    private static int entryHashCode(Object key, Object value)
+    {
+        return (key == NULL_KEY ? 0 : key.hashCode()) ^ Objects.hashCode(value);
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>>
+    {
+
+        private int slot = nextSlot(0);
+
+        @Override
+        public boolean hasNext()
+        {
+            return slot < table.length / 2;
+        }
+
+        @Override
+        public Entry<K, V> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            Entry<K, V> entry = new SimpleImmutableEntry<>(keyAt(slot), valueAt(slot));
+            slot = nextSlot(slot + 1);
+            return entry;
+        }
+
+        private int nextSlot(int from)
+        {
+            int next = from;
+
+            while (next < table.length / 2 && table[next * 2] == null)
+            {
+                next++;
+            }
+
+            return next;
+        }
+    }
+
+    //==============================================================
+    // Serialization
+    //==============================================================
+
+    private Object writeReplace()
+    {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException
+    {
+        throw new InvalidObjectException("ImmutableMaps are serialized through their SerializedForm");
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public V put(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V replace(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("ImmutableMaps cannot be modified");
+    }
+
+    /**
+     * Stands in for an {@link ImmutableMap} in a stream, as parallel arrays of its keys and values.
+     */
+    private static final class SerializedForm implements Serializable
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] keys;
+        private final Object[] values;
+
+        SerializedForm(ImmutableMap<?, ?> map)
+        {
+            this.keys = new Object[map.size];
+            this.values = new Object[map.size];
+
+            int i = 0;
+            for (int slot = 0; slot < map.table.length / 2; slot++)
+            {
+                if (map.table[slot * 2] != null)
+                {
+                    keys[i] = map.keyAt(slot);
+                    values[i] = map.valueAt(slot);
+                    i++;
+                }
+            }
+        }
+
+        private Object readResolve() throws InvalidObjectException
+        {
+            if (keys.length != values.length)
+            {
+                throw new InvalidObjectException("there are " + keys.length + " keys, but " + values.length + " values");
+            }
+
+            Map<Object, Object> map = new HashMap<>(Hashing.capacityFor(keys.length, Hashing.DEFAULT_LOAD_FACTOR));
+
+            for (int i = 0; i < keys.length; i++)
+            {
+                map.put(keys[i], values[i]);
+            }
+
+            return ImmutableMap.copyOf(map);
+        }
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.Arrays;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * An open-addressing, linear-probing hash map from {@code int} keys to {@code int} values.
+ * <p>
+ * Keys and values live unboxed in two parallel arrays, so there are no per-entry objects, and
+ * {@link #get(int)}, {@link #put(int, int)}, {@link #addTo(int, int)} and {@link #remove(int)} do not allocate,
+ * except when the table needs to grow.
+ * <p>
+ * Because values are primitives, a missing key reads as {@code 0}. Use {@link #containsKey(int)}
+ * or {@link #getOrDefault(int, int)} when {@code 0} is a meaningful value.
+ * <p>
+ * Create one using {@link Maps#createIntIntMap() }.
+ *
+ * @author SirWellington
+ */
+@ThreadUnsafe
+public final class IntIntMap
+{
+
+    /**
+     * Receives each entry during {@link #forEach(EntryConsumer)}.
+     */
+    public interface EntryConsumer
+    {
+        void accept(int key, int value);
+    }
+
+    /**
+     * Marks an empty slot. The key {@code 0} itself is kept outside of the table.
+     */
+    private static final int FREE_KEY = 0;
+
+    private final float loadFactor;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    IntIntMap(int expectedSize, float loadFactor)
+    {
+        Hashing.checkLoadFactor(loadFactor);
+
+        this.loadFactor = loadFactor;
+        allocate(Hashing.capacityFor(expectedSize, loadFactor));
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key)
+    {
+        if (key == FREE_KEY)
+        {
+            return hasFreeKey;
+        }
+
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key
+     * @return The value mapped to {@code key}, or {@code 0} if there is none.
+     */
+    public int get(int key)
+    {
+        return getOrDefault(key, 0);
+    }
+
+    public int getOrDefault(int key, int defaultValue)
+    {
+        if (key == FREE_KEY)
+        {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any existing value.
+     *
+     * @param key
+     * @param value
+     * @return The previous value, or {@code 0} if there was none.
+     */
+    public int put(int key, int value)
+    {
+        if (key == FREE_KEY)
+        {
+            int previous = hasFreeKey ? freeKeyValue : 0;
+
+            if (!hasFreeKey)
+            {
+                hasFreeKey = true;
+                size++;
+            }
+
+            freeKeyValue = value;
+            return previous;
+        }
+
+        int index = Hashing.mix(key) & mask;
+
+        while (keys[index] != FREE_KEY)
+        {
+            if (keys[index] == key)
+            {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        index = prepareInsert(index, key);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to the value mapped to {@code key}, treating a missing key as {@code 0}.
+     * This is the allocation-free way to keep counters.
+     *
+     * @param key
+     * @param delta
+     * @return The new value.
+     */
+    public int addTo(int key, int delta)
+    {
+        if (key == FREE_KEY)
+        {
+            if (!hasFreeKey)
+            {
+                hasFreeKey = true;
+                freeKeyValue = 0;
+                size++;
+            }
+
+            freeKeyValue += delta;
+            return freeKeyValue;
+        }
+
+        int index = Hashing.mix(key) & mask;
+
+        while (keys[index] != FREE_KEY)
+        {
+            if (keys[index] == key)
+            {
+                values[index] += delta;
+                return values[index];
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        index = prepareInsert(index, key);
+        keys[index] = key;
+        values[index] = delta;
+        size++;
+
+        return delta;
+    }
+
+    /**
+     * Removes the mapping for {@code key}, if there is one.
+     *
+     * @param key
+     * @return The value that was removed, or {@code 0} if there was none.
+     */
+    public int remove(int key)
+    {
+        if (key == FREE_KEY)
+        {
+            if (!hasFreeKey)
+            {
+                return 0;
+            }
+
+            int previous = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = 0;
+            size--;
+            return previous;
+        }
+
+        int index = indexOf(key);
+
+        if (index < 0)
+        {
+            return 0;
+        }
+
+        int previous = values[index];
+        shiftKeys(index);
+        size--;
+
+        return previous;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        freeKeyValue = 0;
+        size = 0;
+    }
+
+    /**
+     * Visits every entry in this map, in no particular order.
+     * The map must not be modified while it is being visited.
+     *
+     * @param consumer
+     */
+    public void forEach(@Required EntryConsumer consumer)
+    {
+        checkThat(consumer)
+            .usingMessage("consumer cannot be null")
+            .is(notNull());
+
+        if (hasFreeKey)
+        {
+            consumer.accept(FREE_KEY, freeKeyValue);
+        }
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (keys[i] != FREE_KEY)
+            {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return A new array containing every key in this map, in no particular order.
+     */
+    public int[] keys()
+    {
+        int[] result = new int[size];
+        int position = 0;
+
+        if (hasFreeKey)
+        {
+            result[position++] = FREE_KEY;
+        }
+
+        for (int key : keys)
+        {
+            if (key != FREE_KEY)
+            {
+                result[position++] = key;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("{");
+
+        forEach(new EntryConsumer()
+        {
+            @Override
+            public void accept(int key, int value)
+            {
+                if (builder.length() > 1)
+                {
+                    builder.append(", ");
+                }
+
+                builder.append(key).append('=').append(value);
+            }
+        });
+
+        return builder.append('}').toString();
+    }
+
+    private int indexOf(int key)
+    {
+        int index = Hashing.mix(key) & mask;
+
+        while (keys[index] != FREE_KEY)
+        {
+            if (keys[index] == key)
+            {
+                return index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Closes the gap left by a removal by moving later entries of the same probe
+     * sequence back, so lookups never need tombstones.
+     */
+    private void shiftKeys(int position)
+    {
+        while (true)
+        {
+            int last = position;
+            position = (position + 1) & mask;
+
+            int key;
+            while (true)
+            {
+                key = keys[position];
+
+                if (key == FREE_KEY)
+                {
+                    keys[last] = FREE_KEY;
+                    return;
+                }
+
+                int slot = Hashing.mix(key) & mask;
+
+                if (last <= position ? (last >= slot || slot > position) : (last >= slot && slot > position))
+                {
+                    break;
+                }
+
+                position = (position + 1) & mask;
+            }
+
+            keys[last] = key;
+            values[last] = values[position];
+        }
+    }
+
+    /**
+     * Grows the table if it is full enough, before a new key is added.
+     *
+     * @return The free slot to place {@code key} in, which moves if the table grows.
+     */
+    private int prepareInsert(int index, int key)
+    {
+        if (size < resizeAt)
+        {
+            return index;
+        }
+
+        rehash(keys.length * 2);
+
+        index = Hashing.mix(key) & mask;
+        while (keys[index] != FREE_KEY)
+        {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void rehash(int newCapacity)
+    {
+        if (keys.length >= Hashing.MAX_CAPACITY)
+        {
+            throw new IllegalStateException("map has reached its maximum capacity of " + resizeAt + " entries");
+        }
+
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            int key = oldKeys[i];
+
+            if (key == FREE_KEY)
+            {
+                continue;
+            }
+
+            int index = Hashing.mix(key) & mask;
+            while (keys[index] != FREE_KEY)
+            {
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.maxFill(capacity, loadFactor);
+    }
+}
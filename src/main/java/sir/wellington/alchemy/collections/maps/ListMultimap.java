@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import sir.wellington.alchemy.collections.lists.ImmutableList;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+/**
+ * A {@link ConcurrentMultimap} that keeps every value put for a key, duplicates included, in the order they were put.
+ * {@link #remove(Object, Object)} removes the first occurrence of a value.
+ * <p>
+ * Once a key has more than {@value #ARRAY_LIMIT} values, they are kept in a {@link ConcurrentLinkedQueue}, so counting
+ * them takes time proportional to their number.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#createListMultimap()
+ */
+@ThreadSafe
+public final class ListMultimap<K, V> extends ConcurrentMultimap<K, V, List<V>>
+{
+
+    ListMultimap()
+    {
+    }
+
+    @Override
+    boolean allowsDuplicates()
+    {
+        return true;
+    }
+
+    @Override
+    Collection<V> newSharedCollection()
+    {
+        return new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    List<V> immutableCopyOf(Collection<V> values)
+    {
+        return ImmutableList.copyOf(values);
+    }
+
+    @Override
+    List<V> emptyCollection()
+    {
+        return ImmutableList.empty();
+    }
+}
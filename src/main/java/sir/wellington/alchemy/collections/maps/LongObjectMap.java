@@ -0,0 +1,402 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.Arrays;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * An open-addressing, linear-probing hash map from {@code long} keys to object values.
+ * <p>
+ * Keys are stored unboxed in an array parallel to the values, so there are no per-entry
+ * {@code Node} objects or boxed keys, and {@link #get(long)}, {@link #put(long, Object)}
+ * and {@link #remove(long)} do not allocate, except when the table needs to grow.
+ * <p>
+ * Null values are allowed, but are indistinguishable from missing keys in {@link #get(long)};
+ * use {@link #containsKey(long)} to tell them apart.
+ * <p>
+ * Create one using {@link Maps#createLongObjectMap() }.
+ *
+ * @param <V> The type of values.
+ * @author SirWellington
+ */
+@ThreadUnsafe
+public final class LongObjectMap<V>
+{
+
+    /**
+     * Receives each entry during {@link #forEach(EntryConsumer)}.
+     */
+    public interface EntryConsumer<V>
+    {
+        void accept(long key, V value);
+    }
+
+    /**
+     * Marks an empty slot. The key {@code 0} itself is kept outside of the table.
+     */
+    private static final long FREE_KEY = 0;
+
+    private final float loadFactor;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    private boolean hasFreeKey;
+    private V freeKeyValue;
+
+    LongObjectMap(int expectedSize, float loadFactor)
+    {
+        Hashing.checkLoadFactor(loadFactor);
+
+        this.loadFactor = loadFactor;
+        allocate(Hashing.capacityFor(expectedSize, loadFactor));
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key)
+    {
+        if (key == FREE_KEY)
+        {
+            return hasFreeKey;
+        }
+
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param key
+     * @return The value mapped to {@code key}, or {@code null} if there is none.
+     */
+    public V get(long key)
+    {
+        return getOrDefault(key, null);
+    }
+
+    public V getOrDefault(long key, V defaultValue)
+    {
+        if (key == FREE_KEY)
+        {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : valueAt(index);
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any existing value.
+     *
+     * @param key
+     * @param value
+     * @return The previous value, or {@code null} if there was none.
+     */
+    public V put(long key, V value)
+    {
+        if (key == FREE_KEY)
+        {
+            V previous = hasFreeKey ? freeKeyValue : null;
+
+            if (!hasFreeKey)
+            {
+                hasFreeKey = true;
+                size++;
+            }
+
+            freeKeyValue = value;
+            return previous;
+        }
+
+        int index = Hashing.mix(key) & mask;
+
+        while (keys[index] != FREE_KEY)
+        {
+            if (keys[index] == key)
+            {
+                V previous = valueAt(index);
+                values[index] = value;
+                return previous;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        index = prepareInsert(index, key);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+
+        return null;
+    }
+
+    /**
+     * Removes the mapping for {@code key}, if there is one.
+     *
+     * @param key
+     * @return The value that was removed, or {@code null} if there was none.
+     */
+    public V remove(long key)
+    {
+        if (key == FREE_KEY)
+        {
+            if (!hasFreeKey)
+            {
+                return null;
+            }
+
+            V previous = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            size--;
+            return previous;
+        }
+
+        int index = indexOf(key);
+
+        if (index < 0)
+        {
+            return null;
+        }
+
+        V previous = valueAt(index);
+        shiftKeys(index);
+        size--;
+
+        return previous;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        hasFreeKey = false;
+        freeKeyValue = null;
+        size = 0;
+    }
+
+    /**
+     * Visits every entry in this map, in no particular order.
+     * The map must not be modified while it is being visited.
+     *
+     * @param consumer
+     */
+    public void forEach(@Required EntryConsumer<? super V> consumer)
+    {
+        checkThat(consumer)
+            .usingMessage("consumer cannot be null")
+            .is(notNull());
+
+        if (hasFreeKey)
+        {
+            consumer.accept(FREE_KEY, freeKeyValue);
+        }
+
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (keys[i] != FREE_KEY)
+            {
+                consumer.accept(keys[i], valueAt(i));
+            }
+        }
+    }
+
+    /**
+     * @return A new array containing every key in this map, in no particular order.
+     */
+    public long[] keys()
+    {
+        long[] result = new long[size];
+        int position = 0;
+
+        if (hasFreeKey)
+        {
+            result[position++] = FREE_KEY;
+        }
+
+        for (long key : keys)
+        {
+            if (key != FREE_KEY)
+            {
+                result[position++] = key;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("{");
+
+        forEach(new EntryConsumer<V>()
+        {
+            @Override
+            public void accept(long key, V value)
+            {
+                if (builder.length() > 1)
+                {
+                    builder.append(", ");
+                }
+
+                builder.append(key).append('=').append(value);
+            }
+        });
+
+        return builder.append('}').toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index)
+    {
+        return (V) values[index];
+    }
+
+    private int indexOf(long key)
+    {
+        int index = Hashing.mix(key) & mask;
+
+        while (keys[index] != FREE_KEY)
+        {
+            if (keys[index] == key)
+            {
+                return index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Closes the gap left by a removal by moving later entries of the same probe
+     * sequence back, so lookups never need tombstones.
+     */
+    private void shiftKeys(int position)
+    {
+        while (true)
+        {
+            int last = position;
+            position = (position + 1) & mask;
+
+            long key;
+            while (true)
+            {
+                key = keys[position];
+
+                if (key == FREE_KEY)
+                {
+                    keys[last] = FREE_KEY;
+                    values[last] = null;
+                    return;
+                }
+
+                int slot = Hashing.mix(key) & mask;
+
+                if (last <= position ? (last >= slot || slot > position) : (last >= slot && slot > position))
+                {
+                    break;
+                }
+
+                position = (position + 1) & mask;
+            }
+
+            keys[last] = key;
+            values[last] = values[position];
+        }
+    }
+
+    /**
+     * Grows the table if it is full enough, before a new key is added.
+     *
+     * @return The free slot to place {@code key} in, which moves if the table grows.
+     */
+    private int prepareInsert(int index, long key)
+    {
+        if (size < resizeAt)
+        {
+            return index;
+        }
+
+        rehash(keys.length * 2);
+
+        index = Hashing.mix(key) & mask;
+        while (keys[index] != FREE_KEY)
+        {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void rehash(int newCapacity)
+    {
+        if (keys.length >= Hashing.MAX_CAPACITY)
+        {
+            throw new IllegalStateException("map has reached its maximum capacity of " + resizeAt + " entries");
+        }
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            long key = oldKeys[i];
+
+            if (key == FREE_KEY)
+            {
+                continue;
+            }
+
+            int index = Hashing.mix(key) & mask;
+            while (keys[index] != FREE_KEY)
+            {
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.maxFill(capacity, loadFactor);
+    }
+}
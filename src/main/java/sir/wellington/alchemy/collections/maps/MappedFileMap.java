@@ -0,0 +1,745 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sir.wellington.alchemy.collections.codecs.Codec;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A read-only {@link Map} stored in a file, and read through memory-mapped I/O.
+ * <p>
+ * Opening a map only maps its file; nothing is read or decoded until it is queried, so even very large maps
+ * open in milliseconds. The pages are cached by the operating system, and shared by every process that maps
+ * the same file. {@link #valueBufferOf(Object)} reads a value's bytes in place, without copying them.
+ * <p>
+ * The file holds a header, an open-addressing table of slots, and the records:
+ * <pre>
+ * header:  [int magic][int version][int size][int capacity][int chunk shift][int unused][long length]
+ * slot:    [long record position + 1, or 0 when empty][int hash][int unused]
+ * record:  [int key size][int value size][key][value]
+ * </pre>
+ * The file is mapped in chunks, and no record straddles two of them. Files are written by a {@link Builder}.
+ * <p>
+ * Because the hashes are stored, keys must have a {@link Object#hashCode() hashCode} that depends only on
+ * their value, and is the same in every JVM, like those of {@link String}, {@link Long}, and {@link UUID}.
+ * <p>
+ * The map can be read from any number of threads. It cannot be queried once it is {@linkplain #close() closed}.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#openMappedFile(Path, Codec, Codec)
+ * @see Maps#mappedCopyOf(Map, Path, Codec, Codec)
+ */
+@Immutable
+@ThreadSafe
+public final class MappedFileMap<K, V> extends AbstractMap<K, V> implements AutoCloseable
+{
+
+    private final static Logger LOG = LoggerFactory.getLogger(MappedFileMap.class);
+
+    /**
+     * "AMFM"
+     */
+    private static final int MAGIC = 0x414D464D;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+    static final int MIN_CHUNK_SIZE = 64;
+
+    private final Path file;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final ByteBuffer[] chunks;
+    private final int shift;
+    private final long mask;
+    private final int size;
+    private final int capacity;
+
+    private volatile boolean closed = false;
+
+    private transient Set<Entry<K, V>> entrySet;
+
+    private MappedFileMap(Path file, Codec<K> keyCodec, Codec<V> valueCodec, ByteBuffer[] chunks, int shift, int size, int capacity)
+    {
+        this.file = file;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.chunks = chunks;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Maps a file written by a {@link Builder}, read-only.
+     *
+     * @param <K>
+     * @param <V>
+     * @param file
+     * @param keyCodec   Must be the codec the file was written with.
+     * @param valueCodec Must be the codec the file was written with.
+     * @return
+     * @throws IOException              If the file cannot be read, or was not written by a {@link Builder}.
+     * @throws IllegalArgumentException
+     */
+    public static <K, V> MappedFileMap<K, V> open(@Required Path file,
+                                                  @Required Codec<K> keyCodec,
+                                                  @Required Codec<V> valueCodec) throws IOException, IllegalArgumentException
+    {
+        checkThat(file).usingMessage("file cannot be null").is(notNull());
+        checkThat(keyCodec).usingMessage("key codec cannot be null").is(notNull());
+        checkThat(valueCodec).usingMessage("value codec cannot be null").is(notNull());
+
+        //The mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (header.hasRemaining())
+            {
+                if (channel.read(header, header.position()) < 0)
+                {
+                    break;
+                }
+            }
+
+            long length = channel.size();
+
+            if (header.hasRemaining() || header.getInt(0) != MAGIC)
+            {
+                throw new IOException("not a mapped map file: " + file);
+            }
+
+            if (header.getInt(4) != VERSION)
+            {
+                throw new IOException("unsupported version " + header.getInt(4) + " of mapped map file: " + file);
+            }
+
+            int size = header.getInt(8);
+            int capacity = header.getInt(12);
+            int shift = header.getInt(16);
+
+            if (header.getLong(24) != length || shift < Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) || shift > 30)
+            {
+                throw new IOException("mapped map file is corrupt or incomplete: " + file);
+            }
+
+            long chunkSize = 1L << shift;
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((length + chunkSize - 1) >>> shift)];
+
+            for (int i = 0; i < chunks.length; i++)
+            {
+                long start = i * chunkSize;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, length - start));
+            }
+
+            return new MappedFileMap<>(file, keyCodec, valueCodec, chunks, shift, size, capacity);
+        }
+    }
+
+    /**
+     * Creates a {@link Builder} that writes maps to files.
+     *
+     * @param <K>
+     * @param <V>
+     * @param keyCodec
+     * @param valueCodec
+     * @return
+     */
+    public static <K, V> Builder<K, V> builder(@Required Codec<K> keyCodec, @Required Codec<V> valueCodec)
+    {
+        return new Builder<>(keyCodec, valueCodec);
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        long record = recordOf(key);
+        return record < 0 ? null : read(valueCodec, record, true);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return recordOf(key) >= 0;
+    }
+
+    /**
+     * Reads the encoded value of {@code key} in place, without decoding or copying it.
+     *
+     * @param key
+     * @return A read-only buffer holding exactly the encoded value, or {@code null} if there is no such key.
+     *         The buffer keeps the file mapped for as long as it is reachable, even after the map is closed.
+     */
+    public ByteBuffer valueBufferOf(Object key)
+    {
+        long record = recordOf(key);
+
+        if (record < 0)
+        {
+            return null;
+        }
+
+        ByteBuffer chunk = chunks[(int) (record >>> shift)];
+        int offset = (int) (record & mask);
+        int start = offset + RECORD_HEADER_SIZE + chunk.getInt(offset);
+
+        //Cast to Buffer, so that the calls link on Java 8 as well
+        ByteBuffer view = chunk.duplicate();
+        ((Buffer) view).limit(start + chunk.getInt(offset + Integer.BYTES));
+        ((Buffer) view).position(start);
+
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        Set<Entry<K, V>> entries = entrySet;
+
+        if (entries == null)
+        {
+            entries = new AbstractSet<Entry<K, V>>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object object)
+                {
+                    if (!(object instanceof Entry))
+                    {
+                        return false;
+                    }
+
+                    Entry<?, ?> entry = (Entry<?, ?>) object;
+                    V value = get(entry.getKey());
+                    return value != null && value.equals(entry.getValue());
+                }
+            };
+
+            entrySet = entries;
+        }
+
+        return entries;
+    }
+
+    public Path file()
+    {
+        return file;
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Closes the map, so that it can no longer be queried. Buffers from {@link #valueBufferOf(Object)} stay readable.
+     * <p>
+     * The file is not unmapped right away, since a reader on another thread, or a buffer handed out earlier, may
+     * still be reading it, and reading unmapped memory crashes the JVM. Instead, the garbage collector unmaps it
+     * once the map and all of its buffers are no longer reachable.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public V put(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V replace(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("MappedFileMaps cannot be modified");
+    }
+
+    //==============================================================
+    // Reading
+    //==============================================================
+
+    /**
+     * @return The position of the record of {@code key}, or -1 if there is none.
+     */
+    private long recordOf(Object key)
+    {
+        checkOpen();
+
+        if (key == null)
+        {
+            return -1;
+        }
+
+        int hash = Hashing.mix(key.hashCode());
+        int slotMask = capacity - 1;
+
+        for (int slot = hash & slotMask; ; slot = (slot + 1) & slotMask)
+        {
+            long position = HEADER_SIZE + (long) slot * SLOT_SIZE;
+            ByteBuffer chunk = chunks[(int) (position >>> shift)];
+            int offset = (int) (position & mask);
+
+            long record = chunk.getLong(offset) - 1;
+
+            if (record < 0)
+            {
+                return -1;
+            }
+
+            if (chunk.getInt(offset + Long.BYTES) == hash && key.equals(read(keyCodec, record, false)))
+            {
+                return record;
+            }
+        }
+    }
+
+    private <T> T read(Codec<T> codec, long record, boolean value)
+    {
+        ByteBuffer chunk = chunks[(int) (record >>> shift)];
+        int offset = (int) (record & mask);
+        int keySize = chunk.getInt(offset);
+
+        if (value)
+        {
+            return codec.read(chunk, offset + RECORD_HEADER_SIZE + keySize, chunk.getInt(offset + Integer.BYTES));
+        }
+
+        return codec.read(chunk, offset + RECORD_HEADER_SIZE, keySize);
+    }
+
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("map has already been closed: " + file);
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>>
+    {
+
+        private int slot = -1;
+        private long next = advance();
+
+        @Override
+        public boolean hasNext()
+        {
+            return next >= 0;
+        }
+
+        @Override
+        public Entry<K, V> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            checkOpen();
+
+            long record = next;
+            next = advance();
+
+            return new SimpleImmutableEntry<>(read(keyCodec, record, false), read(valueCodec, record, true));
+        }
+
+        private long advance()
+        {
+            while (++slot < capacity)
+            {
+                long position = HEADER_SIZE + (long) slot * SLOT_SIZE;
+                long record = chunks[(int) (position >>> shift)].getLong((int) (position & mask)) - 1;
+
+                if (record >= 0)
+                {
+                    return record;
+                }
+            }
+
+            return -1;
+        }
+    }
+
+    //==============================================================
+    // Writing
+    //==============================================================
+
+    /**
+     * Writes maps into files that {@link MappedFileMap#open(Path, Codec, Codec)} can map.
+     * <p>
+     * A file is written beside its destination and moved into place once it is complete,
+     * so readers never see a partly written file.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    public static final class Builder<K, V>
+    {
+
+        private final Codec<K> keyCodec;
+        private final Codec<V> valueCodec;
+
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private float loadFactor = Hashing.DEFAULT_LOAD_FACTOR;
+
+        Builder(Codec<K> keyCodec, Codec<V> valueCodec)
+        {
+            checkThat(keyCodec).usingMessage("key codec cannot be null").is(notNull());
+            checkThat(valueCodec).usingMessage("value codec cannot be null").is(notNull());
+
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        /**
+         * Sets how much of the file is mapped at a time. No single entry can be larger than a chunk.
+         *
+         * @param chunkSize A power of two, from 64 bytes to 1 GB, which is the default.
+         * @return
+         * @throws IllegalArgumentException
+         */
+        public Builder<K, V> withChunkSize(int chunkSize) throws IllegalArgumentException
+        {
+            if (chunkSize < MIN_CHUNK_SIZE || chunkSize > DEFAULT_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1)
+            {
+                throw new IllegalArgumentException("chunk size must be a power of two, from " + MIN_CHUNK_SIZE + " to " + DEFAULT_CHUNK_SIZE + ": " + chunkSize);
+            }
+
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param loadFactor How full the table of slots may get. Must be between 0 and 1, exclusive.
+         * @return
+         * @throws IllegalArgumentException
+         */
+        public Builder<K, V> withLoadFactor(float loadFactor) throws IllegalArgumentException
+        {
+            Hashing.checkLoadFactor(loadFactor);
+
+            this.loadFactor = loadFactor;
+            return this;
+        }
+
+        /**
+         * Writes the entries of {@code map} to {@code file}, replacing it if it exists.
+         *
+         * @param map  Cannot contain {@code null} keys or values.
+         * @param file
+         * @throws IOException
+         * @throws IllegalArgumentException If an entry is {@code null}, or does not fit in a chunk.
+         */
+        public void write(@Required Map<K, V> map, @Required Path file) throws IOException, IllegalArgumentException
+        {
+            checkThat(map).usingMessage("map cannot be null").is(notNull());
+            checkThat(file).usingMessage("file cannot be null").is(notNull());
+
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+            try
+            {
+                writeTo(map, temporary);
+                moveIntoPlace(temporary, file);
+            }
+            finally
+            {
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeTo(Map<K, V> map, Path file) throws IOException
+        {
+            int size = map.size();
+            int capacity = Hashing.capacityFor(size, loadFactor);
+            int slotMask = capacity - 1;
+            long chunkMask = chunkSize - 1;
+
+            long[] records = new long[capacity];
+            int[] hashes = new int[capacity];
+
+            try (FileChannel channel = FileChannel.open(file,
+                                                        StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE))
+            {
+                Output output = new Output(channel);
+                long position = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+                int count = 0;
+
+                for (Entry<K, V> entry : map.entrySet())
+                {
+                    K key = entry.getKey();
+                    V value = entry.getValue();
+                    checkThat(key).usingMessage("keys cannot be null").is(notNull());
+                    checkThat(value).usingMessage("values cannot be null").is(notNull());
+
+                    int keySize = keyCodec.sizeOf(key);
+                    int valueSize = valueCodec.sizeOf(value);
+                    long length = (long) RECORD_HEADER_SIZE + keySize + valueSize;
+
+                    if (length > chunkSize)
+                    {
+                        throw new IllegalArgumentException("entry of " + length + " bytes does not fit in chunks of " + chunkSize);
+                    }
+
+                    //Skip the rest of the chunk, rather than straddle two
+                    if ((position & chunkMask) + length > chunkSize)
+                    {
+                        position = (position | chunkMask) + 1;
+                    }
+
+                    ByteBuffer buffer = output.stage(position, (int) length);
+                    int offset = buffer.position();
+                    buffer.putInt(offset, keySize);
+                    buffer.putInt(offset + Integer.BYTES, valueSize);
+                    keyCodec.write(key, buffer, offset + RECORD_HEADER_SIZE);
+                    valueCodec.write(value, buffer, offset + RECORD_HEADER_SIZE + keySize);
+                    ((Buffer) buffer).position(offset + (int) length);
+
+                    int hash = Hashing.mix(key.hashCode());
+                    int slot = hash & slotMask;
+
+                    while (records[slot] != 0)
+                    {
+                        slot = (slot + 1) & slotMask;
+                    }
+
+                    records[slot] = position + 1;
+                    hashes[slot] = hash;
+
+                    position += length;
+                    count++;
+                }
+
+                if (count != size)
+                {
+                    throw new IllegalArgumentException("map changed size while it was being written");
+                }
+
+                long length = position;
+
+                for (int slot = 0; slot < capacity; slot++)
+                {
+                    ByteBuffer buffer = output.stage(HEADER_SIZE + (long) slot * SLOT_SIZE, SLOT_SIZE);
+                    buffer.putLong(records[slot]);
+                    buffer.putInt(hashes[slot]);
+                    buffer.putInt(0);
+                }
+
+                //The header goes last, so that an incomplete file is never mistaken for a complete one
+                ByteBuffer header = output.stage(0, HEADER_SIZE);
+                header.putInt(MAGIC);
+                header.putInt(VERSION);
+                header.putInt(size);
+                header.putInt(capacity);
+                header.putInt(Integer.numberOfTrailingZeros(chunkSize));
+                header.putInt(0);
+                header.putLong(length);
+                output.flush();
+
+                channel.force(true);
+            }
+        }
+
+        private static void moveIntoPlace(Path temporary, Path file) throws IOException
+        {
+            try
+            {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException ex)
+            {
+                LOG.debug("Could not move {} atomically; replacing it instead", file, ex);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Gathers consecutive writes into a buffer, so that the file is written in large blocks.
+     */
+    private static final class Output
+    {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * Where the contents of the buffer go in the file.
+         */
+        private long start = 0;
+
+        Output(FileChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        /**
+         * @return The buffer, positioned where {@code length} bytes bound for {@code position} in the file go.
+         */
+        ByteBuffer stage(long position, int length) throws IOException
+        {
+            if (position != start + buffer.position() || buffer.remaining() < length)
+            {
+                flush();
+                start = position;
+
+                if (buffer.capacity() < length)
+                {
+                    buffer = ByteBuffer.allocate(length);
+                }
+            }
+
+            return buffer;
+        }
+
+        void flush() throws IOException
+        {
+            ((Buffer) buffer).flip();
+
+            long position = start;
+
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+
+            start = position;
+            ((Buffer) buffer).clear();
+        }
+    }
+}
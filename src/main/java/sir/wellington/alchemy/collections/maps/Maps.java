@@ -14,17 +14,28 @@
  */
 package sir.wellington.alchemy.collections.maps;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sir.wellington.alchemy.collections.codecs.Codec;
+import sir.wellington.alchemy.collections.codecs.Codecs;
+import sir.wellington.alchemy.collections.codecs.DirectMemory;
 import tech.sirwellington.alchemy.annotations.access.Internal;
 import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
 import tech.sirwellington.alchemy.annotations.concurrency.*;
 
 import static tech.sirwellington.alchemy.arguments.Arguments.*;
 import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThan;
 
 /**
  *
@@ -66,29 +77,452 @@ public final class Maps
         return new ConcurrentHashMap<>();
     }
 
+    /**
+     * Creates an empty {@link SnapshotMap}, which publishes each change as a new immutable version.
+     * Prefer it to {@link #createSynchronized()} for read-mostly maps whose readers must see batches of updates
+     * all at once, or not at all.
+     *
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    @ThreadSafe
+    public static <K, V> SnapshotMap<K, V> createSnapshotMap()
+    {
+        return new SnapshotMap<>(Collections.emptyMap());
+    }
+
+    /**
+     * Creates a {@link SnapshotMap} whose first version holds the entries of {@code map}.
+     *
+     * @param <K>
+     * @param <V>
+     * @param map
+     * @return
+     * @throws IllegalArgumentException If {@code map} is null, or holds a {@code null} key or value.
+     */
+    @ThreadSafe
+    public static <K, V> SnapshotMap<K, V> createSnapshotMap(@Required Map<? extends K, ? extends V> map) throws IllegalArgumentException
+    {
+        return new SnapshotMap<>(map);
+    }
+
+    /**
+     * Creates a {@link CountMinSketch}, which estimates how often each key was counted, in fixed space,
+     * never under the true count, and over it by at most {@code epsilon} times the total count,
+     * with probability {@code 1 - delta}.
+     *
+     * @param <K>
+     * @param epsilon The error, as a fraction of the total count, such as {@code 0.001}.
+     * @param delta   The chance of a larger error, such as {@code 0.01}.
+     * @return
+     * @throws IllegalArgumentException If {@code epsilon} or {@code delta} is not between 0 and 1.
+     */
+    @ThreadSafe
+    public static <K> CountMinSketch<K> createCountMinSketch(double epsilon, double delta) throws IllegalArgumentException
+    {
+        return CountMinSketch.create(epsilon, delta);
+    }
+
+    /**
+     * Creates a {@link TopK}, which tracks the {@code k} most frequent keys of a stream, in fixed space.
+     *
+     * @param <K>
+     * @param k
+     * @return
+     * @throws IllegalArgumentException If {@code k} is not positive.
+     */
+    @ThreadSafe
+    public static <K> TopK<K> createTopK(int k) throws IllegalArgumentException
+    {
+        return TopK.create(k);
+    }
+
+    /**
+     * Creates a {@link CachingMap} that holds up to {@code maximumSize} entries,
+     * evicting by {@link EvictionPolicy#W_TINY_LFU} once it is full.
+     *
+     * @param <K>
+     * @param <V>
+     * @param maximumSize
+     * @return
+     * @throws IllegalArgumentException If {@code maximumSize} is negative.
+     * @see #cacheBuilder()
+     */
+    @ThreadSafe
+    public static <K, V> CachingMap<K, V> createCache(long maximumSize) throws IllegalArgumentException
+    {
+        return Maps.<K, V>cacheBuilder().withMaximumSize(maximumSize).build();
+    }
+
+    /**
+     * Starts building a {@link CachingMap}, with a choice of size or weight bound, {@link EvictionPolicy},
+     * expiry, loader, and statistics.
+     *
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    public static <K, V> CacheBuilder<K, V> cacheBuilder()
+    {
+        return new CacheBuilder<>();
+    }
+
+    /**
+     * Creates a {@link ListMultimap}, which maps each key to a list of values, stored compactly and updated without locks.
+     *
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    @ThreadSafe
+    public static <K, V> ListMultimap<K, V> createListMultimap()
+    {
+        return new ListMultimap<>();
+    }
+
+    /**
+     * Creates a {@link SetMultimap}, which maps each key to a set of values, stored compactly and updated without locks.
+     *
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    @ThreadSafe
+    public static <K, V> SetMultimap<K, V> createSetMultimap()
+    {
+        return new SetMultimap<>();
+    }
+
+    /**
+     * Opens a {@link MappedFileMap} from a file written by {@link MappedFileMap.Builder}, or by
+     * {@link #mappedCopyOf(Map, Path, Codec, Codec)}. The file is mapped into memory read-only, so opening it
+     * does not read the entries. The map must be {@linkplain MappedFileMap#close() closed} to unmap the file.
+     *
+     * @param <K>
+     * @param <V>
+     * @param file
+     * @param keyCodec   The codec the keys were written with.
+     * @param valueCodec The codec the values were written with.
+     * @return
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    @ThreadSafe
+    public static <K, V> MappedFileMap<K, V> openMappedFile(@Required Path file,
+                                                            @Required Codec<K> keyCodec,
+                                                            @Required Codec<V> valueCodec) throws IOException, IllegalArgumentException
+    {
+        return MappedFileMap.open(file, keyCodec, valueCodec);
+    }
+
+    /**
+     * Creates an open-addressing {@link LongObjectMap}, which stores its {@code long} keys unboxed.
+     *
+     * @param <V>
+     * @return
+     */
+    @ThreadUnsafe
+    public static <V> LongObjectMap<V> createLongObjectMap()
+    {
+        return createLongObjectMap(Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a {@link LongObjectMap} presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param <V>
+     * @param expectedSize
+     * @return
+     * @throws IllegalArgumentException If {@code expectedSize} is negative.
+     */
+    @ThreadUnsafe
+    public static <V> LongObjectMap<V> createLongObjectMap(int expectedSize) throws IllegalArgumentException
+    {
+        return createLongObjectMap(expectedSize, Hashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a {@link LongObjectMap} presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param <V>
+     * @param expectedSize
+     * @param loadFactor   How full the table may get before it grows. Must be between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @ThreadUnsafe
+    public static <V> LongObjectMap<V> createLongObjectMap(int expectedSize, float loadFactor) throws IllegalArgumentException
+    {
+        return new LongObjectMap<>(expectedSize, loadFactor);
+    }
+
+    /**
+     * Creates an open-addressing {@link IntIntMap}, which stores its keys and values unboxed.
+     *
+     * @return
+     */
+    @ThreadUnsafe
+    public static IntIntMap createIntIntMap()
+    {
+        return createIntIntMap(Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an {@link IntIntMap} presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param expectedSize
+     * @return
+     * @throws IllegalArgumentException If {@code expectedSize} is negative.
+     */
+    @ThreadUnsafe
+    public static IntIntMap createIntIntMap(int expectedSize) throws IllegalArgumentException
+    {
+        return createIntIntMap(expectedSize, Hashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates an {@link IntIntMap} presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param expectedSize
+     * @param loadFactor   How full the table may get before it grows. Must be between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @ThreadUnsafe
+    public static IntIntMap createIntIntMap(int expectedSize, float loadFactor) throws IllegalArgumentException
+    {
+        return new IntIntMap(expectedSize, loadFactor);
+    }
+
+    /**
+     * Creates an open-addressing {@link LongLongMap}, which stores its keys and values unboxed.
+     *
+     * @return
+     */
+    @ThreadUnsafe
+    public static LongLongMap createLongLongMap()
+    {
+        return createLongLongMap(Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a {@link LongLongMap} presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param expectedSize
+     * @return
+     * @throws IllegalArgumentException If {@code expectedSize} is negative.
+     */
+    @ThreadUnsafe
+    public static LongLongMap createLongLongMap(int expectedSize) throws IllegalArgumentException
+    {
+        return createLongLongMap(expectedSize, Hashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a {@link LongLongMap} presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param expectedSize
+     * @param loadFactor   How full the table may get before it grows. Must be between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @ThreadUnsafe
+    public static LongLongMap createLongLongMap(int expectedSize, float loadFactor) throws IllegalArgumentException
+    {
+        return new LongLongMap(expectedSize, loadFactor);
+    }
+
+    /**
+     * Creates an {@link OffHeapMap}, which stores its entries outside of the Java heap,
+     * encoded with the specified {@linkplain Codec Codecs}. The map must be {@linkplain OffHeapMap#close() closed}
+     * to release its memory.
+     *
+     * @param <K>
+     * @param <V>
+     * @param keyCodec
+     * @param valueCodec
+     * @return
+     * @see Codecs
+     */
+    @ThreadUnsafe
+    public static <K, V> OffHeapMap<K, V> createOffHeap(@Required Codec<K> keyCodec, @Required Codec<V> valueCodec)
+    {
+        return createOffHeap(keyCodec, valueCodec, Hashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates an {@link OffHeapMap} whose table is presized to hold {@code expectedSize} entries without growing.
+     *
+     * @param <K>
+     * @param <V>
+     * @param keyCodec
+     * @param valueCodec
+     * @param expectedSize
+     * @return
+     * @throws IllegalArgumentException If {@code expectedSize} is negative.
+     */
+    @ThreadUnsafe
+    public static <K, V> OffHeapMap<K, V> createOffHeap(@Required Codec<K> keyCodec,
+                                                        @Required Codec<V> valueCodec,
+                                                        int expectedSize) throws IllegalArgumentException
+    {
+        return new OffHeapMap<>(keyCodec, valueCodec, expectedSize, DirectMemory.DEFAULT_CHUNK_SIZE);
+    }
+
     public static boolean isEmpty(Map<?, ?> map)
     {
         return map == null || map.isEmpty();
     }
 
+    /**
+     * Merges the maps into a new {@link HashMap}, sized up front for all of their entries.
+     * When a key appears in more than one map, the value from the last of them wins.
+     * {@code null} maps are skipped.
+     *
+     * @param <K>
+     * @param <V>
+     * @param firstMap
+     * @param others
+     * @return
+     * @see #mergeWith(BinaryOperator, Collection)
+     */
     public static <K, V> Map<K, V> merge(Map<K, V> firstMap, Map<K, V>... others)
     {
-        Map<K, V> result = create();
-
-        if (!isEmpty(firstMap))
-        {
-            result.putAll(firstMap);
-        }
+        List<Map<K, V>> maps = new ArrayList<>(1 + (others == null ? 0 : others.length));
+        maps.add(firstMap);
 
         if (others != null)
         {
-            for (Map<K, V> map : Arrays.asList(others))
-            {
-                result.putAll(map);
-            }
+            maps.addAll(Arrays.asList(others));
         }
 
-        return result;
+        return Merging.mergeLastWins(maps);
+    }
+
+    /**
+     * Merges the maps into a new {@link HashMap}, sized up front for all of their entries.
+     * When a key appears in more than one map, {@code onConflict} is called with the value merged so far
+     * and the value from the next map, in the order of {@code maps}. As with {@link Map#merge(Object, Object, BiFunction)},
+     * a key that is mapped to {@code null} so far is treated as absent, and so is an incoming {@code null} value:
+     * {@code onConflict} is never called with {@code null}. {@code null} maps are skipped.
+     *
+     * @param <K>
+     * @param <V>
+     * @param onConflict Combines the existing and incoming values of a key.
+     * @param maps
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <K, V> Map<K, V> mergeWith(@Required BinaryOperator<V> onConflict,
+                                             @Required Collection<? extends Map<K, V>> maps) throws IllegalArgumentException
+    {
+        checkMergeArguments(onConflict, maps);
+
+        return Merging.merge(maps, onConflict);
+    }
+
+    /**
+     * Merges the maps in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param <K>
+     * @param <V>
+     * @param onConflict
+     * @param maps
+     * @return
+     * @throws IllegalArgumentException
+     * @see #parallelMerge(BinaryOperator, Collection, ForkJoinPool)
+     */
+    @ThreadSafe
+    public static <K, V> ConcurrentMap<K, V> parallelMerge(@Required BinaryOperator<V> onConflict,
+                                                           @Required Collection<? extends Map<K, V>> maps) throws IllegalArgumentException
+    {
+        return parallelMerge(onConflict, maps, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Merges the maps in parallel, splitting each of them across {@code pool} and merging their entries
+     * directly into a presized {@link ConcurrentHashMap}.
+     * <p>
+     * Because entries are merged in no particular order, {@code onConflict} should be associative and commutative,
+     * such as a sum or a max. Like any {@link ConcurrentHashMap}, the result cannot hold {@code null} keys or values.
+     * Small inputs are merged on the calling thread.
+     *
+     * @param <K>
+     * @param <V>
+     * @param onConflict Combines the existing and incoming values of a key.
+     * @param maps
+     * @param pool       The pool to run the merge in.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    @ThreadSafe
+    public static <K, V> ConcurrentMap<K, V> parallelMerge(@Required BinaryOperator<V> onConflict,
+                                                           @Required Collection<? extends Map<K, V>> maps,
+                                                           @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkMergeArguments(onConflict, maps);
+        checkThat(pool).usingMessage("pool cannot be null").is(notNull());
+
+        return Merging.parallelMerge(maps, onConflict, pool);
+    }
+
+    /**
+     * Merges the maps in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}, into
+     * {@code partitions} separate maps.
+     *
+     * @param <K>
+     * @param <V>
+     * @param onConflict
+     * @param maps
+     * @param partitions
+     * @return
+     * @throws IllegalArgumentException
+     * @see #partitionedMerge(BinaryOperator, Collection, int, ForkJoinPool)
+     */
+    public static <K, V> List<Map<K, V>> partitionedMerge(@Required BinaryOperator<V> onConflict,
+                                                          @Required Collection<? extends Map<K, V>> maps,
+                                                          int partitions) throws IllegalArgumentException
+    {
+        return partitionedMerge(onConflict, maps, partitions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Merges the maps in parallel into {@code partitions} separate {@link HashMap HashMaps}, with each key
+     * in exactly one of them, chosen by its hash.
+     * <p>
+     * First the entries of each map are bucketed by partition, and then each partition is merged by a single
+     * thread, which needs no locking. Conflicts are resolved in the order of {@code maps}, just like
+     * {@link #mergeWith(BinaryOperator, Collection)}, so {@code onConflict} need not be commutative, and
+     * {@code null} keys and values are allowed.
+     * <p>
+     * Use this when the result is going to be processed in parallel anyway, such as one partition per worker.
+     *
+     * @param <K>
+     * @param <V>
+     * @param onConflict Combines the existing and incoming values of a key.
+     * @param maps
+     * @param partitions The number of maps to merge into. Must be positive.
+     * @param pool       The pool to run the merge in.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <K, V> List<Map<K, V>> partitionedMerge(@Required BinaryOperator<V> onConflict,
+                                                          @Required Collection<? extends Map<K, V>> maps,
+                                                          int partitions,
+                                                          @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkMergeArguments(onConflict, maps);
+        checkThat(partitions).usingMessage("partitions must be positive: " + partitions).is(greaterThan(0));
+        checkThat(pool).usingMessage("pool cannot be null").is(notNull());
+
+        return Merging.partitionedMerge(maps, onConflict, partitions, pool);
+    }
+
+    private static void checkMergeArguments(BinaryOperator<?> onConflict, Collection<?> maps)
+    {
+        checkThat(onConflict).usingMessage("conflict function cannot be null").is(notNull());
+        checkThat(maps).usingMessage("maps cannot be null").is(notNull());
     }
 
     /**
@@ -108,6 +542,7 @@ public final class Maps
     /**
      * Creates a shallow copy of the specified map, disallowing modification operations
      * like {@linkplain Map#put(java.lang.Object, java.lang.Object) Put}.
+     * The copy is an {@link ImmutableMap}, which stores its entries in a single array.
      *
      * @param <K>
      * @param <V>
@@ -117,13 +552,47 @@ public final class Maps
      */
     public static <K, V> Map<K, V> immutableCopyOf(Map<K, V> map) throws IllegalArgumentException
     {
-        if (map == null)
-        {
-            return Collections.emptyMap();
-        }
+        return ImmutableMap.copyOf(map);
+    }
+
+    /**
+     * Copies the map into a {@link PersistentHashMap}, whose updates return new versions that share most of
+     * their structure, instead of copying every entry.
+     *
+     * @param <K>
+     * @param <V>
+     * @param map
+     * @return
+     */
+    public static <K, V> PersistentHashMap<K, V> persistentCopyOf(Map<K, V> map)
+    {
+        return PersistentHashMap.copyOf(map);
+    }
 
-        Map<K, V> copy = new HashMap<>(map);
-        return Collections.unmodifiableMap(copy);
+    /**
+     * Writes {@code map} to {@code file}, and opens the file as a read-only {@link MappedFileMap}.
+     * Later runs can {@linkplain #openMappedFile(Path, Codec, Codec) open} the file again, instead of
+     * rebuilding the map.
+     *
+     * @param <K>
+     * @param <V>
+     * @param map        Cannot contain {@code null} keys or values.
+     * @param file       Replaced if it already exists.
+     * @param keyCodec
+     * @param valueCodec
+     * @return
+     * @throws IOException
+     * @throws IllegalArgumentException
+     * @see MappedFileMap#builder(Codec, Codec)
+     */
+    @ThreadSafe
+    public static <K, V> MappedFileMap<K, V> mappedCopyOf(@Required Map<K, V> map,
+                                                          @Required Path file,
+                                                          @Required Codec<K> keyCodec,
+                                                          @Required Codec<V> valueCodec) throws IOException, IllegalArgumentException
+    {
+        MappedFileMap.builder(keyCodec, valueCodec).write(map, file);
+        return MappedFileMap.open(file, keyCodec, valueCodec);
     }
 
     /**
@@ -169,7 +638,7 @@ public final class Maps
      */
     @Internal
     @Immutable
-    private static final Map EMPTY_MAP = immutableCopyOf(create());
+    private static final Map EMPTY_MAP = ImmutableMap.empty();
 
     /**
      * Returns an Empty Map that is not designed to be mutable.
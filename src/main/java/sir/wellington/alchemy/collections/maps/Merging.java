@@ -0,0 +1,282 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BinaryOperator;
+
+import sir.wellington.alchemy.collections.lists.Forking;
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+import static sir.wellington.alchemy.collections.lists.Forking.PARALLEL_THRESHOLD;
+import static sir.wellington.alchemy.collections.lists.Forking.action;
+
+/**
+ * Merges many maps into one, sized up front from the combined size of the inputs.
+ * <p>
+ * Besides the sequential merge, there are two parallel strategies:
+ * <ul>
+ * <li>{@linkplain #parallelMerge(Collection, BinaryOperator, ForkJoinPool) Concurrent}: every input is split
+ * across the pool and merged straight into one {@link ConcurrentHashMap}.</li>
+ * <li>{@linkplain #partitionedMerge(Collection, BinaryOperator, int, ForkJoinPool) Partitioned}: the entries
+ * are first bucketed by the hash of their key, and then each partition is merged into its own
+ * {@link HashMap} by a single thread, in the order of the inputs.</li>
+ * </ul>
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class Merging
+{
+
+    Merging() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static <K, V> Map<K, V> mergeLastWins(Collection<? extends Map<K, V>> maps)
+    {
+        Map<K, V> result = new HashMap<>(Hashing.capacityFor(sizeOf(maps), Hashing.DEFAULT_LOAD_FACTOR));
+
+        for (Map<K, V> map : maps)
+        {
+            if (map != null)
+            {
+                result.putAll(map);
+            }
+        }
+
+        return result;
+    }
+
+    static <K, V> Map<K, V> merge(Collection<? extends Map<K, V>> maps, BinaryOperator<V> onConflict)
+    {
+        Map<K, V> result = new HashMap<>(Hashing.capacityFor(sizeOf(maps), Hashing.DEFAULT_LOAD_FACTOR));
+
+        for (Map<K, V> map : maps)
+        {
+            if (map != null)
+            {
+                mergeInto(result, map.entrySet(), onConflict);
+            }
+        }
+
+        return result;
+    }
+
+    static <K, V> ConcurrentMap<K, V> parallelMerge(Collection<? extends Map<K, V>> maps,
+                                                     BinaryOperator<V> onConflict,
+                                                     ForkJoinPool pool)
+    {
+        int size = sizeOf(maps);
+        ConcurrentMap<K, V> result = new ConcurrentHashMap<>(size);
+
+        if (size < PARALLEL_THRESHOLD)
+        {
+            for (Map<K, V> map : maps)
+            {
+                if (map != null)
+                {
+                    map.forEach((key, value) -> result.merge(key, value, onConflict));
+                }
+            }
+
+            return result;
+        }
+
+        List<MergeTask<K, V>> tasks = new ArrayList<>(maps.size());
+        for (Map<K, V> map : maps)
+        {
+            if (map != null && !map.isEmpty())
+            {
+                tasks.add(new MergeTask<>(map.entrySet().spliterator(), result, onConflict));
+            }
+        }
+
+        Forking.run(pool, action(() -> RecursiveAction.invokeAll(tasks)));
+
+        return result;
+    }
+
+    static <K, V> List<Map<K, V>> partitionedMerge(Collection<? extends Map<K, V>> maps,
+                                                   BinaryOperator<V> onConflict,
+                                                   int partitions,
+                                                   ForkJoinPool pool)
+    {
+        List<Map<K, V>> inputs = new ArrayList<>(maps.size());
+        for (Map<K, V> map : maps)
+        {
+            if (map != null && !map.isEmpty())
+            {
+                inputs.add(map);
+            }
+        }
+
+        int size = sizeOf(inputs);
+        int expectedPartitionSize = size / partitions + 1;
+
+        //Phase 1: bucket the entries of each input by partition.
+        //buckets[input][partition] holds the entries of that input which belong in that partition.
+        List<List<List<Map.Entry<K, V>>>> buckets = new ArrayList<>(inputs.size());
+        List<RecursiveAction> bucketing = new ArrayList<>(inputs.size());
+
+        for (Map<K, V> input : inputs)
+        {
+            List<List<Map.Entry<K, V>>> bucketsOfInput = new ArrayList<>(partitions);
+            int expectedBucketSize = input.size() / partitions + 1;
+
+            for (int partition = 0; partition < partitions; partition++)
+            {
+                bucketsOfInput.add(new ArrayList<>(expectedBucketSize));
+            }
+
+            buckets.add(bucketsOfInput);
+            bucketing.add(action(() ->
+            {
+                for (Map.Entry<K, V> entry : input.entrySet())
+                {
+                    bucketsOfInput.get(partitionOf(entry.getKey(), partitions)).add(entry);
+                }
+            }));
+        }
+
+        run(bucketing, size, pool);
+
+        //Phase 2: merge each partition, visiting the inputs in order so conflicts resolve deterministically.
+        List<Map<K, V>> result = new ArrayList<>(partitions);
+        List<RecursiveAction> merging = new ArrayList<>(partitions);
+
+        for (int i = 0; i < partitions; i++)
+        {
+            int partition = i;
+            Map<K, V> merged = new HashMap<>(Hashing.capacityFor(expectedPartitionSize, Hashing.DEFAULT_LOAD_FACTOR));
+            result.add(merged);
+
+            merging.add(action(() ->
+            {
+                for (List<List<Map.Entry<K, V>>> bucketsOfInput : buckets)
+                {
+                    mergeInto(merged, bucketsOfInput.get(partition), onConflict);
+                }
+            }));
+        }
+
+        run(merging, size, pool);
+
+        return result;
+    }
+
+    /**
+     * Determines which partition a key belongs to, for {@link #partitionedMerge(Collection, BinaryOperator, int, ForkJoinPool)}.
+     */
+    static int partitionOf(Object key, int partitions)
+    {
+        int hash = key == null ? 0 : Hashing.mix(key.hashCode());
+        return (int) ((hash & 0xFFFFFFFFL) % partitions);
+    }
+
+    private static <K, V> void mergeInto(Map<K, V> result,
+                                         Iterable<? extends Map.Entry<K, V>> entries,
+                                         BinaryOperator<V> onConflict)
+    {
+        for (Map.Entry<K, V> entry : entries)
+        {
+            V value = entry.getValue();
+
+            //Map.merge() takes a single lookup, but cannot store null values, which putting is happy to.
+            //A null value counts as absent, so it never reaches onConflict, and never replaces a value.
+            if (value != null)
+            {
+                result.merge(entry.getKey(), value, onConflict);
+            }
+            else if (!result.containsKey(entry.getKey()))
+            {
+                result.put(entry.getKey(), null);
+            }
+        }
+    }
+
+    private static void run(List<RecursiveAction> actions, int size, ForkJoinPool pool)
+    {
+        if (size < PARALLEL_THRESHOLD)
+        {
+            actions.forEach(RecursiveAction::invoke);
+            return;
+        }
+
+        Forking.run(pool, action(() -> RecursiveAction.invokeAll(actions)));
+    }
+
+    private static int sizeOf(Collection<? extends Map<?, ?>> maps)
+    {
+        long size = 0;
+
+        for (Map<?, ?> map : maps)
+        {
+            size += map == null ? 0 : map.size();
+        }
+
+        return (int) Math.min(size, Hashing.MAX_CAPACITY);
+    }
+
+    /**
+     * Merges a range of entries into a concurrent map, splitting the range in half until
+     * it is small enough to merge directly.
+     */
+    private static final class MergeTask<K, V> extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<Map.Entry<K, V>> entries;
+        private final ConcurrentMap<K, V> result;
+        private final BinaryOperator<V> onConflict;
+
+        MergeTask(Spliterator<Map.Entry<K, V>> entries, ConcurrentMap<K, V> result, BinaryOperator<V> onConflict)
+        {
+            this.entries = entries;
+            this.result = result;
+            this.onConflict = onConflict;
+        }
+
+        @Override
+        protected void compute()
+        {
+            Spliterator<Map.Entry<K, V>> prefix;
+            List<MergeTask<K, V>> forked = new ArrayList<>();
+
+            while (entries.estimateSize() > PARALLEL_THRESHOLD && (prefix = entries.trySplit()) != null)
+            {
+                MergeTask<K, V> task = new MergeTask<>(prefix, result, onConflict);
+                task.fork();
+                forked.add(task);
+            }
+
+            entries.forEachRemaining(entry -> result.merge(entry.getKey(), entry.getValue(), onConflict));
+
+            for (MergeTask<K, V> task : forked)
+            {
+                task.join();
+            }
+        }
+    }
+}
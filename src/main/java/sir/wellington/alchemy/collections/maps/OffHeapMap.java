@@ -0,0 +1,593 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import sir.wellington.alchemy.collections.codecs.Codec;
+import sir.wellington.alchemy.collections.codecs.DirectMemory;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A {@link Map} whose keys and values are encoded with {@linkplain Codec Codecs} and stored outside of the Java heap,
+ * so that they add nothing to the work of the garbage collector.
+ * <p>
+ * Each entry is a record of its key's hash, its key, and its value, appended to off-heap memory.
+ * An off-heap, open-addressing table of 8 bytes per slot points at the records, and is probed linearly.
+ * The stored hash is compared before a key is decoded, so a lookup usually decodes only the key it is looking for.
+ * <p>
+ * Replacing or removing an entry leaves its old record unused; {@link #compact()} reclaims that space.
+ * Keys and values cannot be {@code null}. The {@linkplain #entrySet() entries} are read-only snapshots,
+ * which can be removed through their iterator. The iterators are fail-fast, and throw a
+ * {@link ConcurrentModificationException} once the map has been changed any other way.
+ * <p>
+ * The memory is held until the map is {@linkplain #close() closed}, after which any access to the entries
+ * throws an {@link IllegalStateException}.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#createOffHeap(Codec, Codec)
+ */
+@ThreadUnsafe
+public final class OffHeapMap<K, V> extends AbstractMap<K, V> implements AutoCloseable
+{
+
+    /**
+     * Each record starts with the hash, the size of the key, and the size of the value.
+     */
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    /**
+     * Slots hold the position of their record plus one, so that zeroed memory reads as empty.
+     */
+    private static final int SLOT_SIZE = Long.BYTES;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int chunkSize;
+    private final int initialCapacity;
+
+    private DirectMemory records;
+    private DirectMemory slots;
+    private int capacity;
+    private int maxFill;
+    private int size = 0;
+
+    /**
+     * The bytes taken by records that are no longer in the table.
+     */
+    private long garbage = 0;
+
+    /**
+     * Counts the changes that invalidate iterators: adding or removing keys, clearing, and compacting.
+     */
+    private int modCount = 0;
+
+    private transient Set<Entry<K, V>> entrySet;
+
+    OffHeapMap(Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize, int chunkSize)
+    {
+        checkThat(keyCodec).usingMessage("key codec cannot be null").is(notNull());
+        checkThat(valueCodec).usingMessage("value codec cannot be null").is(notNull());
+        Hashing.checkExpectedSize(expectedSize);
+
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.chunkSize = chunkSize;
+        this.initialCapacity = Hashing.capacityFor(expectedSize, Hashing.DEFAULT_LOAD_FACTOR);
+
+        this.records = new DirectMemory(chunkSize);
+        allocateSlots(initialCapacity);
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+
+        long record = recordAt(findSlot(key, Hashing.mix(key.hashCode())));
+        return record < 0 ? null : valueOf(record);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key != null && findSlot(key, Hashing.mix(key.hashCode())) >= 0;
+    }
+
+    @Override
+    public V put(K key, V value)
+    {
+        checkThat(key).usingMessage("key cannot be null").is(notNull());
+        checkThat(value).usingMessage("value cannot be null").is(notNull());
+
+        int hash = Hashing.mix(key.hashCode());
+        int slot = findSlot(key, hash);
+
+        if (slot >= 0)
+        {
+            long previousRecord = recordAt(slot);
+            V previous = valueOf(previousRecord);
+
+            garbage += recordSize(previousRecord);
+            setSlot(slot, writeRecord(hash, key, value));
+
+            return previous;
+        }
+
+        long record = writeRecord(hash, key, value);
+
+        if (size + 1 > maxFill)
+        {
+            allocateSlots(capacity * 2);
+        }
+
+        setSlot(freeSlotFor(hash), record);
+        size++;
+        modCount++;
+
+        return null;
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+
+        int slot = findSlot(key, Hashing.mix(key.hashCode()));
+
+        if (slot < 0)
+        {
+            return null;
+        }
+
+        long record = recordAt(slot);
+        V previous = valueOf(record);
+
+        garbage += recordSize(record);
+        removeSlot(slot, null);
+        size--;
+        modCount++;
+
+        return previous;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes every entry, keeping a single chunk of memory for the records.
+     */
+    @Override
+    public void clear()
+    {
+        records.clear();
+
+        //Nothing is carried over into the new table
+        slots.close();
+        slots = null;
+        allocateSlots(initialCapacity);
+        size = 0;
+        garbage = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        Set<Entry<K, V>> entries = entrySet;
+
+        if (entries == null)
+        {
+            entries = new AbstractSet<Entry<K, V>>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object object)
+                {
+                    if (!(object instanceof Entry))
+                    {
+                        return false;
+                    }
+
+                    Entry<?, ?> entry = (Entry<?, ?>) object;
+                    V value = get(entry.getKey());
+                    return value != null && value.equals(entry.getValue());
+                }
+
+                @Override
+                public void clear()
+                {
+                    OffHeapMap.this.clear();
+                }
+            };
+
+            entrySet = entries;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Rewrites the live records into new memory, reclaiming the space left by replaced and removed entries.
+     */
+    public void compact()
+    {
+        DirectMemory compacted = new DirectMemory(chunkSize);
+
+        for (int slot = 0; slot < capacity; slot++)
+        {
+            long record = recordAt(slot);
+
+            if (record >= 0)
+            {
+                int length = recordSize(record);
+                long target = compacted.allocate(length);
+
+                //Cast to Buffer, so that the calls link on Java 8 as well
+                ByteBuffer source = records.chunkAt(record).duplicate();
+                ((Buffer) source).limit(records.offsetOf(record) + length);
+                ((Buffer) source).position(records.offsetOf(record));
+
+                ByteBuffer destination = compacted.chunkAt(target).duplicate();
+                ((Buffer) destination).position(compacted.offsetOf(target));
+                destination.put(source);
+
+                setSlot(slot, target);
+            }
+        }
+
+        records.close();
+        records = compacted;
+        garbage = 0;
+        modCount++;
+    }
+
+    /**
+     * @return The number of bytes taken by records of entries that have since been replaced or removed.
+     * @see #compact()
+     */
+    public long garbageBytes()
+    {
+        return garbage;
+    }
+
+    /**
+     * @return The number of bytes reserved off-heap for this map.
+     */
+    public long offHeapBytes()
+    {
+        return records.capacity() + slots.capacity();
+    }
+
+    public boolean isClosed()
+    {
+        return records.isClosed();
+    }
+
+    /**
+     * Releases the off-heap memory. The map cannot be used afterwards.
+     */
+    @Override
+    public void close()
+    {
+        records.close();
+        slots.close();
+    }
+
+    //==============================================================
+    // Table
+    //==============================================================
+
+    /**
+     * @return The slot holding {@code key}, or -1 if there is none.
+     */
+    private int findSlot(Object key, int hash)
+    {
+        int mask = capacity - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask)
+        {
+            long record = recordAt(slot);
+
+            if (record < 0)
+            {
+                return -1;
+            }
+
+            if (hashOf(record) == hash && key.equals(keyOf(record)))
+            {
+                return slot;
+            }
+        }
+    }
+
+    private int freeSlotFor(int hash)
+    {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+
+        while (recordAt(slot) >= 0)
+        {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Empties the slot, shifting back later entries of the same run, so that probes never stop early.
+     *
+     * @param wrapped If not null, receives the records shifted back across the end of the table, from the front
+     *                into the back. An iterator walking from the back has already passed their new slots.
+     */
+    private void removeSlot(int slot, List<Long> wrapped)
+    {
+        int mask = capacity - 1;
+        int gap = slot;
+
+        for (int next = (gap + 1) & mask; ; next = (next + 1) & mask)
+        {
+            long record = recordAt(next);
+
+            if (record < 0)
+            {
+                break;
+            }
+
+            int home = hashOf(record) & mask;
+
+            //Move the entry into the gap, unless its home lies cyclically within (gap, next]
+            boolean homeIsBetween = gap <= next ? (gap < home && home <= next) : (gap < home || home <= next);
+
+            if (!homeIsBetween)
+            {
+                if (wrapped != null && next < gap)
+                {
+                    wrapped.add(record);
+                }
+
+                setSlot(gap, record);
+                gap = next;
+            }
+        }
+
+        slots.putLong((long) gap * SLOT_SIZE, 0L);
+    }
+
+    private void allocateSlots(int newCapacity)
+    {
+        DirectMemory previous = slots;
+        int previousCapacity = capacity;
+
+        long bytes = (long) newCapacity * SLOT_SIZE;
+        slots = new DirectMemory((int) Math.min(DirectMemory.DEFAULT_CHUNK_SIZE, bytes));
+        slots.ensureCapacity(bytes);
+
+        capacity = newCapacity;
+        maxFill = Hashing.maxFill(newCapacity, Hashing.DEFAULT_LOAD_FACTOR);
+
+        if (previous != null)
+        {
+            for (int slot = 0; slot < previousCapacity; slot++)
+            {
+                long stored = previous.getLong((long) slot * SLOT_SIZE);
+
+                if (stored != 0)
+                {
+                    setSlot(freeSlotFor(hashOf(stored - 1)), stored - 1);
+                }
+            }
+
+            previous.close();
+        }
+    }
+
+    /**
+     * @return The position of the record in the slot, or -1 if it is empty.
+     */
+    private long recordAt(int slot)
+    {
+        if (slot < 0)
+        {
+            return -1;
+        }
+
+        return slots.getLong((long) slot * SLOT_SIZE) - 1;
+    }
+
+    private void setSlot(int slot, long record)
+    {
+        slots.putLong((long) slot * SLOT_SIZE, record + 1);
+    }
+
+    //==============================================================
+    // Records
+    //==============================================================
+
+    private long writeRecord(int hash, K key, V value)
+    {
+        int keySize = keyCodec.sizeOf(key);
+        int valueSize = valueCodec.sizeOf(value);
+        long length = (long) HEADER_SIZE + keySize + valueSize;
+
+        if (length > chunkSize)
+        {
+            throw new IllegalArgumentException("entry of " + length + " bytes does not fit in chunks of " + chunkSize);
+        }
+
+        long record = records.allocate((int) length);
+        ByteBuffer chunk = records.chunkAt(record);
+        int offset = records.offsetOf(record);
+
+        chunk.putInt(offset, hash);
+        chunk.putInt(offset + Integer.BYTES, keySize);
+        chunk.putInt(offset + 2 * Integer.BYTES, valueSize);
+        keyCodec.write(key, chunk, offset + HEADER_SIZE);
+        valueCodec.write(value, chunk, offset + HEADER_SIZE + keySize);
+
+        return record;
+    }
+
+    private int hashOf(long record)
+    {
+        return records.getInt(record);
+    }
+
+    private int recordSize(long record)
+    {
+        ByteBuffer chunk = records.chunkAt(record);
+        int offset = records.offsetOf(record);
+
+        return HEADER_SIZE + chunk.getInt(offset + Integer.BYTES) + chunk.getInt(offset + 2 * Integer.BYTES);
+    }
+
+    private K keyOf(long record)
+    {
+        ByteBuffer chunk = records.chunkAt(record);
+        int offset = records.offsetOf(record);
+
+        return keyCodec.read(chunk, offset + HEADER_SIZE, chunk.getInt(offset + Integer.BYTES));
+    }
+
+    private V valueOf(long record)
+    {
+        ByteBuffer chunk = records.chunkAt(record);
+        int offset = records.offsetOf(record);
+        int keySize = chunk.getInt(offset + Integer.BYTES);
+
+        return valueCodec.read(chunk, offset + HEADER_SIZE + keySize, chunk.getInt(offset + 2 * Integer.BYTES));
+    }
+
+    /**
+     * Walks the table from the back to the front. Removing the last entry shifts back the entries after it, which
+     * have already been returned, except for those that wrap around from the front of the table; those are kept
+     * aside and returned once the table has been walked.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>>
+    {
+
+        private final List<Long> wrapped = new ArrayList<>();
+        private int expectedModCount = modCount;
+
+        /**
+         * The next slot to look at, going down.
+         */
+        private int slot = capacity - 1;
+        private int lastSlot = -1;
+        private K lastKey;
+
+        @Override
+        public boolean hasNext()
+        {
+            checkForComodification();
+
+            while (slot >= 0 && recordAt(slot) < 0)
+            {
+                slot--;
+            }
+
+            return slot >= 0 || !wrapped.isEmpty();
+        }
+
+        @Override
+        public Entry<K, V> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            long record;
+
+            if (slot >= 0)
+            {
+                record = recordAt(slot);
+                lastSlot = slot--;
+            }
+            else
+            {
+                record = wrapped.remove(wrapped.size() - 1);
+                lastSlot = -1;
+            }
+
+            lastKey = keyOf(record);
+            return new SimpleImmutableEntry<>(lastKey, valueOf(record));
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastKey == null)
+            {
+                throw new IllegalStateException();
+            }
+
+            checkForComodification();
+
+            if (lastSlot >= 0)
+            {
+                garbage += recordSize(recordAt(lastSlot));
+                removeSlot(lastSlot, wrapped);
+                size--;
+                modCount++;
+            }
+            else
+            {
+                //The table has been walked, so it no longer matters what gets shifted
+                OffHeapMap.this.remove(lastKey);
+            }
+
+            expectedModCount = modCount;
+            lastSlot = -1;
+            lastKey = null;
+        }
+
+        private void checkForComodification()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,1117 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * An immutable {@link Map} whose updates return a new version, sharing all but {@code O(log32 n)} of its structure
+ * with the old one.
+ * <p>
+ * The entries live in a hash array mapped trie: each node covers 5 bits of a key's hash, and holds only the entries
+ * and children it needs, found through a 32-bit bitmap. Keys whose hashes are entirely equal share a collision node.
+ * {@link #plus(Object, Object) plus} and {@link #minus(Object) minus} copy just the nodes on the path to the key,
+ * so every version stays valid, and can be shared freely between threads.
+ * <p>
+ * Many updates in a row are cheaper through a {@link Transient}, which changes the nodes it has already copied in place,
+ * instead of copying them again for each update.
+ * <p>
+ * {@code null} keys and values are allowed. The {@link Map} methods that would change the map throw an
+ * {@link UnsupportedOperationException}. Iteration follows the layout of the trie, not the order the entries were added in.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#persistentCopyOf(Map)
+ */
+@Immutable
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V>
+{
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Six full levels and a partial one cover all 32 bits of a hash; below those, a collision node.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(0, null, false, null);
+
+    private final int size;
+
+    /**
+     * {@code null} when the map holds no entries, other than perhaps one for the {@code null} key.
+     */
+    private final Node root;
+
+    private final boolean hasNullKey;
+    private final V nullValue;
+
+    private transient int hashCode = 0;
+    private transient Set<Entry<K, V>> entrySet;
+    private transient Set<K> keySet;
+
+    private PersistentHashMap(int size, Node root, boolean hasNullKey, V nullValue)
+    {
+        this.size = size;
+        this.root = root;
+        this.hasNullKey = hasNullKey;
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * @param <K>
+     * @param <V>
+     * @return The shared empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty()
+    {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Copies the entries of the map. Copying a {@code PersistentHashMap} returns it as-is.
+     *
+     * @param <K>
+     * @param <V>
+     * @param map A {@code null} map is treated as empty.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> copyOf(@Optional Map<? extends K, ? extends V> map)
+    {
+        if (map instanceof PersistentHashMap)
+        {
+            return (PersistentHashMap<K, V>) map;
+        }
+
+        if (map == null || map.isEmpty())
+        {
+            return empty();
+        }
+
+        return PersistentHashMap.<K, V>empty().asTransient().putAll(map).persistent();
+    }
+
+    //==============================================================
+    // Reads
+    //==============================================================
+
+    @Override
+    public V get(Object key)
+    {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue)
+    {
+        if (key == null)
+        {
+            return hasNullKey ? nullValue : defaultValue;
+        }
+
+        if (root == null)
+        {
+            return defaultValue;
+        }
+
+        Object value = root.find(0, hashOf(key), key);
+        return value == NOT_FOUND ? defaultValue : (V) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        if (key == null)
+        {
+            return hasNullKey;
+        }
+
+        return root != null && root.find(0, hashOf(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action)
+    {
+        Objects.requireNonNull(action);
+
+        if (hasNullKey)
+        {
+            action.accept(null, nullValue);
+        }
+
+        if (root != null)
+        {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        Set<Entry<K, V>> entries = entrySet;
+
+        if (entries == null)
+        {
+            entries = new AbstractSet<Entry<K, V>>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    return new TrieIterator<Entry<K, V>>()
+                    {
+                        @Override
+                        Entry<K, V> next(K key, V value)
+                        {
+                            return new SimpleImmutableEntry<>(key, value);
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object object)
+                {
+                    if (!(object instanceof Entry))
+                    {
+                        return false;
+                    }
+
+                    Entry<?, ?> entry = (Entry<?, ?>) object;
+                    Object value = getOrDefault(entry.getKey(), null);
+
+                    return Objects.equals(value, entry.getValue()) && (value != null || containsKey(entry.getKey()));
+                }
+            };
+
+            entrySet = entries;
+        }
+
+        return entries;
+    }
+
+    /**
+     * @return A read-only view of the keys, which iterates without creating an entry for each one.
+     */
+    @Override
+    public Set<K> keySet()
+    {
+        Set<K> keys = keySet;
+
+        if (keys == null)
+        {
+            keys = new AbstractSet<K>()
+            {
+                @Override
+                public Iterator<K> iterator()
+                {
+                    return new TrieIterator<K>()
+                    {
+                        @Override
+                        K next(K key, V value)
+                        {
+                            return key;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object key)
+                {
+                    return containsKey(key);
+                }
+            };
+
+            keySet = keys;
+        }
+
+        return keys;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = hashCode;
+
+        //Racy, but every thread computes the same value
+        if (hash == 0 && size > 0)
+        {
+            hash = super.hashCode();
+            hashCode = hash;
+        }
+
+        return hash;
+    }
+
+    //==============================================================
+    // Versions
+    //==============================================================
+
+    /**
+     * @param key
+     * @param value
+     * @return A version of this map in which {@code key} is mapped to {@code value}; this map itself if it already is.
+     */
+    public PersistentHashMap<K, V> plus(@Optional K key, @Optional V value)
+    {
+        if (key == null)
+        {
+            if (hasNullKey && value == nullValue)
+            {
+                return this;
+            }
+
+            return new PersistentHashMap<>(hasNullKey ? size : size + 1, root, true, value);
+        }
+
+        Box added = new Box();
+        Node start = root == null ? BitmapNode.EMPTY : root;
+        Node newRoot = start.assoc(null, 0, hashOf(key), key, value, added);
+
+        if (newRoot == root)
+        {
+            return this;
+        }
+
+        return new PersistentHashMap<>(added.value ? size + 1 : size, newRoot, hasNullKey, nullValue);
+    }
+
+    /**
+     * @param map
+     * @return A version of this map that also holds the entries of {@code map}.
+     */
+    public PersistentHashMap<K, V> plusAll(@Required Map<? extends K, ? extends V> map)
+    {
+        checkThat(map).usingMessage("map cannot be null").is(notNull());
+
+        if (map.isEmpty())
+        {
+            return this;
+        }
+
+        return asTransient().putAll(map).persistent();
+    }
+
+    /**
+     * @param key
+     * @return A version of this map without {@code key}; this map itself if it has no such key.
+     */
+    public PersistentHashMap<K, V> minus(@Optional Object key)
+    {
+        if (key == null)
+        {
+            return hasNullKey ? new PersistentHashMap<>(size - 1, root, false, null) : this;
+        }
+
+        if (root == null)
+        {
+            return this;
+        }
+
+        Node newRoot = root.without(null, 0, hashOf(key), key, new Box());
+
+        if (newRoot == root)
+        {
+            return this;
+        }
+
+        return new PersistentHashMap<>(size - 1, newRoot, hasNullKey, nullValue);
+    }
+
+    /**
+     * Starts a batch of updates, based on this map, which remains as it is.
+     *
+     * @return
+     */
+    public Transient<K, V> asTransient()
+    {
+        return new Transient<>(this);
+    }
+
+    /**
+     * A mutable version of a {@link PersistentHashMap}, for making many updates in a row.
+     * <p>
+     * The first update to a node copies it, and marks the copy as owned by this transient; later updates to that node
+     * change it in place. {@link #persistent()} ends the batch, returning the result as a new map, and any further use
+     * of the transient throws an {@link IllegalStateException}.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    @ThreadUnsafe
+    public static final class Transient<K, V>
+    {
+
+        /**
+         * Marks the nodes this transient owns; {@code null} once it has been made persistent.
+         */
+        private Object owner = new Object();
+
+        private final Box added = new Box();
+
+        /**
+         * The map the transient started from, returned as-is if nothing changed.
+         */
+        private final PersistentHashMap<K, V> source;
+
+        private int size;
+        private Node root;
+        private boolean hasNullKey;
+        private V nullValue;
+
+        private Transient(PersistentHashMap<K, V> map)
+        {
+            this.source = map;
+            this.size = map.size;
+            this.root = map.root;
+            this.hasNullKey = map.hasNullKey;
+            this.nullValue = map.nullValue;
+        }
+
+        public Transient<K, V> put(@Optional K key, @Optional V value)
+        {
+            checkOwned();
+
+            if (key == null)
+            {
+                size += hasNullKey ? 0 : 1;
+                hasNullKey = true;
+                nullValue = value;
+                return this;
+            }
+
+            added.value = false;
+            Node start = root == null ? BitmapNode.EMPTY : root;
+            root = start.assoc(owner, 0, hashOf(key), key, value, added);
+
+            if (added.value)
+            {
+                size++;
+            }
+
+            return this;
+        }
+
+        public Transient<K, V> putAll(@Required Map<? extends K, ? extends V> map)
+        {
+            checkThat(map).usingMessage("map cannot be null").is(notNull());
+
+            map.forEach(this::put);
+            return this;
+        }
+
+        public Transient<K, V> remove(@Optional Object key)
+        {
+            checkOwned();
+
+            if (key == null)
+            {
+                size -= hasNullKey ? 1 : 0;
+                hasNullKey = false;
+                nullValue = null;
+                return this;
+            }
+
+            if (root == null)
+            {
+                return this;
+            }
+
+            Box removed = new Box();
+            root = root.without(owner, 0, hashOf(key), key, removed);
+
+            if (removed.value)
+            {
+                size--;
+            }
+
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(@Optional Object key)
+        {
+            checkOwned();
+
+            if (key == null)
+            {
+                return nullValue;
+            }
+
+            Object value = root == null ? NOT_FOUND : root.find(0, hashOf(key), key);
+            return value == NOT_FOUND ? null : (V) value;
+        }
+
+        public boolean containsKey(@Optional Object key)
+        {
+            checkOwned();
+
+            if (key == null)
+            {
+                return hasNullKey;
+            }
+
+            return root != null && root.find(0, hashOf(key), key) != NOT_FOUND;
+        }
+
+        public int size()
+        {
+            checkOwned();
+            return size;
+        }
+
+        /**
+         * Ends the batch of updates.
+         *
+         * @return A map with every update made so far; the map the transient started from if it is unchanged.
+         * @throws IllegalStateException If the transient has already been made persistent.
+         */
+        public PersistentHashMap<K, V> persistent() throws IllegalStateException
+        {
+            checkOwned();
+            owner = null;
+
+            if (size == 0)
+            {
+                return empty();
+            }
+
+            if (root == source.root && hasNullKey == source.hasNullKey && nullValue == source.nullValue)
+            {
+                return source;
+            }
+
+            return new PersistentHashMap<>(size, root, hasNullKey, nullValue);
+        }
+
+        private void checkOwned()
+        {
+            if (owner == null)
+            {
+                throw new IllegalStateException("transient has already been made persistent");
+            }
+        }
+    }
+
+    //==============================================================
+    // Trie
+    //==============================================================
+
+    private static int hashOf(Object key)
+    {
+        return Hashing.mix(key.hashCode());
+    }
+
+    private static int bitOf(int hash, int shift)
+    {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Whether an update made on behalf of {@code owner} can change the node in place.
+     */
+    private static boolean isOwnedBy(Node node, Object owner)
+    {
+        return owner != null && node.owner == owner;
+    }
+
+    private static final class Box
+    {
+
+        private boolean value;
+    }
+
+    /**
+     * A node of the trie. Its array alternates keys and values; a {@code null} key marks a slot whose value is a child node.
+     */
+    private abstract static class Node
+    {
+
+        /**
+         * The {@link Transient} that may change this node in place, if any.
+         */
+        final Object owner;
+
+        Object[] array;
+
+        Node(Object owner, Object[] array)
+        {
+            this.owner = owner;
+            this.array = array;
+        }
+
+        /**
+         * @return The number of slots in use, which can be less than the array holds when the node belongs to a transient.
+         */
+        abstract int slots();
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node assoc(Object owner, int shift, int hash, Object key, Object value, Box added);
+
+        /**
+         * @return The node without {@code key}, or {@code null} if it would be empty.
+         */
+        abstract Node without(Object owner, int shift, int hash, Object key, Box removed);
+
+        final void forEach(BiConsumer<Object, Object> action)
+        {
+            for (int i = 0; i < slots(); i++)
+            {
+                Object key = array[2 * i];
+                Object value = array[2 * i + 1];
+
+                if (key == null)
+                {
+                    ((Node) value).forEach(action);
+                }
+                else
+                {
+                    action.accept(key, value);
+                }
+            }
+        }
+    }
+
+    private static final class BitmapNode extends Node
+    {
+
+        private static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        private int bitmap;
+
+        private BitmapNode(Object owner, int bitmap, Object[] array)
+        {
+            super(owner, array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        int slots()
+        {
+            return Integer.bitCount(bitmap);
+        }
+
+        private int indexOf(int bit)
+        {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key)
+        {
+            int bit = bitOf(hash, shift);
+
+            if ((bitmap & bit) == 0)
+            {
+                return NOT_FOUND;
+            }
+
+            int index = indexOf(bit);
+            Object storedKey = array[2 * index];
+            Object value = array[2 * index + 1];
+
+            if (storedKey == null)
+            {
+                return ((Node) value).find(shift + BITS, hash, key);
+            }
+
+            return key.equals(storedKey) ? value : NOT_FOUND;
+        }
+
+        @Override
+        Node assoc(Object owner, int shift, int hash, Object key, Object value, Box added)
+        {
+            int bit = bitOf(hash, shift);
+            int index = indexOf(bit);
+
+            if ((bitmap & bit) != 0)
+            {
+                Object storedKey = array[2 * index];
+                Object storedValue = array[2 * index + 1];
+
+                if (storedKey == null)
+                {
+                    Node child = ((Node) storedValue).assoc(owner, shift + BITS, hash, key, value, added);
+                    return child == storedValue ? this : withSlot(owner, index, null, child);
+                }
+
+                if (key.equals(storedKey))
+                {
+                    return storedValue == value ? this : withSlot(owner, index, storedKey, value);
+                }
+
+                added.value = true;
+                Node child = nodeOf(owner, shift + BITS, storedKey, storedValue, hash, key, value);
+                return withSlot(owner, index, null, child);
+            }
+
+            added.value = true;
+            int slots = slots();
+
+            if (isOwnedBy(this, owner) && array.length >= 2 * (slots + 1))
+            {
+                System.arraycopy(array, 2 * index, array, 2 * (index + 1), 2 * (slots - index));
+                array[2 * index] = key;
+                array[2 * index + 1] = value;
+                bitmap |= bit;
+                return this;
+            }
+
+            //A transient leaves room to grow in place
+            Object[] grown = new Object[2 * (owner == null ? slots + 1 : Math.min(32, slots + 4))];
+            System.arraycopy(array, 0, grown, 0, 2 * index);
+            grown[2 * index] = key;
+            grown[2 * index + 1] = value;
+            System.arraycopy(array, 2 * index, grown, 2 * (index + 1), 2 * (slots - index));
+
+            return new BitmapNode(owner, bitmap | bit, grown);
+        }
+
+        @Override
+        Node without(Object owner, int shift, int hash, Object key, Box removed)
+        {
+            int bit = bitOf(hash, shift);
+
+            if ((bitmap & bit) == 0)
+            {
+                return this;
+            }
+
+            int index = indexOf(bit);
+            Object storedKey = array[2 * index];
+            Object storedValue = array[2 * index + 1];
+
+            if (storedKey == null)
+            {
+                Node child = ((Node) storedValue).without(owner, shift + BITS, hash, key, removed);
+
+                if (child == storedValue)
+                {
+                    return this;
+                }
+
+                if (child != null)
+                {
+                    return withSlot(owner, index, null, child);
+                }
+            }
+            else if (!key.equals(storedKey))
+            {
+                return this;
+            }
+
+            removed.value = true;
+
+            if (bitmap == bit)
+            {
+                return null;
+            }
+
+            int slots = slots();
+
+            if (isOwnedBy(this, owner))
+            {
+                System.arraycopy(array, 2 * (index + 1), array, 2 * index, 2 * (slots - index - 1));
+                array[2 * (slots - 1)] = null;
+                array[2 * (slots - 1) + 1] = null;
+                bitmap ^= bit;
+                return this;
+            }
+
+            Object[] shrunk = new Object[2 * (slots - 1)];
+            System.arraycopy(array, 0, shrunk, 0, 2 * index);
+            System.arraycopy(array, 2 * (index + 1), shrunk, 2 * index, 2 * (slots - index - 1));
+
+            return new BitmapNode(owner, bitmap ^ bit, shrunk);
+        }
+
+        private Node withSlot(Object owner, int index, Object key, Object value)
+        {
+            if (isOwnedBy(this, owner))
+            {
+                array[2 * index] = key;
+                array[2 * index + 1] = value;
+                return this;
+            }
+
+            Object[] copy = array.clone();
+            copy[2 * index] = key;
+            copy[2 * index + 1] = value;
+
+            return new BitmapNode(owner, bitmap, copy);
+        }
+
+        private static Node nodeOf(Object owner, int shift, Object firstKey, Object firstValue, int hash, Object key, Object value)
+        {
+            int firstHash = hashOf(firstKey);
+
+            if (firstHash == hash)
+            {
+                return new CollisionNode(owner, hash, 2, new Object[] { firstKey, firstValue, key, value });
+            }
+
+            Box ignored = new Box();
+            return EMPTY.assoc(owner, shift, firstHash, firstKey, firstValue, ignored)
+                        .assoc(owner, shift, hash, key, value, ignored);
+        }
+    }
+
+    /**
+     * Holds the keys whose hashes are entirely equal.
+     */
+    private static final class CollisionNode extends Node
+    {
+
+        private final int hash;
+        private int count;
+
+        private CollisionNode(Object owner, int hash, int count, Object[] array)
+        {
+            super(owner, array);
+            this.hash = hash;
+            this.count = count;
+        }
+
+        @Override
+        int slots()
+        {
+            return count;
+        }
+
+        private int indexOf(Object key)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                if (key.equals(array[2 * i]))
+                {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key)
+        {
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : array[2 * index + 1];
+        }
+
+        @Override
+        Node assoc(Object owner, int shift, int hash, Object key, Object value, Box added)
+        {
+            if (hash != this.hash)
+            {
+                //Nest this node under a bitmap node, which tells the two hashes apart
+                BitmapNode parent = new BitmapNode(owner, bitOf(this.hash, shift), new Object[] { null, this });
+                return parent.assoc(owner, shift, hash, key, value, added);
+            }
+
+            int index = indexOf(key);
+
+            if (index >= 0)
+            {
+                if (array[2 * index + 1] == value)
+                {
+                    return this;
+                }
+
+                Object[] target = isOwnedBy(this, owner) ? array : array.clone();
+                target[2 * index + 1] = value;
+
+                return target == array ? this : new CollisionNode(owner, hash, count, target);
+            }
+
+            added.value = true;
+
+            Object[] target = isOwnedBy(this, owner) && array.length > 2 * count ? array : Arrays.copyOf(array, 2 * (count + 1));
+            target[2 * count] = key;
+            target[2 * count + 1] = value;
+
+            if (target == array)
+            {
+                count++;
+                return this;
+            }
+
+            return new CollisionNode(owner, hash, count + 1, target);
+        }
+
+        @Override
+        Node without(Object owner, int shift, int hash, Object key, Box removed)
+        {
+            int index = indexOf(key);
+
+            if (index < 0)
+            {
+                return this;
+            }
+
+            removed.value = true;
+
+            if (count == 1)
+            {
+                return null;
+            }
+
+            //Move the last entry into the gap
+            Object[] target = isOwnedBy(this, owner) ? array : Arrays.copyOf(array, 2 * (count - 1));
+            int last = count - 1;
+
+            if (index != last)
+            {
+                target[2 * index] = array[2 * last];
+                target[2 * index + 1] = array[2 * last + 1];
+            }
+
+            if (target == array)
+            {
+                array[2 * last] = null;
+                array[2 * last + 1] = null;
+                count--;
+                return this;
+            }
+
+            return new CollisionNode(owner, hash, last, target);
+        }
+    }
+
+    /**
+     * Walks the trie depth-first, with an explicit stack.
+     */
+    private abstract class TrieIterator<T> implements Iterator<T>
+    {
+
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+
+        private boolean pendingNullKey = hasNullKey;
+        private Object nextKey;
+        private Object nextValue;
+        private boolean hasNext;
+
+        TrieIterator()
+        {
+            if (root != null)
+            {
+                push(root);
+            }
+
+            advance();
+        }
+
+        abstract T next(K key, V value);
+
+        @Override
+        public boolean hasNext()
+        {
+            return hasNext;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next()
+        {
+            if (!hasNext)
+            {
+                throw new NoSuchElementException();
+            }
+
+            T next = next((K) nextKey, (V) nextValue);
+            advance();
+            return next;
+        }
+
+        private void push(Node node)
+        {
+            depth++;
+            nodes[depth] = node;
+            positions[depth] = 0;
+        }
+
+        private void advance()
+        {
+            if (pendingNullKey)
+            {
+                pendingNullKey = false;
+                nextKey = null;
+                nextValue = nullValue;
+                hasNext = true;
+                return;
+            }
+
+            while (depth >= 0)
+            {
+                Node node = nodes[depth];
+                int position = positions[depth];
+
+                if (position >= node.slots())
+                {
+                    nodes[depth] = null;
+                    depth--;
+                    continue;
+                }
+
+                positions[depth] = position + 1;
+                Object key = node.array[2 * position];
+                Object value = node.array[2 * position + 1];
+
+                if (key == null)
+                {
+                    push((Node) value);
+                    continue;
+                }
+
+                nextKey = key;
+                nextValue = value;
+                hasNext = true;
+                return;
+            }
+
+            hasNext = false;
+        }
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public V put(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V replace(K key, V value)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction)
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("PersistentHashMaps cannot be modified; use plus() and minus() for new versions");
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import sir.wellington.alchemy.collections.sets.ImmutableSet;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+/**
+ * A {@link ConcurrentMultimap} that maps a key to each value at most once; putting a value the key already has
+ * changes nothing.
+ * <p>
+ * Up to {@value #ARRAY_LIMIT} values of a key are kept in insertion order, and found by scanning them.
+ * Beyond that, they are kept in a {@linkplain ConcurrentHashMap#newKeySet() concurrent hash set}, in no particular order.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#createSetMultimap()
+ */
+@ThreadSafe
+public final class SetMultimap<K, V> extends ConcurrentMultimap<K, V, Set<V>>
+{
+
+    SetMultimap()
+    {
+    }
+
+    @Override
+    boolean allowsDuplicates()
+    {
+        return false;
+    }
+
+    @Override
+    Collection<V> newSharedCollection()
+    {
+        return ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    Set<V> immutableCopyOf(Collection<V> values)
+    {
+        return ImmutableSet.copyOf(values);
+    }
+
+    @Override
+    Set<V> emptyCollection()
+    {
+        return ImmutableSet.empty();
+    }
+}
@@ -0,0 +1,724 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A {@link ConcurrentMap} that publishes each change as a new, numbered, immutable {@link Snapshot}.
+ * <p>
+ * The current snapshot sits in an {@link AtomicReference}. Reads and {@link #snapshot()} take no locks and never retry:
+ * they read the reference once, and look up the {@link PersistentHashMap} it holds. A {@link Snapshot} never changes,
+ * so a reader that needs several lookups to agree with each other takes one snapshot, and reads from it.
+ * <p>
+ * Writers build the next version from the current one, and publish it with a compare-and-set, retrying when another
+ * writer got there first. {@link #update(Consumer)} applies a whole {@link Batch} of changes in one version, so readers
+ * see either all of them or none; {@link #putAll(Map)} and {@link #replaceAll(BiFunction)} are batches as well.
+ * Since the versions share most of their structure, each one costs only the nodes its changes touched.
+ * <p>
+ * Only the current version is held by the map. Older snapshots stay valid for as long as someone holds them,
+ * and are reclaimed by the garbage collector afterwards.
+ * <p>
+ * Like {@link java.util.concurrent.ConcurrentHashMap}, the map rejects {@code null} keys and values,
+ * with an {@link IllegalArgumentException}.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @author SirWellington
+ * @see Maps#createSnapshotMap()
+ */
+@ThreadSafe
+public final class SnapshotMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>
+{
+
+    private final AtomicReference<Snapshot<K, V>> current;
+
+    private transient Set<Entry<K, V>> entrySet;
+
+    SnapshotMap(@Required Map<? extends K, ? extends V> initial)
+    {
+        checkThat(initial).usingMessage("initial entries cannot be null").is(notNull());
+
+        Batch<K, V> batch = new Batch<>(PersistentHashMap.empty());
+        batch.putAll(initial);
+        batch.close();
+
+        this.current = new AtomicReference<>(new Snapshot<>(0, batch.result));
+    }
+
+    //==============================================================
+    // Versions
+    //==============================================================
+
+    /**
+     * @return The current version of the map, which does not change, however the map does.
+     */
+    public Snapshot<K, V> snapshot()
+    {
+        return current.get();
+    }
+
+    /**
+     * @return The number of the current version. It starts at 0, and goes up by one with each change that is published.
+     */
+    public long version()
+    {
+        return current.get().version;
+    }
+
+    /**
+     * Applies a batch of changes, and publishes them together as a single new version.
+     * <p>
+     * If another writer publishes first, the batch starts over from the newer version, so {@code changes} may run
+     * more than once, and should have no side effects. The batch cannot be used once {@code changes} returns.
+     *
+     * @param changes Makes its changes to the {@link Batch} it is given, which starts with the entries of the current version.
+     * @return The version that holds the changes. If they changed nothing, it is the version they were applied to.
+     * @throws IllegalArgumentException If {@code changes} is null, or puts a {@code null} key or value.
+     */
+    public Snapshot<K, V> update(@Required Consumer<? super Batch<K, V>> changes) throws IllegalArgumentException
+    {
+        checkThat(changes).usingMessage("changes cannot be null").is(notNull());
+
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+            Batch<K, V> batch = new Batch<>(previous.entries);
+
+            try
+            {
+                changes.accept(batch);
+            }
+            finally
+            {
+                batch.close();
+            }
+
+            Snapshot<K, V> published = publish(previous, batch.result);
+
+            if (published != null)
+            {
+                return published;
+            }
+        }
+    }
+
+    //==============================================================
+    // Reads
+    //==============================================================
+
+    @Override
+    public V get(Object key)
+    {
+        return current.get().entries.get(key);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue)
+    {
+        return current.get().entries.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return current.get().entries.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        return current.get().entries.containsValue(value);
+    }
+
+    @Override
+    public int size()
+    {
+        return current.get().entries.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return current.get().entries.isEmpty();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action)
+    {
+        current.get().entries.forEach(action);
+    }
+
+    /**
+     * Iterates over the version that is current when the iterator is created. Removing through the iterator removes
+     * the entry from the map, but only if it still holds the same value.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        if (entrySet == null)
+        {
+            entrySet = new AbstractSet<Entry<K, V>>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    Iterator<Entry<K, V>> iterator = current.get().entries.entrySet().iterator();
+
+                    return new Iterator<Entry<K, V>>()
+                    {
+                        private Entry<K, V> last;
+
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next()
+                        {
+                            last = iterator.next();
+                            return last;
+                        }
+
+                        @Override
+                        public void remove()
+                        {
+                            if (last == null)
+                            {
+                                throw new IllegalStateException("next() has not been called");
+                            }
+
+                            SnapshotMap.this.remove(last.getKey(), last.getValue());
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return SnapshotMap.this.size();
+                }
+
+                @Override
+                public boolean contains(Object object)
+                {
+                    return current.get().entries.entrySet().contains(object);
+                }
+
+                @Override
+                public boolean remove(Object object)
+                {
+                    if (!(object instanceof Entry))
+                    {
+                        return false;
+                    }
+
+                    Entry<?, ?> entry = (Entry<?, ?>) object;
+                    return SnapshotMap.this.remove(entry.getKey(), entry.getValue());
+                }
+
+                @Override
+                public void clear()
+                {
+                    SnapshotMap.this.clear();
+                }
+            };
+        }
+
+        return entrySet;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other == this || current.get().equals(other);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return current.get().hashCode();
+    }
+
+    //==============================================================
+    // Writes
+    //==============================================================
+
+    @Override
+    public V put(K key, V value)
+    {
+        checkEntry(key, value);
+
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+
+            if (publish(previous, previous.entries.plus(key, value)) != null)
+            {
+                return previous.entries.get(key);
+            }
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map)
+    {
+        checkThat(map).usingMessage("map cannot be null").is(notNull());
+
+        update(batch -> batch.putAll(map));
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value)
+    {
+        checkEntry(key, value);
+
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+            V existing = previous.entries.get(key);
+
+            if (existing != null || publish(previous, previous.entries.plus(key, value)) != null)
+            {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+
+            if (publish(previous, previous.entries.minus(key)) != null)
+            {
+                return previous.entries.get(key);
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value)
+    {
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+            V existing = previous.entries.get(key);
+
+            if (existing == null || !existing.equals(value))
+            {
+                return false;
+            }
+
+            if (publish(previous, previous.entries.minus(key)) != null)
+            {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue)
+    {
+        checkEntry(key, newValue);
+
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+            V existing = previous.entries.get(key);
+
+            if (existing == null || !existing.equals(oldValue))
+            {
+                return false;
+            }
+
+            if (publish(previous, previous.entries.plus(key, newValue)) != null)
+            {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V value)
+    {
+        checkEntry(key, value);
+
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+            V existing = previous.entries.get(key);
+
+            if (existing == null || publish(previous, previous.entries.plus(key, value)) != null)
+            {
+                return existing;
+            }
+        }
+    }
+
+    /**
+     * Replaces every value in a single new version. As with {@link #update(Consumer)}, the function
+     * may be applied to the same entry more than once.
+     */
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function)
+    {
+        checkThat(function).usingMessage("function cannot be null").is(notNull());
+
+        update(batch -> batch.start.forEach((key, value) -> batch.put(key, function.apply(key, value))));
+    }
+
+    @Override
+    public void clear()
+    {
+        while (true)
+        {
+            Snapshot<K, V> previous = current.get();
+
+            if (publish(previous, PersistentHashMap.empty()) != null)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publishes {@code entries} as the version after {@code previous}, unless they are the same entries.
+     *
+     * @return The version now current, or {@code null} if another writer published first.
+     */
+    private Snapshot<K, V> publish(Snapshot<K, V> previous, PersistentHashMap<K, V> entries)
+    {
+        if (entries == previous.entries)
+        {
+            return previous;
+        }
+
+        Snapshot<K, V> next = new Snapshot<>(previous.version + 1, entries);
+        return current.compareAndSet(previous, next) ? next : null;
+    }
+
+    private static void checkEntry(Object key, Object value)
+    {
+        if (key == null || value == null)
+        {
+            throw new IllegalArgumentException("SnapshotMaps cannot hold null keys or values");
+        }
+    }
+
+    //==============================================================
+    // Snapshots and Batches
+    //==============================================================
+
+    /**
+     * One version of a {@link SnapshotMap}, which never changes. The {@link Map} methods that would change
+     * it throw an {@link UnsupportedOperationException}.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    @Immutable
+    public static final class Snapshot<K, V> extends AbstractMap<K, V>
+    {
+
+        private final long version;
+        private final PersistentHashMap<K, V> entries;
+
+        private Snapshot(long version, PersistentHashMap<K, V> entries)
+        {
+            this.version = version;
+            this.entries = entries;
+        }
+
+        /**
+         * @return The number of this version, which is higher than that of every version published before it.
+         */
+        public long version()
+        {
+            return version;
+        }
+
+        /**
+         * @return The entries of this version, to derive new maps from.
+         */
+        public PersistentHashMap<K, V> entries()
+        {
+            return entries;
+        }
+
+        @Override
+        public V get(Object key)
+        {
+            return entries.get(key);
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue)
+        {
+            return entries.getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return entries.containsKey(key);
+        }
+
+        @Override
+        public int size()
+        {
+            return entries.size();
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return entries.isEmpty();
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action)
+        {
+            entries.forEach(action);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet()
+        {
+            return entries.entrySet();
+        }
+
+        @Override
+        public Set<K> keySet()
+        {
+            return entries.keySet();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return entries.hashCode();
+        }
+
+        @Override
+        public V put(K key, V value)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> map)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V remove(Object key)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean remove(Object key, Object value)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public void clear()
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V replace(K key, V value)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction)
+        {
+            throw readOnly();
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction)
+        {
+            throw readOnly();
+        }
+
+        private static UnsupportedOperationException readOnly()
+        {
+            return new UnsupportedOperationException("Snapshots cannot be modified; update the SnapshotMap instead");
+        }
+    }
+
+    /**
+     * The changes that {@link SnapshotMap#update(Consumer)} publishes together. It starts with the entries
+     * of the version it is applied to, and reflects each change made to it. A batch cannot be used
+     * once the update it belongs to has returned.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    @ThreadUnsafe
+    public static final class Batch<K, V>
+    {
+
+        /**
+         * The entries of the version the batch is applied to.
+         */
+        private final PersistentHashMap<K, V> start;
+
+        private PersistentHashMap.Transient<K, V> entries;
+
+        /**
+         * The entries of the batch, once it is closed.
+         */
+        private PersistentHashMap<K, V> result;
+
+        private Batch(PersistentHashMap<K, V> start)
+        {
+            this.start = start;
+            this.entries = start.asTransient();
+        }
+
+        /**
+         * @param key
+         * @param value
+         * @return This batch.
+         * @throws IllegalArgumentException If the key or value is {@code null}.
+         */
+        public Batch<K, V> put(@Required K key, @Required V value) throws IllegalArgumentException
+        {
+            checkOpen();
+            checkEntry(key, value);
+            entries.put(key, value);
+            return this;
+        }
+
+        public Batch<K, V> putAll(@Required Map<? extends K, ? extends V> map) throws IllegalArgumentException
+        {
+            checkOpen();
+            checkThat(map).usingMessage("map cannot be null").is(notNull());
+
+            map.forEach(this::put);
+            return this;
+        }
+
+        public Batch<K, V> remove(Object key)
+        {
+            checkOpen();
+            entries.remove(key);
+            return this;
+        }
+
+        /**
+         * Removes every entry, including those the batch started with.
+         *
+         * @return This batch.
+         */
+        public Batch<K, V> clear()
+        {
+            checkOpen();
+            entries = PersistentHashMap.<K, V>empty().asTransient();
+            return this;
+        }
+
+        public V get(Object key)
+        {
+            checkOpen();
+            return entries.get(key);
+        }
+
+        public boolean containsKey(Object key)
+        {
+            checkOpen();
+            return entries.containsKey(key);
+        }
+
+        public int size()
+        {
+            checkOpen();
+            return entries.size();
+        }
+
+        private void close()
+        {
+            if (result == null)
+            {
+                result = entries.persistent();
+            }
+        }
+
+        private void checkOpen()
+        {
+            if (result != null)
+            {
+                throw new IllegalStateException("batch has already been published");
+            }
+        }
+    }
+}
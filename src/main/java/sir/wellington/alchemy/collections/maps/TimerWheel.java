@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+/**
+ * A hierarchical timing wheel, which expires entries in amortized constant time.
+ * <p>
+ * Each level is a ring of buckets, and each bucket holds the entries that expire within its span of time,
+ * in no particular order. Scheduling an entry links it into the bucket for its expiry, and advancing the
+ * wheel only visits the buckets whose time has come. Entries in the coarser levels are rescheduled into
+ * finer ones as their expiry approaches, so each entry moves at most once per level.
+ * <p>
+ * Spans are powers of two nanoseconds, so finding a bucket is a shift and a mask:
+ * <pre>
+ * level  bucket span           buckets  covers
+ * 0      2^30 ns (~1.07 s)     64       ~1.14 minutes
+ * 1      2^36 ns (~1.14 min)   64       ~1.22 hours
+ * 2      2^42 ns (~1.22 h)     32       ~1.63 days
+ * 3      2^47 ns (~1.63 d)     4        ~6.5 days
+ * 4      2^49 ns (~6.5 d)      1        everything later
+ * </pre>
+ *
+ * @author SirWellington
+ */
+@Internal
+@ThreadUnsafe
+final class TimerWheel<K, V>
+{
+
+    private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+    private static final int[] SHIFTS = { 30, 36, 42, 47, 49 };
+
+    private final CacheNode<K, V>[][] wheel;
+
+    /**
+     * The time that the wheel was last advanced to.
+     */
+    private long nanos;
+
+    TimerWheel(long now)
+    {
+        this.nanos = now;
+        this.wheel = newWheel();
+
+        for (int level = 0; level < BUCKETS.length; level++)
+        {
+            for (int bucket = 0; bucket < BUCKETS[level]; bucket++)
+            {
+                wheel[level][bucket] = CacheNode.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Links the node into the bucket for its {@link CacheNode#expiresAt expiry}.
+     */
+    void schedule(CacheNode<K, V> node)
+    {
+        CacheNode<K, V> sentinel = bucketFor(node.expiresAt);
+
+        node.previousInTimer = sentinel.previousInTimer;
+        node.nextInTimer = sentinel;
+        sentinel.previousInTimer.nextInTimer = node;
+        sentinel.previousInTimer = node;
+    }
+
+    void reschedule(CacheNode<K, V> node)
+    {
+        deschedule(node);
+        schedule(node);
+    }
+
+    void deschedule(CacheNode<K, V> node)
+    {
+        if (node.nextInTimer != null)
+        {
+            node.nextInTimer.previousInTimer = node.previousInTimer;
+            node.previousInTimer.nextInTimer = node.nextInTimer;
+            node.nextInTimer = null;
+            node.previousInTimer = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to {@code now}, handing each expired node to {@code onExpiry}, which must remove it from the map.
+     * Nodes whose time has not yet come are moved into finer buckets.
+     */
+    void advance(long now, Consumer<CacheNode<K, V>> onExpiry)
+    {
+        long previous = nanos;
+        nanos = now;
+
+        for (int level = 0; level < SHIFTS.length; level++)
+        {
+            long previousTicks = previous >>> SHIFTS[level];
+            long currentTicks = now >>> SHIFTS[level];
+
+            if (currentTicks - previousTicks <= 0)
+            {
+                break;
+            }
+
+            expire(level, previousTicks, currentTicks - previousTicks, onExpiry);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Consumer<CacheNode<K, V>> onExpiry)
+    {
+        CacheNode<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+
+        //Revisits the bucket of the previous tick, whose later entries were not yet due
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+
+        for (int step = 0; step < steps; step++)
+        {
+            CacheNode<K, V> sentinel = buckets[(start + step) & mask];
+            CacheNode<K, V> node = sentinel.nextInTimer;
+
+            //Detach the whole bucket first, since rescheduled nodes may land back in it
+            sentinel.previousInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+
+            while (node != sentinel)
+            {
+                CacheNode<K, V> next = node.nextInTimer;
+                node.previousInTimer = null;
+                node.nextInTimer = null;
+
+                if (node.expiresAt - nanos <= 0)
+                {
+                    onExpiry.accept(node);
+                }
+                else
+                {
+                    schedule(node);
+                }
+
+                node = next;
+            }
+        }
+    }
+
+    private CacheNode<K, V> bucketFor(long time)
+    {
+        long duration = time - nanos;
+
+        for (int level = 0; level < SHIFTS.length - 1; level++)
+        {
+            if (duration < (1L << SHIFTS[level + 1]))
+            {
+                long ticks = time >>> SHIFTS[level];
+                return wheel[level][(int) (ticks & (BUCKETS[level] - 1))];
+            }
+        }
+
+        return wheel[SHIFTS.length - 1][0];
+    }
+
+    /**
+     * Creates the empty bucket arrays of each level. Arrays of a generic type can only be created unchecked.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> CacheNode<K, V>[][] newWheel()
+    {
+        CacheNode<?, ?>[][] wheel = new CacheNode<?, ?>[BUCKETS.length][];
+
+        for (int level = 0; level < BUCKETS.length; level++)
+        {
+            wheel[level] = new CacheNode<?, ?>[BUCKETS[level]];
+        }
+
+        return (CacheNode<K, V>[][]) wheel;
+    }
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+/**
+ * Tracks the {@link #k()} most frequent keys of a stream, in a fixed number of counters, with the space-saving algorithm.
+ * <p>
+ * Each tracked key has a counter. When an untracked key arrives and every counter is taken, it replaces the key
+ * with the smallest count, and inherits that count as its possible {@linkplain Entry#error() error}. A count therefore
+ * never understates how often a key was seen, and overstates it by at most its error. Any key seen more than
+ * {@code total / capacity} times is sure to be tracked.
+ * <p>
+ * The counters are split into shards by the hash of their keys, each with its own lock, and a min-heap that finds
+ * the smallest count in {@code O(log capacity)}; threads counting different keys rarely wait for each other.
+ * Each shard keeps {@link #capacity()} counters, so even when the heaviest keys share a shard, they are all tracked.
+ * <p>
+ * Trackers of the same shape {@linkplain #merge(TopK) merge}, as mergeable summaries: a key missing from a full shard
+ * is taken to have its smallest count. {@link #decay(double)} scales every count down, so that a tracker
+ * decayed on a schedule favors recent keys.
+ *
+ * @param <K> The type of keys.
+ * @author SirWellington
+ * @see Maps#createTopK(int)
+ * @see CountMinSketch
+ */
+@ThreadSafe
+public final class TopK<K>
+{
+
+    static final int MAX_CAPACITY = 1 << 20;
+
+    private final int k;
+    private final int capacity;
+    private final Shard<K>[] shards;
+
+    private TopK(int k, int capacity, int shardCount)
+    {
+        if (k < 1 || capacity < k || capacity > MAX_CAPACITY)
+        {
+            throw new IllegalArgumentException("k must be positive, and no larger than a capacity of up to " + MAX_CAPACITY + ": " + k + ", " + capacity);
+        }
+
+        if (shardCount < 1 || shardCount > 1024 || Integer.bitCount(shardCount) != 1)
+        {
+            throw new IllegalArgumentException("shards must be a power of two, up to 1024: " + shardCount);
+        }
+
+        this.k = k;
+        this.capacity = capacity;
+        this.shards = newShards(shardCount);
+
+        for (int i = 0; i < shardCount; i++)
+        {
+            shards[i] = new Shard<>(capacity);
+        }
+    }
+
+    /**
+     * Creates a tracker with 4 counters per key reported, and a shard for every two processors.
+     *
+     * @param <K>
+     * @param k How many keys {@link #top()} reports.
+     * @return
+     * @throws IllegalArgumentException If {@code k} is not positive.
+     */
+    public static <K> TopK<K> create(int k) throws IllegalArgumentException
+    {
+        if (k < 1 || k > MAX_CAPACITY / 4)
+        {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_CAPACITY / 4 + ": " + k);
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int shards = Math.min(64, Integer.highestOneBit(Math.max(1, processors / 2)));
+
+        return new TopK<>(k, 4 * k, shards);
+    }
+
+    /**
+     * @param <K>
+     * @param k        How many keys {@link #top()} reports.
+     * @param capacity How many keys each shard tracks; at least {@code k}. More counters give smaller errors.
+     * @param shards   A power of two, up to 1024. More shards let more threads count at once.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <K> TopK<K> create(int k, int capacity, int shards) throws IllegalArgumentException
+    {
+        return new TopK<>(k, capacity, shards);
+    }
+
+    //==============================================================
+    // Counting
+    //==============================================================
+
+    /**
+     * @param key
+     * @throws IllegalArgumentException If {@code key} is null.
+     */
+    public void add(@Required K key) throws IllegalArgumentException
+    {
+        add(key, 1);
+    }
+
+    /**
+     * @param key
+     * @param count Cannot be negative.
+     * @throws IllegalArgumentException If {@code key} is null, or {@code count} is negative.
+     */
+    public void add(@Required K key, long count) throws IllegalArgumentException
+    {
+        if (key == null)
+        {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("count cannot be negative: " + count);
+        }
+
+        if (count == 0)
+        {
+            return;
+        }
+
+        Shard<K> shard = shardOf(key);
+
+        synchronized (shard)
+        {
+            shard.add(key, count);
+        }
+    }
+
+    /**
+     * @param key
+     * @return The count of the key, if it is tracked; otherwise 0.
+     */
+    public long estimate(K key)
+    {
+        if (key == null)
+        {
+            return 0;
+        }
+
+        Shard<K> shard = shardOf(key);
+
+        synchronized (shard)
+        {
+            Counter<K> counter = shard.counters.get(key);
+            return counter == null ? 0 : counter.count;
+        }
+    }
+
+    /**
+     * @return Up to {@link #k()} of the keys with the highest counts, highest first.
+     */
+    public List<Entry<K>> top()
+    {
+        List<Entry<K>> entries = new ArrayList<>();
+
+        for (Shard<K> shard : shards)
+        {
+            synchronized (shard)
+            {
+                shard.forEach(counter ->
+                {
+                    if (counter.count > 0)
+                    {
+                        entries.add(new Entry<>(counter.key, counter.count, counter.error));
+                    }
+                });
+            }
+        }
+
+        entries.sort(Comparator.comparingLong((Entry<K> entry) -> entry.count).reversed());
+
+        return Collections.unmodifiableList(new ArrayList<>(entries.subList(0, Math.min(k, entries.size()))));
+    }
+
+    public int k()
+    {
+        return k;
+    }
+
+    /**
+     * @return How many keys each shard tracks.
+     */
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @param other
+     * @return Whether the trackers have the same capacity and number of shards, and so can be merged.
+     */
+    public boolean isCompatible(TopK<K> other)
+    {
+        return other != null && other.capacity == capacity && other.shards.length == shards.length;
+    }
+
+    /**
+     * Adds the counts of another tracker to this one, such as that of another shard of the stream.
+     *
+     * @param other
+     * @throws IllegalArgumentException If the trackers are not {@linkplain #isCompatible(TopK) compatible}.
+     */
+    public void merge(@Required TopK<K> other) throws IllegalArgumentException
+    {
+        if (!isCompatible(other))
+        {
+            throw new IllegalArgumentException("trackers differ in capacity or shards");
+        }
+
+        for (int i = 0; i < shards.length; i++)
+        {
+            List<Counter<K>> counters = new ArrayList<>();
+            long otherMinimum;
+
+            synchronized (other.shards[i])
+            {
+                other.shards[i].forEach(counter -> counters.add(new Counter<>(counter.key, counter.count, counter.error, -1)));
+                otherMinimum = other.shards[i].minimum();
+            }
+
+            synchronized (shards[i])
+            {
+                shards[i].merge(counters, otherMinimum);
+            }
+        }
+    }
+
+    /**
+     * Scales every count, and error, down by {@code factor}, rounding down. Called on a schedule, this gives counts
+     * that decay exponentially with time. Keys whose counts reach 0 are no longer reported.
+     *
+     * @param factor Between 0 and 1.
+     * @throws IllegalArgumentException
+     */
+    public void decay(double factor) throws IllegalArgumentException
+    {
+        if (!(factor >= 0.0 && factor <= 1.0))
+        {
+            throw new IllegalArgumentException("factor must be between 0 and 1: " + factor);
+        }
+
+        for (Shard<K> shard : shards)
+        {
+            synchronized (shard)
+            {
+                //Scaling keeps the order of the counts, and so the heap, intact
+                shard.forEach(counter ->
+                {
+                    counter.count = (long) (counter.count * factor);
+                    counter.error = (long) (counter.error * factor);
+                });
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TopK{" + "k=" + k + ", capacity=" + capacity + ", shards=" + shards.length + '}';
+    }
+
+    private Shard<K> shardOf(Object key)
+    {
+        long hash = Hashing.mix64(key.hashCode());
+        return shards[(int) (hash >>> 32) & (shards.length - 1)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Shard<K>[] newShards(int length)
+    {
+        return (Shard<K>[]) new Shard<?>[length];
+    }
+
+    //==============================================================
+    // Entries
+    //==============================================================
+
+    /**
+     * A tracked key, and its count when {@link TopK#top()} was called.
+     *
+     * @param <K>
+     */
+    @Immutable
+    public static final class Entry<K>
+    {
+
+        private final K key;
+        private final long count;
+        private final long error;
+
+        Entry(K key, long count, long error)
+        {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K key()
+        {
+            return key;
+        }
+
+        /**
+         * @return At least the number of times the key was counted.
+         */
+        public long count()
+        {
+            return count;
+        }
+
+        /**
+         * @return By how much {@link #count()} may overstate the number of times the key was counted.
+         */
+        public long error()
+        {
+            return error;
+        }
+
+        /**
+         * @return The number of times the key was certainly counted.
+         */
+        public long guaranteedCount()
+        {
+            return count - error;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (this == other)
+            {
+                return true;
+            }
+
+            if (!(other instanceof Entry))
+            {
+                return false;
+            }
+
+            Entry<?> entry = (Entry<?>) other;
+            return count == entry.count && error == entry.error && key.equals(entry.key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(key, count, error);
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + count + " (±" + error + ")";
+        }
+    }
+
+    //==============================================================
+    // Shards
+    //==============================================================
+
+    private static final class Counter<K>
+    {
+
+        private K key;
+        private long count;
+        private long error;
+
+        /**
+         * The position of the counter in the heap of its shard.
+         */
+        private int index;
+
+        private Counter(K key, long count, long error, int index)
+        {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.index = index;
+        }
+    }
+
+    /**
+     * The counters of some of the keys, in a map to find them, and a min-heap ordered by count to find the smallest.
+     * Guarded by its own monitor.
+     */
+    private static final class Shard<K>
+    {
+
+        private final int capacity;
+        private final Map<K, Counter<K>> counters;
+        private Counter<K>[] heap;
+        private int size = 0;
+
+        private Shard(int capacity)
+        {
+            this.capacity = capacity;
+            this.counters = new HashMap<>();
+            this.heap = newHeap(Math.min(capacity, 16));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K> Counter<K>[] newHeap(int length)
+        {
+            return (Counter<K>[]) new Counter<?>[length];
+        }
+
+        private void add(K key, long count)
+        {
+            Counter<K> counter = counters.get(key);
+
+            if (counter != null)
+            {
+                counter.count += count;
+                siftDown(counter.index);
+                return;
+            }
+
+            if (size < capacity)
+            {
+                push(new Counter<>(key, count, 0, size));
+                return;
+            }
+
+            //Replace the key with the smallest count, whose count the new key may have had all along
+            Counter<K> smallest = heap[0];
+            counters.remove(smallest.key);
+
+            smallest.key = key;
+            smallest.error = smallest.count;
+            smallest.count += count;
+
+            counters.put(key, smallest);
+            siftDown(0);
+        }
+
+        /**
+         * @return The count below which an untracked key may have been counted, if the shard is full; otherwise 0.
+         */
+        private long minimum()
+        {
+            return size < capacity ? 0 : heap[0].count;
+        }
+
+        /**
+         * Combines these counters with another shard's, and keeps those with the highest counts.
+         */
+        private void merge(List<Counter<K>> others, long otherMinimum)
+        {
+            long minimum = minimum();
+            Map<K, Counter<K>> combined = new HashMap<>();
+
+            for (int i = 0; i < size; i++)
+            {
+                Counter<K> counter = heap[i];
+                combined.put(counter.key, new Counter<>(counter.key, counter.count + otherMinimum, counter.error + otherMinimum, -1));
+            }
+
+            for (Counter<K> other : others)
+            {
+                Counter<K> counter = combined.get(other.key);
+
+                if (counter == null)
+                {
+                    combined.put(other.key, new Counter<>(other.key, other.count + minimum, other.error + minimum, -1));
+                }
+                else
+                {
+                    //Both counted the key; neither count needs the allowance for a missing key
+                    counter.count += other.count - otherMinimum;
+                    counter.error += other.error - otherMinimum;
+                }
+            }
+
+            List<Counter<K>> sorted = new ArrayList<>(combined.values());
+            sorted.sort(Comparator.comparingLong((Counter<K> counter) -> counter.count).reversed());
+
+            counters.clear();
+            Arrays.fill(heap, 0, size, null);
+            size = 0;
+
+            for (Counter<K> counter : sorted.subList(0, Math.min(capacity, sorted.size())))
+            {
+                counter.index = size;
+                push(counter);
+            }
+        }
+
+        private void forEach(Consumer<Counter<K>> action)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                action.accept(heap[i]);
+            }
+        }
+
+        private void push(Counter<K> counter)
+        {
+            if (size == heap.length)
+            {
+                heap = Arrays.copyOf(heap, Math.min(capacity, heap.length * 2));
+            }
+
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(counter.key, counter);
+            siftUp(counter.index);
+        }
+
+        private void siftUp(int index)
+        {
+            Counter<K> counter = heap[index];
+
+            while (index > 0)
+            {
+                int parent = (index - 1) >>> 1;
+
+                if (heap[parent].count <= counter.count)
+                {
+                    break;
+                }
+
+                place(heap[parent], index);
+                index = parent;
+            }
+
+            place(counter, index);
+        }
+
+        private void siftDown(int index)
+        {
+            Counter<K> counter = heap[index];
+
+            while (true)
+            {
+                int child = 2 * index + 1;
+
+                if (child >= size)
+                {
+                    break;
+                }
+
+                if (child + 1 < size && heap[child + 1].count < heap[child].count)
+                {
+                    child++;
+                }
+
+                if (counter.count <= heap[child].count)
+                {
+                    break;
+                }
+
+                place(heap[child], index);
+                index = child;
+            }
+
+            place(counter, index);
+        }
+
+        private void place(Counter<K> counter, int index)
+        {
+            heap[index] = counter;
+            counter.index = index;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+
+/**
+ * A bounded {@link Queue} for handing elements from one thread to another, without locks.
+ * <p>
+ * The queue holds up to {@link #capacity()} elements in an array allocated up front, so handing an element over
+ * allocates nothing. {@link #offer(Object)} and {@link #poll()} never block; they return {@code false} and {@code null}
+ * when the queue is full or empty. {@link #put(Object, WaitStrategy)} and {@link #take(WaitStrategy)} wait instead,
+ * as the {@link WaitStrategy} decides.
+ * <p>
+ * Each implementation allows a certain number of threads to produce, and to consume, at the same time.
+ * Methods that remove elements, including {@link #clear()}, count as consuming.
+ * The queue cannot hold {@code null} elements. Its iterator is weakly consistent, and does not support removal.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Queues
+ */
+public interface ConcurrentQueue<E> extends Queue<E>
+{
+
+    /**
+     * @return The most elements the queue can hold.
+     */
+    int capacity();
+
+    /**
+     * Offers each of the elements in turn, until the queue is full.
+     *
+     * @param elements
+     * @return The number of elements offered; those after it were not.
+     * @throws NullPointerException If any of the elements is {@code null}.
+     */
+    int offerAll(@Required Collection<? extends E> elements) throws NullPointerException;
+
+    /**
+     * Removes up to {@code limit} elements, passing each one to {@code consumer}.
+     *
+     * @param consumer
+     * @param limit
+     * @return The number of elements removed.
+     */
+    int drainTo(@Required Consumer<? super E> consumer, int limit);
+
+    /**
+     * Removes up to {@code limit} elements, adding each one to {@code target}.
+     *
+     * @param target
+     * @param limit
+     * @return The number of elements removed.
+     */
+    default int drainTo(@Required Collection<? super E> target, int limit)
+    {
+        return drainTo((Consumer<E>) target::add, limit);
+    }
+
+    /**
+     * Adds an element, waiting for room if the queue is full.
+     *
+     * @param element
+     * @param waitStrategy How to wait, each time the queue is found full.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     * @throws NullPointerException If {@code element} is {@code null}.
+     */
+    default void put(@Required E element, @Required WaitStrategy waitStrategy) throws InterruptedException, NullPointerException
+    {
+        int attempts = 0;
+
+        while (!offer(element))
+        {
+            if (Thread.interrupted())
+            {
+                throw new InterruptedException();
+            }
+
+            waitStrategy.idle(attempts++);
+        }
+    }
+
+    /**
+     * Removes an element, waiting for one if the queue is empty.
+     *
+     * @param waitStrategy How to wait, each time the queue is found empty.
+     * @return
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    default E take(@Required WaitStrategy waitStrategy) throws InterruptedException
+    {
+        int attempts = 0;
+
+        while (true)
+        {
+            E element = poll();
+
+            if (element != null)
+            {
+                return element;
+            }
+
+            if (Thread.interrupted())
+            {
+                throw new InterruptedException();
+            }
+
+            waitStrategy.idle(attempts++);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A {@link ConcurrentQueue} for any number of producing and consuming threads.
+ * <p>
+ * Each slot has a sequence number of its own, which says whether it is ready to be filled in, or to be taken, and on
+ * which lap around the array. Producers and consumers claim slots with a compare-and-set on their side's shared
+ * sequence, and hand each slot over to the other side by advancing its sequence number, so neither side waits on the
+ * other, or on another thread of its own side that has claimed an earlier slot.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Queues#createMpmc(int)
+ */
+@ThreadSafe
+public final class MpmcQueue<E> extends RingQueue<E>
+{
+
+    private final Object[] buffer;
+
+    /**
+     * The slot at {@code offset} is ready to be filled in for index {@code i} when its sequence is {@code i},
+     * and ready to be taken when its sequence is {@code i + 1}.
+     */
+    private final AtomicLongArray sequences;
+
+    MpmcQueue(int capacity)
+    {
+        super(capacity);
+
+        this.buffer = new Object[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+
+        for (int i = 0; i < this.capacity; i++)
+        {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(E element)
+    {
+        checkNotNull(element);
+
+        long tail = producerIndex.get();
+
+        while (true)
+        {
+            int offset = offsetOf(tail);
+            long difference = sequences.get(offset) - tail;
+
+            if (difference == 0)
+            {
+                if (producerIndex.compareAndSet(tail, tail + 1))
+                {
+                    buffer[offset] = element;
+                    sequences.lazySet(offset, tail + 1);
+                    return true;
+                }
+            }
+            else if (difference < 0)
+            {
+                //The slot still holds the element from the previous lap
+                return false;
+            }
+
+            tail = producerIndex.get();
+        }
+    }
+
+    @Override
+    public E poll()
+    {
+        long head = consumerIndex.get();
+
+        while (true)
+        {
+            int offset = offsetOf(head);
+            long difference = sequences.get(offset) - (head + 1);
+
+            if (difference == 0)
+            {
+                if (consumerIndex.compareAndSet(head, head + 1))
+                {
+                    E element = slotAt(offset);
+                    buffer[offset] = null;
+                    sequences.lazySet(offset, head + capacity);
+                    return element;
+                }
+            }
+            else if (difference < 0)
+            {
+                //The slot has not been filled in for this lap yet
+                return null;
+            }
+
+            head = consumerIndex.get();
+        }
+    }
+
+    @Override
+    public E peek()
+    {
+        while (true)
+        {
+            long head = consumerIndex.get();
+            int offset = offsetOf(head);
+
+            if (sequences.get(offset) - (head + 1) < 0)
+            {
+                return null;
+            }
+
+            E element = slotAt(offset);
+
+            //Make sure another consumer did not take the element while it was being read
+            if (element != null && consumerIndex.get() == head)
+            {
+                return element;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int limit)
+    {
+        checkThat(consumer).usingMessage("consumer cannot be null").is(notNull());
+
+        int drained = 0;
+        E element;
+
+        while (drained < limit && (element = poll()) != null)
+        {
+            drained++;
+            consumer.accept(element);
+        }
+
+        return drained;
+    }
+
+    @Override
+    E elementAt(long index)
+    {
+        int offset = offsetOf(index);
+
+        if (sequences.get(offset) != index + 1)
+        {
+            return null;
+        }
+
+        E element = slotAt(offset);
+
+        //The sequence only moves forward, so if it has not changed, neither has the slot
+        return sequences.get(offset) == index + 1 ? element : null;
+    }
+
+    private int offsetOf(long index)
+    {
+        return (int) index & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E slotAt(int offset)
+    {
+        return (E) buffer[offset];
+    }
+}
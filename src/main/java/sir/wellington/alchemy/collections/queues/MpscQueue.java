@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A {@link ConcurrentQueue} for any number of producing threads, and one consuming thread.
+ * <p>
+ * Producers claim slots with a compare-and-set on their shared sequence, and then fill them in. A producer can claim a
+ * whole batch of slots at once with {@link #offerAll(Collection) offerAll}. The consumer owns its sequence outright,
+ * and waits briefly for a slot that has been claimed, but not yet filled in.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Queues#createMpsc(int)
+ */
+@ThreadSafe
+public final class MpscQueue<E> extends RingQueue<E>
+{
+
+    private final AtomicReferenceArray<E> buffer;
+
+    MpscQueue(int capacity)
+    {
+        super(capacity);
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    @Override
+    public boolean offer(E element)
+    {
+        checkNotNull(element);
+
+        while (true)
+        {
+            long tail = producerIndex.get();
+
+            if (tail - consumerIndex.get() >= capacity)
+            {
+                return false;
+            }
+
+            if (producerIndex.compareAndSet(tail, tail + 1))
+            {
+                buffer.lazySet(offsetOf(tail), element);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int offerAll(Collection<? extends E> elements)
+    {
+        Object[] batch = toCheckedArray(elements);
+
+        while (true)
+        {
+            long tail = producerIndex.get();
+            int count = (int) Math.min(batch.length, capacity - (tail - consumerIndex.get()));
+
+            if (count <= 0)
+            {
+                return 0;
+            }
+
+            if (producerIndex.compareAndSet(tail, tail + count))
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    buffer.lazySet(offsetOf(tail + i), cast(batch[i]));
+                }
+
+                return count;
+            }
+        }
+    }
+
+    @Override
+    public E poll()
+    {
+        long head = consumerIndex.get();
+        E element = awaitElement(head);
+
+        if (element == null)
+        {
+            return null;
+        }
+
+        buffer.lazySet(offsetOf(head), null);
+        consumerIndex.lazySet(head + 1);
+
+        return element;
+    }
+
+    @Override
+    public E peek()
+    {
+        return awaitElement(consumerIndex.get());
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int limit)
+    {
+        checkThat(consumer).usingMessage("consumer cannot be null").is(notNull());
+
+        long head = consumerIndex.get();
+        int drained = 0;
+
+        try
+        {
+            while (drained < limit)
+            {
+                E element = awaitElement(head + drained);
+
+                if (element == null)
+                {
+                    break;
+                }
+
+                buffer.lazySet(offsetOf(head + drained), null);
+                drained++;
+
+                consumer.accept(element);
+            }
+        }
+        finally
+        {
+            if (drained > 0)
+            {
+                consumerIndex.lazySet(head + drained);
+            }
+        }
+
+        return drained;
+    }
+
+    @Override
+    E elementAt(long index)
+    {
+        if (index >= producerIndex.get())
+        {
+            return null;
+        }
+
+        E element = buffer.get(offsetOf(index));
+
+        //The slot is only reused once the consumer has moved past the index
+        return consumerIndex.get() <= index ? element : null;
+    }
+
+    /**
+     * Called by the consumer.
+     *
+     * @return The element at {@code index}, or {@code null} if no producer has claimed it yet.
+     */
+    private E awaitElement(long index)
+    {
+        int offset = offsetOf(index);
+        E element = buffer.get(offset);
+
+        if (element != null)
+        {
+            return element;
+        }
+
+        if (index >= producerIndex.get())
+        {
+            return null;
+        }
+
+        //The slot has been claimed, and the producer is about to fill it in
+        while ((element = buffer.get(offset)) == null)
+        {
+            WaitStrategies.onSpinWait();
+        }
+
+        return element;
+    }
+
+    private int offsetOf(long index)
+    {
+        return (int) index & mask;
+    }
+}
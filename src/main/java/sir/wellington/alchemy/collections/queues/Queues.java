@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+/**
+ * Operations built around {@linkplain ConcurrentQueue Concurrent Queues}.
+ * <p>
+ * Pick the queue with the fewest producers and consumers that fits: each one that allows more threads
+ * needs more atomic operations per element.
+ *
+ * @author SirWellington
+ */
+@NonInstantiable
+public final class Queues
+{
+
+    Queues() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    /**
+     * Creates a queue for a single producing thread and a single consuming thread.
+     *
+     * @param <E>
+     * @param capacity Rounded up to a power of two, of at least 2.
+     * @return
+     * @throws IllegalArgumentException If {@code capacity} is not between 1 and 2<sup>30</sup>.
+     */
+    @ThreadSafe
+    public static <E> SpscQueue<E> createSpsc(int capacity) throws IllegalArgumentException
+    {
+        return new SpscQueue<>(capacity);
+    }
+
+    /**
+     * Creates a queue for any number of producing threads, and a single consuming thread.
+     *
+     * @param <E>
+     * @param capacity Rounded up to a power of two, of at least 2.
+     * @return
+     * @throws IllegalArgumentException If {@code capacity} is not between 1 and 2<sup>30</sup>.
+     */
+    @ThreadSafe
+    public static <E> MpscQueue<E> createMpsc(int capacity) throws IllegalArgumentException
+    {
+        return new MpscQueue<>(capacity);
+    }
+
+    /**
+     * Creates a queue for any number of producing and consuming threads.
+     *
+     * @param <E>
+     * @param capacity Rounded up to a power of two, of at least 2.
+     * @return
+     * @throws IllegalArgumentException If {@code capacity} is not between 1 and 2<sup>30</sup>.
+     */
+    @ThreadSafe
+    public static <E> MpmcQueue<E> createMpmc(int capacity) throws IllegalArgumentException
+    {
+        return new MpmcQueue<>(capacity);
+    }
+}
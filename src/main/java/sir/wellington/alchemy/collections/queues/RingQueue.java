@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+
+/**
+ * The parts the {@linkplain ConcurrentQueue queues} share: a power-of-two capacity, and the two sequences that count the
+ * elements produced and consumed.
+ *
+ * @param <E>
+ * @author SirWellington
+ */
+@Internal
+abstract class RingQueue<E> extends AbstractQueue<E> implements ConcurrentQueue<E>
+{
+
+    static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The number of elements ever added, written by producers.
+     */
+    final Sequence producerIndex = new Sequence();
+
+    /**
+     * The number of elements ever removed, written by consumers.
+     */
+    final Sequence consumerIndex = new Sequence();
+
+    final int capacity;
+    final int mask;
+
+    RingQueue(int capacity)
+    {
+        if (capacity <= 0 || capacity > MAX_CAPACITY)
+        {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+
+        this.capacity = Math.max(2, Integer.bitCount(capacity) == 1 ? capacity : Integer.highestOneBit(capacity) << 1);
+        this.mask = this.capacity - 1;
+    }
+
+    @Override
+    public final int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * The size is only an estimate while other threads produce or consume.
+     */
+    @Override
+    public int size()
+    {
+        long consumed = consumerIndex.get();
+
+        while (true)
+        {
+            long produced = producerIndex.get();
+            long consumedAfter = consumerIndex.get();
+
+            if (consumed == consumedAfter)
+            {
+                return (int) Math.max(0, Math.min(capacity, produced - consumed));
+            }
+
+            consumed = consumedAfter;
+        }
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return consumerIndex.get() >= producerIndex.get();
+    }
+
+    @Override
+    public int offerAll(Collection<? extends E> elements)
+    {
+        Object[] batch = toCheckedArray(elements);
+        int offered = 0;
+
+        while (offered < batch.length && offer(cast(batch[offered])))
+        {
+            offered++;
+        }
+
+        return offered;
+    }
+
+    @Override
+    public void clear()
+    {
+        while (poll() != null)
+        {
+        }
+    }
+
+    /**
+     * The iterator is weakly consistent: it walks the elements that were in the queue when it was created, skipping
+     * any that have since been taken, and never sees elements added after it. It does not support
+     * {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new WeakIterator(consumerIndex.get(), producerIndex.get());
+    }
+
+    /**
+     * Reads an element without taking it. Safe to call from any thread.
+     *
+     * @param index
+     * @return The element at {@code index}, or {@code null} if it has not been added yet, or has already been taken.
+     */
+    abstract E elementAt(long index);
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "{size=" + size() + ", capacity=" + capacity + "}";
+    }
+
+    private final class WeakIterator implements Iterator<E>
+    {
+
+        private final long end;
+        private long index;
+        private E next;
+
+        WeakIterator(long start, long end)
+        {
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (next == null)
+            {
+                advance();
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public E next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            E element = next;
+            next = null;
+            return element;
+        }
+
+        private void advance()
+        {
+            //Skip straight past anything the consumers have already taken
+            index = Math.max(index, consumerIndex.get());
+
+            while (next == null && index < end)
+            {
+                next = elementAt(index++);
+            }
+        }
+    }
+
+    /**
+     * Copies the elements, checking them all before any is offered.
+     */
+    static Object[] toCheckedArray(Collection<?> elements)
+    {
+        checkNotNull(elements);
+
+        Object[] batch = elements.toArray();
+
+        for (Object element : batch)
+        {
+            checkNotNull(element);
+        }
+
+        return batch;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> E cast(Object element)
+    {
+        return (E) element;
+    }
+
+    static void checkNotNull(Object element)
+    {
+        if (element == null)
+        {
+            throw new NullPointerException("concurrent queues cannot hold null elements");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+/**
+ * A {@code long} counter that sits on a cache line of its own, so that threads updating it do not slow down
+ * threads that read or write the fields around it.
+ * <p>
+ * The padding is spread over superclasses, because the JVM keeps the fields of a superclass ahead of those of its
+ * subclasses, but may reorder fields declared in the same class.
+ *
+ * @author SirWellington
+ */
+@Internal
+@ThreadSafe
+final class Sequence extends SequenceFields
+{
+
+    long p10, p11, p12, p13, p14, p15, p16;
+
+    Sequence()
+    {
+    }
+
+    long get()
+    {
+        return value;
+    }
+
+    /**
+     * Publishes a new value without a full fence. Writes made before this one become visible to a thread that
+     * {@linkplain #get() reads} the new value.
+     *
+     * @param newValue
+     */
+    void lazySet(long newValue)
+    {
+        UPDATER.lazySet(this, newValue);
+    }
+
+    boolean compareAndSet(long expected, long newValue)
+    {
+        return UPDATER.compareAndSet(this, expected, newValue);
+    }
+
+    long getAndAdd(long delta)
+    {
+        return UPDATER.getAndAdd(this, delta);
+    }
+
+    private static final AtomicLongFieldUpdater<SequenceFields> UPDATER = AtomicLongFieldUpdater.newUpdater(SequenceFields.class, "value");
+}
+
+abstract class SequencePadding
+{
+
+    long p00, p01, p02, p03, p04, p05, p06;
+}
+
+abstract class SequenceFields extends SequencePadding
+{
+
+    volatile long value = 0;
+
+    /**
+     * A plain field for the one thread that updates this sequence, such as its cached copy of another sequence.
+     * It shares the cache line, which no other thread writes.
+     */
+    long cache = 0;
+}
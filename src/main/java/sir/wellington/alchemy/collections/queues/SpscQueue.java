@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadSafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A {@link ConcurrentQueue} for one producing thread and one consuming thread.
+ * <p>
+ * Neither side ever needs an atomic update: each one only writes its own sequence, and caches the other side's,
+ * reading it again only when the queue looks full, or empty. {@link #offerAll(Collection) offerAll} and
+ * {@link #drainTo(Consumer, int) drainTo} publish a whole batch with a single write.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Queues#createSpsc(int)
+ */
+@ThreadSafe
+public final class SpscQueue<E> extends RingQueue<E>
+{
+
+    private final Object[] buffer;
+
+    SpscQueue(int capacity)
+    {
+        super(capacity);
+        this.buffer = new Object[this.capacity];
+    }
+
+    @Override
+    public boolean offer(E element)
+    {
+        checkNotNull(element);
+
+        long tail = producerIndex.get();
+
+        if (room(tail, 1) <= 0)
+        {
+            return false;
+        }
+
+        buffer[offsetOf(tail)] = element;
+        producerIndex.lazySet(tail + 1);
+        return true;
+    }
+
+    @Override
+    public int offerAll(Collection<? extends E> elements)
+    {
+        Object[] batch = toCheckedArray(elements);
+
+        long tail = producerIndex.get();
+        int count = (int) Math.min(batch.length, room(tail, batch.length));
+
+        for (int i = 0; i < count; i++)
+        {
+            buffer[offsetOf(tail + i)] = batch[i];
+        }
+
+        if (count > 0)
+        {
+            producerIndex.lazySet(tail + count);
+        }
+
+        return count;
+    }
+
+    @Override
+    public E poll()
+    {
+        long head = consumerIndex.get();
+
+        if (available(head, 1) <= 0)
+        {
+            return null;
+        }
+
+        int offset = offsetOf(head);
+        E element = slotAt(offset);
+        buffer[offset] = null;
+        consumerIndex.lazySet(head + 1);
+
+        return element;
+    }
+
+    @Override
+    public E peek()
+    {
+        long head = consumerIndex.get();
+        return available(head, 1) <= 0 ? null : slotAt(offsetOf(head));
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int limit)
+    {
+        checkThat(consumer).usingMessage("consumer cannot be null").is(notNull());
+
+        long head = consumerIndex.get();
+        int count = (int) Math.min(Math.max(limit, 0), available(head, limit));
+        int drained = 0;
+
+        try
+        {
+            while (drained < count)
+            {
+                int offset = offsetOf(head + drained);
+                E element = slotAt(offset);
+                buffer[offset] = null;
+                drained++;
+
+                consumer.accept(element);
+            }
+        }
+        finally
+        {
+            if (drained > 0)
+            {
+                consumerIndex.lazySet(head + drained);
+            }
+        }
+
+        return drained;
+    }
+
+    @Override
+    E elementAt(long index)
+    {
+        if (index >= producerIndex.get())
+        {
+            return null;
+        }
+
+        E element = slotAt(offsetOf(index));
+
+        //The slot is only reused once the consumer has moved past the index
+        return consumerIndex.get() <= index ? element : null;
+    }
+
+    /**
+     * Called by the producer.
+     *
+     * @return How many more elements fit, consulting the consumer's sequence only if the cached copy says fewer than
+     * {@code wanted} do.
+     */
+    private long room(long tail, int wanted)
+    {
+        long room = capacity - (tail - producerIndex.cache);
+
+        if (room < wanted)
+        {
+            producerIndex.cache = consumerIndex.get();
+            room = capacity - (tail - producerIndex.cache);
+        }
+
+        return room;
+    }
+
+    /**
+     * Called by the consumer.
+     *
+     * @return How many elements are ready, consulting the producer's sequence only if the cached copy says fewer than
+     * {@code wanted} are.
+     */
+    private long available(long head, int wanted)
+    {
+        long available = consumerIndex.cache - head;
+
+        if (available < wanted)
+        {
+            consumerIndex.cache = producerIndex.get();
+            available = consumerIndex.cache - head;
+        }
+
+        return available;
+    }
+
+    private int offsetOf(long index)
+    {
+        return (int) index & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E slotAt(int offset)
+    {
+        return (E) buffer[offset];
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThan;
+import static tech.sirwellington.alchemy.arguments.assertions.NumberAssertions.greaterThanOrEqualTo;
+
+/**
+ * Common {@linkplain WaitStrategy Wait Strategies}.
+ *
+ * @author SirWellington
+ */
+@NonInstantiable
+public final class WaitStrategies
+{
+
+    /**
+     * How long {@link #backingOff()} parks once it is done spinning and yielding.
+     */
+    static final long DEFAULT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    WaitStrategies() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    /**
+     * @return A strategy that busy-spins, for the lowest latency when a core can be dedicated to each waiting thread.
+     */
+    public static WaitStrategy spinning()
+    {
+        return SPINNING;
+    }
+
+    /**
+     * @return A strategy that {@linkplain Thread#yield() yields} the core to other threads on every attempt.
+     */
+    public static WaitStrategy yielding()
+    {
+        return YIELDING;
+    }
+
+    /**
+     * @param time
+     * @param unit
+     * @return A strategy that {@linkplain LockSupport#parkNanos(long) parks} the thread for about {@code time} on every attempt.
+     * @throws IllegalArgumentException If {@code time} is not positive.
+     */
+    public static WaitStrategy parking(long time, @Required TimeUnit unit) throws IllegalArgumentException
+    {
+        checkThat(time).usingMessage("time must be positive").is(greaterThan(0L));
+        checkThat(unit).usingMessage("unit cannot be null").is(notNull());
+
+        long nanos = unit.toNanos(time);
+        return attempts -> LockSupport.parkNanos(nanos);
+    }
+
+    /**
+     * @return A strategy that spins for the first 100 attempts, yields for the next 100, and then parks for 50 microseconds
+     * at a time.
+     */
+    public static WaitStrategy backingOff()
+    {
+        return backingOff(100, 100, DEFAULT_PARK_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param spins     The number of attempts to spin for.
+     * @param yields    The number of attempts after those to yield for.
+     * @param parkTime  How long to park for, on each attempt after that.
+     * @param unit
+     * @return A strategy that spins, then yields, then parks.
+     * @throws IllegalArgumentException
+     */
+    public static WaitStrategy backingOff(int spins, int yields, long parkTime, @Required TimeUnit unit) throws IllegalArgumentException
+    {
+        checkThat(spins).usingMessage("spins cannot be negative").is(greaterThanOrEqualTo(0));
+        checkThat(yields).usingMessage("yields cannot be negative").is(greaterThanOrEqualTo(0));
+
+        WaitStrategy parking = parking(parkTime, unit);
+
+        return attempts ->
+        {
+            if (attempts < spins)
+            {
+                onSpinWait();
+            }
+            else if (attempts - spins < yields)
+            {
+                Thread.yield();
+            }
+            else
+            {
+                parking.idle(attempts);
+            }
+        };
+    }
+
+    private static final WaitStrategy SPINNING = attempts -> onSpinWait();
+
+    private static final WaitStrategy YIELDING = attempts -> Thread.yield();
+
+    /**
+     * {@code Thread.onSpinWait()}, which hints to the processor that the thread is spinning, exists from Java 9 onwards.
+     */
+    private static final MethodHandle ON_SPIN_WAIT;
+
+    static
+    {
+        MethodHandle onSpinWait = null;
+
+        try
+        {
+            onSpinWait = MethodHandles.lookup().findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            //Spin without the hint
+        }
+
+        ON_SPIN_WAIT = onSpinWait;
+    }
+
+    static void onSpinWait()
+    {
+        if (ON_SPIN_WAIT == null)
+        {
+            return;
+        }
+
+        try
+        {
+            ON_SPIN_WAIT.invokeExact();
+        }
+        catch (Throwable ex)
+        {
+            throw new IllegalStateException("could not spin", ex);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+/**
+ * Decides what a thread does while it waits on a {@link ConcurrentQueue}: when it finds the queue full during
+ * {@link ConcurrentQueue#put(Object, WaitStrategy) put}, or empty during {@link ConcurrentQueue#take(WaitStrategy) take}.
+ * <p>
+ * Spinning reacts fastest, but keeps a core busy; parking frees the core, but takes longer to notice a change.
+ *
+ * @author SirWellington
+ * @see WaitStrategies
+ */
+@FunctionalInterface
+public interface WaitStrategy
+{
+
+    /**
+     * Waits a little, before the queue is tried again.
+     *
+     * @param attempts The number of times the thread has already waited for the current operation, starting at {@code 0}.
+     */
+    void idle(int attempts);
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+
+/**
+ * Holds up to {@link #ARRAY_MAX_SIZE} values as a sorted {@code char[]}.
+ *
+ * @author SirWellington
+ */
+@Internal
+final class ArrayContainer extends Container
+{
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer()
+    {
+        this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality)
+    {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * @return A container holding every value from {@code start} up to, but not including, {@code end}.
+     */
+    static ArrayContainer ofRange(int start, int end)
+    {
+        char[] values = new char[end - start];
+
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = (char) (start + i);
+        }
+
+        return new ArrayContainer(values, values.length);
+    }
+
+    static int sizeInBytes(int cardinality)
+    {
+        return 2 + 2 * cardinality;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+        return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    Container add(char value)
+    {
+        int index = Arrays.binarySearch(values, 0, cardinality, value);
+
+        if (index >= 0)
+        {
+            return this;
+        }
+
+        if (cardinality >= ARRAY_MAX_SIZE)
+        {
+            return toBitmapContainer().add(value);
+        }
+
+        index = -index - 1;
+
+        if (cardinality == values.length)
+        {
+            int newLength = Math.min(ARRAY_MAX_SIZE, Math.max(4, values.length + (values.length >> 1)));
+            values = Arrays.copyOf(values, newLength);
+        }
+
+        System.arraycopy(values, index, values, index + 1, cardinality - index);
+        values[index] = value;
+        cardinality++;
+
+        return this;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+        int index = Arrays.binarySearch(values, 0, cardinality, value);
+
+        if (index >= 0)
+        {
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+        }
+
+        return this;
+    }
+
+    @Override
+    Container copy()
+    {
+        return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator(final int highBits, int from)
+    {
+        int start = from >= MAX_CARDINALITY ? cardinality : Arrays.binarySearch(values, 0, cardinality, (char) from);
+
+        return new PrimitiveIterator.OfInt()
+        {
+            private int position = start >= 0 ? start : -start - 1;
+
+            @Override
+            public boolean hasNext()
+            {
+                return position < cardinality;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                if (position >= cardinality)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return highBits | values[position++];
+            }
+        };
+    }
+
+    @Override
+    int sizeInBytes()
+    {
+        return sizeInBytes(cardinality);
+    }
+
+    @Override
+    int numberOfRuns()
+    {
+        if (cardinality == 0)
+        {
+            return 0;
+        }
+
+        int runs = 1;
+
+        for (int i = 1; i < cardinality; i++)
+        {
+            if (values[i] != values[i - 1] + 1)
+            {
+                runs++;
+            }
+        }
+
+        return runs;
+    }
+
+    @Override
+    ArrayContainer toArrayContainer()
+    {
+        return this;
+    }
+
+    @Override
+    BitmapContainer toBitmapContainer()
+    {
+        BitmapContainer bitmap = new BitmapContainer();
+
+        for (int i = 0; i < cardinality; i++)
+        {
+            bitmap.set(values[i]);
+        }
+
+        return bitmap;
+    }
+
+    /**
+     * Keeps the values that are {@code present} (or absent) in the bitmap.
+     */
+    ArrayContainer filter(BitmapContainer bitmap, boolean present)
+    {
+        char[] result = new char[cardinality];
+        int size = 0;
+
+        for (int i = 0; i < cardinality; i++)
+        {
+            char value = values[i];
+
+            if (bitmap.contains(value) == present)
+            {
+                result[size++] = value;
+            }
+        }
+
+        return new ArrayContainer(result, size);
+    }
+
+    static ArrayContainer and(ArrayContainer first, ArrayContainer second)
+    {
+        char[] result = new char[Math.min(first.cardinality, second.cardinality)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < first.cardinality && j < second.cardinality)
+        {
+            char a = first.values[i];
+            char b = second.values[j];
+
+            if (a < b)
+            {
+                i++;
+            }
+            else if (a > b)
+            {
+                j++;
+            }
+            else
+            {
+                result[size++] = a;
+                i++;
+                j++;
+            }
+        }
+
+        return new ArrayContainer(result, size);
+    }
+
+    static Container or(ArrayContainer first, ArrayContainer second)
+    {
+        if (first.cardinality + second.cardinality > ARRAY_MAX_SIZE)
+        {
+            BitmapContainer bitmap = first.toBitmapContainer();
+            bitmap.orInPlace(second);
+            return bitmap.shrinkIfSparse();
+        }
+
+        char[] result = new char[first.cardinality + second.cardinality];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < first.cardinality && j < second.cardinality)
+        {
+            char a = first.values[i];
+            char b = second.values[j];
+
+            if (a < b)
+            {
+                result[size++] = a;
+                i++;
+            }
+            else if (a > b)
+            {
+                result[size++] = b;
+                j++;
+            }
+            else
+            {
+                result[size++] = a;
+                i++;
+                j++;
+            }
+        }
+
+        while (i < first.cardinality)
+        {
+            result[size++] = first.values[i++];
+        }
+
+        while (j < second.cardinality)
+        {
+            result[size++] = second.values[j++];
+        }
+
+        return new ArrayContainer(result, size);
+    }
+
+    static ArrayContainer andNot(ArrayContainer first, ArrayContainer second)
+    {
+        char[] result = new char[first.cardinality];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < first.cardinality)
+        {
+            char a = first.values[i];
+
+            while (j < second.cardinality && second.values[j] < a)
+            {
+                j++;
+            }
+
+            if (j >= second.cardinality || second.values[j] != a)
+            {
+                result[size++] = a;
+            }
+
+            i++;
+        }
+
+        return new ArrayContainer(result, size);
+    }
+
+    static Container xor(ArrayContainer first, ArrayContainer second)
+    {
+        if (first.cardinality + second.cardinality > ARRAY_MAX_SIZE)
+        {
+            BitmapContainer bitmap = first.toBitmapContainer();
+            bitmap.xorInPlace(second);
+            return bitmap.shrinkIfSparse();
+        }
+
+        char[] result = new char[first.cardinality + second.cardinality];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < first.cardinality && j < second.cardinality)
+        {
+            char a = first.values[i];
+            char b = second.values[j];
+
+            if (a < b)
+            {
+                result[size++] = a;
+                i++;
+            }
+            else if (a > b)
+            {
+                result[size++] = b;
+                j++;
+            }
+            else
+            {
+                i++;
+                j++;
+            }
+        }
+
+        while (i < first.cardinality)
+        {
+            result[size++] = first.values[i++];
+        }
+
+        while (j < second.cardinality)
+        {
+            result[size++] = second.values[j++];
+        }
+
+        return new ArrayContainer(result, size);
+    }
+}
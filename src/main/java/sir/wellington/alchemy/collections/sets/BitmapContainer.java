@@ -0,0 +1,296 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+
+/**
+ * Holds a dense chunk of values as a 65536-bit bitmap, one bit per possible value.
+ * Set algebra between two bitmaps runs 64 values at a time.
+ *
+ * @author SirWellington
+ */
+@Internal
+final class BitmapContainer extends Container
+{
+
+    private static final int WORDS = MAX_CARDINALITY / Long.SIZE;
+
+    static final int SIZE_IN_BYTES = WORDS * Long.BYTES;
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer()
+    {
+        this(new long[WORDS], 0);
+    }
+
+    private BitmapContainer(long[] words, int cardinality)
+    {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    /**
+     * Sets the bit for {@code value}, without converting to another kind of container.
+     */
+    void set(char value)
+    {
+        int index = value >>> 6;
+        long before = words[index];
+        long after = before | (1L << value);
+
+        words[index] = after;
+        cardinality += (int) ((before ^ after) >>> value);
+    }
+
+    /**
+     * Sets every bit from {@code start} up to, but not including, {@code end}, a word at a time.
+     */
+    void setRange(int start, int end)
+    {
+        int first = start >>> 6;
+        int last = (end - 1) >>> 6;
+
+        for (int i = first; i <= last; i++)
+        {
+            long mask = -1L;
+
+            if (i == first)
+            {
+                mask &= -1L << start;
+            }
+
+            if (i == last)
+            {
+                mask &= -1L >>> -end;
+            }
+
+            long before = words[i];
+            words[i] = before | mask;
+            cardinality += Long.bitCount(words[i]) - Long.bitCount(before);
+        }
+    }
+
+    @Override
+    Container add(char value)
+    {
+        set(value);
+        return this;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+        int index = value >>> 6;
+        long before = words[index];
+        long after = before & ~(1L << value);
+
+        words[index] = after;
+        cardinality -= (int) ((before ^ after) >>> value);
+
+        return shrinkIfSparse();
+    }
+
+    @Override
+    Container copy()
+    {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator(final int highBits, int from)
+    {
+        return new PrimitiveIterator.OfInt()
+        {
+            private int wordIndex = Math.min(from >>> 6, WORDS - 1);
+            private long word = from >= MAX_CARDINALITY ? 0 : words[wordIndex] & (-1L << from);
+
+            @Override
+            public boolean hasNext()
+            {
+                while (word == 0 && wordIndex < WORDS - 1)
+                {
+                    word = words[++wordIndex];
+                }
+
+                return word != 0;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+
+                return highBits | (wordIndex << 6) | bit;
+            }
+        };
+    }
+
+    @Override
+    int sizeInBytes()
+    {
+        return SIZE_IN_BYTES;
+    }
+
+    @Override
+    int numberOfRuns()
+    {
+        int runs = 0;
+        long previous = 0;
+
+        for (long word : words)
+        {
+            //A run starts wherever a set bit follows a clear bit
+            runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+            previous = word;
+        }
+
+        return runs;
+    }
+
+    @Override
+    BitmapContainer toBitmapContainer()
+    {
+        return this;
+    }
+
+    /**
+     * Converts back to an array once there are few enough values.
+     */
+    Container shrinkIfSparse()
+    {
+        return cardinality <= ARRAY_MAX_SIZE ? toArrayContainer() : this;
+    }
+
+    void orInPlace(Container other)
+    {
+        if (other instanceof BitmapContainer)
+        {
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+
+            for (int i = 0; i < WORDS; i++)
+            {
+                words[i] |= otherWords[i];
+                count += Long.bitCount(words[i]);
+            }
+
+            cardinality = count;
+            return;
+        }
+
+        PrimitiveIterator.OfInt iterator = other.iterator(0);
+        while (iterator.hasNext())
+        {
+            set((char) iterator.nextInt());
+        }
+    }
+
+    void andNotInPlace(Container other)
+    {
+        if (other instanceof BitmapContainer)
+        {
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+
+            for (int i = 0; i < WORDS; i++)
+            {
+                words[i] &= ~otherWords[i];
+                count += Long.bitCount(words[i]);
+            }
+
+            cardinality = count;
+            return;
+        }
+
+        PrimitiveIterator.OfInt iterator = other.iterator(0);
+        while (iterator.hasNext())
+        {
+            char value = (char) iterator.nextInt();
+            int index = value >>> 6;
+            long before = words[index];
+            long after = before & ~(1L << value);
+
+            words[index] = after;
+            cardinality -= (int) ((before ^ after) >>> value);
+        }
+    }
+
+    void xorInPlace(Container other)
+    {
+        if (other instanceof BitmapContainer)
+        {
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+
+            for (int i = 0; i < WORDS; i++)
+            {
+                words[i] ^= otherWords[i];
+                count += Long.bitCount(words[i]);
+            }
+
+            cardinality = count;
+            return;
+        }
+
+        PrimitiveIterator.OfInt iterator = other.iterator(0);
+        while (iterator.hasNext())
+        {
+            char value = (char) iterator.nextInt();
+            int index = value >>> 6;
+            long mask = 1L << value;
+
+            cardinality += (words[index] & mask) == 0 ? 1 : -1;
+            words[index] ^= mask;
+        }
+    }
+
+    static Container and(BitmapContainer first, BitmapContainer second)
+    {
+        long[] result = new long[WORDS];
+        int count = 0;
+
+        for (int i = 0; i < WORDS; i++)
+        {
+            result[i] = first.words[i] & second.words[i];
+            count += Long.bitCount(result[i]);
+        }
+
+        return new BitmapContainer(result, count).shrinkIfSparse();
+    }
+}
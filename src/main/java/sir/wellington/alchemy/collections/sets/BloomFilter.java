@@ -0,0 +1,465 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+
+import static sir.wellington.alchemy.collections.sets.FilterHashing.*;
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A blocked Bloom filter: a {@link MembershipFilter} made of 512-bit blocks, each the size of a typical cache line.
+ * <p>
+ * Each element is hashed once. The upper half of the hash chooses a block, and the whole hash seeds a stream of mixed
+ * bits, 9 of which place each of its {@link #hashFunctions()} bits within that block, independently of the others.
+ * An add or lookup therefore touches a single cache line, rather than one per bit as in a classic Bloom filter.
+ * Since the blocks fill unevenly, the filter needs somewhat more bits than a classic one for the same
+ * false positive rate; it is sized by computing the false positive rate of the blocks directly.
+ * <p>
+ * Elements cannot be removed. A concurrent filter sets its bits with compare-and-set, so adds and lookups never lock;
+ * a filter that is not concurrent must not be updated while other threads use it.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Sets#createBloomFilter(long, double)
+ * @see CuckooFilter
+ */
+public final class BloomFilter<E> implements MembershipFilter<E>
+{
+
+    static final int BLOCK_BITS = 512;
+
+    private static final int WORDS_PER_BLOCK = BLOCK_BITS / Long.SIZE;
+
+    /**
+     * How many bits of the stream place one bit within a block.
+     */
+    private static final int BIT_INDEX_BITS = Integer.numberOfTrailingZeros(BLOCK_BITS);
+
+    /**
+     * The golden ratio, as in SplitMix64: each 64 bits of the stream mix the hash plus another multiple of it,
+     * so that every bit placed depends on the whole hash, and not just the few bits of it placed before.
+     */
+    private static final long PROBE_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Keeps the bits in one array, and the hash of an element within the block count.
+     */
+    static final int MAX_BLOCKS = Integer.MAX_VALUE / WORDS_PER_BLOCK;
+
+    static final int MAX_HASH_FUNCTIONS = 32;
+
+    private static final int MAGIC = 0x41424C46;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private final int blocks;
+    private final int hashFunctions;
+    private final ToLongFunction<? super E> hasher;
+
+    /**
+     * Exactly one of these holds the bits, depending on whether the filter is concurrent.
+     */
+    private final long[] words;
+    private final AtomicLongArray atomicWords;
+
+    private BloomFilter(int blocks, int hashFunctions, ToLongFunction<? super E> hasher, boolean concurrent)
+    {
+        this.blocks = blocks;
+        this.hashFunctions = hashFunctions;
+        this.hasher = hasher;
+
+        int size = blocks * WORDS_PER_BLOCK;
+        this.words = concurrent ? null : new long[size];
+        this.atomicWords = concurrent ? new AtomicLongArray(size) : null;
+    }
+
+    /**
+     * Creates a filter that hashes its elements by their contents, where it can, and otherwise by their
+     * {@link Object#hashCode()}.
+     *
+     * @param <E>
+     * @param expectedElements  How many elements the filter will hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many; between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> BloomFilter<E> create(long expectedElements, double falsePositiveRate) throws IllegalArgumentException
+    {
+        return create(expectedElements, falsePositiveRate, DEFAULT_HASHER, false);
+    }
+
+    /**
+     * Creates a filter that several threads can add to, and query, at the same time.
+     *
+     * @param <E>
+     * @param expectedElements
+     * @param falsePositiveRate
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> BloomFilter<E> createConcurrent(long expectedElements, double falsePositiveRate) throws IllegalArgumentException
+    {
+        return create(expectedElements, falsePositiveRate, DEFAULT_HASHER, true);
+    }
+
+    /**
+     * @param <E>
+     * @param expectedElements  How many elements the filter will hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many; between 0 and 1, exclusive.
+     * @param hasher            Hashes each element to 64 well-mixed bits. Filters can only be combined, or read back
+     *                          from bytes, with the same hasher.
+     * @param concurrent        Whether several threads will use the filter at once.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> BloomFilter<E> create(long expectedElements,
+                                            double falsePositiveRate,
+                                            @Required ToLongFunction<? super E> hasher,
+                                            boolean concurrent) throws IllegalArgumentException
+    {
+        checkExpectedElements(expectedElements);
+        checkFalsePositiveRate(falsePositiveRate);
+        checkThat(hasher).usingMessage("hasher cannot be null").is(notNull());
+
+        double ln2 = Math.log(2);
+        double bitsPerElement = -Math.log(falsePositiveRate) / (ln2 * ln2);
+        int hashFunctions = (int) Math.max(1, Math.min(MAX_HASH_FUNCTIONS, Math.round(bitsPerElement * ln2)));
+
+        long blocks = Math.max(1, (long) Math.ceil(expectedElements * bitsPerElement / BLOCK_BITS));
+
+        //Add blocks until their uneven load no longer pushes the rate past the one asked for
+        while (blocks < MAX_BLOCKS && falsePositiveRate(expectedElements, blocks, hashFunctions) > falsePositiveRate)
+        {
+            blocks = Math.min(MAX_BLOCKS, blocks + Math.max(1, blocks / 32));
+        }
+
+        return new BloomFilter<>((int) blocks, hashFunctions, hasher, concurrent);
+    }
+
+    /**
+     * Reads back a filter written by {@link #toBytes()}, which hashes its elements the way {@link #create(long, double)} does.
+     *
+     * @param <E>
+     * @param bytes
+     * @return
+     * @throws IllegalArgumentException If the bytes are not a serialized {@code BloomFilter}.
+     */
+    public static <E> BloomFilter<E> fromBytes(@Required byte[] bytes) throws IllegalArgumentException
+    {
+        return fromBytes(bytes, DEFAULT_HASHER, false);
+    }
+
+    /**
+     * @param <E>
+     * @param bytes
+     * @param hasher     Must be the hasher of the filter that was written.
+     * @param concurrent
+     * @return
+     * @throws IllegalArgumentException If the bytes are not a serialized {@code BloomFilter}.
+     */
+    public static <E> BloomFilter<E> fromBytes(@Required byte[] bytes,
+                                               @Required ToLongFunction<? super E> hasher,
+                                               boolean concurrent) throws IllegalArgumentException
+    {
+        checkThat(hasher).usingMessage("hasher cannot be null").is(notNull());
+
+        ByteBuffer buffer = readHeader(bytes, MAGIC, VERSION, "bloom filter");
+        int blocks = bytes.length >= HEADER_SIZE ? buffer.getInt() : 0;
+        int hashFunctions = bytes.length >= HEADER_SIZE ? buffer.getInt() : 0;
+
+        if (blocks <= 0 || blocks > MAX_BLOCKS || hashFunctions <= 0 || hashFunctions > MAX_HASH_FUNCTIONS
+            || bytes.length != HEADER_SIZE + (long) blocks * WORDS_PER_BLOCK * Long.BYTES)
+        {
+            throw new IllegalArgumentException("serialized bloom filter is corrupt or incomplete");
+        }
+
+        BloomFilter<E> filter = new BloomFilter<>(blocks, hashFunctions, hasher, concurrent);
+
+        for (int i = 0; i < filter.wordCount(); i++)
+        {
+            filter.setWord(i, buffer.getLong());
+        }
+
+        return filter;
+    }
+
+    //==============================================================
+    // Membership
+    //==============================================================
+
+    @Override
+    public boolean mightContain(@Optional E element)
+    {
+        if (element == null)
+        {
+            return false;
+        }
+
+        long hash = hasher.applyAsLong(element);
+        int base = blockOf(hash) * WORDS_PER_BLOCK;
+        long state = hash;
+        long bits = 0;
+        int remaining = 0;
+
+        for (int i = 0; i < hashFunctions; i++)
+        {
+            if (remaining < BIT_INDEX_BITS)
+            {
+                state += PROBE_INCREMENT;
+                bits = mix(state);
+                remaining = Long.SIZE;
+            }
+
+            int bit = (int) bits & (BLOCK_BITS - 1);
+            bits >>>= BIT_INDEX_BITS;
+            remaining -= BIT_INDEX_BITS;
+
+            if ((word(base + (bit >>> 6)) & (1L << bit)) == 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean add(@Required E element) throws IllegalArgumentException
+    {
+        checkElement(element);
+
+        long hash = hasher.applyAsLong(element);
+        int base = blockOf(hash) * WORDS_PER_BLOCK;
+        long state = hash;
+        long bits = 0;
+        int remaining = 0;
+        boolean changed = false;
+
+        //The same stream of bits as mightContain()
+        for (int i = 0; i < hashFunctions; i++)
+        {
+            if (remaining < BIT_INDEX_BITS)
+            {
+                state += PROBE_INCREMENT;
+                bits = mix(state);
+                remaining = Long.SIZE;
+            }
+
+            int bit = (int) bits & (BLOCK_BITS - 1);
+            bits >>>= BIT_INDEX_BITS;
+            remaining -= BIT_INDEX_BITS;
+
+            changed |= setBit(base + (bit >>> 6), 1L << bit);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Estimates the rate from the share of bits set, which covers every element added so far.
+     * This counts every bit, so it takes time in proportion to the size of the filter.
+     */
+    @Override
+    public double expectedFalsePositiveRate()
+    {
+        long set = 0;
+
+        for (int i = 0; i < wordCount(); i++)
+        {
+            set += Long.bitCount(word(i));
+        }
+
+        return Math.pow((double) set / bitSize(), hashFunctions);
+    }
+
+    @Override
+    public boolean isConcurrent()
+    {
+        return atomicWords != null;
+    }
+
+    /**
+     * @return The number of bits in the filter.
+     */
+    public long bitSize()
+    {
+        return (long) blocks * BLOCK_BITS;
+    }
+
+    /**
+     * @return The number of bits set for each element.
+     */
+    public int hashFunctions()
+    {
+        return hashFunctions;
+    }
+
+    /**
+     * @param other
+     * @return Whether this filter can be combined with {@code other}: they have the same size,
+     *         number of hash functions, and hasher.
+     */
+    public boolean isCompatible(@Optional BloomFilter<E> other)
+    {
+        return other != null
+               && other.blocks == blocks
+               && other.hashFunctions == hashFunctions
+               && other.hasher == hasher;
+    }
+
+    /**
+     * Combines two filters into a new one, which might contain every element either of them might contain.
+     * Its false positive rate is that of a filter to which the elements of both were added.
+     *
+     * @param other
+     * @return A new filter, concurrent if this one is.
+     * @throws IllegalArgumentException If the filters are not {@linkplain #isCompatible(BloomFilter) compatible}.
+     */
+    public BloomFilter<E> union(@Required BloomFilter<E> other) throws IllegalArgumentException
+    {
+        if (!isCompatible(other))
+        {
+            throw new IllegalArgumentException("filters differ in size, hash functions, or hasher");
+        }
+
+        BloomFilter<E> union = new BloomFilter<>(blocks, hashFunctions, hasher, isConcurrent());
+
+        for (int i = 0; i < wordCount(); i++)
+        {
+            union.setWord(i, word(i) | other.word(i));
+        }
+
+        return union;
+    }
+
+    /**
+     * Writes the filter as a short header followed by its bits. An added element stays recognizable after
+     * being read back, for as long as its hash does not change. The default hash is stable across JVMs for strings,
+     * UUIDs, and the boxed primitives, but {@link Object#hashCode()}, which other classes fall back to, often is not.
+     */
+    @Override
+    public byte[] toBytes()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + wordCount() * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(blocks).putInt(hashFunctions);
+
+        for (int i = 0; i < wordCount(); i++)
+        {
+            buffer.putLong(word(i));
+        }
+
+        return buffer.array();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BloomFilter{" + "bits=" + bitSize() + ", hashFunctions=" + hashFunctions + ", concurrent=" + isConcurrent() + '}';
+    }
+
+    /**
+     * The false positive rate of a blocked filter: the chance that all of its bits are set in a block,
+     * weighted by the Poisson chance of that block holding each number of elements.
+     */
+    static double falsePositiveRate(long elements, long blocks, int hashFunctions)
+    {
+        double load = (double) elements / blocks;
+
+        if (load == 0)
+        {
+            return 0;
+        }
+
+        double bitUnset = 1.0 - 1.0 / BLOCK_BITS;
+        double logLoad = Math.log(load);
+        double logFactorial = 0;
+        double rate = 0;
+        long last = (long) (load + 12 * Math.sqrt(load) + 20);
+
+        for (long i = 0; i <= last; i++)
+        {
+            if (i > 0)
+            {
+                logFactorial += Math.log(i);
+            }
+
+            double chance = Math.exp(i * logLoad - load - logFactorial);
+            double bitSet = 1.0 - Math.pow(bitUnset, (double) hashFunctions * i);
+            rate += chance * Math.pow(bitSet, hashFunctions);
+        }
+
+        return rate;
+    }
+
+    private int blockOf(long hash)
+    {
+        //Scales the upper 32 bits of the hash down to a block, without a division
+        return (int) (((hash >>> 32) * blocks) >>> 32);
+    }
+
+    private int wordCount()
+    {
+        return blocks * WORDS_PER_BLOCK;
+    }
+
+    private long word(int index)
+    {
+        return words != null ? words[index] : atomicWords.get(index);
+    }
+
+    private void setWord(int index, long value)
+    {
+        if (words != null)
+        {
+            words[index] = value;
+        }
+        else
+        {
+            atomicWords.set(index, value);
+        }
+    }
+
+    private boolean setBit(int index, long mask)
+    {
+        if (words != null)
+        {
+            long previous = words[index];
+            words[index] = previous | mask;
+            return (previous & mask) == 0;
+        }
+
+        while (true)
+        {
+            long previous = atomicWords.get(index);
+
+            if ((previous & mask) != 0)
+            {
+                return false;
+            }
+
+            if (atomicWords.compareAndSet(index, previous, previous | mask))
+            {
+                return true;
+            }
+        }
+    }
+}
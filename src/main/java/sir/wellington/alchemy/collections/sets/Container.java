@@ -0,0 +1,237 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.PrimitiveIterator;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+
+/**
+ * Holds the lower 16 bits of every value in an {@link IntSet} that shares the same upper 16 bits.
+ * <p>
+ * Sparse chunks are kept in an {@link ArrayContainer}, dense chunks in a {@link BitmapContainer},
+ * and chunks made of long consecutive ranges in a {@link RunContainer}, whichever is smallest.
+ * Set algebra produces new containers and never modifies its inputs.
+ *
+ * @author SirWellington
+ */
+@Internal
+abstract class Container
+{
+
+    /**
+     * Above this many values, a bitmap is smaller than a sorted array.
+     */
+    static final int ARRAY_MAX_SIZE = 4096;
+
+    /**
+     * The number of distinct values one container can hold.
+     */
+    static final int MAX_CARDINALITY = 1 << 16;
+
+    abstract int cardinality();
+
+    abstract boolean contains(char value);
+
+    /**
+     * @return This container, or a replacement, containing {@code value}.
+     */
+    abstract Container add(char value);
+
+    /**
+     * @return This container, or a replacement, without {@code value}.
+     */
+    abstract Container remove(char value);
+
+    /**
+     * @return This container, or a replacement, containing every value from {@code start} up to, but not including,
+     * {@code end}, which is at most {@link #MAX_CARDINALITY}.
+     */
+    Container addRange(int start, int end)
+    {
+        if (start == 0 && end == MAX_CARDINALITY)
+        {
+            return RunContainer.ofRange(start, end);
+        }
+
+        if (this instanceof ArrayContainer && cardinality() + (end - start) <= ARRAY_MAX_SIZE)
+        {
+            return ArrayContainer.or((ArrayContainer) this, ArrayContainer.ofRange(start, end));
+        }
+
+        BitmapContainer bitmap = toBitmapContainer();
+        bitmap.setRange(start, end);
+        return bitmap;
+    }
+
+    abstract Container copy();
+
+    /**
+     * Iterates the values of this container in ascending order, with {@code highBits}
+     * restored as their upper 16 bits.
+     */
+    PrimitiveIterator.OfInt iterator(int highBits)
+    {
+        return iterator(highBits, 0);
+    }
+
+    /**
+     * Iterates the values of this container from {@code from} onwards, which may be up to {@link #MAX_CARDINALITY}.
+     *
+     * @see #iterator(int)
+     */
+    abstract PrimitiveIterator.OfInt iterator(int highBits, int from);
+
+    /**
+     * @return The number of bytes this container occupies, ignoring object headers.
+     */
+    abstract int sizeInBytes();
+
+    abstract int numberOfRuns();
+
+    /**
+     * @return The smallest of an array, bitmap, or run container holding the same values.
+     */
+    Container runOptimize()
+    {
+        int runs = numberOfRuns();
+        int card = cardinality();
+
+        int runSize = RunContainer.sizeInBytes(runs);
+        int arraySize = ArrayContainer.sizeInBytes(card);
+        int bitmapSize = BitmapContainer.SIZE_IN_BYTES;
+
+        if (runSize < Math.min(arraySize, bitmapSize))
+        {
+            return this instanceof RunContainer ? this : RunContainer.from(this, runs);
+        }
+
+        return toEfficientContainer();
+    }
+
+    /**
+     * @return An array container, or a bitmap container if there are too many values for an array.
+     */
+    Container toEfficientContainer()
+    {
+        return cardinality() <= ARRAY_MAX_SIZE ? toArrayContainer() : toBitmapContainer();
+    }
+
+    ArrayContainer toArrayContainer()
+    {
+        char[] values = new char[cardinality()];
+        PrimitiveIterator.OfInt iterator = iterator(0);
+
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = (char) iterator.nextInt();
+        }
+
+        return new ArrayContainer(values, values.length);
+    }
+
+    BitmapContainer toBitmapContainer()
+    {
+        BitmapContainer bitmap = new BitmapContainer();
+        PrimitiveIterator.OfInt iterator = iterator(0);
+
+        while (iterator.hasNext())
+        {
+            bitmap.set((char) iterator.nextInt());
+        }
+
+        return bitmap;
+    }
+
+    //==============================================================
+    // Set Algebra
+    //==============================================================
+
+    static Container and(Container first, Container second)
+    {
+        first = withoutRuns(first);
+        second = withoutRuns(second);
+
+        if (first instanceof ArrayContainer && second instanceof ArrayContainer)
+        {
+            return ArrayContainer.and((ArrayContainer) first, (ArrayContainer) second);
+        }
+
+        if (first instanceof BitmapContainer && second instanceof BitmapContainer)
+        {
+            return BitmapContainer.and((BitmapContainer) first, (BitmapContainer) second);
+        }
+
+        //One of each, so probe the array against the bitmap
+        ArrayContainer array = (ArrayContainer) (first instanceof ArrayContainer ? first : second);
+        BitmapContainer bitmap = (BitmapContainer) (first instanceof BitmapContainer ? first : second);
+        return array.filter(bitmap, true);
+    }
+
+    static Container or(Container first, Container second)
+    {
+        first = withoutRuns(first);
+        second = withoutRuns(second);
+
+        if (first instanceof ArrayContainer && second instanceof ArrayContainer)
+        {
+            return ArrayContainer.or((ArrayContainer) first, (ArrayContainer) second);
+        }
+
+        BitmapContainer result = first instanceof BitmapContainer ? (BitmapContainer) first.copy() : first.toBitmapContainer();
+        result.orInPlace(second);
+        return result;
+    }
+
+    static Container andNot(Container first, Container second)
+    {
+        first = withoutRuns(first);
+        second = withoutRuns(second);
+
+        if (first instanceof ArrayContainer)
+        {
+            ArrayContainer array = (ArrayContainer) first;
+
+            return second instanceof ArrayContainer
+                   ? ArrayContainer.andNot(array, (ArrayContainer) second)
+                   : array.filter((BitmapContainer) second, false);
+        }
+
+        BitmapContainer result = (BitmapContainer) first.copy();
+        result.andNotInPlace(second);
+        return result.shrinkIfSparse();
+    }
+
+    static Container xor(Container first, Container second)
+    {
+        first = withoutRuns(first);
+        second = withoutRuns(second);
+
+        if (first instanceof ArrayContainer && second instanceof ArrayContainer)
+        {
+            return ArrayContainer.xor((ArrayContainer) first, (ArrayContainer) second);
+        }
+
+        BitmapContainer result = first instanceof BitmapContainer ? (BitmapContainer) first.copy() : first.toBitmapContainer();
+        result.xorInPlace(second);
+        return result.shrinkIfSparse();
+    }
+
+    private static Container withoutRuns(Container container)
+    {
+        return container instanceof RunContainer ? container.toEfficientContainer() : container;
+    }
+}
@@ -0,0 +1,691 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToLongFunction;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+
+import static sir.wellington.alchemy.collections.sets.FilterHashing.*;
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A cuckoo filter: a {@link MembershipFilter} that stores a short fingerprint of each element,
+ * and so, unlike a {@link BloomFilter}, can {@linkplain #remove(Object) remove} them again.
+ * <p>
+ * Each fingerprint lives in one of two buckets of four slots, packed into a {@code long[]}. The second bucket can be
+ * found from the first and the fingerprint alone, so when both are full, a fingerprint already stored is moved
+ * to its other bucket to make room. Fingerprints are 8, 16 or 32 bits, whichever is the smallest to give
+ * the false positive rate asked for.
+ * <p>
+ * The filter is sized to be about 95% full once it holds the expected number of elements. Past that, an add may
+ * fail to find room; it then returns {@code false}, and the filter is {@linkplain #isFull() full}.
+ * Adding an element several times stores it several times, and it should be removed as many times;
+ * removing an element that was never added may remove another element that shares its fingerprint.
+ * <p>
+ * A concurrent filter serializes changes with a {@link StampedLock}, while lookups read optimistically,
+ * and only take the lock if a change happened while they read.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Sets#createCuckooFilter(long, double)
+ */
+public final class CuckooFilter<E> implements MembershipFilter<E>
+{
+
+    static final int BUCKET_SIZE = 4;
+
+    static final int MAX_BUCKETS = 1 << 28;
+
+    /**
+     * How many fingerprints an add may move before it gives up.
+     */
+    static final int MAX_KICKS = 500;
+
+    private static final double MAX_LOAD = 0.95;
+
+    private static final int EMPTY = 0;
+
+    private static final int MAGIC = 0x41434B46;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+
+    private final int buckets;
+    private final int fingerprintBits;
+    private final long fingerprintMask;
+    private final int slotsPerWord;
+    private final ToLongFunction<? super E> hasher;
+
+    private final long[] words;
+
+    /**
+     * {@code null} unless the filter is concurrent.
+     */
+    private final StampedLock lock;
+
+    private long count = 0;
+
+    /**
+     * A fingerprint that could not be placed. While it is held, the filter is full.
+     */
+    private int victim = EMPTY;
+    private int victimBucket = 0;
+
+    /**
+     * Chooses which fingerprint to move; it needs to vary, not to be unpredictable.
+     */
+    private int random = 0x9E3779B9;
+
+    private CuckooFilter(int buckets, int fingerprintBits, ToLongFunction<? super E> hasher, boolean concurrent)
+    {
+        this.buckets = buckets;
+        this.fingerprintBits = fingerprintBits;
+        this.fingerprintMask = (1L << fingerprintBits) - 1;
+        this.slotsPerWord = Long.SIZE / fingerprintBits;
+        this.hasher = hasher;
+        this.words = new long[(int) ((long) buckets * BUCKET_SIZE / slotsPerWord)];
+        this.lock = concurrent ? new StampedLock() : null;
+    }
+
+    /**
+     * Creates a filter that hashes its elements by their contents, where it can, and otherwise by their
+     * {@link Object#hashCode()}.
+     *
+     * @param <E>
+     * @param expectedElements  How many elements the filter will hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many; between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> CuckooFilter<E> create(long expectedElements, double falsePositiveRate) throws IllegalArgumentException
+    {
+        return create(expectedElements, falsePositiveRate, DEFAULT_HASHER, false);
+    }
+
+    /**
+     * Creates a filter that several threads can add to, remove from, and query, at the same time.
+     *
+     * @param <E>
+     * @param expectedElements
+     * @param falsePositiveRate
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> CuckooFilter<E> createConcurrent(long expectedElements, double falsePositiveRate) throws IllegalArgumentException
+    {
+        return create(expectedElements, falsePositiveRate, DEFAULT_HASHER, true);
+    }
+
+    /**
+     * @param <E>
+     * @param expectedElements  How many elements the filter will hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many; between 0 and 1, exclusive.
+     * @param hasher            Hashes each element to 64 well-mixed bits. Filters can only be combined, or read back
+     *                          from bytes, with the same hasher.
+     * @param concurrent        Whether several threads will use the filter at once.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> CuckooFilter<E> create(long expectedElements,
+                                             double falsePositiveRate,
+                                             @Required ToLongFunction<? super E> hasher,
+                                             boolean concurrent) throws IllegalArgumentException
+    {
+        checkExpectedElements(expectedElements);
+        checkFalsePositiveRate(falsePositiveRate);
+        checkThat(hasher).usingMessage("hasher cannot be null").is(notNull());
+
+        //A lookup compares against the 2 * 4 fingerprints of two full buckets
+        int fingerprintBits = 8;
+
+        while (fingerprintBits < Integer.SIZE && 2.0 * BUCKET_SIZE / Math.pow(2, fingerprintBits) > falsePositiveRate)
+        {
+            fingerprintBits *= 2;
+        }
+
+        long needed = (long) Math.ceil(expectedElements / (BUCKET_SIZE * MAX_LOAD));
+
+        if (needed > MAX_BUCKETS)
+        {
+            throw new IllegalArgumentException("cuckoo filters can hold up to " + (long) (MAX_BUCKETS * BUCKET_SIZE * MAX_LOAD) + " elements: " + expectedElements);
+        }
+
+        int buckets = Math.max(2, Integer.highestOneBit((int) Math.max(1, needed - 1)) << 1);
+
+        return new CuckooFilter<>(buckets, fingerprintBits, hasher, concurrent);
+    }
+
+    /**
+     * Reads back a filter written by {@link #toBytes()}, which hashes its elements the way {@link #create(long, double)} does.
+     *
+     * @param <E>
+     * @param bytes
+     * @return
+     * @throws IllegalArgumentException If the bytes are not a serialized {@code CuckooFilter}.
+     */
+    public static <E> CuckooFilter<E> fromBytes(@Required byte[] bytes) throws IllegalArgumentException
+    {
+        return fromBytes(bytes, DEFAULT_HASHER, false);
+    }
+
+    /**
+     * @param <E>
+     * @param bytes
+     * @param hasher     Must be the hasher of the filter that was written.
+     * @param concurrent
+     * @return
+     * @throws IllegalArgumentException If the bytes are not a serialized {@code CuckooFilter}.
+     */
+    public static <E> CuckooFilter<E> fromBytes(@Required byte[] bytes,
+                                                @Required ToLongFunction<? super E> hasher,
+                                                boolean concurrent) throws IllegalArgumentException
+    {
+        checkThat(hasher).usingMessage("hasher cannot be null").is(notNull());
+
+        ByteBuffer buffer = readHeader(bytes, MAGIC, VERSION, "cuckoo filter");
+
+        if (bytes.length < HEADER_SIZE)
+        {
+            throw new IllegalArgumentException("serialized cuckoo filter is corrupt or incomplete");
+        }
+
+        int buckets = buffer.getInt();
+        int fingerprintBits = buffer.getInt();
+        long count = buffer.getLong();
+        int victim = buffer.getInt();
+        int victimBucket = buffer.getInt();
+
+        boolean valid = buckets >= 2 && buckets <= MAX_BUCKETS && Integer.bitCount(buckets) == 1
+                        && (fingerprintBits == 8 || fingerprintBits == 16 || fingerprintBits == 32)
+                        && count >= 0 && victimBucket >= 0 && victimBucket < buckets
+                        && bytes.length == HEADER_SIZE + (long) buckets * BUCKET_SIZE * fingerprintBits / Byte.SIZE;
+
+        if (!valid)
+        {
+            throw new IllegalArgumentException("serialized cuckoo filter is corrupt or incomplete");
+        }
+
+        CuckooFilter<E> filter = new CuckooFilter<>(buckets, fingerprintBits, hasher, concurrent);
+        filter.count = count;
+        filter.victim = victim;
+        filter.victimBucket = victimBucket;
+
+        for (int i = 0; i < filter.words.length; i++)
+        {
+            filter.words[i] = buffer.getLong();
+        }
+
+        return filter;
+    }
+
+    //==============================================================
+    // Membership
+    //==============================================================
+
+    @Override
+    public boolean mightContain(@Optional E element)
+    {
+        if (element == null)
+        {
+            return false;
+        }
+
+        long hash = hasher.applyAsLong(element);
+        int fingerprint = fingerprintOf(hash);
+        int first = bucketOf(hash);
+
+        if (lock == null)
+        {
+            return find(fingerprint, first);
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        boolean found = find(fingerprint, first);
+
+        if (lock.validate(stamp))
+        {
+            return found;
+        }
+
+        stamp = lock.readLock();
+
+        try
+        {
+            return find(fingerprint, first);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param element
+     * @return {@code false} if the filter is {@linkplain #isFull() full}, and the element could not be added.
+     * @throws IllegalArgumentException If {@code element} is null.
+     */
+    @Override
+    public boolean add(@Required E element) throws IllegalArgumentException
+    {
+        checkElement(element);
+
+        long hash = hasher.applyAsLong(element);
+
+        if (lock == null)
+        {
+            return insert(fingerprintOf(hash), bucketOf(hash));
+        }
+
+        long stamp = lock.writeLock();
+
+        try
+        {
+            return insert(fingerprintOf(hash), bucketOf(hash));
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes one copy of the element's fingerprint. Only remove elements that were added.
+     *
+     * @param element
+     * @return Whether a fingerprint was removed.
+     */
+    public boolean remove(@Optional E element)
+    {
+        if (element == null)
+        {
+            return false;
+        }
+
+        long hash = hasher.applyAsLong(element);
+
+        if (lock == null)
+        {
+            return delete(fingerprintOf(hash), bucketOf(hash));
+        }
+
+        long stamp = lock.writeLock();
+
+        try
+        {
+            return delete(fingerprintOf(hash), bucketOf(hash));
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return How many elements the filter holds: the number added, less the number removed.
+     */
+    public long count()
+    {
+        if (lock == null)
+        {
+            return count;
+        }
+
+        long stamp = lock.readLock();
+
+        try
+        {
+            return count;
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return Whether an add has failed to find room, so that further adds fail until an element is removed.
+     */
+    public boolean isFull()
+    {
+        if (lock == null)
+        {
+            return victim != EMPTY;
+        }
+
+        long stamp = lock.readLock();
+
+        try
+        {
+            return victim != EMPTY;
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * A lookup compares against the fingerprints in two buckets, each of which matches by chance with
+     * a probability of 2<sup>-bits</sup>.
+     */
+    @Override
+    public double expectedFalsePositiveRate()
+    {
+        double load = (double) count() / capacity();
+        return 1.0 - Math.pow(1.0 - Math.pow(2, -fingerprintBits), 2.0 * BUCKET_SIZE * load);
+    }
+
+    @Override
+    public boolean isConcurrent()
+    {
+        return lock != null;
+    }
+
+    /**
+     * @return The number of fingerprint slots.
+     */
+    public long capacity()
+    {
+        return (long) buckets * BUCKET_SIZE;
+    }
+
+    public int fingerprintBits()
+    {
+        return fingerprintBits;
+    }
+
+    /**
+     * @param other
+     * @return Whether this filter can be combined with {@code other}: they have the same number of buckets,
+     *         fingerprint size, and hasher.
+     */
+    public boolean isCompatible(@Optional CuckooFilter<E> other)
+    {
+        return other != null
+               && other.buckets == buckets
+               && other.fingerprintBits == fingerprintBits
+               && other.hasher == hasher;
+    }
+
+    /**
+     * Combines two filters into a new one that holds the fingerprints of both.
+     *
+     * @param other
+     * @return A new filter, concurrent if this one is.
+     * @throws IllegalArgumentException If the filters are not {@linkplain #isCompatible(CuckooFilter) compatible}.
+     * @throws IllegalStateException    If the fingerprints of both do not fit in one filter.
+     */
+    public CuckooFilter<E> union(@Required CuckooFilter<E> other) throws IllegalArgumentException, IllegalStateException
+    {
+        if (!isCompatible(other))
+        {
+            throw new IllegalArgumentException("filters differ in buckets, fingerprint size, or hasher");
+        }
+
+        //Copies of both are read under their locks, so neither needs locking while they are combined
+        CuckooFilter<E> union = fromBytes(toBytes(), hasher, isConcurrent());
+        CuckooFilter<E> source = fromBytes(other.toBytes(), hasher, false);
+
+        source.forEachFingerprint((fingerprint, bucket) ->
+        {
+            if (!union.insert(fingerprint, bucket))
+            {
+                throw new IllegalStateException("filters are too full to combine");
+            }
+        });
+
+        return union;
+    }
+
+    /**
+     * Writes the filter as a short header followed by its fingerprints. An added element stays recognizable after
+     * being read back, for as long as its hash does not change. The default hash is stable across JVMs for strings,
+     * UUIDs, and the boxed primitives, but {@link Object#hashCode()}, which other classes fall back to, often is not.
+     */
+    @Override
+    public byte[] toBytes()
+    {
+        if (lock == null)
+        {
+            return write();
+        }
+
+        long stamp = lock.readLock();
+
+        try
+        {
+            return write();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CuckooFilter{" + "capacity=" + capacity() + ", fingerprintBits=" + fingerprintBits + ", concurrent=" + isConcurrent() + '}';
+    }
+
+    //==============================================================
+    // Buckets
+    //==============================================================
+
+    private int fingerprintOf(long hash)
+    {
+        int fingerprint = (int) ((hash >>> (Long.SIZE - fingerprintBits)) & fingerprintMask);
+        return fingerprint == EMPTY ? 1 : fingerprint;
+    }
+
+    private int bucketOf(long hash)
+    {
+        return (int) hash & (buckets - 1);
+    }
+
+    /**
+     * The other bucket of a fingerprint. Applied to either of the two, it gives the other.
+     */
+    private int alternateOf(int bucket, int fingerprint)
+    {
+        return (bucket ^ (fingerprint * 0x5BD1E995)) & (buckets - 1);
+    }
+
+    private int slot(int bucket, int index)
+    {
+        long slot = (long) bucket * BUCKET_SIZE + index;
+        long word = words[(int) (slot / slotsPerWord)];
+
+        return (int) ((word >>> (slot % slotsPerWord * fingerprintBits)) & fingerprintMask);
+    }
+
+    private void setSlot(int bucket, int index, int fingerprint)
+    {
+        long slot = (long) bucket * BUCKET_SIZE + index;
+        int word = (int) (slot / slotsPerWord);
+        int shift = (int) (slot % slotsPerWord * fingerprintBits);
+
+        words[word] = (words[word] & ~(fingerprintMask << shift)) | ((fingerprint & fingerprintMask) << shift);
+    }
+
+    private boolean find(int fingerprint, int first)
+    {
+        int second = alternateOf(first, fingerprint);
+
+        for (int i = 0; i < BUCKET_SIZE; i++)
+        {
+            if (slot(first, i) == fingerprint || slot(second, i) == fingerprint)
+            {
+                return true;
+            }
+        }
+
+        return victim == fingerprint && (victimBucket == first || victimBucket == second);
+    }
+
+    private boolean insertIntoBucket(int bucket, int fingerprint)
+    {
+        for (int i = 0; i < BUCKET_SIZE; i++)
+        {
+            if (slot(bucket, i) == EMPTY)
+            {
+                setSlot(bucket, i, fingerprint);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean insert(int fingerprint, int first)
+    {
+        if (victim != EMPTY)
+        {
+            return false;
+        }
+
+        count++;
+
+        int bucket = first;
+
+        if (insertIntoBucket(bucket, fingerprint))
+        {
+            return true;
+        }
+
+        bucket = alternateOf(bucket, fingerprint);
+
+        if (insertIntoBucket(bucket, fingerprint))
+        {
+            return true;
+        }
+
+        for (int kick = 0; kick < MAX_KICKS; kick++)
+        {
+            random ^= random << 13;
+            random ^= random >>> 17;
+            random ^= random << 5;
+
+            int index = random & (BUCKET_SIZE - 1);
+            int evicted = slot(bucket, index);
+            setSlot(bucket, index, fingerprint);
+
+            fingerprint = evicted;
+            bucket = alternateOf(bucket, fingerprint);
+
+            if (insertIntoBucket(bucket, fingerprint))
+            {
+                return true;
+            }
+        }
+
+        //The element itself has been placed; the fingerprint it displaced waits here, so nothing is lost
+        victim = fingerprint;
+        victimBucket = bucket;
+        return true;
+    }
+
+    private boolean delete(int fingerprint, int first)
+    {
+        int second = alternateOf(first, fingerprint);
+
+        if (victim == fingerprint && (victimBucket == first || victimBucket == second))
+        {
+            victim = EMPTY;
+            count--;
+            return true;
+        }
+
+        for (int bucket : new int[] { first, second })
+        {
+            for (int i = 0; i < BUCKET_SIZE; i++)
+            {
+                if (slot(bucket, i) == fingerprint)
+                {
+                    setSlot(bucket, i, EMPTY);
+                    count--;
+                    reinsertVictim();
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Tries to place the waiting fingerprint, now that a slot is free.
+     */
+    private void reinsertVictim()
+    {
+        if (victim == EMPTY)
+        {
+            return;
+        }
+
+        int fingerprint = victim;
+        int bucket = victimBucket;
+        victim = EMPTY;
+        count--;
+
+        insert(fingerprint, bucket);
+    }
+
+    private void forEachFingerprint(FingerprintConsumer consumer)
+    {
+        for (int bucket = 0; bucket < buckets; bucket++)
+        {
+            for (int i = 0; i < BUCKET_SIZE; i++)
+            {
+                int fingerprint = slot(bucket, i);
+
+                if (fingerprint != EMPTY)
+                {
+                    consumer.accept(fingerprint, bucket);
+                }
+            }
+        }
+
+        if (victim != EMPTY)
+        {
+            consumer.accept(victim, victimBucket);
+        }
+    }
+
+    private byte[] write()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + words.length * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(buckets).putInt(fingerprintBits);
+        buffer.putLong(count).putInt(victim).putInt(victimBucket);
+
+        for (long word : words)
+        {
+            buffer.putLong(word);
+        }
+
+        return buffer.array();
+    }
+
+    @FunctionalInterface
+    private interface FingerprintConsumer
+    {
+
+        void accept(int fingerprint, int bucket);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+/**
+ * Hashing and serialization helpers shared by the {@linkplain MembershipFilter membership filters}.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class FilterHashing
+{
+
+    /**
+     * Hashes an element to 64 bits, with {@link #hash64(Object)}.
+     */
+    static final ToLongFunction<Object> DEFAULT_HASHER = FilterHashing::hash64;
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    FilterHashing() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    /**
+     * Hashes {@link String Strings}, {@link UUID UUIDs}, and the boxed primitives from their contents, to a full
+     * 64 bits, so that even billions of distinct values rarely share a hash. Anything else is hashed from its
+     * {@link Object#hashCode()}, which leaves only 32 bits: past a few hundred million distinct elements of such
+     * a type, or for very low false positive rates, pass a hasher of their own to the filter instead.
+     */
+    static long hash64(Object element)
+    {
+        if (element instanceof String)
+        {
+            String string = (String) element;
+            long hash = FNV_OFFSET_BASIS;
+
+            //FNV-1a, over whole chars, and then mixed, since FNV spreads its low bits poorly
+            for (int i = 0; i < string.length(); i++)
+            {
+                hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+            }
+
+            return mix(hash ^ string.length());
+        }
+
+        if (element instanceof Long || element instanceof Integer || element instanceof Short || element instanceof Byte)
+        {
+            return mix(((Number) element).longValue());
+        }
+
+        if (element instanceof Double)
+        {
+            return mix(Double.doubleToLongBits((Double) element));
+        }
+
+        if (element instanceof Float)
+        {
+            return mix(Float.floatToIntBits((Float) element));
+        }
+
+        if (element instanceof Character)
+        {
+            return mix((Character) element);
+        }
+
+        if (element instanceof UUID)
+        {
+            UUID uuid = (UUID) element;
+            return mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+        }
+
+        return mix(element.hashCode());
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which makes every bit of the result depend on every bit of {@code value}.
+     */
+    static long mix(long value)
+    {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static void checkFalsePositiveRate(double falsePositiveRate)
+    {
+        if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0))
+        {
+            throw new IllegalArgumentException("false positive rate must be between 0 and 1, exclusive: " + falsePositiveRate);
+        }
+    }
+
+    static void checkExpectedElements(long expectedElements)
+    {
+        if (expectedElements < 0)
+        {
+            throw new IllegalArgumentException("expected elements cannot be negative: " + expectedElements);
+        }
+    }
+
+    static void checkElement(Object element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("filters cannot hold null elements");
+        }
+    }
+
+    /**
+     * Reads the header of a serialized filter.
+     *
+     * @return The buffer, positioned after the magic number and version.
+     * @throws IllegalArgumentException If the bytes do not start with the expected header.
+     */
+    static ByteBuffer readHeader(byte[] bytes, int magic, int version, String type)
+    {
+        if (bytes == null)
+        {
+            throw new IllegalArgumentException("bytes cannot be null");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        if (bytes.length < 2 * Integer.BYTES || buffer.getInt() != magic)
+        {
+            throw new IllegalArgumentException("not a serialized " + type);
+        }
+
+        int actualVersion = buffer.getInt();
+
+        if (actualVersion != version)
+        {
+            throw new IllegalArgumentException("unsupported version " + actualVersion + " of serialized " + type);
+        }
+
+        return buffer;
+    }
+}
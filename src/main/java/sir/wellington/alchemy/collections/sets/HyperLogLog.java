@@ -0,0 +1,788 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static sir.wellington.alchemy.collections.sets.FilterHashing.*;
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * Estimates how many distinct elements it has seen, in a few kilobytes at most, however many there are.
+ * <p>
+ * This is a HyperLogLog++ sketch. Each element is hashed to 64 bits; the first {@link #precision()} bits pick one of
+ * 2<sup>precision</sup> registers, which keeps the longest run of leading zeros seen in the rest. The standard error of
+ * the estimate is about {@code 1.04 / sqrt(2^precision)}: 0.8% at the default precision of 14, in 16 KB.
+ * <p>
+ * While it has seen few elements, the sketch is sparse: it keeps a sorted array of the registers in use, at a
+ * precision of 25 bits, and counts them exactly, until that array grows larger than the registers would be.
+ * The dense registers are then estimated with the improved estimator of Otmar Ertl, which corrects the bias
+ * of the original HyperLogLog estimator across the whole range, without the empirical tables of HyperLogLog++.
+ * <p>
+ * Sketches {@linkplain #union(HyperLogLog) combine} without loss, including sketches of different precisions,
+ * so each shard can count its own elements, and the counts merged afterwards. Intersections are
+ * {@linkplain #estimateIntersection(HyperLogLog, HyperLogLog) estimated} from the sizes of the union and each sketch.
+ * <p>
+ * By default, strings, UUIDs, and the boxed primitives are hashed from their contents, to 64 bits. Other elements are
+ * hashed from their {@link Object#hashCode()}. Since that has only 32 bits, elements whose hash codes collide count once,
+ * which lowers estimates into the hundreds of millions by a few percent; a 64-bit hasher of their own avoids this.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Sets#createHyperLogLog()
+ */
+@ThreadUnsafe
+public final class HyperLogLog<E>
+{
+
+    public static final int MIN_PRECISION = 4;
+
+    public static final int MAX_PRECISION = 18;
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    /**
+     * The precision of the sparse entries, each of which packs a 25-bit index and a 6-bit register into an {@code int}.
+     */
+    static final int SPARSE_PRECISION = 25;
+
+    private static final int REGISTER_BITS = 6;
+    private static final int REGISTER_MASK = (1 << REGISTER_BITS) - 1;
+
+    private static final int MAGIC = 0x41484C4C;
+    private static final int VERSION = 1;
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+
+    private final int precision;
+    private final ToLongFunction<? super E> hasher;
+
+    /**
+     * The sorted, distinct sparse entries; {@code null} once the sketch is dense.
+     */
+    private int[] sparse;
+    private int sparseCount = 0;
+
+    /**
+     * Sparse entries not yet merged into {@link #sparse}.
+     */
+    private int[] buffer;
+    private int bufferCount = 0;
+
+    /**
+     * {@code null} while the sketch is sparse.
+     */
+    private byte[] registers;
+
+    private HyperLogLog(int precision, ToLongFunction<? super E> hasher)
+    {
+        checkPrecision(precision);
+        checkThat(hasher).usingMessage("hasher cannot be null").is(notNull());
+
+        this.precision = precision;
+        this.hasher = hasher;
+        this.sparse = new int[0];
+        this.buffer = new int[Math.max(16, sparseLimit() / 8)];
+    }
+
+    /**
+     * @param <E>
+     * @return A sketch of the {@linkplain #DEFAULT_PRECISION default precision}, which hashes its elements by their contents, where it can,
+     *         and otherwise by their {@link Object#hashCode()}.
+     */
+    public static <E> HyperLogLog<E> create()
+    {
+        return create(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param <E>
+     * @param precision Between {@link #MIN_PRECISION} and {@link #MAX_PRECISION}. Each step up halves
+     *                  the variance of the estimate, and doubles the size of the dense sketch.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> HyperLogLog<E> create(int precision) throws IllegalArgumentException
+    {
+        return new HyperLogLog<>(precision, DEFAULT_HASHER);
+    }
+
+    /**
+     * @param <E>
+     * @param precision Between {@link #MIN_PRECISION} and {@link #MAX_PRECISION}.
+     * @param hasher    Hashes each element to 64 well-mixed bits. Sketches can only be combined, or read back
+     *                  from bytes, with the same hasher.
+     * @return
+     * @throws IllegalArgumentException
+     */
+    public static <E> HyperLogLog<E> create(int precision, @Required ToLongFunction<? super E> hasher) throws IllegalArgumentException
+    {
+        return new HyperLogLog<>(precision, hasher);
+    }
+
+    /**
+     * Reads back a sketch written by {@link #toBytes()}, which hashes its elements the way {@link #create()} does.
+     *
+     * @param <E>
+     * @param bytes
+     * @return
+     * @throws IllegalArgumentException If the bytes are not a serialized {@code HyperLogLog}.
+     */
+    public static <E> HyperLogLog<E> fromBytes(@Required byte[] bytes) throws IllegalArgumentException
+    {
+        return fromBytes(bytes, DEFAULT_HASHER);
+    }
+
+    /**
+     * @param <E>
+     * @param bytes
+     * @param hasher Must be the hasher of the sketch that was written.
+     * @return
+     * @throws IllegalArgumentException If the bytes are not a serialized {@code HyperLogLog}.
+     */
+    public static <E> HyperLogLog<E> fromBytes(@Required byte[] bytes, @Required ToLongFunction<? super E> hasher) throws IllegalArgumentException
+    {
+        ByteBuffer buffer = readHeader(bytes, MAGIC, VERSION, "hyperloglog");
+
+        try
+        {
+            int precision = buffer.get();
+            byte format = buffer.get();
+
+            if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+            {
+                throw corrupt();
+            }
+
+            HyperLogLog<E> sketch = new HyperLogLog<>(precision, hasher);
+
+            if (format == SPARSE)
+            {
+                int count = readVarint(buffer);
+
+                if (count < 0 || count > sketch.sparseLimit())
+                {
+                    throw corrupt();
+                }
+
+                int[] entries = new int[count];
+                int previous = -1;
+
+                for (int i = 0; i < count; i++)
+                {
+                    entries[i] = previous + 1 + readVarint(buffer);
+
+                    if (entries[i] <= previous)
+                    {
+                        throw corrupt();
+                    }
+
+                    previous = entries[i];
+                }
+
+                sketch.sparse = entries;
+                sketch.sparseCount = count;
+            }
+            else if (format == DENSE)
+            {
+                sketch.registers = unpack(buffer, sketch.registerCount());
+                sketch.sparse = null;
+                sketch.buffer = null;
+            }
+            else
+            {
+                throw corrupt();
+            }
+
+            if (buffer.hasRemaining())
+            {
+                throw corrupt();
+            }
+
+            return sketch;
+        }
+        catch (RuntimeException ex)
+        {
+            if (ex instanceof IllegalArgumentException)
+            {
+                throw ex;
+            }
+
+            throw new IllegalArgumentException("serialized hyperloglog is corrupt or incomplete", ex);
+        }
+    }
+
+    /**
+     * Estimates how many elements the two sketches have in common, as {@code |A| + |B| - |A ∪ B|}.
+     * The error is relative to the size of the union, so the estimate of a small intersection of large sets is rough.
+     *
+     * @param <E>
+     * @param first
+     * @param second
+     * @return
+     * @throws IllegalArgumentException If the sketches were made with different hashers.
+     */
+    public static <E> long estimateIntersection(@Required HyperLogLog<E> first, @Required HyperLogLog<E> second) throws IllegalArgumentException
+    {
+        checkThat(first).usingMessage("first sketch cannot be null").is(notNull());
+
+        long union = first.union(second).cardinality();
+        long intersection = first.cardinality() + second.cardinality() - union;
+
+        return Math.max(0, Math.min(intersection, Math.min(first.cardinality(), second.cardinality())));
+    }
+
+    //==============================================================
+    // Adding
+    //==============================================================
+
+    /**
+     * @param element
+     * @throws IllegalArgumentException If {@code element} is null.
+     */
+    public void add(@Required E element) throws IllegalArgumentException
+    {
+        checkElement(element);
+
+        addHash(hasher.applyAsLong(element));
+    }
+
+    /**
+     * @param elements
+     * @throws IllegalArgumentException If {@code elements} is null, or holds a {@code null} element.
+     */
+    public void addAll(@Required Collection<? extends E> elements) throws IllegalArgumentException
+    {
+        checkThat(elements).usingMessage("elements cannot be null").is(notNull());
+
+        for (E element : elements)
+        {
+            add(element);
+        }
+    }
+
+    /**
+     * Adds an element that has already been hashed, to 64 well-mixed bits, by the same function as the other elements.
+     *
+     * @param hash
+     */
+    public void addHash(long hash)
+    {
+        if (registers != null)
+        {
+            int index = (int) (hash >>> (Long.SIZE - precision));
+            updateRegister(index, rhoOf(hash << precision, Long.SIZE - precision));
+            return;
+        }
+
+        int index = (int) (hash >>> (Long.SIZE - SPARSE_PRECISION));
+        int rho = rhoOf(hash << SPARSE_PRECISION, Long.SIZE - SPARSE_PRECISION);
+        addSparse((index << REGISTER_BITS) | rho);
+    }
+
+    //==============================================================
+    // Estimating
+    //==============================================================
+
+    /**
+     * @return An estimate of the number of distinct elements added.
+     */
+    public long cardinality()
+    {
+        flush();
+
+        if (registers == null)
+        {
+            //Linear counting over the 2^25 sparse registers, which is close to exact while they are sparse
+            double total = 1 << SPARSE_PRECISION;
+            return Math.round(total * Math.log(total / (total - sparseCount)));
+        }
+
+        return Math.round(estimateDense());
+    }
+
+    public int precision()
+    {
+        return precision;
+    }
+
+    /**
+     * @return Whether the sketch still keeps only the registers in use.
+     */
+    public boolean isSparse()
+    {
+        return registers == null;
+    }
+
+    /**
+     * @return The relative standard error of estimates at this precision.
+     */
+    public double standardError()
+    {
+        return 1.04 / Math.sqrt(registerCount());
+    }
+
+    //==============================================================
+    // Combining
+    //==============================================================
+
+    /**
+     * Adds the elements seen by {@code other} to this sketch.
+     *
+     * @param other Must have at least the precision of this sketch, and the same hasher.
+     * @throws IllegalArgumentException If {@code other} has a lower precision, or a different hasher.
+     */
+    public void merge(@Required HyperLogLog<E> other) throws IllegalArgumentException
+    {
+        checkThat(other).usingMessage("other sketch cannot be null").is(notNull());
+
+        if (other.hasher != hasher)
+        {
+            throw new IllegalArgumentException("sketches made with different hashers cannot be combined");
+        }
+
+        if (other.precision < precision)
+        {
+            throw new IllegalArgumentException("cannot merge a sketch of precision " + other.precision + " into one of " + precision + "; use union()");
+        }
+
+        if (other == this)
+        {
+            return;
+        }
+
+        other.flush();
+
+        if (other.registers == null)
+        {
+            for (int i = 0; i < other.sparseCount; i++)
+            {
+                addEntry(other.sparse[i]);
+            }
+
+            return;
+        }
+
+        toDense();
+
+        int shift = other.precision - precision;
+
+        for (int index = 0; index < other.registers.length; index++)
+        {
+            int value = other.registers[index];
+
+            if (value != 0)
+            {
+                updateRegister(index >>> shift, foldedRho(index, shift, value));
+            }
+        }
+    }
+
+    /**
+     * Combines two sketches into a new one, which estimates the size of the union of the elements they have seen.
+     * Sketches of different precisions combine at the lower of the two.
+     *
+     * @param other
+     * @return
+     * @throws IllegalArgumentException If the sketches were made with different hashers.
+     */
+    public HyperLogLog<E> union(@Required HyperLogLog<E> other) throws IllegalArgumentException
+    {
+        checkThat(other).usingMessage("other sketch cannot be null").is(notNull());
+
+        HyperLogLog<E> lower = other.precision < precision ? other : this;
+        HyperLogLog<E> higher = lower == this ? other : this;
+
+        HyperLogLog<E> union = lower.copy();
+        union.merge(higher);
+        return union;
+    }
+
+    public HyperLogLog<E> copy()
+    {
+        flush();
+
+        HyperLogLog<E> copy = new HyperLogLog<>(precision, hasher);
+
+        if (registers != null)
+        {
+            copy.registers = registers.clone();
+            copy.sparse = null;
+            copy.buffer = null;
+        }
+        else
+        {
+            copy.sparse = Arrays.copyOf(sparse, sparseCount);
+            copy.sparseCount = sparseCount;
+        }
+
+        return copy;
+    }
+
+    /**
+     * Writes the sketch as a short header, followed by either its sparse entries, as variable-length differences,
+     * or its registers, packed into 6 bits each.
+     *
+     * @return
+     */
+    public byte[] toBytes()
+    {
+        flush();
+
+        int header = 2 * Integer.BYTES + 2;
+
+        if (registers != null)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(header + registers.length * REGISTER_BITS / Byte.SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).put((byte) precision).put(DENSE);
+            pack(registers, buffer);
+            return buffer.array();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(header + 5 * (sparseCount + 1));
+        buffer.putInt(MAGIC).putInt(VERSION).put((byte) precision).put(SPARSE);
+        writeVarint(buffer, sparseCount);
+
+        int previous = -1;
+
+        for (int i = 0; i < sparseCount; i++)
+        {
+            writeVarint(buffer, sparse[i] - previous - 1);
+            previous = sparse[i];
+        }
+
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HyperLogLog{" + "precision=" + precision + ", sparse=" + isSparse() + ", cardinality=" + cardinality() + '}';
+    }
+
+    //==============================================================
+    // Sparse Entries
+    //==============================================================
+
+    private int registerCount()
+    {
+        return 1 << precision;
+    }
+
+    /**
+     * Past this many 4-byte entries, the sparse sketch would be larger than its registers.
+     */
+    private int sparseLimit()
+    {
+        return registerCount() / 4;
+    }
+
+    private void addEntry(int entry)
+    {
+        if (registers == null)
+        {
+            addSparse(entry);
+            return;
+        }
+
+        int sparseIndex = entry >>> REGISTER_BITS;
+        int shift = SPARSE_PRECISION - precision;
+        updateRegister(sparseIndex >>> shift, foldedRho(sparseIndex, shift, entry & REGISTER_MASK));
+    }
+
+    private void addSparse(int entry)
+    {
+        buffer[bufferCount++] = entry;
+
+        if (bufferCount == buffer.length)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Merges the buffered entries into the sorted ones, keeping the highest register for each index,
+     * and turns the sketch dense if there are then too many of them.
+     */
+    private void flush()
+    {
+        if (registers != null || bufferCount == 0)
+        {
+            return;
+        }
+
+        Arrays.sort(buffer, 0, bufferCount);
+
+        int[] merged = new int[sparseCount + bufferCount];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < sparseCount || j < bufferCount)
+        {
+            int next;
+
+            if (j >= bufferCount || (i < sparseCount && sparse[i] <= buffer[j]))
+            {
+                next = sparse[i++];
+            }
+            else
+            {
+                next = buffer[j++];
+            }
+
+            //Entries sort by index, then register, so a later entry for the same index replaces an earlier one
+            if (count > 0 && (merged[count - 1] >>> REGISTER_BITS) == (next >>> REGISTER_BITS))
+            {
+                merged[count - 1] = next;
+            }
+            else
+            {
+                merged[count++] = next;
+            }
+        }
+
+        sparse = merged;
+        sparseCount = count;
+        bufferCount = 0;
+
+        if (sparseCount > sparseLimit())
+        {
+            toDense();
+        }
+    }
+
+    private void toDense()
+    {
+        if (registers != null)
+        {
+            return;
+        }
+
+        flush();
+
+        registers = new byte[registerCount()];
+
+        int[] entries = sparse;
+        int count = sparseCount;
+
+        sparse = null;
+        buffer = null;
+        sparseCount = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            addEntry(entries[i]);
+        }
+    }
+
+    private void updateRegister(int index, int value)
+    {
+        if (registers[index] < value)
+        {
+            registers[index] = (byte) value;
+        }
+    }
+
+    //==============================================================
+    // Registers
+    //==============================================================
+
+    /**
+     * The position of the first 1 bit among the leading {@code width} bits of {@code bits}, or {@code width + 1} if there is none.
+     */
+    private static int rhoOf(long bits, int width)
+    {
+        return bits == 0 ? width + 1 : Math.min(width + 1, Long.numberOfLeadingZeros(bits) + 1);
+    }
+
+    /**
+     * The register that an index of higher precision becomes, once its lowest {@code shift} bits move from the index
+     * to the front of the remaining hash: the position of their first 1 bit, or the old register, after them.
+     */
+    private static int foldedRho(int index, int shift, int value)
+    {
+        int dropped = index & ((1 << shift) - 1);
+
+        if (dropped == 0)
+        {
+            return shift + value;
+        }
+
+        return Integer.numberOfLeadingZeros(dropped) - (Integer.SIZE - shift) + 1;
+    }
+
+    /**
+     * Otmar Ertl's improved estimator, from "New cardinality estimation algorithms for HyperLogLog sketches" (2017).
+     */
+    private double estimateDense()
+    {
+        int q = Long.SIZE - precision;
+        int[] counts = new int[q + 2];
+
+        for (byte register : registers)
+        {
+            counts[register]++;
+        }
+
+        double m = registers.length;
+        double z = m * tau(1.0 - counts[q + 1] / m);
+
+        for (int k = q; k >= 1; k--)
+        {
+            z = 0.5 * (z + counts[k]);
+        }
+
+        z += m * sigma(counts[0] / m);
+
+        return m * m / (2.0 * Math.log(2) * z);
+    }
+
+    private static double sigma(double x)
+    {
+        if (x == 1.0)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double y = 1.0;
+        double z = x;
+        double previous;
+
+        do
+        {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        }
+        while (z != previous);
+
+        return z;
+    }
+
+    private static double tau(double x)
+    {
+        if (x == 0.0 || x == 1.0)
+        {
+            return 0.0;
+        }
+
+        double y = 1.0;
+        double z = 1.0 - x;
+        double previous;
+
+        do
+        {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1.0 - x) * (1.0 - x) * y;
+        }
+        while (z != previous);
+
+        return z / 3.0;
+    }
+
+    //==============================================================
+    // Serialization
+    //==============================================================
+
+    private static void pack(byte[] registers, ByteBuffer buffer)
+    {
+        //Four 6-bit registers fill three bytes
+        for (int i = 0; i < registers.length; i += 4)
+        {
+            int bits = registers[i] << 18 | registers[i + 1] << 12 | registers[i + 2] << 6 | registers[i + 3];
+            buffer.put((byte) (bits >>> 16)).put((byte) (bits >>> 8)).put((byte) bits);
+        }
+    }
+
+    private static byte[] unpack(ByteBuffer buffer, int count)
+    {
+        byte[] registers = new byte[count];
+
+        for (int i = 0; i < count; i += 4)
+        {
+            int bits = (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF);
+
+            registers[i] = (byte) (bits >>> 18 & REGISTER_MASK);
+            registers[i + 1] = (byte) (bits >>> 12 & REGISTER_MASK);
+            registers[i + 2] = (byte) (bits >>> 6 & REGISTER_MASK);
+            registers[i + 3] = (byte) (bits & REGISTER_MASK);
+        }
+
+        for (byte register : registers)
+        {
+            if (register > Long.SIZE - MIN_PRECISION + 1)
+            {
+                throw corrupt();
+            }
+        }
+
+        return registers;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer)
+    {
+        int value = 0;
+
+        for (int shift = 0; shift < Integer.SIZE; shift += 7)
+        {
+            byte next = buffer.get();
+            value |= (next & 0x7F) << shift;
+
+            if ((next & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+
+        throw corrupt();
+    }
+
+    private static IllegalArgumentException corrupt()
+    {
+        return new IllegalArgumentException("serialized hyperloglog is corrupt or incomplete");
+    }
+
+    private static void checkPrecision(int precision)
+    {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+        {
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+
+/**
+ * A {@link Set} that can never change, stored as a single open-addressed hash table of its elements,
+ * without the per-element nodes of a {@link HashSet}.
+ * <p>
+ * Lookups use linear probing in a table that is at most three-quarters full. The table holds the elements themselves,
+ * so a set of {@code n} elements costs between {@code 1.33n} and {@code 2.67n} references.
+ * Every operation that would change the set throws an {@link UnsupportedOperationException}, even when it
+ * would have no effect.
+ * <p>
+ * Iteration follows the layout of the table, not the order the elements were given in.
+ * <p>
+ * The set is {@link Serializable} through a proxy that holds only its elements; the table is rebuilt when it is read back.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Sets#immutableCopyOf(Collection)
+ */
+@Immutable
+public final class ImmutableSet<E> extends AbstractSet<E> implements Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Stands in for a {@code null} element, since a {@code null} slot is an empty one.
+     */
+    private static final Object NULL = new Object();
+
+    private static final ImmutableSet<Object> EMPTY = new ImmutableSet<>(new Object[1], 0, 0);
+
+    /**
+     * The elements, at the slot their hash leads to, or the first free slot after it.
+     * The length is a power of two, and at least one slot is always free.
+     */
+    private final Object[] table;
+    private final int size;
+
+    /**
+     * The sum of the hash codes of the elements, as {@link Set#hashCode()} defines it.
+     */
+    private final int hashCode;
+
+    private ImmutableSet(Object[] table, int size, int hashCode)
+    {
+        this.table = table;
+        this.size = size;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * @param <E>
+     * @return The shared empty set.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableSet<E> empty()
+    {
+        return (ImmutableSet<E>) EMPTY;
+    }
+
+    /**
+     * Copies the distinct elements of the collection. Copying an {@code ImmutableSet} returns it as-is.
+     *
+     * @param <E>
+     * @param collection A {@code null} collection is treated as empty.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableSet<E> copyOf(@Optional Collection<? extends E> collection)
+    {
+        if (collection instanceof ImmutableSet)
+        {
+            return (ImmutableSet<E>) collection;
+        }
+
+        if (collection == null || collection.isEmpty())
+        {
+            return empty();
+        }
+
+        Object[] table = new Object[capacityFor(collection.size())];
+        int mask = table.length - 1;
+        int size = 0;
+        int hashCode = 0;
+
+        for (E element : collection)
+        {
+            Object stored = element == null ? NULL : element;
+            int slot = mix(stored.hashCode()) & mask;
+
+            while (table[slot] != null && !table[slot].equals(stored))
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            if (table[slot] == null)
+            {
+                table[slot] = stored;
+                size++;
+                hashCode += Objects.hashCode(element);
+            }
+        }
+
+        return new ImmutableSet<>(table, size, hashCode);
+    }
+
+    /**
+     * @param <E>
+     * @param elements
+     * @return An {@code ImmutableSet} of the distinct elements.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> ImmutableSet<E> of(E... elements)
+    {
+        if (elements == null)
+        {
+            return empty();
+        }
+
+        return copyOf(Arrays.asList(elements));
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        Object stored = object == null ? NULL : object;
+        int mask = table.length - 1;
+        int slot = mix(stored.hashCode()) & mask;
+
+        for (Object candidate = table[slot]; candidate != null; candidate = table[slot])
+        {
+            if (candidate.equals(stored))
+            {
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>()
+        {
+            private int slot = nextSlot(0);
+
+            @Override
+            public boolean hasNext()
+            {
+                return slot < table.length;
+            }
+
+            @Override
+            public E next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                E element = elementAt(slot);
+                slot = nextSlot(slot + 1);
+                return element;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action)
+    {
+        Objects.requireNonNull(action);
+
+        for (int slot = 0; slot < table.length; slot++)
+        {
+            if (table[slot] != null)
+            {
+                action.accept(elementAt(slot));
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<E> spliterator()
+    {
+        return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other instanceof ImmutableSet && ((ImmutableSet<?>) other).hashCode != hashCode)
+        {
+            return false;
+        }
+
+        return super.equals(other);
+    }
+
+    private int nextSlot(int from)
+    {
+        int slot = from;
+
+        while (slot < table.length && table[slot] == null)
+        {
+            slot++;
+        }
+
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int slot)
+    {
+        Object element = table[slot];
+        return element == NULL ? null : (E) element;
+    }
+
+    /**
+     * Spreads the bits of a hash code, so that poor hashes still spread across the table.
+     */
+    private static int mix(int hash)
+    {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    /**
+     * The smallest power-of-two table that holds {@code size} elements while at most three-quarters full.
+     */
+    private static int capacityFor(int size)
+    {
+        long needed = (long) Math.ceil(size / 0.75) + 1;
+
+        if (needed >= 1 << 30)
+        {
+            return 1 << 30;
+        }
+
+        return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    //==============================================================
+    // Serialization
+    //==============================================================
+
+    private Object writeReplace()
+    {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException
+    {
+        throw new InvalidObjectException("ImmutableSets are serialized through their SerializedForm");
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public boolean add(E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object object)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("ImmutableSets cannot be modified");
+    }
+
+    /**
+     * Stands in for an {@link ImmutableSet} in a stream, as the array of its elements.
+     */
+    private static final class SerializedForm implements Serializable
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] elements;
+
+        SerializedForm(ImmutableSet<?> set)
+        {
+            this.elements = set.toArray();
+        }
+
+        private Object readResolve()
+        {
+            return ImmutableSet.copyOf(Arrays.asList(elements));
+        }
+    }
+}
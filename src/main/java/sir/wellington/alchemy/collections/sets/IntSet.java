@@ -0,0 +1,828 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * A compressed {@link Set} of {@code int} values, in the style of a
+ * <a href="https://roaringbitmap.org/">Roaring Bitmap</a>.
+ * <p>
+ * Values are split by their upper 16 bits into chunks, and each chunk is stored in whichever
+ * container is smallest: a sorted array for sparse chunks, a bitmap for dense chunks, or a list
+ * of runs for ranges (see {@link #runOptimize()}). Dense integer IDs therefore cost close to one bit each,
+ * and {@link #and(IntSet, IntSet) intersections}, {@link #or(IntSet, IntSet) unions},
+ * {@link #andNot(IntSet, IntSet) differences} and {@link #xor(IntSet, IntSet) symmetric differences}
+ * between bitmaps run 64 values at a time instead of hashing each one.
+ * <p>
+ * Iteration is in ascending order, treating values as unsigned.
+ * The {@code int}-specific methods never box.
+ *
+ * @author SirWellington
+ * @see Sets#intersectionOf(IntSet, IntSet, IntSet...)
+ * @see Sets#unionOf(IntSet, IntSet, IntSet...)
+ */
+@ThreadUnsafe
+public final class IntSet extends AbstractSet<Integer>
+{
+
+    private char[] keys;
+    private Container[] containers;
+    private int containerCount;
+    private int size;
+
+    IntSet()
+    {
+        this(new char[4], new Container[4], 0, 0);
+    }
+
+    private IntSet(char[] keys, Container[] containers, int containerCount, int size)
+    {
+        this.keys = keys;
+        this.containers = containers;
+        this.containerCount = containerCount;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty {@link IntSet}.
+     *
+     * @return
+     */
+    public static IntSet create()
+    {
+        return new IntSet();
+    }
+
+    public static IntSet createFrom(int first, @Optional int... rest)
+    {
+        IntSet set = create();
+        set.addInt(first);
+
+        if (rest != null)
+        {
+            set.addAll(rest);
+        }
+
+        return set;
+    }
+
+    public static IntSet copyOf(@Optional int[] values)
+    {
+        IntSet set = create();
+
+        if (values != null)
+        {
+            set.addAll(values);
+        }
+
+        return set;
+    }
+
+    public static IntSet copyOf(@Optional Collection<Integer> collection)
+    {
+        if (collection instanceof IntSet)
+        {
+            return ((IntSet) collection).copy();
+        }
+
+        IntSet set = create();
+
+        if (collection != null)
+        {
+            for (Integer value : collection)
+            {
+                set.add(value);
+            }
+        }
+
+        return set;
+    }
+
+    //==============================================================
+    // Set Algebra
+    //==============================================================
+
+    /**
+     * Creates a new set containing the values in both sets.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static IntSet and(@Required IntSet first, @Required IntSet second)
+    {
+        checkNotNull(first, second);
+
+        IntSet result = new IntSet(new char[Math.min(first.containerCount, second.containerCount) + 1],
+                                   new Container[Math.min(first.containerCount, second.containerCount) + 1],
+                                   0,
+                                   0);
+        int i = 0;
+        int j = 0;
+
+        while (i < first.containerCount && j < second.containerCount)
+        {
+            char a = first.keys[i];
+            char b = second.keys[j];
+
+            if (a < b)
+            {
+                i++;
+            }
+            else if (a > b)
+            {
+                j++;
+            }
+            else
+            {
+                result.append(a, Container.and(first.containers[i], second.containers[j]));
+                i++;
+                j++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new set containing the values in either set.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static IntSet or(@Required IntSet first, @Required IntSet second)
+    {
+        checkNotNull(first, second);
+
+        IntSet result = new IntSet(new char[first.containerCount + second.containerCount + 1],
+                                   new Container[first.containerCount + second.containerCount + 1],
+                                   0,
+                                   0);
+        int i = 0;
+        int j = 0;
+
+        while (i < first.containerCount || j < second.containerCount)
+        {
+            int a = i < first.containerCount ? first.keys[i] : Integer.MAX_VALUE;
+            int b = j < second.containerCount ? second.keys[j] : Integer.MAX_VALUE;
+
+            if (a < b)
+            {
+                result.append((char) a, first.containers[i++].copy());
+            }
+            else if (a > b)
+            {
+                result.append((char) b, second.containers[j++].copy());
+            }
+            else
+            {
+                result.append((char) a, Container.or(first.containers[i++], second.containers[j++]));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new set containing the values in {@code first} that are not in {@code second}.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static IntSet andNot(@Required IntSet first, @Required IntSet second)
+    {
+        checkNotNull(first, second);
+
+        IntSet result = new IntSet(new char[first.containerCount + 1], new Container[first.containerCount + 1], 0, 0);
+        int j = 0;
+
+        for (int i = 0; i < first.containerCount; i++)
+        {
+            char key = first.keys[i];
+
+            while (j < second.containerCount && second.keys[j] < key)
+            {
+                j++;
+            }
+
+            if (j < second.containerCount && second.keys[j] == key)
+            {
+                result.append(key, Container.andNot(first.containers[i], second.containers[j]));
+            }
+            else
+            {
+                result.append(key, first.containers[i].copy());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a new set containing the values in exactly one of the two sets.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static IntSet xor(@Required IntSet first, @Required IntSet second)
+    {
+        checkNotNull(first, second);
+
+        IntSet result = new IntSet(new char[first.containerCount + second.containerCount + 1],
+                                   new Container[first.containerCount + second.containerCount + 1],
+                                   0,
+                                   0);
+        int i = 0;
+        int j = 0;
+
+        while (i < first.containerCount || j < second.containerCount)
+        {
+            int a = i < first.containerCount ? first.keys[i] : Integer.MAX_VALUE;
+            int b = j < second.containerCount ? second.keys[j] : Integer.MAX_VALUE;
+
+            if (a < b)
+            {
+                result.append((char) a, first.containers[i++].copy());
+            }
+            else if (a > b)
+            {
+                result.append((char) b, second.containers[j++].copy());
+            }
+            else
+            {
+                result.append((char) a, Container.xor(first.containers[i++], second.containers[j++]));
+            }
+        }
+
+        return result;
+    }
+
+    //==============================================================
+    // Primitive Operations
+    //==============================================================
+
+    /**
+     * Adds a value to this set, without boxing.
+     *
+     * @param value
+     * @return {@code true} if the value was not already present.
+     */
+    public boolean addInt(int value)
+    {
+        char key = highBits(value);
+        int index = indexOfKey(key);
+
+        if (index < 0)
+        {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+
+        Container container = containers[index];
+        int before = container.cardinality();
+
+        container = container.add(lowBits(value));
+        containers[index] = container;
+
+        int added = container.cardinality() - before;
+        size += added;
+
+        return added > 0;
+    }
+
+    /**
+     * Adds every value in the array to this set.
+     *
+     * @param values
+     */
+    public void addAll(@Required int[] values)
+    {
+        checkThat(values)
+            .usingMessage("values cannot be null")
+            .is(notNull());
+
+        for (int value : values)
+        {
+            addInt(value);
+        }
+    }
+
+    /**
+     * Adds every value from {@code startInclusive} up to, but not including, {@code endExclusive}.
+     * Whole chunks are filled in at once rather than one value at a time; a chunk the range covers completely is stored
+     * as a single run.
+     *
+     * @param startInclusive
+     * @param endExclusive
+     */
+    public void addRange(int startInclusive, int endExclusive)
+    {
+        long value = startInclusive;
+
+        while (value < endExclusive)
+        {
+            long chunkEnd = Math.min(((value >> 16) + 1) << 16, endExclusive);
+            int start = lowBits((int) value);
+
+            addRangeToChunk(highBits((int) value), start, start + (int) (chunkEnd - value));
+            value = chunkEnd;
+        }
+    }
+
+    /**
+     * Removes a value from this set, without boxing.
+     *
+     * @param value
+     * @return {@code true} if the value was present.
+     */
+    public boolean removeInt(int value)
+    {
+        int index = indexOfKey(highBits(value));
+
+        if (index < 0)
+        {
+            return false;
+        }
+
+        Container container = containers[index];
+        int before = container.cardinality();
+
+        container = container.remove(lowBits(value));
+
+        int removed = before - container.cardinality();
+        size -= removed;
+
+        if (container.cardinality() == 0)
+        {
+            removeContainer(index);
+        }
+        else
+        {
+            containers[index] = container;
+        }
+
+        return removed > 0;
+    }
+
+    /**
+     * Determines whether this set contains a value, without boxing.
+     *
+     * @param value
+     * @return
+     */
+    public boolean containsInt(int value)
+    {
+        int index = indexOfKey(highBits(value));
+        return index >= 0 && containers[index].contains(lowBits(value));
+    }
+
+    /**
+     * Iterates the values in this set in ascending unsigned order, without boxing.
+     *
+     * @return
+     */
+    public PrimitiveIterator.OfInt intIterator()
+    {
+        return new PrimitiveIterator.OfInt()
+        {
+            private int containerIndex = 0;
+            private PrimitiveIterator.OfInt current = containerCount > 0 ? containers[0].iterator(keys[0] << 16) : null;
+            private int lastReturned;
+            private boolean canRemove = false;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (current != null && !current.hasNext())
+                {
+                    containerIndex++;
+                    current = containerIndex < containerCount
+                              ? containers[containerIndex].iterator(keys[containerIndex] << 16)
+                              : null;
+                }
+
+                return current != null;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                lastReturned = current.nextInt();
+                canRemove = true;
+                return lastReturned;
+            }
+
+            @Override
+            public void remove()
+            {
+                if (!canRemove)
+                {
+                    throw new IllegalStateException("next() has not been called since the last remove()");
+                }
+
+                canRemove = false;
+                removeInt(lastReturned);
+
+                //The container may have shifted its values, been replaced, or been dropped, so find the next value again
+                int index = indexOfKey(highBits(lastReturned));
+
+                if (index >= 0)
+                {
+                    containerIndex = index;
+                    current = containers[index].iterator(keys[index] << 16, lowBits(lastReturned) + 1);
+                }
+                else
+                {
+                    containerIndex = -index - 1;
+                    current = containerIndex < containerCount ? containers[containerIndex].iterator(keys[containerIndex] << 16) : null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Streams the values in this set in ascending unsigned order, without boxing.
+     *
+     * @return
+     */
+    public IntStream intStream()
+    {
+        Spliterator.OfInt spliterator = Spliterators.spliterator(intIterator(),
+                                                                 size,
+                                                                 Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    public int[] toIntArray()
+    {
+        int[] result = new int[size];
+        PrimitiveIterator.OfInt iterator = intIterator();
+
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = iterator.nextInt();
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts every chunk into its smallest representation, which turns long consecutive
+     * ranges of values into run containers. This is worth calling once a set is fully built.
+     */
+    public void runOptimize()
+    {
+        for (int i = 0; i < containerCount; i++)
+        {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    /**
+     * Estimates the memory used to store the values in this set, ignoring object headers.
+     *
+     * @return
+     */
+    public long sizeInBytes()
+    {
+        long bytes = 2L * containerCount;
+
+        for (int i = 0; i < containerCount; i++)
+        {
+            bytes += containers[i].sizeInBytes();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Creates an independent copy of this set.
+     *
+     * @return
+     */
+    public IntSet copy()
+    {
+        Container[] copies = new Container[Math.max(containerCount, 1)];
+
+        for (int i = 0; i < containerCount; i++)
+        {
+            copies[i] = containers[i].copy();
+        }
+
+        return new IntSet(Arrays.copyOf(keys, copies.length), copies, containerCount, size);
+    }
+
+    //==============================================================
+    // Set Operations
+    //==============================================================
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return object instanceof Integer && containsInt((Integer) object);
+    }
+
+    @Override
+    public boolean add(Integer value)
+    {
+        checkThat(value)
+            .usingMessage("IntSet cannot hold null values")
+            .is(notNull());
+
+        return addInt(value);
+    }
+
+    @Override
+    public boolean remove(Object object)
+    {
+        return object instanceof Integer && removeInt((Integer) object);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        checkThat(collection)
+            .usingMessage("collection cannot be null")
+            .is(notNull());
+
+        boolean changed = false;
+
+        for (Object element : collection)
+        {
+            changed |= remove(element);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        checkThat(collection)
+            .usingMessage("collection cannot be null")
+            .is(notNull());
+
+        IntSet retained = new IntSet();
+
+        for (Object element : collection)
+        {
+            if (contains(element))
+            {
+                retained.addInt((Integer) element);
+            }
+        }
+
+        boolean changed = retained.size != this.size;
+        replaceWith(retained);
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(@Required Predicate<? super Integer> filter)
+    {
+        checkThat(filter)
+            .usingMessage("filter cannot be null")
+            .is(notNull());
+
+        //Values come out in order, so the survivors are appended rather than inserted
+        IntSet retained = new IntSet();
+        PrimitiveIterator.OfInt iterator = intIterator();
+
+        while (iterator.hasNext())
+        {
+            int value = iterator.nextInt();
+
+            if (!filter.test(value))
+            {
+                retained.addInt(value);
+            }
+        }
+
+        boolean changed = retained.size != this.size;
+
+        if (changed)
+        {
+            replaceWith(retained);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(containers, 0, containerCount, null);
+        containerCount = 0;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Integer> iterator()
+    {
+        return intIterator();
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (other == this)
+        {
+            return true;
+        }
+
+        if (!(other instanceof IntSet))
+        {
+            return super.equals(other);
+        }
+
+        IntSet that = (IntSet) other;
+
+        if (that.size != this.size || that.containerCount != this.containerCount)
+        {
+            return false;
+        }
+
+        PrimitiveIterator.OfInt mine = this.intIterator();
+        PrimitiveIterator.OfInt theirs = that.intIterator();
+
+        while (mine.hasNext())
+        {
+            if (mine.nextInt() != theirs.nextInt())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = 0;
+        PrimitiveIterator.OfInt iterator = intIterator();
+
+        while (iterator.hasNext())
+        {
+            hashCode += iterator.nextInt();
+        }
+
+        return hashCode;
+    }
+
+    //==============================================================
+    // Internal
+    //==============================================================
+
+    private static char highBits(int value)
+    {
+        return (char) (value >>> 16);
+    }
+
+    private static char lowBits(int value)
+    {
+        return (char) value;
+    }
+
+    private static void checkNotNull(IntSet first, IntSet second)
+    {
+        checkThat(first, second)
+            .usingMessage("sets cannot be null")
+            .are(notNull());
+    }
+
+    private int indexOfKey(char key)
+    {
+        //The most recently added chunk is the most likely to be touched next
+        if (containerCount > 0 && keys[containerCount - 1] == key)
+        {
+            return containerCount - 1;
+        }
+
+        return Arrays.binarySearch(keys, 0, containerCount, key);
+    }
+
+    /**
+     * Adds the values from {@code start} up to, but not including, {@code end} to the chunk for {@code key}.
+     */
+    private void addRangeToChunk(char key, int start, int end)
+    {
+        int index = indexOfKey(key);
+
+        if (index < 0)
+        {
+            insertContainer(-index - 1, key, RunContainer.ofRange(start, end));
+            size += end - start;
+            return;
+        }
+
+        Container container = containers[index];
+        int before = container.cardinality();
+
+        container = container.addRange(start, end);
+        containers[index] = container;
+
+        size += container.cardinality() - before;
+    }
+
+    private void insertContainer(int index, char key, Container container)
+    {
+        ensureContainerCapacity(containerCount + 1);
+
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+
+        keys[index] = key;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    private void removeContainer(int index)
+    {
+        System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+
+        containerCount--;
+        containers[containerCount] = null;
+    }
+
+    /**
+     * Adds a container after all of the existing ones. Used when building results in key order.
+     */
+    private void append(char key, Container container)
+    {
+        if (container.cardinality() == 0)
+        {
+            return;
+        }
+
+        ensureContainerCapacity(containerCount + 1);
+
+        keys[containerCount] = key;
+        containers[containerCount] = container;
+        containerCount++;
+        size += container.cardinality();
+    }
+
+    private void ensureContainerCapacity(int minCapacity)
+    {
+        if (minCapacity > keys.length)
+        {
+            int newCapacity = Math.max(minCapacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+    }
+
+    private void replaceWith(IntSet other)
+    {
+        this.keys = other.keys;
+        this.containers = other.containers;
+        this.containerCount = other.containerCount;
+        this.size = other.size;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+/**
+ * Computes the intersection of several collections by probing the smallest one against the rest.
+ * <p>
+ * The cost of an intersection is driven by the smallest input, so rather than copying the first
+ * collection and calling {@link Set#retainAll(Collection)} against the others, the inputs are ordered
+ * smallest-first, and each element of the smallest is checked against every other input, stopping at
+ * the first one that does not contain it. Non-{@link Set} inputs, whose {@code contains} is a linear scan,
+ * are only hashed into a {@link HashSet} when there are enough probes for that to pay off.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class Intersections
+{
+
+    /**
+     * Hashing a collection costs roughly this many linear scans of it.
+     * With fewer probes than this, scanning is cheaper than building a {@link HashSet}.
+     */
+    static final int PROBES_WORTH_HASHING = 4;
+
+    Intersections() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static <E> Set<E> intersectionOf(Collection<E> first, Collection<E>[] rest)
+    {
+        if (first == null || first.isEmpty())
+        {
+            return Sets.create();
+        }
+
+        List<Collection<E>> inputs = new ArrayList<>(1 + (rest == null ? 0 : rest.length));
+        inputs.add(first);
+
+        if (rest != null)
+        {
+            for (Collection<E> collection : rest)
+            {
+                //The intersection with an empty (or missing) collection is always empty
+                if (collection == null || collection.isEmpty())
+                {
+                    return Sets.create();
+                }
+
+                inputs.add(collection);
+            }
+        }
+
+        //Sets answer contains() in constant time, so prefer them when sizes tie
+        inputs.sort(Comparator.<Collection<E>>comparingInt(Collection::size)
+                              .thenComparing(collection -> collection instanceof Set ? 0 : 1));
+
+        Collection<E> smallest = inputs.get(0);
+        int probes = smallest.size();
+
+        List<Collection<?>> filters = new ArrayList<>(inputs.size() - 1);
+        for (int i = 1; i < inputs.size(); i++)
+        {
+            filters.add(asProbe(inputs.get(i), probes));
+        }
+
+        Set<E> intersection = new HashSet<>(capacityFor(probes));
+
+        for (E element : smallest)
+        {
+            if (containedInAll(element, filters))
+            {
+                intersection.add(element);
+            }
+        }
+
+        return intersection;
+    }
+
+    private static boolean containedInAll(Object element, List<Collection<?>> filters)
+    {
+        for (Collection<?> filter : filters)
+        {
+            if (!filter.contains(element))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Collection<?> asProbe(Collection<?> collection, int probes)
+    {
+        if (collection instanceof Set || probes < PROBES_WORTH_HASHING)
+        {
+            return collection;
+        }
+
+        return new HashSet<>(collection);
+    }
+
+    /**
+     * Sizes a {@link HashSet} so that it can hold {@code expectedSize} elements without rehashing.
+     */
+    private static int capacityFor(int expectedSize)
+    {
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(expectedSize / 0.75));
+    }
+}
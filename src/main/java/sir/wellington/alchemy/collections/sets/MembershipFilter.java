@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.Collection;
+
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+
+/**
+ * A compact, probabilistic summary of a set, which answers whether an element <i>might</i> be in it.
+ * <p>
+ * A filter never answers {@code false} for an element that was added to it, but may answer {@code true}
+ * for one that was not, at about its {@linkplain #expectedFalsePositiveRate() false positive rate}.
+ * This makes it a cheap check to run before a more expensive lookup: {@code false} means the lookup can be skipped.
+ * <p>
+ * Elements are hashed with a function chosen when the filter is created; by default, a 64-bit hash of the contents
+ * of strings, UUIDs, and boxed primitives, and a mix of the {@link Object#hashCode()} of anything else. A filter only stores hashes, never the elements themselves, so it cannot be iterated.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see BloomFilter
+ * @see CuckooFilter
+ */
+public interface MembershipFilter<E>
+{
+
+    /**
+     * @param element
+     * @return {@code false} if the element has definitely not been added; {@code true} if it probably has.
+     */
+    boolean mightContain(@Optional E element);
+
+    /**
+     * @param element
+     * @return Whether the filter changed as a result.
+     * @throws IllegalArgumentException If {@code element} is null.
+     */
+    boolean add(@Required E element) throws IllegalArgumentException;
+
+    /**
+     * @param elements
+     * @return Whether the filter changed as a result.
+     * @throws IllegalArgumentException If {@code elements} is null, or holds a {@code null} element.
+     */
+    default boolean addAll(@Required Collection<? extends E> elements) throws IllegalArgumentException
+    {
+        if (elements == null)
+        {
+            throw new IllegalArgumentException("elements cannot be null");
+        }
+
+        boolean changed = false;
+
+        for (E element : elements)
+        {
+            changed |= add(element);
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return The rate of false positives to expect, given the elements added so far.
+     */
+    double expectedFalsePositiveRate();
+
+    /**
+     * @return Whether the filter may be updated and queried by several threads at once.
+     */
+    boolean isConcurrent();
+
+    /**
+     * @return A compact copy of the filter, which the {@code fromBytes} method of its class reads back.
+     */
+    byte[] toBytes();
+}
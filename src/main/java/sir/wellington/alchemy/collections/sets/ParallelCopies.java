@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import sir.wellington.alchemy.collections.lists.Forking;
+import tech.sirwellington.alchemy.annotations.access.Internal;
+import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
+
+import static sir.wellington.alchemy.collections.lists.Forking.PARALLEL_THRESHOLD;
+
+/**
+ * Copies a collection into a concurrent set, with the threads of a fork-join pool each adding a share of its elements.
+ * <p>
+ * The elements are split with the collection's {@link Spliterator}, so how evenly the work is shared depends on how
+ * well it splits; array-backed lists and hash-based sets split evenly.
+ *
+ * @author SirWellington
+ */
+@Internal
+@NonInstantiable
+final class ParallelCopies
+{
+
+    ParallelCopies() throws IllegalAccessException
+    {
+        throw new IllegalAccessException("cannot instantiate");
+    }
+
+    static <E> Set<E> copyOf(Collection<E> collection, ForkJoinPool pool)
+    {
+        Set<E> result = ConcurrentHashMap.newKeySet(Math.max(16, collection.size()));
+        AddTask<E> task = new AddTask<>(collection.spliterator(), result);
+
+        if (collection.size() < PARALLEL_THRESHOLD)
+        {
+            task.addAll(task.elements);
+        }
+        else
+        {
+            Forking.run(pool, task);
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds a range of elements to the set, splitting the range in half until it is small enough to add directly.
+     */
+    private static final class AddTask<E> extends RecursiveAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<E> elements;
+        private final Set<E> result;
+
+        private AddTask(Spliterator<E> elements, Set<E> result)
+        {
+            this.elements = elements;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute()
+        {
+            Spliterator<E> prefix;
+            List<AddTask<E>> forked = new ArrayList<>();
+
+            while (elements.estimateSize() > PARALLEL_THRESHOLD && (prefix = elements.trySplit()) != null)
+            {
+                AddTask<E> task = new AddTask<>(prefix, result);
+                task.fork();
+                forked.add(task);
+            }
+
+            addAll(elements);
+
+            for (AddTask<E> task : forked)
+            {
+                task.join();
+            }
+        }
+
+        private void addAll(Spliterator<E> elements)
+        {
+            elements.forEachRemaining(element ->
+            {
+                if (element == null)
+                {
+                    throw new IllegalArgumentException("a concurrent set cannot hold null elements");
+                }
+
+                result.add(element);
+            });
+        }
+    }
+}
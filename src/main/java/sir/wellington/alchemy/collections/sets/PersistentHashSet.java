@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import sir.wellington.alchemy.collections.maps.PersistentHashMap;
+import tech.sirwellington.alchemy.annotations.arguments.Optional;
+import tech.sirwellington.alchemy.annotations.arguments.Required;
+import tech.sirwellington.alchemy.annotations.concurrency.Immutable;
+import tech.sirwellington.alchemy.annotations.concurrency.ThreadUnsafe;
+
+import static tech.sirwellington.alchemy.arguments.Arguments.*;
+import static tech.sirwellington.alchemy.arguments.assertions.Assertions.notNull;
+
+/**
+ * An immutable {@link Set} whose updates return a new version, sharing all but {@code O(log32 n)} of its structure
+ * with the old one.
+ * <p>
+ * The elements are the keys of a {@link PersistentHashMap}, so the set shares its hash array mapped trie, and its
+ * {@link Transient} mode for batches of updates.
+ * <p>
+ * {@code null} is allowed. The {@link Set} methods that would change the set throw an {@link UnsupportedOperationException}.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Sets#persistentCopyOf(Collection)
+ */
+@Immutable
+public final class PersistentHashSet<E> extends AbstractSet<E>
+{
+
+    private static final PersistentHashSet<Object> EMPTY = new PersistentHashSet<>(PersistentHashMap.empty());
+
+    private final PersistentHashMap<E, Boolean> map;
+
+    private PersistentHashSet(PersistentHashMap<E, Boolean> map)
+    {
+        this.map = map;
+    }
+
+    /**
+     * @param <E>
+     * @return The shared empty set.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentHashSet<E> empty()
+    {
+        return (PersistentHashSet<E>) EMPTY;
+    }
+
+    /**
+     * Copies the elements of the collection. Copying a {@code PersistentHashSet} returns it as-is.
+     *
+     * @param <E>
+     * @param collection A {@code null} collection is treated as empty.
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentHashSet<E> copyOf(@Optional Collection<? extends E> collection)
+    {
+        if (collection instanceof PersistentHashSet)
+        {
+            return (PersistentHashSet<E>) collection;
+        }
+
+        if (collection == null || collection.isEmpty())
+        {
+            return empty();
+        }
+
+        return PersistentHashSet.<E>empty().asTransient().addAll(collection).persistent();
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> PersistentHashSet<E> of(@Optional E... elements)
+    {
+        return elements == null ? empty() : copyOf(Arrays.asList(elements));
+    }
+
+    @Override
+    public boolean contains(Object object)
+    {
+        return map.containsKey(object);
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public int size()
+    {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return map.isEmpty();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return map.keySet().hashCode();
+    }
+
+    //==============================================================
+    // Versions
+    //==============================================================
+
+    /**
+     * @param element
+     * @return A version of this set that contains {@code element}; this set itself if it already does.
+     */
+    public PersistentHashSet<E> plus(@Optional E element)
+    {
+        return versionOf(map.plus(element, Boolean.TRUE));
+    }
+
+    /**
+     * @param collection
+     * @return A version of this set that also contains the elements of {@code collection}.
+     */
+    public PersistentHashSet<E> plusAll(@Required Collection<? extends E> collection)
+    {
+        checkThat(collection).usingMessage("collection cannot be null").is(notNull());
+
+        if (collection.isEmpty())
+        {
+            return this;
+        }
+
+        return asTransient().addAll(collection).persistent();
+    }
+
+    /**
+     * @param element
+     * @return A version of this set without {@code element}; this set itself if it does not contain it.
+     */
+    public PersistentHashSet<E> minus(@Optional Object element)
+    {
+        return versionOf(map.minus(element));
+    }
+
+    /**
+     * Starts a batch of updates, based on this set, which remains as it is.
+     *
+     * @return
+     */
+    public Transient<E> asTransient()
+    {
+        return new Transient<>(map.asTransient());
+    }
+
+    private PersistentHashSet<E> versionOf(PersistentHashMap<E, Boolean> updated)
+    {
+        if (updated == map)
+        {
+            return this;
+        }
+
+        return updated.isEmpty() ? empty() : new PersistentHashSet<>(updated);
+    }
+
+    /**
+     * A mutable version of a {@link PersistentHashSet}, for making many updates in a row.
+     * Once {@link #persistent()} has been called, any further use throws an {@link IllegalStateException}.
+     *
+     * @param <E>
+     * @see PersistentHashMap.Transient
+     */
+    @ThreadUnsafe
+    public static final class Transient<E>
+    {
+
+        private final PersistentHashMap.Transient<E, Boolean> map;
+
+        private Transient(PersistentHashMap.Transient<E, Boolean> map)
+        {
+            this.map = map;
+        }
+
+        public Transient<E> add(@Optional E element)
+        {
+            map.put(element, Boolean.TRUE);
+            return this;
+        }
+
+        public Transient<E> addAll(@Required Collection<? extends E> collection)
+        {
+            checkThat(collection).usingMessage("collection cannot be null").is(notNull());
+
+            for (E element : collection)
+            {
+                map.put(element, Boolean.TRUE);
+            }
+
+            return this;
+        }
+
+        public Transient<E> remove(@Optional Object element)
+        {
+            map.remove(element);
+            return this;
+        }
+
+        public boolean contains(@Optional Object element)
+        {
+            return map.containsKey(element);
+        }
+
+        public int size()
+        {
+            return map.size();
+        }
+
+        /**
+         * Ends the batch of updates.
+         *
+         * @return A set with every update made so far.
+         * @throws IllegalStateException If the transient has already been made persistent.
+         */
+        public PersistentHashSet<E> persistent() throws IllegalStateException
+        {
+            PersistentHashMap<E, Boolean> result = map.persistent();
+            return result.isEmpty() ? empty() : new PersistentHashSet<>(result);
+        }
+    }
+
+    //==============================================================
+    // Mutators
+    //==============================================================
+
+    @Override
+    public boolean add(E element)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean remove(Object object)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter)
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear()
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException("PersistentHashSets cannot be modified; use plus() and minus() for new versions");
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import tech.sirwellington.alchemy.annotations.access.Internal;
+
+/**
+ * Holds values as a sorted list of runs, each stored as a {@code (start, length - 1)} pair.
+ * <p>
+ * Run containers are only created by {@link IntSet#runOptimize()}, for chunks made of long consecutive ranges.
+ * Modifying one converts it back into an array or bitmap container first.
+ *
+ * @author SirWellington
+ */
+@Internal
+final class RunContainer extends Container
+{
+
+    private final char[] runs;
+    private final int numberOfRuns;
+    private final int cardinality;
+
+    private RunContainer(char[] runs, int numberOfRuns, int cardinality)
+    {
+        this.runs = runs;
+        this.numberOfRuns = numberOfRuns;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * @return A container holding every value from {@code start} up to, but not including, {@code end}, as one run.
+     */
+    static RunContainer ofRange(int start, int end)
+    {
+        return new RunContainer(new char[] { (char) start, (char) (end - start - 1) }, 1, end - start);
+    }
+
+    static int sizeInBytes(int numberOfRuns)
+    {
+        return 2 + 4 * numberOfRuns;
+    }
+
+    static RunContainer from(Container container, int numberOfRuns)
+    {
+        char[] runs = new char[2 * numberOfRuns];
+        int run = -1;
+        int previous = -2;
+
+        PrimitiveIterator.OfInt iterator = container.iterator(0);
+        while (iterator.hasNext())
+        {
+            int value = iterator.nextInt();
+
+            if (value == previous + 1)
+            {
+                runs[2 * run + 1]++;
+            }
+            else
+            {
+                run++;
+                runs[2 * run] = (char) value;
+                runs[2 * run + 1] = 0;
+            }
+
+            previous = value;
+        }
+
+        return new RunContainer(runs, numberOfRuns, container.cardinality());
+    }
+
+    @Override
+    int cardinality()
+    {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+        int run = runStartingAtOrBefore(value);
+
+        return run >= 0 && value - runs[2 * run] <= runs[2 * run + 1];
+    }
+
+    @Override
+    Container add(char value)
+    {
+        return contains(value) ? this : toEfficientContainer().add(value);
+    }
+
+    @Override
+    Container remove(char value)
+    {
+        return contains(value) ? toEfficientContainer().remove(value) : this;
+    }
+
+    @Override
+    Container copy()
+    {
+        //Run containers are never modified in place
+        return this;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator(final int highBits, int from)
+    {
+        int first = runStartingAtOrBefore(from);
+
+        //Start partway through that run if it reaches the value, otherwise at the next one
+        boolean inside = first >= 0 && from - runs[2 * first] <= runs[2 * first + 1];
+
+        return new PrimitiveIterator.OfInt()
+        {
+            private int run = inside ? first : first + 1;
+            private int offset = inside ? from - runs[2 * first] : 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return run < numberOfRuns;
+            }
+
+            @Override
+            public int nextInt()
+            {
+                if (run >= numberOfRuns)
+                {
+                    throw new NoSuchElementException();
+                }
+
+                int value = runs[2 * run] + offset;
+
+                if (offset == runs[2 * run + 1])
+                {
+                    run++;
+                    offset = 0;
+                }
+                else
+                {
+                    offset++;
+                }
+
+                return highBits | value;
+            }
+        };
+    }
+
+    @Override
+    int sizeInBytes()
+    {
+        return sizeInBytes(numberOfRuns);
+    }
+
+    @Override
+    int numberOfRuns()
+    {
+        return numberOfRuns;
+    }
+
+    /**
+     * @return The index of the last run that starts at or before {@code value}, or {@code -1} if there is none.
+     */
+    private int runStartingAtOrBefore(int value)
+    {
+        int low = 0;
+        int high = numberOfRuns - 1;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+
+            if (runs[2 * middle] <= value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        return high;
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+/**
+ * A read-only, lazily computed {@link Set} whose contents are derived from other sets.
+ * <p>
+ * A view copies nothing: {@link #contains(Object)} and iteration consult the underlying
+ * sets on demand, so the view always reflects their current contents. Operations that need
+ * every element, like {@link #size()}, walk the underlying sets each time they are called.
+ * When the result is needed more than once, {@link #materialize()} it.
+ * <p>
+ * The underlying sets must not be modified while a view is being iterated.
+ *
+ * @param <E> The type of elements.
+ * @author SirWellington
+ * @see Sets#unionView(Set, Set...)
+ * @see Sets#intersectionView(Set, Set...)
+ * @see Sets#differenceView(Set, Set...)
+ */
+public abstract class SetView<E> extends AbstractSet<E>
+{
+
+    SetView()
+    {
+    }
+
+    /**
+     * Copies the current contents of this view into a new, mutable {@link Set}.
+     *
+     * @return
+     */
+    public Set<E> materialize()
+    {
+        Set<E> result = Sets.create();
+
+        for (E element : this)
+        {
+            result.add(element);
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts the elements by walking the underlying sets, which takes linear time.
+     */
+    @Override
+    public int size()
+    {
+        int size = 0;
+
+        for (Iterator<E> iterator = iterator(); iterator.hasNext(); iterator.next())
+        {
+            size++;
+        }
+
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public final boolean add(E element)
+    {
+        throw new UnsupportedOperationException("SetViews are read-only");
+    }
+
+    @Override
+    public final boolean remove(Object object)
+    {
+        throw new UnsupportedOperationException("SetViews are read-only");
+    }
+
+    @Override
+    public final boolean addAll(Collection<? extends E> collection)
+    {
+        throw new UnsupportedOperationException("SetViews are read-only");
+    }
+
+    @Override
+    public final boolean removeAll(Collection<?> collection)
+    {
+        throw new UnsupportedOperationException("SetViews are read-only");
+    }
+
+    @Override
+    public final boolean retainAll(Collection<?> collection)
+    {
+        throw new UnsupportedOperationException("SetViews are read-only");
+    }
+
+    @Override
+    public final void clear()
+    {
+        throw new UnsupportedOperationException("SetViews are read-only");
+    }
+
+    //==============================================================
+    // Views
+    //==============================================================
+
+    /**
+     * Contains every element that is in any of the sets.
+     */
+    static final class Union<E> extends SetView<E>
+    {
+
+        private final List<Set<E>> sets;
+
+        Union(List<Set<E>> sets)
+        {
+            this.sets = sets;
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            for (Set<E> set : sets)
+            {
+                if (set.contains(object))
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            for (Set<E> set : sets)
+            {
+                if (!set.isEmpty())
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Iterates each set in turn, skipping elements already seen in an earlier set.
+         */
+        @Override
+        public Iterator<E> iterator()
+        {
+            return new FilteringIterator<E>()
+            {
+                private int current = -1;
+                private Iterator<E> source = Collections.emptyIterator();
+
+                @Override
+                Iterator<E> source()
+                {
+                    while (!source.hasNext() && current + 1 < sets.size())
+                    {
+                        current++;
+                        source = sets.get(current).iterator();
+                    }
+
+                    return source;
+                }
+
+                @Override
+                boolean accept(E element)
+                {
+                    for (int i = 0; i < current; i++)
+                    {
+                        if (sets.get(i).contains(element))
+                        {
+                            return false;
+                        }
+                    }
+
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Contains every element that is in all of the sets.
+     */
+    static final class Intersection<E> extends SetView<E>
+    {
+
+        private final List<Set<E>> sets;
+
+        Intersection(List<Set<E>> sets)
+        {
+            this.sets = sets;
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            for (Set<E> set : sets)
+            {
+                if (!set.contains(object))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Iterates the smallest set, keeping the elements that every other set contains.
+         */
+        @Override
+        public Iterator<E> iterator()
+        {
+            Set<E> smallest = sets.get(0);
+
+            for (Set<E> set : sets)
+            {
+                if (set.size() < smallest.size())
+                {
+                    smallest = set;
+                }
+            }
+
+            final Set<E> probe = smallest;
+            final Iterator<E> source = smallest.iterator();
+
+            return new FilteringIterator<E>()
+            {
+                @Override
+                Iterator<E> source()
+                {
+                    return source;
+                }
+
+                @Override
+                boolean accept(E element)
+                {
+                    for (Set<E> set : sets)
+                    {
+                        if (set != probe && !set.contains(element))
+                        {
+                            return false;
+                        }
+                    }
+
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Contains every element of the first set that is in none of the others.
+     */
+    static final class Difference<E> extends SetView<E>
+    {
+
+        private final Set<E> first;
+        private final List<Set<E>> others;
+
+        Difference(Set<E> first, List<Set<E>> others)
+        {
+            this.first = first;
+            this.others = others;
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            if (!first.contains(object))
+            {
+                return false;
+            }
+
+            for (Set<E> set : others)
+            {
+                if (set.contains(object))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public Iterator<E> iterator()
+        {
+            final Iterator<E> source = first.iterator();
+
+            return new FilteringIterator<E>()
+            {
+                @Override
+                Iterator<E> source()
+                {
+                    return source;
+                }
+
+                @Override
+                boolean accept(E element)
+                {
+                    for (Set<E> set : others)
+                    {
+                        if (set.contains(element))
+                        {
+                            return false;
+                        }
+                    }
+
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Yields the elements of a source iterator that pass a filter, looking one element ahead.
+     */
+    private static abstract class FilteringIterator<E> implements Iterator<E>
+    {
+
+        private E next;
+        private boolean hasNext;
+
+        abstract Iterator<E> source();
+
+        abstract boolean accept(E element);
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!hasNext)
+            {
+                Iterator<E> source = source();
+
+                if (!source.hasNext())
+                {
+                    return false;
+                }
+
+                E candidate = source.next();
+
+                if (accept(candidate))
+                {
+                    next = candidate;
+                    hasNext = true;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public E next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            E result = next;
+            next = null;
+            hasNext = false;
+            return result;
+        }
+    }
+}
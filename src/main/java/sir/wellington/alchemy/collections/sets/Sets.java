@@ -16,10 +16,12 @@
 package sir.wellington.alchemy.collections.sets;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sir.wellington.alchemy.collections.lists.Lists;
+import sir.wellington.alchemy.collections.lists.Sampler;
 import tech.sirwellington.alchemy.annotations.access.NonInstantiable;
 import tech.sirwellington.alchemy.annotations.arguments.Optional;
 import tech.sirwellington.alchemy.annotations.arguments.*;
@@ -73,8 +75,33 @@ public final class Sets
      */
     public static <E> Set<E> emptySet()
     {
-        Set<E> set = create();
-        return Collections.unmodifiableSet(set);
+        return ImmutableSet.empty();
+    }
+
+    /**
+     * Copies the distinct elements of the collection into an {@link ImmutableSet},
+     * which later changes to {@code collection} do not affect.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     */
+    public static <E> Set<E> immutableCopyOf(@Optional Collection<E> collection)
+    {
+        return ImmutableSet.copyOf(collection);
+    }
+
+    /**
+     * Copies the distinct elements of the collection into a {@link PersistentHashSet}, whose updates return
+     * new versions that share most of their structure, instead of copying every element.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     */
+    public static <E> PersistentHashSet<E> persistentCopyOf(@Optional Collection<E> collection)
+    {
+        return PersistentHashSet.copyOf(collection);
     }
 
     public static <E> Set<E> nullToEmpty(Set<E> set)
@@ -107,6 +134,42 @@ public final class Sets
         return set;
     }
 
+    /**
+     * Copies the collection in parallel on the {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * @param <E>
+     * @param collection
+     * @return
+     * @throws IllegalArgumentException
+     * @see #parallelCopyOf(Collection, ForkJoinPool)
+     */
+    public static <E> Set<E> parallelCopyOf(@Optional Collection<E> collection) throws IllegalArgumentException
+    {
+        return parallelCopyOf(collection, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Copies the distinct elements of the collection into a presized concurrent set, with the threads of {@code pool}
+     * each adding a share of them. The result is backed by a {@link java.util.concurrent.ConcurrentHashMap}, so it
+     * cannot hold {@code null}, and is safe to keep updating from many threads.
+     * Below 8192 elements, the collection is copied on the calling thread.
+     *
+     * @param <E>
+     * @param collection
+     * @param pool       The pool to copy in.
+     * @return
+     * @throws IllegalArgumentException If {@code pool} is null, or {@code collection} holds {@code null}.
+     * @see Lists#parallelDistinct(Collection, ForkJoinPool)
+     */
+    public static <E> Set<E> parallelCopyOf(@Optional Collection<E> collection, @Required ForkJoinPool pool) throws IllegalArgumentException
+    {
+        checkThat(pool)
+            .usingMessage("pool cannot be null")
+            .is(Assertions.notNull());
+
+        return ParallelCopies.copyOf(collection == null ? Collections.<E>emptyList() : collection, pool);
+    }
+
     public static boolean isEmpty(Set<?> set)
     {
         return Lists.isEmpty(set);
@@ -116,41 +179,161 @@ public final class Sets
     {
         checkThat(set).is(CollectionAssertions.<E>nonEmptySet());
 
-        List<E> list = Lists.copy(set);
-        return Lists.oneOf(list);
+        //Walks to a random position, rather than copying the Set into a List
+        return Sampler.random().oneOf(set);
     }
 
     /**
-     * Creates an Intersection of all the specified Sets.
+     * Creates a {@link BloomFilter}, which tells cheaply whether an element has definitely not been added.
      *
      * @param <E>
-     * @param first
-     * @param rest
+     * @param expectedElements  How many elements the filter will hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many; between 0 and 1, exclusive.
      * @return
+     * @throws IllegalArgumentException
+     * @see BloomFilter#createConcurrent(long, double)
      */
-    public static <E> Set<E> intersectionOf(@Optional Collection<E> first, Collection<E>... rest)
+    public static <E> BloomFilter<E> createBloomFilter(long expectedElements, double falsePositiveRate) throws IllegalArgumentException
+    {
+        return BloomFilter.create(expectedElements, falsePositiveRate);
+    }
+
+    /**
+     * Creates a {@link BloomFilter} sized for the elements of the collection, and adds them to it.
+     *
+     * @param <E>
+     * @param collection        A {@code null} collection is treated as empty.
+     * @param falsePositiveRate Between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException If {@code collection} holds a {@code null} element.
+     */
+    public static <E> BloomFilter<E> bloomFilterOf(@Optional Collection<E> collection, double falsePositiveRate) throws IllegalArgumentException
+    {
+        Collection<E> elements = collection == null ? Collections.<E>emptyList() : collection;
+
+        BloomFilter<E> filter = BloomFilter.create(elements.size(), falsePositiveRate);
+        filter.addAll(elements);
+        return filter;
+    }
+
+    /**
+     * Creates a {@link CuckooFilter}, which tells cheaply whether an element has definitely not been added,
+     * and whose elements can also be removed.
+     *
+     * @param <E>
+     * @param expectedElements  How many elements the filter will hold.
+     * @param falsePositiveRate The rate of false positives once it holds that many; between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException
+     * @see CuckooFilter#createConcurrent(long, double)
+     */
+    public static <E> CuckooFilter<E> createCuckooFilter(long expectedElements, double falsePositiveRate) throws IllegalArgumentException
+    {
+        return CuckooFilter.create(expectedElements, falsePositiveRate);
+    }
+
+    /**
+     * Creates a {@link CuckooFilter} sized for the distinct elements of the collection, and adds each of them once.
+     * Should they not all fit, which can happen when the filter is small, it is created again twice as large.
+     *
+     * @param <E>
+     * @param collection        A {@code null} collection is treated as empty.
+     * @param falsePositiveRate Between 0 and 1, exclusive.
+     * @return
+     * @throws IllegalArgumentException If {@code collection} holds a {@code null} element.
+     */
+    public static <E> CuckooFilter<E> cuckooFilterOf(@Optional Collection<E> collection, double falsePositiveRate) throws IllegalArgumentException
     {
-        Set<E> intersection = Sets.copyOf(first);
+        Collection<E> elements = collection == null ? Collections.<E>emptySet() : collection;
 
-        //If the first element is the empty set,
-        //The result will always be the empty set.
-        if (isEmpty(intersection))
+        if (!(elements instanceof Set))
         {
-            return intersection;
+            elements = new LinkedHashSet<>(elements);
         }
+        long expectedElements = elements.size();
 
-        for (Collection<E> set : rest)
+        while (true)
         {
-            intersection.retainAll(set);
+            CuckooFilter<E> filter = CuckooFilter.create(expectedElements, falsePositiveRate);
+            boolean addedAll = true;
 
-            if (isEmpty(intersection))
+            for (E element : elements)
             {
-                //No need to keep going if the intersection is empty.
-                break;
+                if (!filter.add(element))
+                {
+                    addedAll = false;
+                    break;
+                }
             }
+
+            if (addedAll)
+            {
+                return filter;
+            }
+
+            expectedElements *= 2;
         }
+    }
 
-        return intersection;
+    /**
+     * Creates a {@link HyperLogLog} sketch, which estimates the number of distinct elements added to it,
+     * without storing them.
+     *
+     * @param <E>
+     * @return
+     */
+    public static <E> HyperLogLog<E> createHyperLogLog()
+    {
+        return HyperLogLog.create();
+    }
+
+    /**
+     * @param <E>
+     * @param precision Between {@link HyperLogLog#MIN_PRECISION} and {@link HyperLogLog#MAX_PRECISION}.
+     * @return
+     * @throws IllegalArgumentException
+     * @see #createHyperLogLog()
+     */
+    public static <E> HyperLogLog<E> createHyperLogLog(int precision) throws IllegalArgumentException
+    {
+        return HyperLogLog.create(precision);
+    }
+
+    /**
+     * Estimates the distinct elements of a collection, like {@code copyOf(collection).size()} does exactly.
+     *
+     * @param <E>
+     * @param collection A {@code null} collection is treated as empty.
+     * @return
+     * @throws IllegalArgumentException If {@code collection} holds a {@code null} element.
+     */
+    public static <E> HyperLogLog<E> hyperLogLogOf(@Optional Collection<E> collection) throws IllegalArgumentException
+    {
+        HyperLogLog<E> sketch = HyperLogLog.create();
+
+        if (collection != null)
+        {
+            sketch.addAll(collection);
+        }
+
+        return sketch;
+    }
+
+    /**
+     * Creates an Intersection of all the specified Sets.
+     * <p>
+     * The smallest collection is probed against the others, so the cost depends on the smallest input,
+     * not on the first. Collections that are not {@link Set Sets} are hashed first, but only when there are
+     * enough elements to probe for that to pay off. A {@code null} collection is treated as empty.
+     *
+     * @param <E>
+     * @param first
+     * @param rest
+     * @return
+     */
+    public static <E> Set<E> intersectionOf(@Optional Collection<E> first, Collection<E>... rest)
+    {
+        return Intersections.intersectionOf(first, rest);
     }
 
     /**
@@ -173,6 +356,213 @@ public final class Sets
         return union;
     }
 
+    /**
+     * Creates a lazy, read-only view of the Union of the specified Sets. Nothing is copied;
+     * the view reflects the current contents of the underlying sets.
+     * A {@code null} set is treated as empty.
+     *
+     * @param <E>
+     * @param first
+     * @param rest
+     * @return
+     * @see SetView#materialize()
+     */
+    public static <E> SetView<E> unionView(@Optional Set<E> first, @Optional Set<E>... rest)
+    {
+        return new SetView.Union<>(viewOf(first, rest));
+    }
+
+    /**
+     * Creates a lazy, read-only view of the Intersection of the specified Sets. Iteration walks
+     * the smallest set and checks each element against the others.
+     * A {@code null} set is treated as empty.
+     *
+     * @param <E>
+     * @param first
+     * @param rest
+     * @return
+     * @see SetView#materialize()
+     */
+    public static <E> SetView<E> intersectionView(@Optional Set<E> first, @Optional Set<E>... rest)
+    {
+        return new SetView.Intersection<>(viewOf(first, rest));
+    }
+
+    /**
+     * Creates a lazy, read-only view of the elements in {@code first} that are in none of the
+     * {@code rest}. A {@code null} set is treated as empty.
+     *
+     * @param <E>
+     * @param first
+     * @param rest
+     * @return
+     * @see SetView#materialize()
+     */
+    public static <E> SetView<E> differenceView(@Optional Set<E> first, @Optional Set<E>... rest)
+    {
+        List<Set<E>> sets = viewOf(first, rest);
+        return new SetView.Difference<>(sets.get(0), sets.subList(1, sets.size()));
+    }
+
+    private static <E> List<Set<E>> viewOf(Set<E> first, Set<E>[] rest)
+    {
+        List<Set<E>> sets = new ArrayList<>(1 + (rest == null ? 0 : rest.length));
+        sets.add(nullToEmpty(first));
+
+        if (rest != null)
+        {
+            for (Set<E> set : rest)
+            {
+                sets.add(nullToEmpty(set));
+            }
+        }
+
+        return sets;
+    }
+
+    /**
+     * Creates an Intersection of all the specified {@link IntSet IntSets}, 64 values at a time
+     * wherever the sets are dense.
+     *
+     * @param first
+     * @param second
+     * @param rest
+     * @return
+     */
+    public static IntSet intersectionOf(@Optional IntSet first, @Optional IntSet second, @Optional IntSet... rest)
+    {
+        IntSet intersection = IntSet.and(orEmpty(first), orEmpty(second));
+
+        if (rest != null)
+        {
+            for (IntSet set : rest)
+            {
+                if (isEmpty(intersection))
+                {
+                    //No need to keep going if the intersection is empty.
+                    break;
+                }
+
+                intersection = IntSet.and(intersection, orEmpty(set));
+            }
+        }
+
+        return intersection;
+    }
+
+    /**
+     * Creates a Union of all the specified {@link IntSet IntSets}.
+     *
+     * @param first
+     * @param second
+     * @param rest
+     * @return
+     */
+    public static IntSet unionOf(@Optional IntSet first, @Optional IntSet second, @Optional IntSet... rest)
+    {
+        IntSet union = IntSet.or(orEmpty(first), orEmpty(second));
+
+        if (rest != null)
+        {
+            for (IntSet set : rest)
+            {
+                union = IntSet.or(union, orEmpty(set));
+            }
+        }
+
+        return union;
+    }
+
+    /**
+     * Combines {@link HyperLogLog} sketches into a new one, which estimates the size of the union of their elements,
+     * at the lowest of their precisions. The sketches themselves are left as they are.
+     *
+     * @param <E>
+     * @param first
+     * @param second
+     * @param rest   {@code null} sketches are skipped.
+     * @return
+     * @throws IllegalArgumentException If the sketches were made with different hashers.
+     */
+    @SafeVarargs
+    public static <E> HyperLogLog<E> unionOf(@Required HyperLogLog<E> first, @Optional HyperLogLog<E> second, @Optional HyperLogLog<E>... rest) throws IllegalArgumentException
+    {
+        checkThat(first).usingMessage("first sketch cannot be null").is(Assertions.notNull());
+
+        HyperLogLog<E> union = second == null ? first.copy() : first.union(second);
+
+        if (rest != null)
+        {
+            for (HyperLogLog<E> sketch : rest)
+            {
+                if (sketch != null)
+                {
+                    union = union.union(sketch);
+                }
+            }
+        }
+
+        return union;
+    }
+
+    /**
+     * Creates the Difference of the specified {@link IntSet IntSets}; that is, the values
+     * in {@code first} that are in none of the others.
+     *
+     * @param first
+     * @param second
+     * @param rest
+     * @return
+     */
+    public static IntSet differenceOf(@Optional IntSet first, @Optional IntSet second, @Optional IntSet... rest)
+    {
+        IntSet difference = IntSet.andNot(orEmpty(first), orEmpty(second));
+
+        if (rest != null)
+        {
+            for (IntSet set : rest)
+            {
+                if (isEmpty(difference))
+                {
+                    break;
+                }
+
+                difference = IntSet.andNot(difference, orEmpty(set));
+            }
+        }
+
+        return difference;
+    }
+
+    /**
+     * Creates the Symmetric Difference (XOR) of the specified {@link IntSet IntSets}; that is,
+     * the values that appear in an odd number of the sets.
+     *
+     * @param first
+     * @param second
+     * @param rest
+     * @return
+     */
+    public static IntSet symmetricDifferenceOf(@Optional IntSet first, @Optional IntSet second, @Optional IntSet... rest)
+    {
+        IntSet result = IntSet.xor(orEmpty(first), orEmpty(second));
+
+        if (rest != null)
+        {
+            for (IntSet set : rest)
+            {
+                result = IntSet.xor(result, orEmpty(set));
+            }
+        }
+
+        return result;
+    }
+
+    private static IntSet orEmpty(IntSet set)
+    {
+        return set == null ? IntSet.create() : set;
+    }
+
     public static <E> boolean containTheSameElements(Collection<E> first, Collection<E>... rest)
     {
         Set<E> unionOf = intersectionOf(first, rest);
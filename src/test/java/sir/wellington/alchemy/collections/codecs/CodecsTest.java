@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.codecs;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.BinaryGenerators.binary;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.*;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class CodecsTest
+{
+
+    @Test
+    public void testIntegers()
+    {
+        Codec<Integer> codec = Codecs.integers();
+        assertThat(codec.fixedSize(), is(Integer.BYTES));
+
+        int value = one(integers(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertThat(roundTrip(codec, value), is(value));
+    }
+
+    @Test
+    public void testLongs()
+    {
+        Codec<Long> codec = Codecs.longs();
+        assertThat(codec.fixedSize(), is(Long.BYTES));
+
+        long value = one(anyLongs());
+        assertThat(roundTrip(codec, value), is(value));
+    }
+
+    @Test
+    public void testDoubles()
+    {
+        Codec<Double> codec = Codecs.doubles();
+        assertThat(codec.fixedSize(), is(Double.BYTES));
+
+        double value = one(doubles(-1_000_000, 1_000_000));
+        assertThat(roundTrip(codec, value), is(value));
+    }
+
+    @Test
+    public void testUuids()
+    {
+        Codec<UUID> codec = Codecs.uuids();
+        assertThat(codec.fixedSize(), is(2 * Long.BYTES));
+
+        UUID value = UUID.randomUUID();
+        assertThat(roundTrip(codec, value), is(value));
+    }
+
+    @Test
+    public void testStrings()
+    {
+        Codec<String> codec = Codecs.strings();
+        assertThat(codec.fixedSize(), is(Codec.VARIABLE_SIZE));
+
+        String value = one(strings());
+        assertThat(codec.sizeOf(value), is(value.getBytes(UTF_8).length));
+        assertThat(roundTrip(codec, value), is(value));
+
+        String ascii = one(alphanumericStrings());
+        assertThat(codec.sizeOf(ascii), is(ascii.length()));
+        assertThat(roundTrip(codec, ascii), is(ascii));
+    }
+
+    @DontRepeat
+    @Test
+    public void testStringsWithUnpairedSurrogate()
+    {
+        Codec<String> codec = Codecs.strings();
+
+        String value = "a\uD800b";
+        assertThat(codec.sizeOf(value), is(value.getBytes(UTF_8).length));
+        assertThat(roundTrip(codec, value), is("a?b"));
+    }
+
+    @DontRepeat
+    @Test
+    public void testStringsWithMultiByteCharacters()
+    {
+        Codec<String> codec = Codecs.strings();
+
+        String value = "caf\u00E9 \u4E2D\u6587 \uD83D\uDE00";
+        assertThat(codec.sizeOf(value), is(value.getBytes(UTF_8).length));
+        assertThat(roundTrip(codec, value), is(value));
+    }
+
+    @Test
+    public void testByteArrays()
+    {
+        Codec<byte[]> codec = Codecs.byteArrays();
+        assertThat(codec.fixedSize(), is(Codec.VARIABLE_SIZE));
+
+        byte[] value = one(binary(one(integers(1, 100))));
+        assertThat(codec.sizeOf(value), is(value.length));
+        assertThat(roundTrip(codec, value), is(value));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCannotInstantiate()
+    {
+        assertThrows(() -> new Codecs())
+            .isInstanceOf(IllegalAccessException.class);
+    }
+
+    private static <T> T roundTrip(Codec<T> codec, T value)
+    {
+        int size = codec.sizeOf(value);
+        int offset = one(integers(0, 16));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(offset + size + 16);
+        codec.write(value, buffer, offset);
+
+        //Writes are absolute, and leave the buffer's position alone
+        assertThat(buffer.position(), is(0));
+
+        return codec.read(buffer, offset, size);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.codecs;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class DirectMemoryTest
+{
+
+    private int chunkSize;
+
+    private DirectMemory instance;
+
+    @Before
+    public void setUp()
+    {
+        chunkSize = 1 << one(integers(6, 12));
+        instance = new DirectMemory(chunkSize);
+    }
+
+    @After
+    public void tearDown()
+    {
+        instance.close();
+    }
+
+    @DontRepeat
+    @Test
+    public void testConstructorWithBadChunkSize()
+    {
+        assertThrows(() -> new DirectMemory(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> new DirectMemory(-64)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> new DirectMemory(100)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> new DirectMemory(DirectMemory.MAX_CHUNK_SIZE << 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testAllocateNeverStraddlesChunks()
+    {
+        int allocations = one(integers(10, 200));
+
+        for (int i = 0; i < allocations; i++)
+        {
+            int size = one(integers(1, chunkSize));
+            long position = instance.allocate(size);
+
+            assertThat(instance.offsetOf(position) + size, lessThanOrEqualTo(chunkSize));
+            assertThat(instance.capacity(), greaterThanOrEqualTo(position + size));
+        }
+
+        assertThat(instance.allocated(), lessThanOrEqualTo(instance.capacity()));
+    }
+
+    @Test
+    public void testAllocateTooMuch()
+    {
+        assertThrows(() -> instance.allocate(chunkSize + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> instance.allocate(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        long intPosition = instance.allocate(Integer.BYTES);
+        long longPosition = instance.allocate(Long.BYTES);
+
+        int intValue = one(integers(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        long longValue = one(anyLongs());
+
+        instance.putInt(intPosition, intValue);
+        instance.putLong(longPosition, longValue);
+
+        assertThat(instance.getInt(intPosition), is(intValue));
+        assertThat(instance.getLong(longPosition), is(longValue));
+    }
+
+    @Test
+    public void testClear()
+    {
+        long position = 0;
+
+        for (int i = 0; i < 10; i++)
+        {
+            position = instance.allocate(chunkSize);
+        }
+
+        instance.putLong(0, 1L);
+        instance.putLong(position, 1L);
+        instance.clear();
+
+        assertThat(instance.allocated(), is(0L));
+        assertThat(instance.capacity(), is((long) chunkSize));
+        assertThat(instance.getLong(0), is(0L));
+    }
+
+    @Test
+    public void testClose()
+    {
+        instance.allocate(Long.BYTES);
+        instance.close();
+        assertThat(instance.isClosed(), is(true));
+
+        assertThrows(() -> instance.allocate(Long.BYTES)).isInstanceOf(IllegalStateException.class);
+        assertThrows(() -> instance.getLong(0)).isInstanceOf(IllegalStateException.class);
+
+        //Closing twice is harmless
+        instance.close();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class ConcatenatedListTest
+{
+
+    private AlchemyGenerator<String> generator;
+
+    private List<List<String>> segments;
+    private List<String> expected;
+
+    private ConcatenatedList<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphanumericStrings();
+
+        int count = integers(1, 30).get();
+        segments = new ArrayList<>(count);
+        expected = new ArrayList<>();
+
+        for (int i = 0; i < count; i++)
+        {
+            List<String> segment;
+
+            switch (i % 3)
+            {
+                case 0:
+                    segment = listOf(generator, integers(1, 50).get());
+                    break;
+                case 1:
+                    segment = new LinkedList<>(listOf(generator, integers(1, 50).get()));
+                    break;
+                default:
+                    segment = Lists.create();
+                    break;
+            }
+
+            segments.add(segment);
+            expected.addAll(segment);
+        }
+
+        segments.add(null);
+
+        instance = ConcatenatedList.of(segments);
+    }
+
+    @Test
+    public void testGet()
+    {
+        assertThat(instance.size(), is(expected.size()));
+
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertThat(instance.get(i), is(expected.get(i)));
+        }
+    }
+
+    @Test
+    public void testGetOutOfBounds()
+    {
+        assertThrows(() -> instance.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.get(expected.size())).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testIterator()
+    {
+        List<String> iterated = new ArrayList<>();
+        for (String element : instance)
+        {
+            iterated.add(element);
+        }
+
+        assertThat(iterated, is(expected));
+        assertThat(instance, is(expected));
+        assertThat(instance.hashCode(), is(expected.hashCode()));
+    }
+
+    @Test
+    public void testIteratorWhenExhausted()
+    {
+        Iterator<String> iterator = instance.iterator();
+        while (iterator.hasNext())
+        {
+            iterator.next();
+        }
+
+        assertThrows(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testForEach()
+    {
+        List<String> iterated = new ArrayList<>();
+        instance.forEach(iterated::add);
+
+        assertThat(iterated, is(expected));
+    }
+
+    @Test
+    public void testStream()
+    {
+        List<String> result = instance.stream().collect(Collectors.toList());
+        assertThat(result, is(expected));
+    }
+
+    @Test
+    public void testParallelStream()
+    {
+        List<String> result = instance.parallelStream().collect(Collectors.toList());
+        assertThat(result, is(expected));
+
+        long count = instance.parallelStream().filter(expected::contains).count();
+        assertThat(count, is((long) expected.size()));
+    }
+
+    @Test
+    public void testSpliteratorSplitsOnSegments()
+    {
+        Spliterator<String> spliterator = instance.spliterator();
+        assertThat(spliterator.estimateSize(), is((long) expected.size()));
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED), is(true));
+        assertThat(spliterator.hasCharacteristics(Spliterator.ORDERED), is(true));
+
+        Spliterator<String> prefix = spliterator.trySplit();
+
+        if (prefix != null)
+        {
+            assertThat(prefix.estimateSize() + spliterator.estimateSize(), is((long) expected.size()));
+
+            List<String> result = new ArrayList<>();
+            prefix.forEachRemaining(result::add);
+            spliterator.forEachRemaining(result::add);
+            assertThat(result, is(expected));
+        }
+    }
+
+    @Test
+    public void testSegmentCount()
+    {
+        long nonEmpty = segments.stream().filter(segment -> !Lists.isEmpty(segment)).count();
+        assertThat(instance.segmentCount(), is((int) nonEmpty));
+    }
+
+    @Test
+    public void testSubList()
+    {
+        int from = integers(0, expected.size()).get();
+        int to = integers(from, expected.size() + 1).get();
+
+        assertThat(instance.subList(from, to), is(expected.subList(from, to)));
+    }
+
+    @Test
+    public void testIsReadOnly()
+    {
+        String element = generator.get();
+
+        assertThrows(() -> instance.add(element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.set(0, element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(instance::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testRandomAccessOnlyWhenEverySegmentIs()
+    {
+        boolean anyLinked = segments.stream().anyMatch(LinkedList.class::isInstance);
+        assertThat(instance instanceof RandomAccess, is(!anyLinked));
+
+        List<String> array = listOf(generator);
+        List<String> linked = new LinkedList<>(listOf(generator));
+
+        ConcatenatedList<String> randomAccess = Lists.combineView(array, Lists.copy(array));
+        assertThat(randomAccess, instanceOf(RandomAccess.class));
+        assertThat(randomAccess.spliterator().hasCharacteristics(Spliterator.SUBSIZED), is(true));
+
+        ConcatenatedList<String> sequential = Lists.combineView(array, linked);
+        assertThat(sequential, not(instanceOf(RandomAccess.class)));
+        assertThat(sequential.spliterator().hasCharacteristics(Spliterator.SUBSIZED), is(false));
+        List<String> combined = new ArrayList<>(array);
+        combined.addAll(linked);
+        assertThat(sequential, is(combined));
+
+        //Empty lists are left out, so they do not count
+        assertThat(Lists.combineView(array, new LinkedList<>()), instanceOf(RandomAccess.class));
+    }
+
+    @DontRepeat
+    @Test
+    public void testWhenEmpty()
+    {
+        List<List<String>> lists = new ArrayList<>();
+        lists.add(null);
+        lists.add(Lists.create());
+
+        instance = ConcatenatedList.of(lists);
+
+        assertThat(instance, is(empty()));
+        assertThat(instance.iterator().hasNext(), is(false));
+        assertThat(instance.stream().count(), is(0L));
+        assertThat(instance.spliterator().trySplit(), nullValue());
+    }
+}
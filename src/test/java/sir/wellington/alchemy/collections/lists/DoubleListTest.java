@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.stream.DoubleStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.anyDoubles;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class DoubleListTest
+{
+
+    private List<Double> values;
+    private double[] array;
+
+    @Before
+    public void setUp()
+    {
+        values = listOf(anyDoubles());
+        array = new double[values.size()];
+
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = values.get(i);
+        }
+    }
+
+    @Test
+    public void testCreate()
+    {
+        DoubleList result = DoubleList.create();
+        assertThat(result, notNullValue());
+        assertThat(result, is(empty()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> DoubleList.create(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        DoubleList result = DoubleList.copyOf(array);
+        assertThat(result, is(values));
+        assertThat(result.hashCode(), is(values.hashCode()));
+        assertArrayEquals(array, result.toDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void testCopyOfStream()
+    {
+        DoubleList result = DoubleList.copyOf(DoubleStream.of(array));
+        assertThat(result, is(values));
+    }
+
+    @Test
+    public void testCopy()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+        DoubleList result = DoubleList.copy(list);
+
+        assertThat(result, is(list));
+        assertThat(result, not(sameInstance(list)));
+
+        result.clear();
+        assertThat(list, is(values));
+    }
+
+    @Test
+    public void testCreateFrom()
+    {
+        double first = array[0];
+
+        DoubleList result = DoubleList.createFrom(first, array);
+        assertThat(result.size(), is(array.length + 1));
+        assertThat(result.first(), is(first));
+        assertThat(result.subList(1, result.size()), is(values));
+    }
+
+    @Test
+    public void testAddAndGet()
+    {
+        DoubleList list = DoubleList.create();
+
+        for (double value : array)
+        {
+            list.addDouble(value);
+        }
+
+        assertThat(list, is(values));
+
+        for (int i = 0; i < array.length; i++)
+        {
+            assertThat(list.getDouble(i), is(array[i]));
+            assertThat(list.containsDouble(array[i]), is(true));
+        }
+    }
+
+    @Test
+    public void testAddAllFromStream()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+        list.addAll(DoubleStream.of(array));
+
+        assertThat(list.size(), is(array.length * 2));
+        assertThat(list.subList(array.length, list.size()), is(values));
+    }
+
+    @Test
+    public void testCombine()
+    {
+        DoubleList first = DoubleList.copyOf(array);
+        DoubleList second = DoubleList.copyOf(array);
+
+        DoubleList result = DoubleList.combine(first, null, second);
+
+        List<Double> expected = Lists.combine(values, values);
+        assertThat(result, is(expected));
+
+        result = DoubleList.combine(null);
+        assertThat(result, is(empty()));
+    }
+
+    @Test
+    public void testFirstAndLast()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+
+        assertThat(list.first(), is(array[0]));
+        assertThat(list.last(), is(array[array.length - 1]));
+    }
+
+    @Test
+    public void testRemoveFirstAndLast()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+
+        assertThat(list.removeFirst(), is(array[0]));
+        assertThat(list.size(), is(array.length - 1));
+
+        if (list.isEmpty())
+        {
+            return;
+        }
+
+        assertThat(list.removeLast(), is(array[array.length - 1]));
+        assertThat(list.size(), is(array.length - 2));
+    }
+
+    @DontRepeat
+    @Test
+    public void testOperationsOnEmptyList()
+    {
+        DoubleList list = DoubleList.create();
+
+        assertThrows(list::first).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::last).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::removeFirst).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::removeLast).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::oneOf).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> list.getDouble(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testOneOf()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+
+        double result = list.oneOf();
+        assertThat(result, isIn(values));
+    }
+
+    @Test
+    public void testRemoveAt()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+        List<Double> expected = Lists.copy(values);
+
+        int index = list.size() / 2;
+        assertThat(list.removeDoubleAt(index), is(expected.remove(index)));
+        assertThat(list, is(expected));
+    }
+
+    @Test
+    public void testBoxedOperations()
+    {
+        DoubleList list = DoubleList.create();
+        list.addAll(values);
+        assertThat(list, is(values));
+
+        assertThrows(() -> list.add(null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testStream()
+    {
+        DoubleList list = DoubleList.copyOf(array);
+        assertArrayEquals(array, list.doubleStream().toArray(), 0.0);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class ImmutableListTest
+{
+
+    private AlchemyGenerator<String> generator;
+    private List<String> list;
+
+    private ImmutableList<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphanumericStrings();
+        list = listOf(generator);
+
+        instance = ImmutableList.copyOf(list);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        assertThat(instance, is(list));
+        assertThat(list, is((List<String>) instance));
+        assertThat(instance.size(), is(list.size()));
+        assertThat(instance.hashCode(), is(list.hashCode()));
+        assertThat(instance.toString(), is(list.toString()));
+
+        //Changes to the original do not show through
+        list.add(generator.get());
+        assertThat(instance, is(not(list)));
+        assertThat(instance.size(), is(list.size() - 1));
+    }
+
+    @Test
+    public void testCopyOfImmutableList()
+    {
+        assertThat(ImmutableList.copyOf(instance), sameInstance(instance));
+    }
+
+    @DontRepeat
+    @Test
+    public void testEmpty()
+    {
+        assertThat(ImmutableList.empty(), is(empty()));
+        assertThat(ImmutableList.empty(), sameInstance(ImmutableList.empty()));
+        assertThat(ImmutableList.copyOf(null), sameInstance(ImmutableList.empty()));
+        assertThat(ImmutableList.copyOf(Lists.create()), sameInstance(ImmutableList.empty()));
+        assertThat(ImmutableList.of(), sameInstance(ImmutableList.empty()));
+        assertThat(ImmutableList.empty().hashCode(), is(Collections.emptyList().hashCode()));
+    }
+
+    @Test
+    public void testOf()
+    {
+        String[] array = list.toArray(new String[0]);
+
+        ImmutableList<String> result = ImmutableList.of(array);
+        assertThat(result, is(list));
+
+        array[0] = generator.get();
+        assertThat(result.get(0), is(list.get(0)));
+    }
+
+    @Test
+    public void testGet()
+    {
+        for (int i = 0; i < list.size(); i++)
+        {
+            assertThat(instance.get(i), is(list.get(i)));
+        }
+
+        assertThrows(() -> instance.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.get(list.size())).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testIndexOf()
+    {
+        String element = list.get(one(integers(0, list.size())));
+
+        assertThat(instance.indexOf(element), is(list.indexOf(element)));
+        assertThat(instance.lastIndexOf(element), is(list.lastIndexOf(element)));
+        assertThat(instance.contains(element), is(true));
+
+        String other = generator.get();
+        assertThat(instance.indexOf(other), is(list.indexOf(other)));
+        assertThat(instance.contains(null), is(false));
+    }
+
+    @Test
+    public void testWithNulls()
+    {
+        list.add(null);
+        instance = ImmutableList.copyOf(list);
+
+        assertThat(instance, is(list));
+        assertThat(instance.contains(null), is(true));
+        assertThat(instance.indexOf(null), is(list.size() - 1));
+        assertThat(instance.hashCode(), is(list.hashCode()));
+    }
+
+    @Test
+    public void testToArray()
+    {
+        assertThat(instance.toArray(), is(list.toArray()));
+        assertThat(instance.toArray(new String[0]), is(list.toArray(new String[0])));
+
+        String[] larger = new String[list.size() + 2];
+        Arrays.fill(larger, "filler");
+        assertThat(instance.toArray(larger), sameInstance(larger));
+        assertThat(larger[list.size()], nullValue());
+
+        //The array is a copy
+        instance.toArray()[0] = generator.get();
+        assertThat(instance.get(0), is(list.get(0)));
+    }
+
+    @Test
+    public void testIteration()
+    {
+        List<String> iterated = new ArrayList<>();
+        instance.forEach(iterated::add);
+        assertThat(iterated, is(list));
+
+        iterated.clear();
+        instance.iterator().forEachRemaining(iterated::add);
+        assertThat(iterated, is(list));
+
+        assertThat(instance.stream().toArray(), is(list.toArray()));
+        assertThat(instance.subList(1, list.size()), is(list.subList(1, list.size())));
+    }
+
+    @Test
+    public void testEquals()
+    {
+        ImmutableList<String> other = ImmutableList.copyOf(list);
+        assertThat(instance.equals(other), is(true));
+        assertThat(instance.equals(list), is(true));
+
+        List<String> different = Lists.copy(list);
+        different.set(0, generator.get());
+        assertThat(instance.equals(ImmutableList.copyOf(different)), is(false));
+        assertThat(instance.equals(different), is(false));
+    }
+
+    @Test
+    public void testCannotBeModified()
+    {
+        String element = generator.get();
+
+        assertThrows(() -> instance.add(element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.add(0, element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.set(0, element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.addAll(list)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.addAll(0, list)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.removeAll(list)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.retainAll(list)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.removeIf(e -> true)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.replaceAll(e -> e)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.sort(null)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(instance::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.subList(0, 1).clear()).isInstanceOf(UnsupportedOperationException.class);
+
+        Iterator<String> iterator = instance.iterator();
+        iterator.next();
+        assertThrows(iterator::remove).isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(instance, is(list));
+    }
+
+    @DontRepeat
+    @Test
+    public void testEmptyCannotBeModified()
+    {
+        ImmutableList<String> empty = ImmutableList.empty();
+
+        assertThrows(empty::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> empty.remove("a")).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> empty.removeIf(e -> true)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> empty.addAll(Lists.create())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testSerialization() throws Exception
+    {
+        ImmutableList<String> copy = serializedCopy(instance);
+
+        assertThat(copy, is(instance));
+        assertThat(copy, not(sameInstance(instance)));
+        assertThat(copy.hashCode(), is(list.hashCode()));
+        assertThrows(() -> copy.add(one(generator))).isInstanceOf(UnsupportedOperationException.class);
+
+        ImmutableList<String> withNulls = ImmutableList.of(null, one(generator), null);
+        assertThat(serializedCopy(withNulls), is(withNulls));
+        assertThat(serializedCopy(ImmutableList.empty()), sameInstance(ImmutableList.empty()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializedCopy(T object) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(object);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            return (T) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.anyIntegers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class IntListTest
+{
+
+    private List<Integer> values;
+    private int[] array;
+
+    @Before
+    public void setUp()
+    {
+        values = listOf(anyIntegers());
+        array = new int[values.size()];
+
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = values.get(i);
+        }
+    }
+
+    @Test
+    public void testCreate()
+    {
+        IntList result = IntList.create();
+        assertThat(result, notNullValue());
+        assertThat(result, is(empty()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> IntList.create(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        IntList result = IntList.copyOf(array);
+        assertThat(result, is(values));
+        assertThat(result.hashCode(), is(values.hashCode()));
+        assertArrayEquals(array, result.toIntArray());
+    }
+
+    @Test
+    public void testCopyOfStream()
+    {
+        IntList result = IntList.copyOf(IntStream.of(array));
+        assertThat(result, is(values));
+    }
+
+    @Test
+    public void testCopy()
+    {
+        IntList list = IntList.copyOf(array);
+        IntList result = IntList.copy(list);
+
+        assertThat(result, is(list));
+        assertThat(result, not(sameInstance(list)));
+
+        result.clear();
+        assertThat(list, is(values));
+    }
+
+    @Test
+    public void testCreateFrom()
+    {
+        int first = array[0];
+
+        IntList result = IntList.createFrom(first, array);
+        assertThat(result.size(), is(array.length + 1));
+        assertThat(result.first(), is(first));
+        assertThat(result.subList(1, result.size()), is(values));
+    }
+
+    @Test
+    public void testAddAndGet()
+    {
+        IntList list = IntList.create();
+
+        for (int value : array)
+        {
+            list.addInt(value);
+        }
+
+        assertThat(list, is(values));
+
+        for (int i = 0; i < array.length; i++)
+        {
+            assertThat(list.getInt(i), is(array[i]));
+            assertThat(list.containsInt(array[i]), is(true));
+        }
+    }
+
+    @Test
+    public void testAddAllFromStream()
+    {
+        IntList list = IntList.copyOf(array);
+        list.addAll(IntStream.of(array));
+
+        assertThat(list.size(), is(array.length * 2));
+        assertThat(list.subList(array.length, list.size()), is(values));
+    }
+
+    @Test
+    public void testCombine()
+    {
+        IntList first = IntList.copyOf(array);
+        IntList second = IntList.copyOf(array);
+
+        IntList result = IntList.combine(first, null, second);
+
+        List<Integer> expected = Lists.combine(values, values);
+        assertThat(result, is(expected));
+
+        result = IntList.combine(null);
+        assertThat(result, is(empty()));
+    }
+
+    @Test
+    public void testFirstAndLast()
+    {
+        IntList list = IntList.copyOf(array);
+
+        assertThat(list.first(), is(array[0]));
+        assertThat(list.last(), is(array[array.length - 1]));
+    }
+
+    @Test
+    public void testRemoveFirstAndLast()
+    {
+        IntList list = IntList.copyOf(array);
+
+        assertThat(list.removeFirst(), is(array[0]));
+        assertThat(list.size(), is(array.length - 1));
+
+        if (list.isEmpty())
+        {
+            return;
+        }
+
+        assertThat(list.removeLast(), is(array[array.length - 1]));
+        assertThat(list.size(), is(array.length - 2));
+    }
+
+    @DontRepeat
+    @Test
+    public void testOperationsOnEmptyList()
+    {
+        IntList list = IntList.create();
+
+        assertThrows(list::first).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::last).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::removeFirst).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::removeLast).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::oneOf).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> list.getInt(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testOneOf()
+    {
+        IntList list = IntList.copyOf(array);
+
+        int result = list.oneOf();
+        assertThat(result, isIn(values));
+    }
+
+    @Test
+    public void testRemoveAt()
+    {
+        IntList list = IntList.copyOf(array);
+        List<Integer> expected = Lists.copy(values);
+
+        int index = list.size() / 2;
+        assertThat(list.removeIntAt(index), is(expected.remove(index)));
+        assertThat(list, is(expected));
+    }
+
+    @Test
+    public void testBoxedOperations()
+    {
+        IntList list = IntList.create();
+        list.addAll(values);
+        assertThat(list, is(values));
+
+        assertThrows(() -> list.add(null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testStream()
+    {
+        IntList list = IntList.copyOf(array);
+        assertArrayEquals(array, list.intStream().toArray());
+    }
+}
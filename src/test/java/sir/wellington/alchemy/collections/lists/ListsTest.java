@@ -17,6 +17,12 @@
 package sir.wellington.alchemy.collections.lists;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +36,7 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
 import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
 import static tech.sirwellington.alchemy.generator.NumberGenerators.positiveIntegers;
 import static tech.sirwellington.alchemy.generator.StringGenerators.strings;
 import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
@@ -68,6 +75,7 @@ public class ListsTest
         List<Object> result = Lists.create();
         assertThat(result, notNullValue());
         assertThat(result, is(empty()));
+        assertThat(result, instanceOf(RingList.class));
     }
 
     @Test
@@ -209,6 +217,279 @@ public class ListsTest
         assertThat(result, is(expected));
     }
 
+    @Test
+    public void testCombineView()
+    {
+        List<String> first = listOf(generator);
+        List<String> second = listOf(generator);
+
+        List<String> result = Lists.combineView(null);
+        assertThat(result, notNullValue());
+        assertThat(result, is(empty()));
+
+        result = Lists.combineView(first, null, second);
+        assertThat(result, is(Lists.combine(first, second)));
+
+        //Changes to the elements show through
+        String element = generator.get();
+        second.set(0, element);
+        assertThat(result.get(first.size()), is(element));
+    }
+
+    /**
+     * A list large enough to be split across a pool, with many repeated elements, and a few nulls.
+     */
+    private static List<Integer> largeList(int size)
+    {
+        Random random = new Random();
+
+        return IntStream.range(0, size)
+                        .mapToObj(i -> random.nextInt(100) == 0 ? null : random.nextInt(size / 4))
+                        .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testParallelCopy()
+    {
+        List<String> list = listOf(generator);
+        assertThat(Lists.parallelCopy(list), is(list));
+        assertThat(Lists.parallelCopy(null), is(empty()));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testParallelBulkOperationsWithLargeLists()
+    {
+        int size = Forking.PARALLEL_THRESHOLD * one(integers(3, 10));
+        List<Integer> first = largeList(size);
+        List<Integer> second = new LinkedList<>(largeList(size / 2));
+        List<Integer> third = largeList(size);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            List<Integer> copy = Lists.parallelCopy(first, pool);
+            assertThat(copy, is(first));
+            assertThat(copy, instanceOf(RingList.class));
+            copy.add(1);
+            assertThat(copy.size(), is(size + 1));
+
+            List<Integer> expected = Lists.combine(first, second, null, third);
+            assertThat(Lists.parallelCombine(Arrays.asList(first, second, null, third), pool), is(expected));
+            assertThat(Lists.parallelCombine(first, second, null, third), is(expected));
+
+            List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(expected));
+            assertThat(Lists.parallelDistinct(expected, pool), is(distinct));
+            assertThat(Lists.parallelDistinct(second, pool), is(new ArrayList<>(new LinkedHashSet<>(second))));
+
+            Comparator<Integer> byValue = Comparator.nullsFirst(Comparator.naturalOrder());
+            List<Integer> sorted = new ArrayList<>(expected);
+            sorted.sort(byValue);
+
+            Lists.parallelSort(expected, byValue, pool);
+            assertThat(expected, is(sorted));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Repeat(5)
+    @Test
+    public void testParallelSortIsStable()
+    {
+        //Sorting by the tens only leaves elements with the same tens in their original order
+        int size = Forking.PARALLEL_THRESHOLD * 4 + one(integers(1, 1000));
+        List<Integer> list = new Random().ints(size, 0, 1000).boxed().collect(Collectors.toList());
+        Comparator<Integer> byTens = Comparator.comparing(value -> value / 10);
+
+        List<Integer> expected = new ArrayList<>(list);
+        expected.sort(byTens);
+
+        Lists.parallelSort(list, byTens);
+        assertThat(list, is(expected));
+
+        Collections.shuffle(list);
+        Lists.parallelSort(list, null);
+        expected.sort(null);
+        assertThat(list, is(expected));
+    }
+
+    @Test
+    public void testParallelDistinct()
+    {
+        List<String> list = listOf(generator);
+        list.addAll(list);
+
+        assertThat(Lists.parallelDistinct(list), is(new ArrayList<>(new LinkedHashSet<>(list))));
+        assertThat(Lists.parallelDistinct(null), is(empty()));
+    }
+
+    @Test
+    public void testPartition()
+    {
+        List<String> list = listOf(generator);
+        int size = one(integers(1, list.size() + 5));
+
+        List<List<String>> partition = Lists.partition(list, size);
+        assertThat(partition.size(), is((list.size() + size - 1) / size));
+        assertThat(partition, instanceOf(RandomAccess.class));
+
+        List<String> rejoined = new ArrayList<>();
+        for (int i = 0; i < partition.size(); i++)
+        {
+            List<String> batch = partition.get(i);
+            assertThat(batch.size(), i < partition.size() - 1 ? is(size) : lessThanOrEqualTo(size));
+            rejoined.addAll(batch);
+        }
+
+        assertThat(rejoined, is(list));
+
+        //The batches are views of the list
+        String element = one(generator);
+        partition.get(0).set(0, element);
+        assertThat(list.get(0), is(element));
+
+        list.add(element);
+        assertThat(partition.stream().flatMap(List::stream).collect(Collectors.toList()), is(list));
+
+        assertThrows(() -> partition.get(partition.size() + 1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> partition.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testPartitionOfEmptyAndLinkedLists()
+    {
+        assertThat(Lists.partition(null, 3), is(empty()));
+        assertThat(Lists.partition(Lists.create(), 3), is(empty()));
+
+        List<List<Integer>> partition = Lists.partition(new LinkedList<>(Arrays.asList(1, 2, 3, 4, 5)), 2);
+        assertThat(partition, not(instanceOf(RandomAccess.class)));
+        assertThat(partition, is(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5))));
+    }
+
+    @Test
+    public void testChunk()
+    {
+        List<String> list = listOf(generator);
+        int size = one(integers(1, list.size() + 5));
+
+        List<List<String>> expected = Lists.partition(list, size);
+
+        List<List<String>> chunks = new ArrayList<>();
+        Lists.chunk(list.iterator(), size).forEachRemaining(chunks::add);
+        assertThat(chunks, is(expected));
+
+        try (Stream<List<String>> stream = Lists.chunk(list.stream(), size))
+        {
+            assertThat(stream.collect(Collectors.toList()), is(expected));
+        }
+
+        assertThat(Lists.chunk(Collections.emptyIterator(), size).hasNext(), is(false));
+    }
+
+    @Test
+    public void testChunkReadsOneBatchAtATime()
+    {
+        int size = one(integers(1, 100));
+        AtomicInteger read = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Stream<Integer> endless = Stream.iterate(0, i -> i + 1)
+                                        .peek(i -> read.incrementAndGet())
+                                        .onClose(() -> closed.set(true));
+
+        try (Stream<List<Integer>> chunks = Lists.chunk(endless, size))
+        {
+            Iterator<List<Integer>> iterator = chunks.iterator();
+            assertThat(iterator.next().size(), is(size));
+            assertThat(iterator.next().get(0), is(size));
+            assertThat(read.get(), is(2 * size));
+        }
+
+        assertThat(closed.get(), is(true));
+    }
+
+    @Test
+    public void testChunkByWeight()
+    {
+        List<String> list = listOf(generator);
+        long maxWeight = one(integers(10, 200));
+
+        List<List<String>> chunks = new ArrayList<>();
+        Lists.chunkByWeight(list.iterator(), maxWeight, String::length).forEachRemaining(chunks::add);
+
+        assertThat(chunks.stream().flatMap(List::stream).collect(Collectors.toList()), is(list));
+
+        for (int i = 0; i < chunks.size(); i++)
+        {
+            List<String> chunk = chunks.get(i);
+            long weight = chunk.stream().mapToLong(String::length).sum();
+
+            assertThat(chunk, not(empty()));
+            assertThat(chunk.size() == 1 || weight <= maxWeight, is(true));
+
+            //Each batch ended only because the next element would not fit
+            if (i < chunks.size() - 1)
+            {
+                assertThat(weight + chunks.get(i + 1).get(0).length(), greaterThan(maxWeight));
+            }
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testChunkByWeightWithSizeLimit()
+    {
+        List<Integer> weights = Arrays.asList(5, 5, 20, 1, 1, 1, 1, 9, 0);
+
+        List<List<Integer>> chunks = Lists.chunkByWeight(weights.stream(), 3, 10, Integer::longValue)
+                                          .collect(Collectors.toList());
+
+        //20 is too heavy for any batch, and so is put in one of its own
+        assertThat(chunks, is(Arrays.asList(Arrays.asList(5, 5),
+                                            Arrays.asList(20),
+                                            Arrays.asList(1, 1, 1),
+                                            Arrays.asList(1, 9, 0))));
+
+        Iterator<List<Integer>> negative = Lists.chunkByWeight(Arrays.asList(1, -1).iterator(), 10, Integer::longValue);
+        assertThrows(negative::next).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testChunkWithBadArgs()
+    {
+        List<String> list = listOf(generator);
+
+        assertThrows(() -> Lists.partition(list, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.chunk(list.iterator(), -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.chunk((Iterator<String>) null, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.chunk((Stream<String>) null, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.chunkByWeight(list.iterator(), 0, String::length)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.chunkByWeight(list.iterator(), 0, 10, String::length)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.chunkByWeight(list.stream(), 10, null)).isInstanceOf(IllegalArgumentException.class);
+
+        Iterator<List<String>> chunks = Lists.chunk(Collections.<String>emptyIterator(), 10);
+        assertThrows(chunks::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testParallelBulkOperationsWithBadArgs()
+    {
+        List<String> list = listOf(generator);
+
+        assertThrows(() -> Lists.parallelCopy(list, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.parallelCombine((Collection<List<String>>) null, ForkJoinPool.commonPool())).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.parallelCombine(Arrays.asList(list), (ForkJoinPool) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.parallelDistinct(list, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.<String>parallelSort(null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.parallelSort(list, null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void testCreateFrom()
     {
@@ -267,6 +548,10 @@ public class ListsTest
 
         assertThrows(() -> copy.clear());
         assertThrows(() -> copy.add(Lists.oneOf(list)));
+
+        //The copy is not a view of the original
+        list.add(one(generator));
+        assertThat(copy.size(), is(list.size() - 1));
     }
 
     @Test
@@ -351,6 +636,25 @@ public class ListsTest
         assertThat(list, is(empty()));
     }
 
+    @Test
+    public void testRemoveFirstAndLastDrainCopy()
+    {
+        List<String> expected = listOf(generator);
+        List<String> list = Lists.copy(expected);
+        List<String> drained = Lists.create();
+
+        while (list.size() > 1)
+        {
+            drained.add(Lists.removeFirst(list));
+            drained.add(Lists.removeLast(list));
+        }
+
+        drained.addAll(list);
+
+        assertThat(drained, containsInAnyOrder(expected.toArray()));
+        assertThat(drained.get(0), is(expected.get(0)));
+    }
+
     @DontRepeat
     @Test
     public void testRemoveFirstWithBadArgs() throws Exception
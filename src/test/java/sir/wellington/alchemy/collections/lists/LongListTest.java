@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.anyLongs;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class LongListTest
+{
+
+    private List<Long> values;
+    private long[] array;
+
+    @Before
+    public void setUp()
+    {
+        values = listOf(anyLongs());
+        array = new long[values.size()];
+
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = values.get(i);
+        }
+    }
+
+    @Test
+    public void testCreate()
+    {
+        LongList result = LongList.create();
+        assertThat(result, notNullValue());
+        assertThat(result, is(empty()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> LongList.create(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        LongList result = LongList.copyOf(array);
+        assertThat(result, is(values));
+        assertThat(result.hashCode(), is(values.hashCode()));
+        assertArrayEquals(array, result.toLongArray());
+    }
+
+    @Test
+    public void testCopyOfStream()
+    {
+        LongList result = LongList.copyOf(LongStream.of(array));
+        assertThat(result, is(values));
+    }
+
+    @Test
+    public void testCopy()
+    {
+        LongList list = LongList.copyOf(array);
+        LongList result = LongList.copy(list);
+
+        assertThat(result, is(list));
+        assertThat(result, not(sameInstance(list)));
+
+        result.clear();
+        assertThat(list, is(values));
+    }
+
+    @Test
+    public void testCreateFrom()
+    {
+        long first = array[0];
+
+        LongList result = LongList.createFrom(first, array);
+        assertThat(result.size(), is(array.length + 1));
+        assertThat(result.first(), is(first));
+        assertThat(result.subList(1, result.size()), is(values));
+    }
+
+    @Test
+    public void testAddAndGet()
+    {
+        LongList list = LongList.create();
+
+        for (long value : array)
+        {
+            list.addLong(value);
+        }
+
+        assertThat(list, is(values));
+
+        for (int i = 0; i < array.length; i++)
+        {
+            assertThat(list.getLong(i), is(array[i]));
+            assertThat(list.containsLong(array[i]), is(true));
+        }
+    }
+
+    @Test
+    public void testAddAllFromStream()
+    {
+        LongList list = LongList.copyOf(array);
+        list.addAll(LongStream.of(array));
+
+        assertThat(list.size(), is(array.length * 2));
+        assertThat(list.subList(array.length, list.size()), is(values));
+    }
+
+    @Test
+    public void testCombine()
+    {
+        LongList first = LongList.copyOf(array);
+        LongList second = LongList.copyOf(array);
+
+        LongList result = LongList.combine(first, null, second);
+
+        List<Long> expected = Lists.combine(values, values);
+        assertThat(result, is(expected));
+
+        result = LongList.combine(null);
+        assertThat(result, is(empty()));
+    }
+
+    @Test
+    public void testFirstAndLast()
+    {
+        LongList list = LongList.copyOf(array);
+
+        assertThat(list.first(), is(array[0]));
+        assertThat(list.last(), is(array[array.length - 1]));
+    }
+
+    @Test
+    public void testRemoveFirstAndLast()
+    {
+        LongList list = LongList.copyOf(array);
+
+        assertThat(list.removeFirst(), is(array[0]));
+        assertThat(list.size(), is(array.length - 1));
+
+        if (list.isEmpty())
+        {
+            return;
+        }
+
+        assertThat(list.removeLast(), is(array[array.length - 1]));
+        assertThat(list.size(), is(array.length - 2));
+    }
+
+    @DontRepeat
+    @Test
+    public void testOperationsOnEmptyList()
+    {
+        LongList list = LongList.create();
+
+        assertThrows(list::first).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::last).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::removeFirst).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::removeLast).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(list::oneOf).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> list.getLong(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testOneOf()
+    {
+        LongList list = LongList.copyOf(array);
+
+        long result = list.oneOf();
+        assertThat(result, isIn(values));
+    }
+
+    @Test
+    public void testRemoveAt()
+    {
+        LongList list = LongList.copyOf(array);
+        List<Long> expected = Lists.copy(values);
+
+        int index = list.size() / 2;
+        assertThat(list.removeLongAt(index), is(expected.remove(index)));
+        assertThat(list, is(expected));
+    }
+
+    @Test
+    public void testBoxedOperations()
+    {
+        LongList list = LongList.create();
+        list.addAll(values);
+        assertThat(list, is(values));
+
+        assertThrows(() -> list.add(null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testStream()
+    {
+        LongList list = LongList.copyOf(array);
+        assertArrayEquals(array, list.longStream().toArray());
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.codecs.Codecs;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class OffHeapListTest
+{
+
+    private List<String> strings;
+    private List<Long> longs;
+
+    private OffHeapList<String> stringList;
+    private OffHeapList<Long> longList;
+
+    @Before
+    public void setUp()
+    {
+        strings = listOf(alphanumericStrings(), one(integers(1, 200)));
+        longs = listOf(anyLongs(), one(integers(1, 200)));
+
+        //Small chunks, so that the elements span several of them
+        stringList = Lists.createOffHeap(Codecs.strings(), 256);
+        longList = Lists.createOffHeap(Codecs.longs(), 64);
+    }
+
+    @After
+    public void tearDown()
+    {
+        stringList.close();
+        longList.close();
+    }
+
+    @Test
+    public void testAddAndGet()
+    {
+        stringList.addAll(strings);
+        longList.addAll(longs);
+
+        assertThat(stringList, is(strings));
+        assertThat(longList, is(longs));
+        assertThat(stringList.size(), is(strings.size()));
+        assertThat(longList.size(), is(longs.size()));
+
+        for (int i = 0; i < strings.size(); i++)
+        {
+            assertThat(stringList.get(i), is(strings.get(i)));
+        }
+    }
+
+    @Test
+    public void testFixedSizeLayout()
+    {
+        longList.addAll(longs);
+
+        //8 elements fit in each chunk of 64 bytes, with nothing in between
+        long chunks = (longs.size() + 7) / 8;
+        assertThat(longList.offHeapBytes(), is(chunks * 64));
+    }
+
+    @Test
+    public void testGetOutOfBounds()
+    {
+        stringList.addAll(strings);
+
+        assertThrows(() -> stringList.get(strings.size())).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> stringList.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testSet()
+    {
+        stringList.addAll(strings);
+        longList.addAll(longs);
+
+        int index = one(integers(0, strings.size()));
+        String shorter = "";
+        String longer = strings.get(index) + one(alphanumericStrings());
+
+        assertThat(stringList.set(index, shorter), is(strings.get(index)));
+        assertThat(stringList.get(index), is(shorter));
+
+        assertThat(stringList.set(index, longer), is(shorter));
+        assertThat(stringList.get(index), is(longer));
+
+        strings.set(index, longer);
+        assertThat(stringList, is(strings));
+
+        int longIndex = one(integers(0, longs.size()));
+        long value = one(anyLongs());
+        assertThat(longList.set(longIndex, value), is(longs.get(longIndex)));
+        assertThat(longList.get(longIndex), is(value));
+    }
+
+    @Test
+    public void testNullElements()
+    {
+        assertThrows(() -> stringList.add(null)).isInstanceOf(IllegalArgumentException.class);
+
+        stringList.addAll(strings);
+        assertThrows(() -> stringList.set(0, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testElementTooLarge()
+    {
+        char[] characters = new char[256];
+        Arrays.fill(characters, 'a');
+        String tooLarge = new String(characters);
+
+        assertThrows(() -> stringList.add(tooLarge)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(stringList.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemoveIsUnsupported()
+    {
+        stringList.addAll(strings);
+
+        assertThrows(() -> stringList.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testClear()
+    {
+        stringList.addAll(strings);
+        stringList.clear();
+
+        assertThat(stringList.isEmpty(), is(true));
+        assertThat(stringList.offHeapBytes(), lessThanOrEqualTo(512L));
+
+        stringList.addAll(strings);
+        assertThat(stringList, is(strings));
+    }
+
+    @Test
+    public void testClose()
+    {
+        stringList.addAll(strings);
+        stringList.close();
+
+        assertThat(stringList.isClosed(), is(true));
+        assertThrows(() -> stringList.get(0)).isInstanceOf(IllegalStateException.class);
+        assertThrows(() -> stringList.add("")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateOffHeapWithBadArguments()
+    {
+        assertThrows(() -> Lists.createOffHeap(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.createOffHeap(Codecs.longs(), 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Lists.createOffHeap(Codecs.uuids(), 8)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class PersistentVectorTest
+{
+
+    private List<Integer> values;
+
+    private PersistentVector<Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        //Large enough, at times, for a trie three levels deep
+        values = listOf(integers(-1000, 1000), one(integers(1, 40_000)));
+        instance = Lists.persistentCopyOf(values);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        assertThat(instance, is(values));
+        assertThat(instance.size(), is(values.size()));
+        assertThat(instance.hashCode(), is(values.hashCode()));
+        assertThat(PersistentVector.copyOf(instance), sameInstance(instance));
+        assertThat(PersistentVector.copyOf(null), sameInstance(PersistentVector.empty()));
+
+        for (int i = 0; i < values.size(); i += one(integers(1, 50)))
+        {
+            assertThat(instance.get(i), is(values.get(i)));
+        }
+
+        List<Integer> iterated = new ArrayList<>();
+        instance.forEach(iterated::add);
+        assertThat(iterated, is(values));
+    }
+
+    @Test
+    public void testPlusOneAtATime()
+    {
+        PersistentVector<Integer> result = PersistentVector.empty();
+
+        for (Integer value : values)
+        {
+            result = result.plus(value);
+        }
+
+        assertThat(result, is(values));
+    }
+
+    @Test
+    public void testWithLeavesOldVersionAlone()
+    {
+        int index = one(integers(0, values.size()));
+        PersistentVector<Integer> updated = instance.with(index, 5_000);
+
+        assertThat(updated.get(index), is(5_000));
+        assertThat(updated.size(), is(values.size()));
+        assertThat(instance, is(values));
+
+        List<Integer> expected = new ArrayList<>(values);
+        expected.set(index, 5_000);
+        assertThat(updated, is(expected));
+    }
+
+    @Test
+    public void testMinusLastDownToEmpty()
+    {
+        PersistentVector<Integer> result = instance;
+        int step = Math.max(1, values.size() / 50);
+
+        for (int size = values.size(); size > 0; size--)
+        {
+            result = result.minusLast();
+
+            if (size % step == 0)
+            {
+                assertThat(result, is(values.subList(0, size - 1)));
+            }
+        }
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(instance, is(values));
+        assertThrows(result::minusLast).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testMinusLastThenPlus()
+    {
+        PersistentVector<Integer> popped = instance.minusLast().minusLast();
+        PersistentVector<Integer> result = popped.plus(1).plus(2);
+
+        List<Integer> expected = new ArrayList<>(values.subList(0, Math.max(0, values.size() - 2)));
+        expected.add(1);
+        expected.add(2);
+
+        assertThat(result, is(expected));
+        assertThat(instance, is(values));
+    }
+
+    @Test
+    public void testTransient()
+    {
+        PersistentVector.Transient<Integer> builder = instance.asTransient();
+        List<Integer> expected = new ArrayList<>(values);
+
+        for (int i = 0; i < 1_000; i++)
+        {
+            int operation = one(integers(0, 3));
+
+            if (operation == 0 && !expected.isEmpty())
+            {
+                builder.removeLast();
+                expected.remove(expected.size() - 1);
+            }
+            else if (operation == 1 && !expected.isEmpty())
+            {
+                int index = one(integers(0, expected.size()));
+                builder.set(index, i);
+                expected.set(index, i);
+            }
+            else
+            {
+                builder.add(i);
+                expected.add(i);
+            }
+        }
+
+        assertThat(builder.size(), is(expected.size()));
+        assertThat(builder.persistent(), is(expected));
+        assertThat(instance, is(values));
+
+        assertThrows(() -> builder.add(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testPlusAll()
+    {
+        List<Integer> more = listOf(integers(0, 10));
+        List<Integer> expected = new ArrayList<>(values);
+        expected.addAll(more);
+
+        assertThat(instance.plusAll(more), is(expected));
+        assertThat(instance, is(values));
+    }
+
+    @DontRepeat
+    @Test
+    public void testNullsAndBadArgs()
+    {
+        PersistentVector<Integer> withNull = PersistentVector.of(1, null, 3);
+        assertThat(withNull, contains(1, null, 3));
+
+        assertThrows(() -> instance.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.with(values.size(), 1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.add(1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.set(0, 1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.plusAll(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
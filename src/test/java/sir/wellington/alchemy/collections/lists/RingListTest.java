@@ -0,0 +1,338 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.lists;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class RingListTest
+{
+
+    private List<Integer> values;
+
+    private RingList<Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        values = listOf(integers(-100, 100), one(integers(1, 100)));
+        instance = RingList.create();
+    }
+
+    @Test
+    public void testAddAndGet()
+    {
+        instance.addAll(values);
+
+        assertThat(instance, is(values));
+        assertThat(instance.size(), is(values.size()));
+        assertThat(instance.hashCode(), is(values.hashCode()));
+        assertThat(instance.getFirst(), is(values.get(0)));
+        assertThat(instance.getLast(), is(values.get(values.size() - 1)));
+
+        for (int i = 0; i < values.size(); i++)
+        {
+            assertThat(instance.get(i), is(values.get(i)));
+        }
+    }
+
+    @Test
+    public void testAddFirstWrapsAround()
+    {
+        List<Integer> expected = new ArrayList<>();
+
+        for (Integer value : values)
+        {
+            instance.addFirst(value);
+            expected.add(0, value);
+        }
+
+        assertThat(instance, is(expected));
+        assertThat(Arrays.asList(instance.toArray()), is(Arrays.asList(expected.toArray())));
+        assertThat(instance.toArray(new Integer[0]), is(expected.toArray(new Integer[0])));
+    }
+
+    @Test
+    public void testDrainFromEitherEnd()
+    {
+        instance.addAll(values);
+        Deque<Integer> expected = new ArrayDeque<>(values);
+
+        while (!expected.isEmpty())
+        {
+            if (one(integers(0, 2)) == 0)
+            {
+                assertThat(instance.removeFirst(), is(expected.removeFirst()));
+            }
+            else
+            {
+                assertThat(instance.pollLast(), is(expected.pollLast()));
+            }
+        }
+
+        assertThat(instance, is(empty()));
+        assertThat(instance.pollFirst(), nullValue());
+        assertThat(instance.peekLast(), nullValue());
+        assertThrows(instance::removeFirst).isInstanceOf(NoSuchElementException.class);
+        assertThrows(instance::getLast).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testRandomOperationsMatchArrayList()
+    {
+        List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++)
+        {
+            Integer value = one(integers(-100, 100));
+            int index = expected.isEmpty() ? 0 : one(integers(0, expected.size()));
+
+            switch (one(integers(0, 6)))
+            {
+                case 0:
+                    instance.add(index, value);
+                    expected.add(index, value);
+                    break;
+                case 1:
+                    instance.addFirst(value);
+                    expected.add(0, value);
+                    break;
+                case 2:
+                    instance.add(value);
+                    expected.add(value);
+                    break;
+                case 3:
+                    if (!expected.isEmpty())
+                    {
+                        assertThat(instance.remove(index), is(expected.remove(index)));
+                    }
+                    break;
+                case 4:
+                    if (!expected.isEmpty())
+                    {
+                        assertThat(instance.set(index, value), is(expected.set(index, value)));
+                    }
+                    break;
+                default:
+                    assertThat(instance.remove(value), is(expected.remove(value)));
+                    break;
+            }
+
+            assertThat(instance, is(expected));
+        }
+    }
+
+    @Test
+    public void testSubListClear()
+    {
+        instance.addFirst(0);
+        instance.addAll(values);
+        List<Integer> expected = new ArrayList<>(instance);
+
+        int from = one(integers(0, expected.size()));
+        int to = one(integers(from, expected.size() + 1));
+
+        instance.subList(from, to).clear();
+        expected.subList(from, to).clear();
+
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testIndexOfAndOccurrences()
+    {
+        instance.addAll(values);
+        Integer value = values.get(values.size() / 2);
+
+        assertThat(instance.indexOf(value), is(values.indexOf(value)));
+        assertThat(instance.lastIndexOf(value), is(values.lastIndexOf(value)));
+        assertThat(instance.contains(value), is(true));
+        assertThat(instance.contains(1000), is(false));
+
+        List<Integer> expected = new ArrayList<>(values);
+        expected.remove(expected.lastIndexOf(value));
+
+        assertThat(instance.removeLastOccurrence(value), is(true));
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testDescendingIterator()
+    {
+        instance.addAll(values);
+
+        List<Integer> expected = new ArrayList<>(values);
+        Collections.reverse(expected);
+
+        List<Integer> result = new ArrayList<>();
+        instance.descendingIterator().forEachRemaining(result::add);
+
+        assertThat(result, is(expected));
+    }
+
+    @Test
+    public void testStackAndQueueMethods()
+    {
+        Integer first = one(integers(0, 10));
+        Integer second = one(integers(10, 20));
+
+        instance.push(first);
+        instance.push(second);
+        assertThat(instance.peek(), is(second));
+        assertThat(instance.pop(), is(second));
+
+        assertThat(instance.offer(second), is(true));
+        assertThat(instance.element(), is(first));
+        assertThat(instance.poll(), is(first));
+        assertThat(instance.remove(), is(second));
+        assertThat(instance.poll(), nullValue());
+    }
+
+    @Test
+    public void testAllowsNull()
+    {
+        instance.add(null);
+        instance.addFirst(1);
+
+        assertThat(instance, contains(1, null));
+        assertThat(instance.peekLast(), nullValue());
+        assertThat(instance.remove(null), is(true));
+        assertThat(instance, contains(1));
+    }
+
+    @Test
+    public void testClear()
+    {
+        instance.addAll(values);
+        instance.clear();
+
+        assertThat(instance, is(empty()));
+
+        instance.addFirst(1);
+        assertThat(instance, contains(1));
+    }
+
+    @Test
+    public void testIteratorFailsFast()
+    {
+        instance.addAll(values);
+        Iterator<Integer> iterator = instance.iterator();
+        iterator.next();
+
+        instance.addFirst(1);
+
+        assertThrows(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    public void testSerialization() throws Exception
+    {
+        //Start partway through the array, so that the elements wrap around
+        instance.addAll(values);
+        instance.removeFirst();
+        instance.addAll(values);
+        instance.add(null);
+
+        RingList<Integer> copy = serializedCopy(instance);
+
+        assertThat(copy, is(instance));
+        assertThat(copy, not(sameInstance(instance)));
+
+        copy.addFirst(1);
+        assertThat(copy.size(), is(instance.size() + 1));
+        assertThat(serializedCopy(RingList.create()), is(empty()));
+    }
+
+    @Test
+    public void testClone()
+    {
+        instance.addAll(values);
+        instance.removeFirst();
+        instance.addAll(values);
+
+        RingList<Integer> clone = instance.clone();
+
+        assertThat(clone, is(instance));
+        assertThat(clone, not(sameInstance(instance)));
+
+        clone.removeFirst();
+        clone.addLast(1);
+        assertThat(instance.size(), is(2 * values.size() - 1));
+        assertThat(instance.getFirst(), is(values.size() > 1 ? values.get(1) : values.get(0)));
+        assertThat(RingList.create().clone(), is(empty()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> RingList.create(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.get(0)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.add(1, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.set(-1, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.remove(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testEnsureCapacity()
+    {
+        RingList<Integer> list = RingList.create(3);
+        list.ensureCapacity(1_000);
+
+        for (int i = 0; i < 1_000; i++)
+        {
+            list.addFirst(i);
+        }
+
+        assertThat(list.size(), is(1_000));
+        assertThat(list.getFirst(), is(999));
+        assertThat(list.getLast(), is(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializedCopy(T object) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(object);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            return (T) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.sets.Sets;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class SamplerTest
+{
+
+    private AlchemyGenerator<String> generator;
+    private List<String> strings;
+    private int k;
+
+    private Sampler instance;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphanumericStrings();
+        strings = Lists.copy(Sets.toSet(listOf(generator, one(integers(10, 200)))));
+        k = one(integers(1, strings.size()));
+
+        instance = Sampler.random();
+    }
+
+    @Test
+    public void testOneOf()
+    {
+        String result = instance.oneOf(strings);
+        assertThat(result, isIn(strings));
+
+        Set<String> set = Sets.copyOf(strings);
+        result = instance.oneOf(set);
+        assertThat(result, isIn(set));
+
+        result = instance.oneOf(new LinkedList<>(strings));
+        assertThat(result, isIn(strings));
+    }
+
+    @DontRepeat
+    @Test
+    public void testOneOfWhenEmpty()
+    {
+        assertThrows(() -> instance.oneOf((List<String>) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.oneOf(Lists.create())).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.oneOf((Collection<String>) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.oneOf(Sets.create())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSample()
+    {
+        List<String> result = instance.sample(strings, k);
+        checkSample(result, strings, k);
+
+        result = instance.sample(Sets.copyOf(strings), k);
+        checkSample(result, strings, k);
+
+        result = instance.sample(new LinkedList<>(strings), k);
+        checkSample(result, strings, k);
+    }
+
+    @Test
+    public void testSampleMoreThanAvailable()
+    {
+        int more = strings.size() + one(integers(0, 10));
+
+        List<String> result = instance.sample(strings, more);
+        assertThat(result.size(), is(strings.size()));
+        assertThat(Sets.copyOf(result), is(Sets.copyOf(strings)));
+    }
+
+    @DontRepeat
+    @Test
+    public void testSampleWithBadArgs()
+    {
+        assertThat(instance.sample(strings, 0), is(empty()));
+
+        assertThrows(() -> instance.sample(strings, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.sample(null, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testReservoir()
+    {
+        List<String> result = instance.reservoir(strings, k);
+        checkSample(result, strings, k);
+
+        result = instance.reservoir(strings.stream(), k);
+        checkSample(result, strings, k);
+
+        result = instance.reservoir(strings.iterator(), k);
+        checkSample(result, strings, k);
+    }
+
+    @Test
+    public void testReservoirMoreThanAvailable()
+    {
+        List<String> result = instance.reservoir(strings.stream(), strings.size() + 1);
+        assertThat(result, is(strings));
+    }
+
+    @DontRepeat
+    @Test
+    public void testReservoirWithBadArgs()
+    {
+        assertThat(instance.reservoir(strings, 0), is(empty()));
+
+        assertThrows(() -> instance.reservoir(strings, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.reservoir((Iterable<String>) null, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.reservoir((Iterator<String>) null, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.reservoir((Stream<String>) null, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testSampleIsUniform()
+    {
+        List<Integer> population = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+        int runs = 20_000;
+        int picks = 5;
+
+        int[] sampled = new int[population.size()];
+        int[] reservoir = new int[population.size()];
+        int[] firstPosition = new int[population.size()];
+
+        for (int run = 0; run < runs; run++)
+        {
+            List<Integer> sample = instance.sample(population, picks);
+            sample.forEach(i -> sampled[i]++);
+            firstPosition[sample.get(0)]++;
+
+            instance.reservoir(population.stream(), picks).forEach(i -> reservoir[i]++);
+        }
+
+        //Each element should be picked about runs * picks / population times
+        double expected = runs * picks / (double) population.size();
+        double expectedFirst = runs / (double) population.size();
+
+        for (int i = 0; i < population.size(); i++)
+        {
+            assertThat(sampled[i], is(both(greaterThan((int) (expected * 0.9))).and(lessThan((int) (expected * 1.1)))));
+            assertThat(reservoir[i], is(both(greaterThan((int) (expected * 0.9))).and(lessThan((int) (expected * 1.1)))));
+            assertThat(firstPosition[i], is(both(greaterThan((int) (expectedFirst * 0.8))).and(lessThan((int) (expectedFirst * 1.2)))));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testSampleIsInRandomOrder()
+    {
+        List<Integer> population = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+        List<Collection<Integer>> collections = Arrays.asList(new LinkedList<>(population), new HashSet<>(population));
+        int runs = 20_000;
+
+        for (Collection<Integer> collection : collections)
+        {
+            for (int picks : Arrays.asList(5, population.size()))
+            {
+                int[] firstPosition = new int[population.size()];
+
+                for (int run = 0; run < runs; run++)
+                {
+                    firstPosition[instance.sample(collection, picks).get(0)]++;
+                }
+
+                //Each element should come first about runs / population times
+                double expectedFirst = runs / (double) population.size();
+
+                for (int i = 0; i < population.size(); i++)
+                {
+                    assertThat(firstPosition[i], is(both(greaterThan((int) (expectedFirst * 0.8))).and(lessThan((int) (expectedFirst * 1.2)))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSeededIsReproducible()
+    {
+        long seed = one(longs(Long.MIN_VALUE, Long.MAX_VALUE));
+
+        Sampler first = Sampler.seeded(seed);
+        Sampler second = Sampler.seeded(seed);
+
+        assertThat(first.oneOf(strings), is(second.oneOf(strings)));
+        assertThat(first.sample(strings, k), is(second.sample(strings, k)));
+        assertThat(first.reservoir(strings.stream(), k), is(second.reservoir(strings.stream(), k)));
+        assertThat(first.oneOf(Sets.copyOf(strings)), is(second.oneOf(Sets.copyOf(strings))));
+    }
+
+    @Test
+    public void testRandomIsShared()
+    {
+        assertThat(Sampler.random(), sameInstance(instance));
+    }
+
+    private void checkSample(List<String> sample, List<String> population, int k)
+    {
+        assertThat(sample.size(), is(k));
+        assertThat(Sets.copyOf(sample).size(), is(k));
+        assertThat(population.containsAll(sample), is(true));
+    }
+}
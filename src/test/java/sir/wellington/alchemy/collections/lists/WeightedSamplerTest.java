@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.lists;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.sets.Sets;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class WeightedSamplerTest
+{
+
+    private AlchemyGenerator<String> generator;
+    private List<String> elements;
+    private double[] weights;
+
+    private WeightedSampler<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphanumericStrings();
+        elements = Lists.copy(Sets.toSet(listOf(generator, one(integers(2, 50)))));
+
+        weights = new double[elements.size()];
+        for (int i = 0; i < weights.length; i++)
+        {
+            weights[i] = one(doubles(0.1, 100));
+        }
+
+        instance = WeightedSampler.create(elements, weights);
+    }
+
+    @Test
+    public void testPick()
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            assertThat(instance.pick(), isIn(elements));
+        }
+    }
+
+    @Test
+    public void testProbabilityOf()
+    {
+        double total = Arrays.stream(weights).sum();
+        double sum = 0;
+
+        for (int i = 0; i < weights.length; i++)
+        {
+            assertThat(instance.weightOf(i), is(weights[i]));
+            assertThat(instance.probabilityOf(i), closeTo(weights[i] / total, 1e-9));
+            sum += instance.probabilityOf(i);
+        }
+
+        assertThat(sum, closeTo(1.0, 1e-9));
+    }
+
+    @DontRepeat
+    @Test
+    public void testPicksFollowWeights()
+    {
+        List<Integer> indexes = Arrays.asList(0, 1, 2, 3, 4);
+        double[] weights = { 1, 2, 3, 4, 0 };
+
+        WeightedSampler<Integer> sampler = new WeightedSampler<>(indexes, weights, RandomSource.seeded(one(anyLongs())));
+
+        int runs = 100_000;
+        int[] counts = new int[indexes.size()];
+        for (int i = 0; i < runs; i++)
+        {
+            counts[sampler.pick()]++;
+        }
+
+        for (int i = 0; i < indexes.size(); i++)
+        {
+            double expected = runs * sampler.probabilityOf(i);
+            assertThat((double) counts[i], closeTo(expected, runs * 0.01));
+        }
+
+        assertThat(counts[4], is(0));
+    }
+
+    @Test
+    public void testSetWeight()
+    {
+        int index = one(integers(0, elements.size()));
+
+        for (int i = 0; i < elements.size(); i++)
+        {
+            instance.setWeight(i, i == index ? 1.0 : 0.0);
+        }
+
+        assertThat(instance.weightOf(index), is(1.0));
+        assertThat(instance.probabilityOf(index), is(1.0));
+
+        for (int i = 0; i < 50; i++)
+        {
+            assertThat(instance.pick(), is(elements.get(index)));
+        }
+    }
+
+    @Test
+    public void testSetWeightWithBadArgs()
+    {
+        assertThrows(() -> instance.setWeight(-1, 1.0)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.setWeight(elements.size(), 1.0)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThrows(() -> instance.setWeight(0, -1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.setWeight(0, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.setWeight(0, Double.POSITIVE_INFINITY)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testSetLastWeightToZero()
+    {
+        WeightedSampler<String> sampler = WeightedSampler.create(Arrays.asList("a", "b"), new double[] { 1, 0 });
+
+        assertThrows(() -> sampler.setWeight(0, 0.0)).isInstanceOf(IllegalArgumentException.class);
+
+        //The failed update is not kept
+        assertThat(sampler.weightOf(0), is(1.0));
+        sampler.setWeight(1, 1.0);
+        assertThat(sampler.probabilityOf(0), is(0.5));
+    }
+
+    @Test
+    public void testSetWeights()
+    {
+        double[] newWeights = new double[elements.size()];
+        newWeights[0] = 5.0;
+
+        instance.setWeights(newWeights);
+        assertThat(instance.pick(), is(elements.get(0)));
+        assertThat(instance.weightOf(0), is(5.0));
+
+        //The sampler keeps its own copy
+        newWeights[0] = 0.0;
+        assertThat(instance.weightOf(0), is(5.0));
+
+        assertThrows(() -> instance.setWeights(new double[elements.size() + 1])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.setWeights(new double[elements.size()])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.setWeights(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCreateWithWeigher()
+    {
+        WeightedSampler<String> sampler = WeightedSampler.create(elements, String::length);
+
+        for (int i = 0; i < elements.size(); i++)
+        {
+            assertThat(sampler.weightOf(i), is((double) elements.get(i).length()));
+        }
+
+        assertThat(sampler.elements(), is(elements));
+        assertThat(sampler.size(), is(elements.size()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> WeightedSampler.create(null, weights)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> WeightedSampler.create(Lists.<String>create(), new double[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> WeightedSampler.create(elements, (double[]) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> WeightedSampler.create(elements, new double[1])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> WeightedSampler.create(elements, new double[elements.size()])).isInstanceOf(IllegalArgumentException.class);
+
+        double[] negative = weights.clone();
+        negative[0] = -1;
+        assertThrows(() -> WeightedSampler.create(elements, negative)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testElementsAreCopied()
+    {
+        List<String> copy = Lists.copy(elements);
+        WeightedSampler<String> sampler = WeightedSampler.create(copy, weights);
+
+        copy.clear();
+        assertThat(sampler.elements(), is(elements));
+
+        assertThrows(() -> sampler.elements().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testConcurrentPicksDuringUpdates() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(3);
+
+        try
+        {
+            for (int thread = 0; thread < 3; thread++)
+            {
+                executor.submit(() ->
+                {
+                    try
+                    {
+                        for (int i = 0; i < 100_000; i++)
+                        {
+                            assertThat(instance.pick(), notNullValue());
+                        }
+                    }
+                    catch (Throwable ex)
+                    {
+                        failure.set(ex);
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                });
+            }
+
+            while (done.getCount() > 0)
+            {
+                instance.setWeight(one(integers(0, elements.size())), one(doubles(1, 10)));
+            }
+
+            assertThat(failure.get(), nullValue());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class CachingMapTest
+{
+
+    /**
+     * The resolution of the timer wheel.
+     */
+    private static final long TICK = 1L << 30;
+
+    private AtomicLong time;
+    private Map<String, Integer> expected;
+
+    @Before
+    public void setUp()
+    {
+        //Starts near the top of the range, so that expiry is also checked across the ticker overflowing
+        time = new AtomicLong(Long.MAX_VALUE - TimeUnit.HOURS.toNanos(1) + one(longs(0, 1_000_000_000)));
+        expected = mapOf(alphanumericStrings(), integers(-1000, 1000), one(integers(1, 200)));
+    }
+
+    @Test
+    public void testUnboundedActsLikeAMap()
+    {
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder().build();
+        cache.putAll(expected);
+
+        assertThat(cache, is(expected));
+        assertThat(expected, is((Map<String, Integer>) cache));
+        assertThat(cache.size(), is(expected.size()));
+        assertThat(cache.weightedSize(), is((long) expected.size()));
+
+        String key = expected.keySet().iterator().next();
+        assertThat(cache.remove(key), is(expected.remove(key)));
+        assertThat(cache.remove(key), nullValue());
+        assertThat(cache, is(expected));
+
+        assertThat(cache.merge("merged", 2, Integer::sum), is(2));
+        assertThat(cache.merge("merged", 3, Integer::sum), is(5));
+        assertThat(cache.compute("merged", (k, v) -> null), nullValue());
+        assertThat(cache.containsKey("merged"), is(false));
+
+        cache.clear();
+        assertThat(cache.isEmpty(), is(true));
+        assertThat(cache.weightedSize(), is(0L));
+    }
+
+    @Test
+    public void testReplaceAndRemoveIf()
+    {
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder().build();
+        cache.putAll(expected);
+        String key = expected.keySet().iterator().next();
+        Integer value = expected.get(key);
+
+        assertThat(cache.replace(key, value + 1, 0), is(false));
+        assertThat(cache.replace(key, value, value + 1), is(true));
+        assertThat(cache.replace(key, value), is(value + 1));
+        assertThat(cache.replace("missing!", 1), nullValue());
+        assertThat(cache.remove(key, value + 1), is(false));
+        assertThat(cache.remove(key, value), is(true));
+        assertThat(cache.putIfAbsent(key, value), nullValue());
+        assertThat(cache.putIfAbsent(key, 0), is(value));
+
+        Iterator<Map.Entry<String, Integer>> iterator = cache.entrySet().iterator();
+        String removed = iterator.next().getKey();
+        iterator.remove();
+        assertThat(cache.containsKey(removed), is(false));
+    }
+
+    @Test
+    public void testMaximumSizeWithEachPolicy()
+    {
+        int maximum = one(integers(1, 50));
+
+        for (EvictionPolicy policy : EvictionPolicy.values())
+        {
+            CachingMap<Integer, Integer> cache = Maps.<Integer, Integer>cacheBuilder()
+                .withMaximumSize(maximum)
+                .withEvictionPolicy(policy)
+                .withStats()
+                .build();
+
+            int count = maximum * 3;
+            for (int i = 0; i < count; i++)
+            {
+                cache.put(i, i);
+                assertThat(cache.size(), lessThanOrEqualTo(maximum));
+            }
+
+            assertThat(cache.size(), is(maximum));
+            assertThat(cache.stats().evictionCount(), is((long) count - maximum));
+            assertThat(cache.stats().evictionWeight(), is((long) count - maximum));
+
+            for (Map.Entry<Integer, Integer> entry : cache.entrySet())
+            {
+                assertThat(entry.getKey(), is(entry.getValue()));
+            }
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testLruEvictsLeastRecentlyUsed()
+    {
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .withMaximumSize(3)
+            .withEvictionPolicy(EvictionPolicy.LRU)
+            .build();
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.put("d", 4);
+
+        assertThat(cache.keySet(), containsInAnyOrder("a", "c", "d"));
+    }
+
+    @DontRepeat
+    @Test
+    public void testLfuEvictsLeastFrequentlyUsed()
+    {
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .withMaximumSize(3)
+            .withEvictionPolicy(EvictionPolicy.LFU)
+            .build();
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+        cache.put("d", 4);
+
+        //b and c were used twice, but b is older
+        assertThat(cache.keySet(), containsInAnyOrder("a", "c", "d"));
+    }
+
+    @DontRepeat
+    @Test
+    public void testTinyLfuKeepsPopularEntriesThroughAScan()
+    {
+        int maximum = 100;
+        CachingMap<Integer, Integer> cache = Maps.<Integer, Integer>cacheBuilder()
+            .withMaximumSize(maximum)
+            .withEvictionPolicy(EvictionPolicy.W_TINY_LFU)
+            .build();
+
+        int popular = 50;
+        for (int round = 0; round < 5; round++)
+        {
+            for (int i = 0; i < popular; i++)
+            {
+                cache.put(i, i);
+                cache.get(i);
+            }
+        }
+
+        //A scan of one-off keys, ten times larger than the cache
+        for (int i = 1000; i < 2000; i++)
+        {
+            cache.put(i, i);
+        }
+
+        int kept = 0;
+        for (int i = 0; i < popular; i++)
+        {
+            if (cache.containsKey(i))
+            {
+                kept++;
+            }
+        }
+
+        assertThat(kept, greaterThanOrEqualTo(popular * 9 / 10));
+        assertThat(cache.size(), is(maximum));
+    }
+
+    @Test
+    public void testMaximumWeight()
+    {
+        long maximum = one(integers(50, 500));
+
+        CachingMap<String, String> cache = Maps.<String, String>cacheBuilder()
+            .withMaximumWeight(maximum, (key, value) -> value.length())
+            .withStats()
+            .build();
+
+        for (int i = 0; i < 200; i++)
+        {
+            cache.put(String.valueOf(i), one(alphanumericStrings()));
+            assertThat(cache.weightedSize(), lessThanOrEqualTo(maximum));
+        }
+
+        long weight = 0;
+        for (String value : cache.values())
+        {
+            weight += value.length();
+        }
+
+        assertThat(cache.weightedSize(), is(weight));
+
+        //Replacing a value updates the weight
+        String key = cache.keySet().iterator().next();
+        long before = cache.weightedSize();
+        int previousLength = cache.get(key).length();
+        cache.put(key, "");
+        assertThat(cache.weightedSize(), is(before - previousLength));
+
+        assertThrows(() -> Maps.<String, Integer>cacheBuilder().withMaximumWeight(10, (k, v) -> -1).build().put("a", 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testEntryHeavierThanMaximum()
+    {
+        CachingMap<String, String> cache = Maps.<String, String>cacheBuilder()
+            .withMaximumWeight(5, (key, value) -> value.length())
+            .build();
+
+        cache.put("a", "123456");
+        assertThat(cache.isEmpty(), is(true));
+        assertThat(cache.weightedSize(), is(0L));
+    }
+
+    @Test
+    public void testExpiryAfterWrite()
+    {
+        long ttl = one(longs(1, 10_000));
+
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .withExpiryAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .withTicker(time::get)
+            .withStats()
+            .build();
+
+        cache.putAll(expected);
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(ttl) - 1);
+
+        //Reading does not extend the life of an entry
+        assertThat(cache, is(expected));
+        String key = expected.keySet().iterator().next();
+        assertThat(cache.get(key), is(expected.get(key)));
+
+        time.incrementAndGet();
+
+        assertThat(cache.get(key), nullValue());
+        assertThat(cache.entrySet(), is(empty()));
+
+        //Expired entries are counted until the timer wheel's next tick
+        time.addAndGet(TICK);
+        assertThat(cache.isEmpty(), is(true));
+        assertThat(cache.stats().expirationCount(), is((long) expected.size()));
+    }
+
+    @Test
+    public void testExpiryAfterAccess()
+    {
+        long tti = one(longs(1, 100_000));
+        long nanos = TimeUnit.MILLISECONDS.toNanos(tti);
+
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .withExpiryAfterAccess(tti, TimeUnit.MILLISECONDS)
+            .withTicker(time::get)
+            .build();
+
+        cache.putAll(expected);
+        String key = expected.keySet().iterator().next();
+
+        for (int i = 0; i < 5; i++)
+        {
+            time.addAndGet(nanos - 1);
+            assertThat(cache.get(key), is(expected.get(key)));
+        }
+
+        //Only the entry that kept being read is still there
+        assertThat(cache.keySet(), contains(key));
+
+        time.addAndGet(nanos);
+        assertThat(cache.containsKey(key), is(false));
+    }
+
+    @Test
+    public void testExpiryAcrossWheelLevels()
+    {
+        CachingMap<Integer, Integer> cache = Maps.<Integer, Integer>cacheBuilder()
+            .withExpiryAfterWrite(30, TimeUnit.DAYS)
+            .withTicker(time::get)
+            .build();
+
+        //Written over the course of a week, so that they land in different buckets and levels
+        int count = one(integers(10, 100));
+        long step = TimeUnit.DAYS.toNanos(7) / count;
+
+        for (int i = 0; i < count; i++)
+        {
+            cache.put(i, i);
+            time.addAndGet(step);
+        }
+
+        time.addAndGet(TimeUnit.DAYS.toNanos(30) - count * step + TICK);
+
+        for (int i = 0; i < count; i++)
+        {
+            cache.cleanUp();
+            assertThat(cache.size(), is(count - i - 1));
+            time.addAndGet(step);
+        }
+
+        cache.cleanUp();
+        assertThat(cache.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testGetOrLoad()
+    {
+        AtomicInteger loads = new AtomicInteger();
+
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .withStats()
+            .build(key ->
+            {
+                loads.incrementAndGet();
+                return key.startsWith("-") ? null : key.length();
+            });
+
+        String key = one(alphanumericStrings());
+
+        assertThat(cache.getOrLoad(key), is(key.length()));
+        assertThat(cache.getOrLoad(key), is(key.length()));
+        assertThat(loads.get(), is(1));
+
+        assertThat(cache.getOrLoad("-missing"), nullValue());
+        assertThat(cache.containsKey("-missing"), is(false));
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount(), is(1L));
+        assertThat(stats.missCount(), is(2L));
+        assertThat(stats.loadSuccessCount(), is(1L));
+        assertThat(stats.loadFailureCount(), is(1L));
+        assertThat(stats.hitRate(), is(1.0 / 3));
+
+        assertThrows(() -> Maps.<String, Integer>cacheBuilder().build().getOrLoad("a"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testLoadFailure()
+    {
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .withStats()
+            .build(key ->
+            {
+                throw new IllegalStateException("failed to load " + key);
+            });
+
+        assertThrows(() -> cache.getOrLoad("a")).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.isEmpty(), is(true));
+        assertThat(cache.stats().loadFailureCount(), is(1L));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws Exception
+    {
+        int threads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CachingMap<String, Integer> cache = Maps.<String, Integer>cacheBuilder()
+            .build(key ->
+            {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return 42;
+            });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try
+        {
+            List<Future<Integer>> results = new ArrayList<>();
+
+            results.add(executor.submit(() -> cache.getOrLoad("key")));
+            loading.await();
+
+            for (int i = 1; i < threads; i++)
+            {
+                results.add(executor.submit(() -> cache.getOrLoad("key")));
+            }
+
+            //Give the other threads time to join the load in progress
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<Integer> result : results)
+            {
+                assertThat(result.get(30, TimeUnit.SECONDS), is(42));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get(), is(1));
+    }
+
+    @DontRepeat
+    @Test
+    public void testStatsAreZeroWhenNotRecorded()
+    {
+        CachingMap<String, Integer> cache = Maps.createCache(1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("b");
+        cache.get("a");
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.requestCount(), is(0L));
+        assertThat(stats.evictionCount(), is(0L));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testNulls()
+    {
+        CachingMap<String, Integer> cache = Maps.createCache(10);
+
+        assertThrows(() -> cache.put(null, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> cache.put("a", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.get(null), nullValue());
+        assertThat(cache.containsKey(null), is(false));
+    }
+
+    @DontRepeat
+    @Test
+    public void testBuilderWithBadArguments()
+    {
+        assertThrows(() -> Maps.createCache(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.cacheBuilder().withMaximumSize(1).withMaximumSize(2)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.cacheBuilder().withMaximumWeight(1, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.cacheBuilder().withEvictionPolicy(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.cacheBuilder().withExpiryAfterWrite(0, TimeUnit.SECONDS)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.cacheBuilder().withExpiryAfterAccess(1, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.cacheBuilder().build(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
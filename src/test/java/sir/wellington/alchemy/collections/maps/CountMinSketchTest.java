@@ -0,0 +1,285 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeThat;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(20)
+@RunWith(AlchemyTestRunner.class)
+public class CountMinSketchTest
+{
+
+    private static final double EPSILON = 0.01;
+
+    private List<String> keys;
+    private Map<String, Long> expected;
+
+    private CountMinSketch<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        keys = listOf(alphanumericStrings(), one(integers(50, 500)));
+        expected = new HashMap<>();
+        instance = Maps.createCountMinSketch(EPSILON, 0.01);
+    }
+
+    private void addAll(CountMinSketch<String> sketch, Map<String, Long> counts, int times)
+    {
+        Random random = new Random();
+
+        for (int i = 0; i < times; i++)
+        {
+            //Skewed towards the first keys
+            String key = keys.get((int) (keys.size() * Math.pow(random.nextDouble(), 3)));
+            long count = 1 + random.nextInt(5);
+
+            sketch.add(key, count);
+            counts.merge(key, count, Long::sum);
+        }
+    }
+
+    @Test
+    public void testCreate()
+    {
+        assertThat(instance.width(), greaterThanOrEqualTo((int) Math.ceil(Math.E / EPSILON)));
+        assertThat(Integer.bitCount(instance.width()), is(1));
+        assertThat(instance.depth(), is(5));
+        assertThat(instance.totalCount(), is(0L));
+        assertThat(instance.estimate(one(alphanumericStrings())), is(0L));
+    }
+
+    @Test
+    public void testEstimate()
+    {
+        addAll(instance, expected, 5_000);
+
+        long total = expected.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(instance.totalCount(), is(total));
+
+        int overEpsilon = 0;
+
+        for (Map.Entry<String, Long> entry : expected.entrySet())
+        {
+            long estimate = instance.estimate(entry.getKey());
+            assertThat(estimate, greaterThanOrEqualTo(entry.getValue()));
+
+            if (estimate - entry.getValue() > EPSILON * total)
+            {
+                overEpsilon++;
+            }
+        }
+
+        //Each estimate exceeds the bound with probability delta; allow a generous margin
+        assertThat(overEpsilon, lessThanOrEqualTo(Math.max(1, expected.size() / 20)));
+    }
+
+    @Test
+    public void testAddReturnsEstimate()
+    {
+        String key = one(alphanumericStrings());
+
+        assertThat(instance.add(key), is(1L));
+        assertThat(instance.add(key, 10), is(11L));
+        assertThat(instance.add(key, 0), is(11L));
+        assertThat(instance.estimate(key), is(11L));
+    }
+
+    @Test
+    public void testConservativeUpdate()
+    {
+        //In a 4 x 2 sketch, find keys that each share one cell of the first key, and together share both
+        String first = keys.get(0);
+        String left = null;
+        String right = null;
+
+        for (String candidate : keys.subList(1, keys.size()))
+        {
+            for (String other : keys.subList(1, keys.size()))
+            {
+                if (!candidate.equals(other) && coverOnlyTogether(first, candidate, other))
+                {
+                    left = candidate;
+                    right = other;
+                    break;
+                }
+            }
+
+            if (left != null)
+            {
+                break;
+            }
+        }
+
+        assumeThat(left, notNullValue());
+
+        CountMinSketch<String> sketch = CountMinSketch.createWithDimensions(4, 2);
+        sketch.add(first, 10);
+        sketch.add(left, 3);
+        sketch.add(right, 3);
+
+        //A plain update would raise both cells of the first key to 13
+        assertThat(sketch.estimate(first), is(10L));
+        assertThat(sketch.estimate(left), is(3L));
+        assertThat(sketch.estimate(right), is(3L));
+        assertThat(sketch.totalCount(), is(16L));
+    }
+
+    private boolean coverOnlyTogether(String key, String left, String right)
+    {
+        CountMinSketch<String> sketch = CountMinSketch.createWithDimensions(4, 2);
+        sketch.add(left, 1);
+
+        if (sketch.estimate(key) != 0)
+        {
+            return false;
+        }
+
+        sketch = CountMinSketch.createWithDimensions(4, 2);
+        sketch.add(right, 1);
+
+        if (sketch.estimate(key) != 0)
+        {
+            return false;
+        }
+
+        sketch.add(left, 1);
+        return sketch.estimate(key) != 0 && sketch.estimate(left) == 1 && sketch.estimate(right) == 1;
+    }
+
+    @Test
+    public void testMerge()
+    {
+        CountMinSketch<String> other = Maps.createCountMinSketch(EPSILON, 0.01);
+
+        addAll(instance, expected, 1_000);
+        addAll(other, expected, 1_000);
+
+        instance.merge(other);
+
+        long total = expected.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(instance.totalCount(), is(total));
+
+        for (Map.Entry<String, Long> entry : expected.entrySet())
+        {
+            assertThat(instance.estimate(entry.getKey()), greaterThanOrEqualTo(entry.getValue()));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testMergeWithIncompatible()
+    {
+        CountMinSketch<String> other = CountMinSketch.createWithDimensions(instance.width() * 2, instance.depth());
+
+        assertThat(instance.isCompatible(other), is(false));
+        assertThrows(() -> instance.merge(other)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.merge(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testDecay()
+    {
+        String key = one(alphanumericStrings());
+        instance.add(key, 100);
+
+        instance.decay(0.5);
+        assertThat(instance.estimate(key), is(50L));
+        assertThat(instance.totalCount(), is(50L));
+
+        instance.decay(0);
+        assertThat(instance.estimate(key), is(0L));
+        assertThat(instance.totalCount(), is(0L));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentAdd() throws Exception
+    {
+        int threads = 4;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Long>>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    Map<String, Long> counts = new HashMap<>();
+                    start.await();
+                    addAll(instance, counts, perThread);
+                    return counts;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<Map<String, Long>> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS).forEach((key, count) -> expected.merge(key, count, Long::sum));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        long total = expected.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(instance.totalCount(), is(total));
+
+        for (Map.Entry<String, Long> entry : expected.entrySet())
+        {
+            assertThat(instance.estimate(entry.getKey()), greaterThanOrEqualTo(entry.getValue()));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> instance.add(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.add("key", -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.decay(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.decay(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CountMinSketch.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CountMinSketch.create(0.01, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CountMinSketch.create(1e-12, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CountMinSketch.createWithDimensions(0, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CountMinSketch.createWithDimensions(16, 17)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(instance.estimate(null), is(0L));
+    }
+}
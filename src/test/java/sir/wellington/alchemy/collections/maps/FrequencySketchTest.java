@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class FrequencySketchTest
+{
+
+    private int hash;
+
+    private FrequencySketch instance;
+
+    @Before
+    public void setUp()
+    {
+        hash = Hashing.mix(one(integers(Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        instance = new FrequencySketch(one(integers(1, 10_000)));
+    }
+
+    @Test
+    public void testNeverUnderestimates()
+    {
+        int times = one(integers(0, FrequencySketch.MAX_FREQUENCY));
+
+        for (int i = 0; i < times; i++)
+        {
+            instance.increment(hash);
+        }
+
+        assertThat(instance.frequency(hash), greaterThanOrEqualTo(times));
+    }
+
+    @Test
+    public void testSaturates()
+    {
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY * 2; i++)
+        {
+            instance.increment(hash);
+        }
+
+        assertThat(instance.frequency(hash), is(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    @Test
+    public void testReset()
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            instance.increment(hash);
+        }
+
+        int before = instance.frequency(hash);
+        instance.reset();
+
+        assertThat(instance.frequency(hash), is(before / 2));
+    }
+
+    @DontRepeat
+    @Test
+    public void testAgesAutomatically()
+    {
+        FrequencySketch sketch = new FrequencySketch(16);
+
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY; i++)
+        {
+            sketch.increment(hash);
+        }
+
+        //Enough other increments to trigger at least one reset
+        for (int i = 0; i < 1000; i++)
+        {
+            sketch.increment(Hashing.mix(i));
+        }
+
+        assertThat(sketch.frequency(hash), lessThan(FrequencySketch.MAX_FREQUENCY));
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphabeticStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class ImmutableMapTest
+{
+
+    private AlchemyGenerator<String> generator;
+    private Map<String, String> map;
+
+    private ImmutableMap<String, String> instance;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphabeticStrings();
+        map = mapOf(generator, generator, one(integers(1, 100)));
+
+        instance = ImmutableMap.copyOf(map);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        assertThat(instance, is(map));
+        assertThat(map, is((Map<String, String>) instance));
+        assertThat(instance.size(), is(map.size()));
+        assertThat(instance.hashCode(), is(map.hashCode()));
+        assertThat(instance.keySet(), is(map.keySet()));
+        assertThat(new ArrayList<>(instance.values()), containsInAnyOrder(map.values().toArray()));
+
+        //Changes to the original do not show through
+        map.put(generator.get(), generator.get());
+        assertThat(instance, is(not(map)));
+    }
+
+    @Test
+    public void testCopyOfImmutableMap()
+    {
+        assertThat(ImmutableMap.copyOf(instance), sameInstance(instance));
+    }
+
+    @DontRepeat
+    @Test
+    public void testEmpty()
+    {
+        ImmutableMap<String, String> empty = ImmutableMap.empty();
+
+        assertThat(empty.isEmpty(), is(true));
+        assertThat(empty, sameInstance(ImmutableMap.empty()));
+        assertThat(empty.get("a"), nullValue());
+        assertThat(empty.containsKey(null), is(false));
+        assertThat(empty.entrySet().iterator().hasNext(), is(false));
+        assertThat(ImmutableMap.copyOf(null), sameInstance(empty));
+        assertThat(ImmutableMap.copyOf(Maps.create()), sameInstance(empty));
+    }
+
+    @Test
+    public void testGet()
+    {
+        map.forEach((key, value) ->
+        {
+            assertThat(instance.get(key), is(value));
+            assertThat(instance.getOrDefault(key, null), is(value));
+            assertThat(instance.containsKey(key), is(true));
+            assertThat(instance.containsValue(value), is(true));
+        });
+
+        String missing = generator.get() + "-missing";
+        assertThat(instance.get(missing), nullValue());
+        assertThat(instance.getOrDefault(missing, "default"), is("default"));
+        assertThat(instance.containsKey(missing), is(false));
+        assertThat(instance.containsValue(missing), is(false));
+    }
+
+    @Test
+    public void testWithNulls()
+    {
+        String key = generator.get() + "-null";
+        map.put(key, null);
+        map.put(null, key);
+
+        instance = ImmutableMap.copyOf(map);
+
+        assertThat(instance, is(map));
+        assertThat(instance.hashCode(), is(map.hashCode()));
+        assertThat(instance.containsKey(key), is(true));
+        assertThat(instance.get(key), nullValue());
+        assertThat(instance.getOrDefault(key, "default"), nullValue());
+        assertThat(instance.containsValue(null), is(true));
+        assertThat(instance.get(null), is(key));
+        assertThat(instance.containsKey(null), is(true));
+        assertThat(new HashMap<>(instance), is(map));
+    }
+
+    @Test
+    public void testWithCollidingHashes()
+    {
+        Map<String, Integer> colliding = new HashMap<>();
+        List<String> keys = Arrays.asList("Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa");
+        for (int i = 0; i < keys.size(); i++)
+        {
+            colliding.put(keys.get(i), i);
+        }
+
+        ImmutableMap<String, Integer> result = ImmutableMap.copyOf(colliding);
+        assertThat(result, is(colliding));
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            assertThat(result.get(keys.get(i)), is(i));
+        }
+
+        assertThat(result.containsKey("AaAaAa"), is(false));
+    }
+
+    @Test
+    public void testEntrySet()
+    {
+        Set<Map.Entry<String, String>> entries = instance.entrySet();
+
+        assertThat(entries, is(map.entrySet()));
+        assertThat(entries.size(), is(map.size()));
+
+        for (Map.Entry<String, String> entry : map.entrySet())
+        {
+            assertThat(entries.contains(entry), is(true));
+        }
+
+        assertThat(entries.contains(new AbstractMap.SimpleEntry<>(generator.get(), generator.get())), is(false));
+        assertThat(entries.contains(generator.get()), is(false));
+    }
+
+    @Test
+    public void testForEach()
+    {
+        Map<String, String> iterated = new HashMap<>();
+        instance.forEach(iterated::put);
+
+        assertThat(iterated, is(map));
+    }
+
+    @Test
+    public void testCannotBeModified()
+    {
+        String key = map.keySet().iterator().next();
+        String value = generator.get();
+
+        assertThrows(() -> instance.put(key, value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.putAll(map)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(key)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(key, value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.putIfAbsent(key, value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.replace(key, value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.replace(key, value, value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.replaceAll((k, v) -> v)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.computeIfAbsent(key, k -> value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.computeIfPresent(key, (k, v) -> value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.compute(key, (k, v) -> value)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.merge(key, value, (a, b) -> b)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(instance::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.keySet().remove(key)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.values().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.entrySet().iterator().next().setValue(value)).isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(instance, is(map));
+    }
+
+    @Test
+    public void testSerialization() throws Exception
+    {
+        ImmutableMap<String, String> copy = serializedCopy(instance);
+
+        assertThat(copy, is(map));
+        assertThat(copy, not(sameInstance(instance)));
+        assertThat(copy.hashCode(), is(map.hashCode()));
+        map.forEach((key, value) -> assertThat(copy.get(key), is(value)));
+        assertThrows(() -> copy.put(one(generator), one(generator))).isInstanceOf(UnsupportedOperationException.class);
+
+        Map<String, String> nulls = new HashMap<>();
+        nulls.put(null, one(generator));
+        nulls.put(one(generator), null);
+
+        ImmutableMap<String, String> withNulls = ImmutableMap.copyOf(nulls);
+        ImmutableMap<String, String> nullCopy = serializedCopy(withNulls);
+        assertThat(nullCopy, is(nulls));
+        assertThat(nullCopy.containsKey(null), is(true));
+        assertThat(serializedCopy(ImmutableMap.empty()), sameInstance(ImmutableMap.empty()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializedCopy(T object) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(object);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            return (T) in.readObject();
+        }
+    }
+}
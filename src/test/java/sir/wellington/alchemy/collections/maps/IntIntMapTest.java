@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class IntIntMapTest
+{
+
+    private AlchemyGenerator<Integer> keys;
+    private Map<Integer, Integer> expected;
+
+    @Before
+    public void setUp()
+    {
+        keys = integers(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        expected = mapOf(keys, integers(-1000, 1000), 100);
+    }
+
+    private IntIntMap fill()
+    {
+        IntIntMap map = Maps.createIntIntMap();
+        expected.forEach(map::put);
+        return map;
+    }
+
+    @Test
+    public void testCreate()
+    {
+        IntIntMap map = Maps.createIntIntMap();
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.size(), is(0));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> Maps.createIntIntMap(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.createIntIntMap(10, 0.0f))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.createIntIntMap(10, 1.0f))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        IntIntMap map = fill();
+        assertThat(map.size(), is(expected.size()));
+
+        expected.forEach((key, value) ->
+        {
+            assertThat(map.containsKey(key), is(true));
+            assertThat(map.get(key), is(value));
+        });
+    }
+
+    @Test
+    public void testPutReplaces()
+    {
+        IntIntMap map = fill();
+        Integer key = expected.keySet().iterator().next();
+        int previous = expected.get(key);
+
+        assertThat(map.put(key, previous + 1), is(previous));
+        assertThat(map.get(key), is(previous + 1));
+        assertThat(map.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testZeroKey()
+    {
+        IntIntMap map = fill();
+        int sizeBefore = map.size();
+        boolean alreadyPresent = map.containsKey(0);
+
+        map.put(0, 5);
+        assertThat(map.containsKey(0), is(true));
+        assertThat(map.get(0), is(5));
+        assertThat(map.size(), is(alreadyPresent ? sizeBefore : sizeBefore + 1));
+
+        assertThat(map.remove(0), is(5));
+        assertThat(map.containsKey(0), is(false));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        IntIntMap map = fill();
+        List<Integer> toRemove = new ArrayList<>(expected.keySet()).subList(0, expected.size() / 2);
+
+        for (Integer key : toRemove)
+        {
+            assertThat(map.remove(key), is(expected.remove(key)));
+        }
+
+        assertThat(map.size(), is(expected.size()));
+
+        expected.forEach((key, value) -> assertThat(map.get(key), is(value)));
+        toRemove.forEach(key -> assertThat(map.containsKey(key), is(false)));
+    }
+
+    @Test
+    public void testRemoveKeepsCollidingKeysReachable()
+    {
+        //Keys that are multiples of a large power of two collide in small tables
+        IntIntMap map = Maps.createIntIntMap(4);
+        Map<Integer, Integer> reference = new HashMap<>();
+
+        for (int i = 1; i <= 64; i++)
+        {
+            int key = i << 20;
+            map.put(key, i);
+            reference.put(key, i);
+        }
+
+        for (int i = 1; i <= 64; i += 3)
+        {
+            int key = i << 20;
+            assertThat(map.remove(key), is(reference.remove(key)));
+        }
+
+        assertThat(map.size(), is(reference.size()));
+        reference.forEach((key, value) -> assertThat(map.get(key), is(value)));
+    }
+
+    @Test
+    public void testAddTo()
+    {
+        IntIntMap map = Maps.createIntIntMap();
+        int key = keys.get();
+
+        assertThat(map.addTo(key, 3), is(3));
+        assertThat(map.addTo(key, 4), is(7));
+        assertThat(map.get(key), is(7));
+    }
+
+    @Test
+    public void testGetOrDefault()
+    {
+        IntIntMap map = Maps.createIntIntMap();
+        int key = keys.get();
+
+        assertThat(map.get(key), is(0));
+        assertThat(map.getOrDefault(key, -1), is(-1));
+    }
+
+    @Test
+    public void testForEachAndKeys()
+    {
+        IntIntMap map = fill();
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited, is(expected));
+
+        int[] result = map.keys();
+        assertThat(result.length, is(expected.size()));
+
+        for (int key : result)
+        {
+            assertThat(expected.containsKey(key), is(true));
+        }
+    }
+
+    @Test
+    public void testClear()
+    {
+        IntIntMap map = fill();
+        map.clear();
+
+        assertThat(map.isEmpty(), is(true));
+        expected.keySet().forEach(key -> assertThat(map.containsKey(key), is(false)));
+    }
+}
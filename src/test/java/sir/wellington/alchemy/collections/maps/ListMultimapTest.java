@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class ListMultimapTest
+{
+
+    private String key;
+    private List<Integer> values;
+
+    private ListMultimap<String, Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        key = one(alphanumericStrings());
+        values = listOf(integers(0, 20), one(integers(1, 3 * ConcurrentMultimap.ARRAY_LIMIT)));
+
+        instance = Maps.createListMultimap();
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.size(), is(0L));
+        assertThat(instance.get(key), is(empty()));
+        assertThat(instance.containsKey(key), is(false));
+        assertThat(instance.keySet(), is(empty()));
+        assertThat(instance.weaklyConsistentCopy().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testPutKeepsDuplicatesInOrder()
+    {
+        for (Integer value : values)
+        {
+            assertThat(instance.put(key, value), is(true));
+        }
+
+        assertThat(instance.get(key), is(values));
+        assertThat(instance.valueCount(key), is(values.size()));
+        assertThat(instance.size(), is((long) values.size()));
+        assertThat(instance.containsKey(key), is(true));
+        assertThat(instance.containsEntry(key, values.get(0)), is(true));
+        assertThat(instance.containsEntry(key, -1), is(false));
+        assertThat(instance.keySet(), contains(key));
+    }
+
+    @Test
+    public void testPutAll()
+    {
+        Integer first = one(integers(0, 20));
+        instance.put(key, first);
+
+        assertThat(instance.putAll(key, values), is(true));
+        assertThat(instance.putAll(key, Collections.emptyList()), is(false));
+
+        List<Integer> expected = new ArrayList<>();
+        expected.add(first);
+        expected.addAll(values);
+
+        assertThat(instance.get(key), is(expected));
+    }
+
+    @Test
+    public void testRemoveTakesFirstOccurrence()
+    {
+        instance.putAll(key, values);
+        List<Integer> expected = new ArrayList<>(values);
+
+        Integer value = values.get(values.size() / 2);
+        assertThat(instance.remove(key, value), is(true));
+        expected.remove(value);
+
+        assertThat(instance.get(key), is(expected));
+        assertThat(instance.remove(key, -1), is(false));
+        assertThat(instance.remove("not-" + key, value), is(false));
+    }
+
+    @Test
+    public void testRemovingEveryValueRemovesTheKey()
+    {
+        instance.putAll(key, values);
+
+        for (Integer value : values)
+        {
+            assertThat(instance.remove(key, value), is(true));
+        }
+
+        assertThat(instance.containsKey(key), is(false));
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.get(key), is(empty()));
+
+        instance.put(key, 1);
+        assertThat(instance.get(key), contains(1));
+    }
+
+    @Test
+    public void testRemoveAll()
+    {
+        instance.putAll(key, values);
+        instance.put("other", 1);
+
+        assertThat(instance.removeAll(key), is(values));
+        assertThat(instance.removeAll(key), is(empty()));
+        assertThat(instance.containsKey(key), is(false));
+        assertThat(instance.get("other"), contains(1));
+
+        instance.clear();
+        assertThat(instance.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testWeaklyConsistentCopyIsImmutable()
+    {
+        instance.putAll(key, values);
+        instance.put("other", 1);
+
+        Map<String, List<Integer>> everyone = instance.weaklyConsistentCopy();
+        List<Integer> copy = instance.get(key);
+
+        instance.put(key, 100);
+        instance.removeAll("other");
+
+        assertThat(everyone.get(key), is(values));
+        assertThat(everyone.get("other"), contains(1));
+        assertThat(copy, is(values));
+
+        assertThrows(() -> everyone.put("other", copy)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> copy.add(1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testForEach()
+    {
+        instance.putAll(key, values);
+
+        List<Integer> seen = new ArrayList<>();
+        instance.forEach((k, v) ->
+        {
+            assertThat(k, is(key));
+            seen.add(v);
+        });
+
+        assertThat(seen, is(values));
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> instance.put(null, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.put(key, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.putAll(key, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.putAll(key, Arrays.asList(1, null))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.forEach(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(instance.get(null), is(empty()));
+        assertThat(instance.remove(null, 1), is(false));
+        assertThat(instance.containsEntry(key, null), is(false));
+        assertThat(instance.isEmpty(), is(true));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentPutsAndRemoves() throws Exception
+    {
+        int threads = 8;
+        int updates = 2_000;
+        String[] keys = { "a", "b", "c" };
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                int thread = t;
+
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+
+                    for (int i = 0; i < updates; i++)
+                    {
+                        String hotKey = keys[i % keys.length];
+                        Integer value = thread * updates + i;
+
+                        instance.put(hotKey, value);
+
+                        //Every other value is removed again, so keys keep growing and shrinking across the array limit
+                        if (i % 2 == 1)
+                        {
+                            assertThat(instance.remove(hotKey, value), is(true));
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Set<Integer> remaining = new HashSet<>();
+        for (String hotKey : keys)
+        {
+            remaining.addAll(instance.get(hotKey));
+        }
+
+        //No put is lost, and nothing that was removed comes back
+        assertThat(instance.size(), is((long) threads * updates / 2));
+        assertThat(remaining.size(), is(threads * updates / 2));
+        remaining.forEach(value -> assertThat(value % 2, is(0)));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.longs;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class LongLongMapTest
+{
+
+    private AlchemyGenerator<Long> keys;
+    private Map<Long, Long> expected;
+
+    @Before
+    public void setUp()
+    {
+        keys = longs(Long.MIN_VALUE, Long.MAX_VALUE);
+        expected = mapOf(keys, longs(-1000, 1000), 100);
+    }
+
+    private LongLongMap fill()
+    {
+        LongLongMap map = Maps.createLongLongMap();
+        expected.forEach(map::put);
+        return map;
+    }
+
+    @Test
+    public void testCreate()
+    {
+        LongLongMap map = Maps.createLongLongMap();
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.size(), is(0));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> Maps.createLongLongMap(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.createLongLongMap(10, 0.0f))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.createLongLongMap(10, 1.0f))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        LongLongMap map = fill();
+        assertThat(map.size(), is(expected.size()));
+
+        expected.forEach((key, value) ->
+        {
+            assertThat(map.containsKey(key), is(true));
+            assertThat(map.get(key), is(value));
+        });
+    }
+
+    @Test
+    public void testPutReplaces()
+    {
+        LongLongMap map = fill();
+        Long key = expected.keySet().iterator().next();
+        long previous = expected.get(key);
+
+        assertThat(map.put(key, previous + 1), is(previous));
+        assertThat(map.get(key), is(previous + 1));
+        assertThat(map.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testZeroKey()
+    {
+        LongLongMap map = fill();
+        int sizeBefore = map.size();
+        boolean alreadyPresent = map.containsKey(0);
+
+        map.put(0, 5);
+        assertThat(map.containsKey(0), is(true));
+        assertThat(map.get(0), is((long) 5));
+        assertThat(map.size(), is(alreadyPresent ? sizeBefore : sizeBefore + 1));
+
+        assertThat(map.remove(0), is((long) 5));
+        assertThat(map.containsKey(0), is(false));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        LongLongMap map = fill();
+        List<Long> toRemove = new ArrayList<>(expected.keySet()).subList(0, expected.size() / 2);
+
+        for (Long key : toRemove)
+        {
+            assertThat(map.remove(key), is(expected.remove(key)));
+        }
+
+        assertThat(map.size(), is(expected.size()));
+
+        expected.forEach((key, value) -> assertThat(map.get(key), is(value)));
+        toRemove.forEach(key -> assertThat(map.containsKey(key), is(false)));
+    }
+
+    @Test
+    public void testRemoveKeepsCollidingKeysReachable()
+    {
+        //Keys that are multiples of a large power of two collide in small tables
+        LongLongMap map = Maps.createLongLongMap(4);
+        Map<Long, Long> reference = new HashMap<>();
+
+        for (long i = 1; i <= 64; i++)
+        {
+            long key = i << 20;
+            map.put(key, i);
+            reference.put(key, i);
+        }
+
+        for (long i = 1; i <= 64; i += 3)
+        {
+            long key = i << 20;
+            assertThat(map.remove(key), is(reference.remove(key)));
+        }
+
+        assertThat(map.size(), is(reference.size()));
+        reference.forEach((key, value) -> assertThat(map.get(key), is(value)));
+    }
+
+    @Test
+    public void testAddTo()
+    {
+        LongLongMap map = Maps.createLongLongMap();
+        long key = keys.get();
+
+        assertThat(map.addTo(key, 3), is((long) 3));
+        assertThat(map.addTo(key, 4), is((long) 7));
+        assertThat(map.get(key), is((long) 7));
+    }
+
+    @Test
+    public void testGetOrDefault()
+    {
+        LongLongMap map = Maps.createLongLongMap();
+        long key = keys.get();
+
+        assertThat(map.get(key), is((long) 0));
+        assertThat(map.getOrDefault(key, -1), is((long) -1));
+    }
+
+    @Test
+    public void testForEachAndKeys()
+    {
+        LongLongMap map = fill();
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited, is(expected));
+
+        long[] result = map.keys();
+        assertThat(result.length, is(expected.size()));
+
+        for (long key : result)
+        {
+            assertThat(expected.containsKey(key), is(true));
+        }
+    }
+
+    @Test
+    public void testClear()
+    {
+        LongLongMap map = fill();
+        map.clear();
+
+        assertThat(map.isEmpty(), is(true));
+        expected.keySet().forEach(key -> assertThat(map.containsKey(key), is(false)));
+    }
+}
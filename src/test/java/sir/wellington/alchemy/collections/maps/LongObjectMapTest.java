@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.anyLongs;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphabeticStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class LongObjectMapTest
+{
+
+    private AlchemyGenerator<Long> keys;
+    private AlchemyGenerator<String> values;
+    private Map<Long, String> expected;
+
+    @Before
+    public void setUp()
+    {
+        keys = anyLongs();
+        values = alphabeticStrings();
+        expected = mapOf(keys, values, 100);
+    }
+
+    private LongObjectMap<String> fill()
+    {
+        LongObjectMap<String> map = Maps.createLongObjectMap();
+        expected.forEach(map::put);
+        return map;
+    }
+
+    @Test
+    public void testCreate()
+    {
+        LongObjectMap<String> map = Maps.createLongObjectMap();
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.size(), is(0));
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateWithBadArgs()
+    {
+        assertThrows(() -> Maps.createLongObjectMap(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.createLongObjectMap(10, 1.5f))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        LongObjectMap<String> map = fill();
+        assertThat(map.size(), is(expected.size()));
+
+        expected.forEach((key, value) ->
+        {
+            assertThat(map.containsKey(key), is(true));
+            assertThat(map.get(key), is(value));
+        });
+
+        assertThat(map.get(one(keys)), anyOf(nullValue(), isIn(expected.values())));
+    }
+
+    @Test
+    public void testPutReplaces()
+    {
+        LongObjectMap<String> map = fill();
+        Long key = expected.keySet().iterator().next();
+        String newValue = one(values);
+
+        assertThat(map.put(key, newValue), is(expected.get(key)));
+        assertThat(map.get(key), is(newValue));
+        assertThat(map.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testZeroKey()
+    {
+        LongObjectMap<String> map = Maps.createLongObjectMap();
+        String value = one(values);
+
+        assertThat(map.put(0, value), nullValue());
+        assertThat(map.get(0), is(value));
+        assertThat(map.size(), is(1));
+
+        assertThat(map.remove(0), is(value));
+        assertThat(map.containsKey(0), is(false));
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        LongObjectMap<String> map = fill();
+        List<Long> toRemove = new ArrayList<>(expected.keySet()).subList(0, expected.size() / 2);
+
+        for (Long key : toRemove)
+        {
+            assertThat(map.remove(key), is(expected.remove(key)));
+        }
+
+        assertThat(map.size(), is(expected.size()));
+        expected.forEach((key, value) -> assertThat(map.get(key), is(value)));
+        toRemove.forEach(key -> assertThat(map.containsKey(key), is(false)));
+    }
+
+    @Test
+    public void testNullValues()
+    {
+        LongObjectMap<String> map = Maps.createLongObjectMap();
+        long key = one(keys);
+
+        map.put(key, null);
+        assertThat(map.containsKey(key), is(true));
+        assertThat(map.get(key), nullValue());
+        assertThat(map.getOrDefault(key, "default"), nullValue());
+    }
+
+    @Test
+    public void testForEach()
+    {
+        LongObjectMap<String> map = fill();
+
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited, is(expected));
+    }
+
+    @Test
+    public void testClear()
+    {
+        LongObjectMap<String> map = fill();
+        map.clear();
+
+        assertThat(map.isEmpty(), is(true));
+        expected.keySet().forEach(key -> assertThat(map.get(key), nullValue()));
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.codecs.Codecs;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(25)
+@RunWith(AlchemyTestRunner.class)
+public class MappedFileMapTest
+{
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Map<String, Long> expected;
+    private Path file;
+
+    private MappedFileMap<String, Long> instance;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        expected = mapOf(alphanumericStrings(), anyLongs(), one(integers(1, 300)));
+        file = folder.getRoot().toPath().resolve("map.bin");
+
+        //Small chunks, so that the file is mapped in several of them
+        MappedFileMap.builder(Codecs.strings(), Codecs.longs())
+            .withChunkSize(256)
+            .write(expected, file);
+
+        instance = MappedFileMap.open(file, Codecs.strings(), Codecs.longs());
+    }
+
+    @After
+    public void tearDown()
+    {
+        instance.close();
+    }
+
+    @Test
+    public void testGet()
+    {
+        assertThat(instance.size(), is(expected.size()));
+        assertThat(instance, is(expected));
+        assertThat(expected, is((Map<String, Long>) instance));
+
+        expected.forEach((key, value) ->
+        {
+            assertThat(instance.get(key), is(value));
+            assertThat(instance.containsKey(key), is(true));
+        });
+
+        String missing = one(alphanumericStrings());
+        if (!expected.containsKey(missing))
+        {
+            assertThat(instance.get(missing), nullValue());
+            assertThat(instance.containsKey(missing), is(false));
+        }
+
+        assertThat(instance.get(null), nullValue());
+        assertThat(instance.get(1), nullValue());
+    }
+
+    @Test
+    public void testValueBufferOf()
+    {
+        String key = expected.keySet().iterator().next();
+
+        ByteBuffer buffer = instance.valueBufferOf(key);
+        assertThat(buffer.remaining(), is(Long.BYTES));
+        assertThat(buffer.isReadOnly(), is(true));
+        assertThat(buffer.getLong(0), is(expected.get(key)));
+
+        String missing = one(alphanumericStrings());
+        if (!expected.containsKey(missing))
+        {
+            assertThat(instance.valueBufferOf(missing), nullValue());
+        }
+    }
+
+    @Test
+    public void testEntrySet()
+    {
+        assertThat(instance.entrySet(), is(expected.entrySet()));
+        assertThat(instance.keySet(), is(expected.keySet()));
+    }
+
+    @Test
+    public void testCannotBeModified()
+    {
+        String key = expected.keySet().iterator().next();
+
+        assertThrows(() -> instance.put(key, 1L)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(key)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.merge(key, 1L, Long::sum)).isInstanceOf(UnsupportedOperationException.class);
+
+        Iterator<Map.Entry<String, Long>> iterator = instance.entrySet().iterator();
+        iterator.next();
+        assertThrows(iterator::remove).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testOpenTwice() throws IOException
+    {
+        try (MappedFileMap<String, Long> second = Maps.openMappedFile(file, Codecs.strings(), Codecs.longs()))
+        {
+            assertThat(second, is(expected));
+        }
+
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testRewrite() throws IOException
+    {
+        Map<String, Long> replacement = mapOf(alphanumericStrings(), anyLongs(), one(integers(1, 100)));
+        Path other = folder.getRoot().toPath().resolve("other.bin");
+
+        try (MappedFileMap<String, Long> copy = Maps.mappedCopyOf(replacement, other, Codecs.strings(), Codecs.longs()))
+        {
+            assertThat(copy, is(replacement));
+            assertThat(copy.file(), is(other));
+        }
+
+        //No temporary files are left behind
+        assertThat(folder.getRoot().list().length, is(2));
+    }
+
+    @DontRepeat
+    @Test
+    public void testEmptyMap() throws IOException
+    {
+        Path empty = folder.getRoot().toPath().resolve("empty.bin");
+
+        try (MappedFileMap<String, Long> map = Maps.mappedCopyOf(new HashMap<>(), empty, Codecs.strings(), Codecs.longs()))
+        {
+            assertThat(map.isEmpty(), is(true));
+            assertThat(map.get("a"), nullValue());
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testWriteWithBadEntries()
+    {
+        Path bad = folder.getRoot().toPath().resolve("bad.bin");
+        MappedFileMap.Builder<String, Long> builder = MappedFileMap.builder(Codecs.strings(), Codecs.longs()).withChunkSize(64);
+
+        Map<String, Long> nullValue = new HashMap<>();
+        nullValue.put("a", null);
+        assertThrows(() -> builder.write(nullValue, bad)).isInstanceOf(IllegalArgumentException.class);
+
+        char[] characters = new char[64];
+        Arrays.fill(characters, 'a');
+        Map<String, Long> tooLarge = Collections.singletonMap(new String(characters), 1L);
+        assertThrows(() -> builder.write(tooLarge, bad)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(Files.exists(bad), is(false));
+        assertThat(folder.getRoot().list().length, is(1));
+    }
+
+    @DontRepeat
+    @Test
+    public void testBuilderWithBadArguments()
+    {
+        assertThrows(() -> MappedFileMap.builder(null, Codecs.longs())).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> MappedFileMap.builder(Codecs.longs(), Codecs.longs()).withChunkSize(100)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> MappedFileMap.builder(Codecs.longs(), Codecs.longs()).withChunkSize(32)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> MappedFileMap.builder(Codecs.longs(), Codecs.longs()).withLoadFactor(1.0f)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testOpenBadFile() throws IOException
+    {
+        Path bad = folder.newFile("bad.bin").toPath();
+        Files.write(bad, new byte[] { 1, 2, 3 });
+
+        assertThrows(() -> MappedFileMap.open(bad, Codecs.strings(), Codecs.longs())).isInstanceOf(IOException.class);
+
+        //A truncated file is detected
+        byte[] contents = Files.readAllBytes(file);
+        Files.write(bad, Arrays.copyOf(contents, contents.length - 1));
+        assertThrows(() -> MappedFileMap.open(bad, Codecs.strings(), Codecs.longs())).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testClose()
+    {
+        String key = expected.keySet().iterator().next();
+        ByteBuffer buffer = instance.valueBufferOf(key);
+
+        instance.close();
+        instance.close();
+
+        assertThat(instance.isClosed(), is(true));
+        assertThrows(() -> instance.get("")).isInstanceOf(IllegalStateException.class);
+        assertThrows(() -> instance.valueBufferOf(key)).isInstanceOf(IllegalStateException.class);
+
+        //Buffers handed out before closing keep the file mapped
+        System.gc();
+        assertThat(buffer.getLong(0), is(expected.get(key)));
+    }
+}
@@ -15,12 +15,14 @@
 
 package sir.wellington.alchemy.collections.maps;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.lists.Forking;
+import sir.wellington.alchemy.collections.lists.Lists;
 import tech.sirwellington.alchemy.generator.AlchemyGenerator;
 import tech.sirwellington.alchemy.test.junit.runners.*;
 
@@ -28,6 +30,7 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
 import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
 import static tech.sirwellington.alchemy.generator.StringGenerators.alphabeticStrings;
 import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
 
@@ -105,6 +108,268 @@ public class MapsTest
         assertThat(result, is(expected));
     }
 
+    @Test
+    public void testMergeWithNullMaps()
+    {
+        Map<String, String> second = mapOf(generator, generator);
+
+        Map<String, String> result = Maps.merge(null, map, null, second);
+
+        Map<String, String> expected = new HashMap<>(map);
+        expected.putAll(second);
+        assertThat(result, is(expected));
+
+        result = Maps.merge(null);
+        assertThat(result, notNullValue());
+        assertThat(result.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testMergeWith()
+    {
+        List<Map<String, Integer>> maps = countsOf(integers(2, 10).get(), 100);
+
+        Map<String, Integer> result = Maps.mergeWith(Integer::sum, maps);
+        assertThat(result, is(expectedCountsOf(maps)));
+    }
+
+    @Test
+    public void testMergeWithResolvesInOrder()
+    {
+        Map<String, String> first = new HashMap<>(map);
+        Map<String, String> second = new HashMap<>();
+        map.keySet().forEach(key -> second.put(key, generator.get()));
+
+        Map<String, String> result = Maps.mergeWith((existing, incoming) -> existing + incoming,
+                                                    Arrays.asList(first, null, second));
+
+        for (String key : map.keySet())
+        {
+            assertThat(result.get(key), is(first.get(key) + second.get(key)));
+        }
+    }
+
+    @Test
+    public void testMergeWithNullValues()
+    {
+        String key = generator.get();
+        Map<String, String> first = new HashMap<>();
+        first.put(key, null);
+
+        Map<String, String> second = new HashMap<>();
+        second.put(key, "second");
+
+        Map<String, String> result = Maps.mergeWith((existing, incoming) -> existing + incoming,
+                                                    Arrays.asList(first, second));
+        assertThat(result.get(key), is("second"));
+
+        //An incoming null is absent too, so it keeps the value merged so far
+        result = Maps.mergeWith((existing, incoming) -> existing + incoming,
+                                Arrays.asList(second, first));
+        assertThat(result.get(key), is("second"));
+
+        result = Maps.mergeWith((existing, incoming) -> existing + incoming,
+                                Arrays.asList(first, first));
+        assertThat(result.containsKey(key), is(true));
+        assertThat(result.get(key), nullValue());
+    }
+
+    @Test
+    public void testMergeWithNeverPassesNull()
+    {
+        String key = generator.get();
+        Map<String, Long> counts = new HashMap<>();
+        counts.put(key, 1L);
+
+        Map<String, Long> missing = new HashMap<>();
+        missing.put(key, null);
+
+        Map<String, Long> result = Maps.mergeWith(Long::sum, Arrays.asList(counts, missing, missing, counts));
+        assertThat(result.get(key), is(2L));
+
+        List<Map<String, Long>> partitions = Maps.partitionedMerge(Long::sum, Arrays.asList(missing, counts, missing), 2);
+        Map<String, Long> partitioned = new HashMap<>();
+        partitions.forEach(partitioned::putAll);
+        assertThat(partitioned.get(key), is(1L));
+    }
+
+    @DontRepeat
+    @Test
+    public void testMergeWithBadArgs()
+    {
+        assertThrows(() -> Maps.mergeWith(null, Arrays.asList(map)))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.<String, String>mergeWith((a, b) -> a, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testParallelMerge()
+    {
+        List<Map<String, Integer>> maps = countsOf(integers(2, 10).get(), 100);
+
+        Map<String, Integer> result = Maps.parallelMerge(Integer::sum, maps);
+        assertThat(result, is(expectedCountsOf(maps)));
+    }
+
+    @DontRepeat
+    @Test
+    public void testParallelMergeWithLargeMaps()
+    {
+        List<Map<String, Integer>> maps = countsOf(4, Forking.PARALLEL_THRESHOLD * 2);
+        maps.add(null);
+
+        Map<String, Integer> result = Maps.parallelMerge(Integer::sum, maps);
+        assertThat(result, is(expectedCountsOf(maps)));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            result = Maps.parallelMerge(Integer::sum, maps, pool);
+            assertThat(result, is(expectedCountsOf(maps)));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testParallelMergeWithBadArgs()
+    {
+        List<Map<String, String>> maps = Arrays.asList(map);
+
+        assertThrows(() -> Maps.parallelMerge(null, maps))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.<String, String>parallelMerge((a, b) -> a, null))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.parallelMerge((a, b) -> a, maps, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPartitionedMerge()
+    {
+        List<Map<String, Integer>> maps = countsOf(integers(2, 10).get(), 100);
+        int partitions = integers(1, 16).get();
+
+        List<Map<String, Integer>> result = Maps.partitionedMerge(Integer::sum, maps, partitions);
+        assertThat(result.size(), is(partitions));
+
+        checkPartitions(result, expectedCountsOf(maps));
+    }
+
+    @DontRepeat
+    @Test
+    public void testPartitionedMergeWithLargeMaps()
+    {
+        List<Map<String, Integer>> maps = countsOf(4, Forking.PARALLEL_THRESHOLD * 2);
+        maps.add(0, null);
+
+        List<Map<String, Integer>> result = Maps.partitionedMerge(Integer::sum, maps, 8);
+        assertThat(result.size(), is(8));
+
+        checkPartitions(result, expectedCountsOf(maps));
+    }
+
+    @Test
+    public void testPartitionedMergeResolvesInOrder()
+    {
+        Map<String, String> second = new HashMap<>();
+        map.keySet().forEach(key -> second.put(key, generator.get()));
+
+        List<Map<String, String>> result = Maps.partitionedMerge((existing, incoming) -> existing + incoming,
+                                                                 Arrays.asList(map, second),
+                                                                 3);
+
+        for (Map<String, String> partition : result)
+        {
+            partition.forEach((key, value) -> assertThat(value, is(map.get(key) + second.get(key))));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testPartitionedMergeWithBadArgs()
+    {
+        List<Map<String, String>> maps = Arrays.asList(map);
+
+        assertThrows(() -> Maps.partitionedMerge(null, maps, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.<String, String>partitionedMerge((a, b) -> a, null, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.partitionedMerge((a, b) -> a, maps, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> Maps.partitionedMerge((a, b) -> a, maps, 2, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Creates maps of counts whose keys overlap, so that merging them has conflicts to resolve.
+     */
+    private List<Map<String, Integer>> countsOf(int numberOfMaps, int keysPerMap)
+    {
+        List<String> keys = Lists.create();
+        for (int i = 0; i < keysPerMap * 2; i++)
+        {
+            keys.add(String.valueOf(i));
+        }
+
+        List<Map<String, Integer>> maps = Lists.create();
+        for (int i = 0; i < numberOfMaps; i++)
+        {
+            Map<String, Integer> counts = new HashMap<>();
+
+            for (int j = 0; j < keysPerMap; j++)
+            {
+                counts.put(keys.get(one(integers(0, keys.size()))), one(integers(1, 100)));
+            }
+
+            maps.add(counts);
+        }
+
+        return maps;
+    }
+
+    private Map<String, Integer> expectedCountsOf(List<Map<String, Integer>> maps)
+    {
+        Map<String, Integer> expected = new HashMap<>();
+
+        for (Map<String, Integer> counts : maps)
+        {
+            if (counts != null)
+            {
+                counts.forEach((key, count) -> expected.merge(key, count, Integer::sum));
+            }
+        }
+
+        return expected;
+    }
+
+    private void checkPartitions(List<Map<String, Integer>> partitions, Map<String, Integer> expected)
+    {
+        Map<String, Integer> combined = new HashMap<>();
+
+        for (int i = 0; i < partitions.size(); i++)
+        {
+            for (String key : partitions.get(i).keySet())
+            {
+                assertThat(Merging.partitionOf(key, partitions.size()), is(i));
+            }
+
+            combined.putAll(partitions.get(i));
+        }
+
+        assertThat(combined, is(expected));
+    }
+
     @Test
     public void testNullToEmpty()
     {
@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.codecs.Codecs;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.BooleanGenerators.booleans;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class OffHeapMapTest
+{
+
+    private Map<String, Long> expected;
+
+    private OffHeapMap<String, Long> instance;
+
+    @Before
+    public void setUp()
+    {
+        expected = mapOf(alphanumericStrings(), anyLongs(), one(integers(1, 300)));
+
+        //Small chunks and a small table, so that the map spans several chunks and has to grow
+        instance = new OffHeapMap<>(Codecs.strings(), Codecs.longs(), 0, 512);
+    }
+
+    @After
+    public void tearDown()
+    {
+        instance.close();
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        expected.forEach((key, value) -> assertThat(instance.put(key, value), nullValue()));
+
+        assertThat(instance.size(), is(expected.size()));
+        assertThat(instance, is(expected));
+        assertThat(expected, is((Map<String, Long>) instance));
+
+        expected.forEach((key, value) ->
+        {
+            assertThat(instance.get(key), is(value));
+            assertThat(instance.containsKey(key), is(true));
+        });
+
+        String missing = one(alphanumericStrings());
+        if (!expected.containsKey(missing))
+        {
+            assertThat(instance.get(missing), nullValue());
+            assertThat(instance.containsKey(missing), is(false));
+        }
+
+        assertThat(instance.get(null), nullValue());
+        assertThat(instance.get(1), nullValue());
+    }
+
+    @Test
+    public void testPutReplaces()
+    {
+        instance.putAll(expected);
+
+        String key = expected.keySet().iterator().next();
+        long value = one(anyLongs());
+
+        assertThat(instance.put(key, value), is(expected.get(key)));
+        assertThat(instance.get(key), is(value));
+        assertThat(instance.size(), is(expected.size()));
+        assertThat(instance.garbageBytes(), greaterThan(0L));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        instance.putAll(expected);
+
+        List<String> keys = new ArrayList<>(expected.keySet());
+        Collections.shuffle(keys);
+
+        for (String key : keys.subList(0, keys.size() / 2))
+        {
+            assertThat(instance.remove(key), is(expected.remove(key)));
+            assertThat(instance.remove(key), nullValue());
+        }
+
+        //Every remaining key is still reachable after the removals shifted the table
+        assertThat(instance, is(expected));
+        expected.forEach((key, value) -> assertThat(instance.get(key), is(value)));
+        assertThat(instance.remove(null), nullValue());
+    }
+
+    @Test
+    public void testCompact()
+    {
+        instance.putAll(expected);
+
+        for (String key : expected.keySet())
+        {
+            long value = one(anyLongs());
+            instance.put(key, value);
+            expected.put(key, value);
+        }
+
+        long before = instance.offHeapBytes();
+        assertThat(instance.garbageBytes(), greaterThan(0L));
+
+        instance.compact();
+
+        assertThat(instance.garbageBytes(), is(0L));
+        assertThat(instance.offHeapBytes(), lessThanOrEqualTo(before));
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testEntrySet()
+    {
+        instance.putAll(expected);
+
+        Set<Map.Entry<String, Long>> entries = instance.entrySet();
+        assertThat(entries, is(expected.entrySet()));
+
+        Map.Entry<String, Long> entry = entries.iterator().next();
+        assertThrows(() -> entry.setValue(1L)).isInstanceOf(UnsupportedOperationException.class);
+
+        Iterator<Map.Entry<String, Long>> iterator = entries.iterator();
+        assertThrows(iterator::remove).isInstanceOf(IllegalStateException.class);
+
+        iterator.next();
+        iterator.remove();
+        assertThrows(iterator::remove).isInstanceOf(IllegalStateException.class);
+        assertThat(instance.size(), is(expected.size() - 1));
+    }
+
+    @Test
+    public void testIteratorRemove()
+    {
+        instance.putAll(expected);
+
+        Map<String, Long> remaining = new HashMap<>(expected);
+        Set<String> seen = new HashSet<>();
+
+        for (Iterator<Map.Entry<String, Long>> iterator = instance.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry<String, Long> entry = iterator.next();
+            assertThat(seen.add(entry.getKey()), is(true));
+
+            if (one(booleans()))
+            {
+                iterator.remove();
+                remaining.remove(entry.getKey());
+            }
+        }
+
+        assertThat(seen, is(expected.keySet()));
+        assertThat(instance, is(remaining));
+        remaining.keySet().forEach(key -> assertThat(instance.containsKey(key), is(true)));
+    }
+
+    @DontRepeat
+    @Test
+    public void testIteratorRemoveAcrossTheEndOfTheTable()
+    {
+        int expectedSize = 48;
+        instance.close();
+        instance = new OffHeapMap<>(Codecs.strings(), Codecs.longs(), expectedSize, 512);
+
+        //Runs that start in the last slots of the table and wrap around to the first ones
+        int capacity = Hashing.capacityFor(expectedSize, Hashing.DEFAULT_LOAD_FACTOR);
+        Set<String> keys = new HashSet<>();
+
+        for (int i = 0; keys.size() < expectedSize; i++)
+        {
+            String key = "key-" + i;
+            int home = Hashing.mix(key.hashCode()) & (capacity - 1);
+
+            if (home >= capacity - 4 || home < 2)
+            {
+                keys.add(key);
+                instance.put(key, (long) i);
+            }
+        }
+
+        List<String> seen = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = instance.entrySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            seen.add(iterator.next().getKey());
+            iterator.remove();
+        }
+
+        assertThat(seen.size(), is(keys.size()));
+        assertThat(new HashSet<>(seen), is(keys));
+        assertThat(instance.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testIteratorIsFailFast()
+    {
+        instance.putAll(expected);
+
+        Iterator<Map.Entry<String, Long>> iterator = instance.entrySet().iterator();
+        iterator.next();
+
+        instance.put(one(alphanumericStrings()) + "-new", 1L);
+
+        assertThrows(iterator::hasNext).isInstanceOf(ConcurrentModificationException.class);
+        assertThrows(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+        assertThrows(iterator::remove).isInstanceOf(ConcurrentModificationException.class);
+
+        iterator = instance.entrySet().iterator();
+        iterator.next();
+        instance.compact();
+        assertThrows(iterator::next).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    public void testClear()
+    {
+        instance.putAll(expected);
+        instance.clear();
+
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.get(expected.keySet().iterator().next()), nullValue());
+
+        instance.putAll(expected);
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testNullKeysAndValues()
+    {
+        assertThrows(() -> instance.put(null, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.put("", null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testClose()
+    {
+        instance.putAll(expected);
+        instance.close();
+
+        assertThat(instance.isClosed(), is(true));
+        assertThrows(() -> instance.get("")).isInstanceOf(IllegalStateException.class);
+        assertThrows(() -> instance.put("", 1L)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testCreateOffHeap()
+    {
+        Map<Long, Long> map = Maps.createOffHeap(Codecs.longs(), Codecs.longs(), 1000);
+
+        try
+        {
+            for (long i = 0; i < 1000; i++)
+            {
+                map.put(i, -i);
+            }
+
+            assertThat(map.size(), is(1000));
+            assertThat(map.get(999L), is(-999L));
+        }
+        finally
+        {
+            ((OffHeapMap<Long, Long>) map).close();
+        }
+
+        assertThrows(() -> Maps.createOffHeap(null, Codecs.longs())).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.createOffHeap(Codecs.longs(), Codecs.longs(), -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
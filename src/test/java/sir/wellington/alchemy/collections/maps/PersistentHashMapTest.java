@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class PersistentHashMapTest
+{
+
+    private Map<String, Integer> expected;
+
+    private PersistentHashMap<String, Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        expected = mapOf(alphanumericStrings(), integers(-1000, 1000), one(integers(1, 2_000)));
+        instance = Maps.persistentCopyOf(expected);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        assertThat(instance, is(expected));
+        assertThat(expected, is((Map<String, Integer>) instance));
+        assertThat(instance.size(), is(expected.size()));
+        assertThat(instance.hashCode(), is(expected.hashCode()));
+        assertThat(instance.keySet(), is(expected.keySet()));
+        assertThat(PersistentHashMap.copyOf(instance), sameInstance(instance));
+
+        expected.forEach((key, value) ->
+        {
+            assertThat(instance.get(key), is(value));
+            assertThat(instance.containsKey(key), is(true));
+        });
+
+        assertThat(instance.get("not-" + one(alphanumericStrings()) + "!"), nullValue());
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertThat(PersistentHashMap.empty().isEmpty(), is(true));
+        assertThat(Maps.persistentCopyOf(null), sameInstance(PersistentHashMap.empty()));
+        assertThat(PersistentHashMap.empty().entrySet().iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testPlusLeavesOldVersionAlone()
+    {
+        String key = one(alphanumericStrings()) + "!";
+        PersistentHashMap<String, Integer> updated = instance.plus(key, 1);
+
+        assertThat(updated.get(key), is(1));
+        assertThat(updated.size(), is(expected.size() + 1));
+        assertThat(instance.containsKey(key), is(false));
+        assertThat(instance, is(expected));
+
+        assertThat(updated.plus(key, 1), sameInstance(updated));
+        assertThat(updated.plus(key, 2).get(key), is(2));
+        assertThat(updated.plus(key, 2).size(), is(updated.size()));
+    }
+
+    @Test
+    public void testMinusLeavesOldVersionAlone()
+    {
+        PersistentHashMap<String, Integer> result = instance;
+
+        for (String key : expected.keySet())
+        {
+            PersistentHashMap<String, Integer> previous = result;
+            result = result.minus(key);
+
+            assertThat(result.containsKey(key), is(false));
+            assertThat(previous.containsKey(key), is(true));
+            assertThat(result.size(), is(previous.size() - 1));
+        }
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(instance, is(expected));
+        assertThat(instance.minus("not-a-key!"), sameInstance(instance));
+    }
+
+    @Test
+    public void testRandomUpdatesMatchHashMap()
+    {
+        Map<String, Integer> model = new HashMap<>(expected);
+        PersistentHashMap<String, Integer> result = instance;
+        List<String> keys = new ArrayList<>(expected.keySet());
+
+        for (int i = 0; i < 500; i++)
+        {
+            String key = one(integers(0, 3)) == 0 ? one(alphanumericStrings()) : keys.get(one(integers(0, keys.size())));
+
+            if (one(integers(0, 2)) == 0)
+            {
+                model.remove(key);
+                result = result.minus(key);
+            }
+            else
+            {
+                model.put(key, i);
+                result = result.plus(key, i);
+            }
+        }
+
+        assertThat(result, is(model));
+        assertThat(result.size(), is(model.size()));
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testTransient()
+    {
+        PersistentHashMap.Transient<String, Integer> builder = instance.asTransient();
+        Map<String, Integer> model = new HashMap<>(expected);
+
+        for (String key : expected.keySet())
+        {
+            if (one(integers(0, 2)) == 0)
+            {
+                builder.remove(key);
+                model.remove(key);
+            }
+            else
+            {
+                builder.put(key + "?", 0);
+                model.put(key + "?", 0);
+            }
+        }
+
+        assertThat(builder.size(), is(model.size()));
+        PersistentHashMap<String, Integer> result = builder.persistent();
+
+        assertThat(result, is(model));
+        assertThat(instance, is(expected));
+
+        assertThrows(() -> builder.put("a", 1)).isInstanceOf(IllegalStateException.class);
+        assertThrows(builder::persistent).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testTransientDoesNotChangeLaterVersions()
+    {
+        PersistentHashMap.Transient<String, Integer> builder = instance.asTransient();
+        builder.put("first", 1);
+        PersistentHashMap<String, Integer> first = builder.persistent();
+
+        PersistentHashMap<String, Integer> second = first.asTransient().put("second", 2).remove("first").persistent();
+
+        assertThat(first.get("first"), is(1));
+        assertThat(first.containsKey("second"), is(false));
+        assertThat(second.get("second"), is(2));
+        assertThat(second.containsKey("first"), is(false));
+
+        assertThat(first.asTransient().put("first", 1).persistent(), sameInstance(first));
+    }
+
+    @Test
+    public void testCollidingKeys()
+    {
+        List<Colliding> keys = new ArrayList<>();
+        PersistentHashMap<Colliding, Integer> map = PersistentHashMap.empty();
+
+        for (int i = 0; i < 20; i++)
+        {
+            Colliding key = new Colliding(i, i % 2);
+            keys.add(key);
+            map = map.plus(key, i);
+        }
+
+        assertThat(map.size(), is(keys.size()));
+
+        for (Colliding key : keys)
+        {
+            assertThat(map.get(key), is(key.id));
+        }
+
+        PersistentHashMap<Colliding, Integer> removed = map;
+
+        for (Colliding key : keys)
+        {
+            removed = removed.minus(key);
+            assertThat(removed.containsKey(key), is(false));
+        }
+
+        assertThat(removed.isEmpty(), is(true));
+        assertThat(map.size(), is(keys.size()));
+
+        Map<Colliding, Integer> copy = new HashMap<>(map);
+        assertThat(PersistentHashMap.copyOf(copy), is(copy));
+    }
+
+    @Test
+    public void testNullKeysAndValues()
+    {
+        PersistentHashMap<String, Integer> result = instance.plus(null, 1).plus("null-value!", null);
+
+        assertThat(result.get(null), is(1));
+        assertThat(result.containsKey(null), is(true));
+        assertThat(result.containsKey("null-value!"), is(true));
+        assertThat(result.get("null-value!"), nullValue());
+        assertThat(result.size(), is(expected.size() + 2));
+
+        Map<String, Integer> model = new HashMap<>(expected);
+        model.put(null, 1);
+        model.put("null-value!", null);
+        assertThat(result, is(model));
+
+        assertThat(result.minus(null).containsKey(null), is(false));
+        assertThat(result.minus(null).size(), is(expected.size() + 1));
+    }
+
+    @DontRepeat
+    @Test
+    public void testIsReadOnly()
+    {
+        assertThrows(() -> instance.put("a", 1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove("a")).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.merge("a", 1, Integer::sum)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.plusAll(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static final class Colliding
+    {
+
+        private final int id;
+        private final int hash;
+
+        private Colliding(int id, int hash)
+        {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            return other instanceof Colliding && ((Colliding) other).id == id;
+        }
+    }
+}
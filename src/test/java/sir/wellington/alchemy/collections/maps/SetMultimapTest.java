@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class SetMultimapTest
+{
+
+    private String key;
+    private List<Integer> values;
+    private Set<Integer> distinct;
+
+    private SetMultimap<String, Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        key = one(alphanumericStrings());
+        values = listOf(integers(0, 3 * ConcurrentMultimap.ARRAY_LIMIT), one(integers(1, 4 * ConcurrentMultimap.ARRAY_LIMIT)));
+        distinct = new HashSet<>(values);
+
+        instance = Maps.createSetMultimap();
+    }
+
+    @Test
+    public void testPutIgnoresDuplicates()
+    {
+        for (Integer value : values)
+        {
+            instance.put(key, value);
+        }
+
+        assertThat(instance.get(key), is(distinct));
+        assertThat(instance.valueCount(key), is(distinct.size()));
+        assertThat(instance.size(), is((long) distinct.size()));
+
+        for (Integer value : distinct)
+        {
+            assertThat(instance.put(key, value), is(false));
+            assertThat(instance.containsEntry(key, value), is(true));
+        }
+
+        assertThat(instance.containsEntry(key, -1), is(false));
+    }
+
+    @Test
+    public void testPutAll()
+    {
+        assertThat(instance.putAll(key, values), is(true));
+        assertThat(instance.get(key), is(distinct));
+
+        assertThat(instance.putAll(key, values), is(false));
+        assertThat(instance.putAll(key, Arrays.asList(-1, -2)), is(true));
+        assertThat(instance.valueCount(key), is(distinct.size() + 2));
+    }
+
+    @Test
+    public void testPutAllOneAtATimeMatchesBulk()
+    {
+        SetMultimap<String, Integer> other = Maps.createSetMultimap();
+        values.forEach(value -> other.put(key, value));
+
+        instance.putAll(key, values);
+
+        assertThat(instance.weaklyConsistentCopy(), is(other.weaklyConsistentCopy()));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        instance.putAll(key, values);
+
+        for (Integer value : distinct)
+        {
+            assertThat(instance.remove(key, value), is(true));
+            assertThat(instance.remove(key, value), is(false));
+            assertThat(instance.containsEntry(key, value), is(false));
+        }
+
+        assertThat(instance.containsKey(key), is(false));
+        assertThat(instance.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemoveAll()
+    {
+        instance.putAll(key, values);
+
+        assertThat(instance.removeAll(key), is(distinct));
+        assertThat(instance.get(key), is(empty()));
+        assertThat(instance.keySet(), is(empty()));
+    }
+
+    @Test
+    public void testWeaklyConsistentCopy()
+    {
+        instance.putAll(key, values);
+        instance.put("other", 1);
+
+        Map<String, Set<Integer>> everyone = instance.weaklyConsistentCopy();
+        instance.clear();
+
+        assertThat(everyone.keySet(), containsInAnyOrder(key, "other"));
+        assertThat(everyone.get(key), is(distinct));
+        assertThat(instance.weaklyConsistentCopy().isEmpty(), is(true));
+        assertThrows(() -> everyone.get(key).add(-1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> instance.put(null, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.put(key, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.putAll(null, Arrays.asList(1, 2))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentPutsOfTheSameValues() throws Exception
+    {
+        int threads = 8;
+        int range = 4 * ConcurrentMultimap.ARRAY_LIMIT;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+
+                    int added = 0;
+
+                    for (int i = 0; i < range; i++)
+                    {
+                        added += instance.put(key, i) ? 1 : 0;
+                    }
+
+                    return added;
+                }));
+            }
+
+            start.countDown();
+
+            int added = 0;
+
+            for (Future<Integer> future : futures)
+            {
+                added += future.get(30, TimeUnit.SECONDS);
+            }
+
+            //Each value is added by exactly one of the threads
+            assertThat(added, is(range));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertThat(instance.valueCount(key), is(range));
+    }
+}
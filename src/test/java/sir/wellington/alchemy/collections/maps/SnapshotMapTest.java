@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.mapOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class SnapshotMapTest
+{
+
+    private Map<String, Integer> expected;
+
+    private SnapshotMap<String, Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        expected = mapOf(alphanumericStrings(), integers(-1000, 1000), one(integers(1, 200)));
+        instance = Maps.createSnapshotMap(expected);
+    }
+
+    @Test
+    public void testCreate()
+    {
+        assertThat(instance, is(expected));
+        assertThat(expected, is((Map<String, Integer>) instance));
+        assertThat(instance.hashCode(), is(expected.hashCode()));
+        assertThat(instance.version(), is(0L));
+        assertThat(instance.snapshot(), is(expected));
+
+        SnapshotMap<String, Integer> empty = Maps.createSnapshotMap();
+        assertThat(empty.isEmpty(), is(true));
+        assertThat(empty.version(), is(0L));
+    }
+
+    @Test
+    public void testSingleWritesPublishVersions()
+    {
+        Map<String, Integer> model = new HashMap<>(expected);
+        String key = one(alphanumericStrings()) + "!";
+
+        assertThat(instance.put(key, 1), nullValue());
+        model.put(key, 1);
+        assertThat(instance.version(), is(1L));
+
+        assertThat(instance.putIfAbsent(key, 2), is(1));
+        assertThat(instance.replace(key, 1, 3), is(true));
+        assertThat(instance.replace(key, 1, 4), is(false));
+        assertThat(instance.replace(key, 5), is(3));
+        model.put(key, 5);
+        assertThat(instance.version(), is(3L));
+
+        String other = expected.keySet().iterator().next();
+        assertThat(instance.remove(other, -5_000), is(false));
+        assertThat(instance.remove(other), is(expected.get(other)));
+        model.remove(other);
+
+        assertThat(instance, is(model));
+        assertThat(instance.version(), is(4L));
+    }
+
+    @Test
+    public void testWritesThatChangeNothingKeepTheVersion()
+    {
+        Map.Entry<String, Integer> entry = expected.entrySet().iterator().next();
+
+        instance.put(entry.getKey(), entry.getValue());
+        instance.remove("not-a-key!");
+        instance.putIfAbsent(entry.getKey(), 0);
+        instance.update(batch -> batch.put(entry.getKey(), entry.getValue()));
+
+        assertThat(instance.version(), is(0L));
+    }
+
+    @Test
+    public void testSnapshotsNeverChange()
+    {
+        SnapshotMap.Snapshot<String, Integer> before = instance.snapshot();
+
+        instance.put("new!", 1);
+        instance.clear();
+
+        assertThat(before, is(expected));
+        assertThat(before.version(), is(0L));
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.version(), is(2L));
+        assertThat(instance.snapshot().version(), is(2L));
+    }
+
+    @Test
+    public void testUpdateAppliesBatchAsOneVersion()
+    {
+        Map<String, Integer> model = new HashMap<>(expected);
+        String removed = expected.keySet().iterator().next();
+
+        SnapshotMap.Snapshot<String, Integer> result = instance.update(batch ->
+        {
+            batch.remove(removed);
+            batch.put("first!", 1).put("second!", 2);
+
+            assertThat(batch.containsKey(removed), is(false));
+            assertThat(batch.get("first!"), is(1));
+        });
+
+        model.remove(removed);
+        model.put("first!", 1);
+        model.put("second!", 2);
+
+        assertThat(result.version(), is(1L));
+        assertThat(result, is(model));
+        assertThat(instance, is(model));
+        assertThat(result.entries(), is(model));
+    }
+
+    @Test
+    public void testBatchCannotBeUsedAfterUpdate()
+    {
+        List<SnapshotMap.Batch<String, Integer>> batches = new ArrayList<>();
+        instance.update(batch -> batches.add(batch.clear()));
+
+        assertThat(instance.isEmpty(), is(true));
+
+        SnapshotMap.Batch<String, Integer> batch = batches.get(0);
+        assertThrows(() -> batch.put("a", 1)).isInstanceOf(IllegalStateException.class);
+        assertThrows(batch::size).isInstanceOf(IllegalStateException.class);
+        assertThrows(batch::clear).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testPutAllAndReplaceAll()
+    {
+        Map<String, Integer> more = mapOf(alphanumericStrings(), integers(0, 100), 10);
+        Map<String, Integer> model = new HashMap<>(expected);
+        model.putAll(more);
+        model.replaceAll((key, value) -> value + 1);
+
+        instance.putAll(more);
+        instance.replaceAll((key, value) -> value + 1);
+
+        assertThat(instance, is(model));
+        assertThat(instance.version(), is(2L));
+    }
+
+    @Test
+    public void testDefaultConcurrentMapMethods()
+    {
+        String key = one(alphanumericStrings()) + "!";
+
+        assertThat(instance.merge(key, 1, Integer::sum), is(1));
+        assertThat(instance.merge(key, 1, Integer::sum), is(2));
+        assertThat(instance.compute(key, (k, v) -> v * 10), is(20));
+        assertThat(instance.computeIfAbsent(key, k -> 0), is(20));
+        assertThat(instance.computeIfPresent(key, (k, v) -> null), nullValue());
+        assertThat(instance.containsKey(key), is(false));
+    }
+
+    @Test
+    public void testIteratorRemoves()
+    {
+        Iterator<Map.Entry<String, Integer>> iterator = instance.entrySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            iterator.next();
+            iterator.remove();
+        }
+
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.version(), is((long) expected.size()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testBadArgs()
+    {
+        assertThrows(() -> instance.put(null, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.put("a", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.update(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.update(batch -> batch.put("a", null))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Maps.createSnapshotMap(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.snapshot().put("a", 1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.snapshot().clear()).isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(instance.get(null), nullValue());
+        assertThat(instance.version(), is(0L));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testReadersSeeWholeBatches() throws Exception
+    {
+        int writers = 2;
+        int readers = 4;
+        int updates = 2_000;
+        List<String> keys = new ArrayList<>(expected.keySet());
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        instance.update(batch -> keys.forEach(key -> batch.put(key, 0)));
+
+        try
+        {
+            for (int t = 0; t < writers; t++)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+
+                    for (int i = 1; i <= updates; i++)
+                    {
+                        int value = i;
+                        instance.update(batch -> keys.forEach(key -> batch.put(key, value)));
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (int t = 0; t < readers; t++)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+                    long lastVersion = -1;
+
+                    for (int i = 0; i < updates; i++)
+                    {
+                        SnapshotMap.Snapshot<String, Integer> snapshot = instance.snapshot();
+                        Integer first = snapshot.get(keys.get(0));
+
+                        //Every key of a snapshot comes from the same batch
+                        for (String key : keys)
+                        {
+                            assertThat(snapshot.get(key), is(first));
+                        }
+
+                        assertThat(snapshot.version(), greaterThanOrEqualTo(lastVersion));
+                        lastVersion = snapshot.version();
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertThat(instance.get(keys.get(0)), is(updates));
+    }
+}
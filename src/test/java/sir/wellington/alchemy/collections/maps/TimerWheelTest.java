@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class TimerWheelTest
+{
+
+    private static final long TICK = 1L << 30;
+
+    private long start;
+    private List<CacheNode<Integer, Integer>> expired;
+
+    private TimerWheel<Integer, Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        start = one(anyLongs());
+        expired = new ArrayList<>();
+
+        instance = new TimerWheel<>(start);
+    }
+
+    @Test
+    public void testNodesExpireInTime()
+    {
+        int count = one(integers(1, 200));
+        long horizon = TimeUnit.DAYS.toNanos(one(integers(1, 20)));
+        List<CacheNode<Integer, Integer>> nodes = new ArrayList<>();
+
+        for (int i = 0; i < count; i++)
+        {
+            CacheNode<Integer, Integer> node = new CacheNode<>(i, i, 1);
+            node.expiresAt = start + one(longs(1, horizon));
+            instance.schedule(node);
+            nodes.add(node);
+        }
+
+        long now = start;
+        long step = one(longs(TICK, TimeUnit.HOURS.toNanos(6)));
+
+        while (now - start < horizon + step)
+        {
+            now += step;
+            instance.advance(now, expired::add);
+
+            for (CacheNode<Integer, Integer> node : nodes)
+            {
+                boolean due = node.expiresAt - now <= 0;
+                boolean wellPast = node.expiresAt - (now - TICK) <= 0;
+
+                //Nothing expires early, and nothing lingers more than a tick after it is due
+                if (expired.contains(node))
+                {
+                    assertThat(due, is(true));
+                }
+                else
+                {
+                    assertThat(wellPast, is(false));
+                }
+            }
+        }
+
+        assertThat(expired, containsInAnyOrder(nodes.toArray()));
+    }
+
+    @Test
+    public void testDeschedule()
+    {
+        CacheNode<Integer, Integer> node = new CacheNode<>(1, 1, 1);
+        node.expiresAt = start + one(longs(1, TimeUnit.HOURS.toNanos(1)));
+
+        instance.schedule(node);
+        instance.deschedule(node);
+        instance.deschedule(node);
+
+        instance.advance(start + TimeUnit.HOURS.toNanos(2), expired::add);
+        assertThat(expired, is(empty()));
+    }
+
+    @Test
+    public void testReschedule()
+    {
+        CacheNode<Integer, Integer> node = new CacheNode<>(1, 1, 1);
+        node.expiresAt = start + TimeUnit.MINUTES.toNanos(1);
+        instance.schedule(node);
+
+        node.expiresAt = start + TimeUnit.HOURS.toNanos(10);
+        instance.reschedule(node);
+
+        instance.advance(start + TimeUnit.HOURS.toNanos(9), expired::add);
+        assertThat(expired, is(empty()));
+
+        instance.advance(start + TimeUnit.HOURS.toNanos(10) + TICK, expired::add);
+        assertThat(expired, is(Collections.singletonList(node)));
+    }
+}
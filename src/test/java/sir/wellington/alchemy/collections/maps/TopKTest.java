@@ -0,0 +1,238 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.maps;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(20)
+@RunWith(AlchemyTestRunner.class)
+public class TopKTest
+{
+
+    private static final int K = 10;
+
+    private List<String> keys;
+    private Map<String, Long> expected;
+
+    private TopK<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        keys = new ArrayList<>(new LinkedHashSet<>(listOf(alphanumericStrings(), one(integers(500, 2_000)))));
+        expected = new HashMap<>();
+        instance = TopK.create(K, 4 * K, 4);
+    }
+
+    /**
+     * Adds a Zipf-like stream, in which the i-th key is seen about {@code 1 / (i + 1)} as often as the first.
+     */
+    private void addAll(TopK<String> tracker, Map<String, Long> counts, int times)
+    {
+        Random random = new Random();
+
+        for (int i = 0; i < times; i++)
+        {
+            int rank = (int) Math.pow(keys.size() + 1, random.nextDouble()) - 1;
+            String key = keys.get(Math.min(rank, keys.size() - 1));
+
+            tracker.add(key);
+            counts.merge(key, 1L, Long::sum);
+        }
+    }
+
+    private List<String> heaviest(Map<String, Long> counts, int n)
+    {
+        return counts.entrySet()
+                     .stream()
+                     .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                     .limit(n)
+                     .map(Map.Entry::getKey)
+                     .collect(Collectors.toList());
+    }
+
+    private void checkBounds(TopK<String> tracker)
+    {
+        for (TopK.Entry<String> entry : tracker.top())
+        {
+            long actual = expected.getOrDefault(entry.key(), 0L);
+
+            assertThat(entry.count(), greaterThanOrEqualTo(actual));
+            assertThat(entry.guaranteedCount(), lessThanOrEqualTo(actual));
+            assertThat(tracker.estimate(entry.key()), is(entry.count()));
+        }
+    }
+
+    @Test
+    public void testCreate()
+    {
+        TopK<String> tracker = Maps.createTopK(K);
+
+        assertThat(tracker.k(), is(K));
+        assertThat(tracker.capacity(), greaterThanOrEqualTo(K));
+        assertThat(tracker.top(), is(empty()));
+        assertThat(tracker.estimate(one(alphanumericStrings())), is(0L));
+    }
+
+    @Test
+    public void testExactWhileUnderCapacity()
+    {
+        List<String> few = keys.subList(0, K);
+
+        for (int i = 0; i < few.size(); i++)
+        {
+            instance.add(few.get(i), i + 1);
+        }
+
+        List<TopK.Entry<String>> top = instance.top();
+        assertThat(top.size(), is(K));
+
+        for (int i = 0; i < K; i++)
+        {
+            TopK.Entry<String> entry = top.get(i);
+            assertThat(entry.key(), is(few.get(K - 1 - i)));
+            assertThat(entry.count(), is((long) (K - i)));
+            assertThat(entry.error(), is(0L));
+        }
+    }
+
+    @Test
+    public void testHeavyHitters()
+    {
+        addAll(instance, expected, 20_000);
+
+        List<TopK.Entry<String>> top = instance.top();
+        assertThat(top.size(), is(K));
+        checkBounds(instance);
+
+        for (int i = 1; i < top.size(); i++)
+        {
+            assertThat(top.get(i).count(), lessThanOrEqualTo(top.get(i - 1).count()));
+        }
+
+        //Any key seen more than total / capacity times, in its shard, is tracked; the heaviest few are seen far more
+        List<String> reported = top.stream().map(TopK.Entry::key).collect(Collectors.toList());
+        assertThat(reported, hasItems(heaviest(expected, 3).toArray(new String[0])));
+    }
+
+    @Test
+    public void testMerge()
+    {
+        TopK<String> other = TopK.create(K, 4 * K, 4);
+
+        addAll(instance, expected, 10_000);
+        addAll(other, expected, 10_000);
+
+        instance.merge(other);
+        checkBounds(instance);
+
+        List<String> reported = instance.top().stream().map(TopK.Entry::key).collect(Collectors.toList());
+        assertThat(reported, hasItems(heaviest(expected, 3).toArray(new String[0])));
+    }
+
+    @DontRepeat
+    @Test
+    public void testMergeWithIncompatible()
+    {
+        TopK<String> other = TopK.create(K, 8 * K, 4);
+
+        assertThat(instance.isCompatible(other), is(false));
+        assertThrows(() -> instance.merge(other)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.merge(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testDecay()
+    {
+        String key = keys.get(0);
+        instance.add(key, 100);
+
+        instance.decay(0.5);
+        assertThat(instance.estimate(key), is(50L));
+
+        instance.decay(0);
+        assertThat(instance.estimate(key), is(0L));
+        assertThat(instance.top(), is(empty()));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentAdd() throws Exception
+    {
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Long>>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    Map<String, Long> counts = new HashMap<>();
+                    start.await();
+                    addAll(instance, counts, 5_000);
+                    return counts;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<Map<String, Long>> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS).forEach((key, count) -> expected.merge(key, count, Long::sum));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        checkBounds(instance);
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> instance.add(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.add("key", -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.decay(-0.1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> TopK.create(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> TopK.create(10, 5, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> TopK.create(10, 20, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(instance.estimate(null), is(0L));
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ * The behaviour every {@link ConcurrentQueue} shares. Each implementation's test extends it with a factory for its
+ * own queue.
+ *
+ * @author SirWellington
+ */
+public abstract class ConcurrentQueueContract
+{
+
+    private int capacity;
+    private List<Integer> values;
+
+    private ConcurrentQueue<Integer> instance;
+
+    /**
+     * @param capacity
+     * @return A new, empty queue of the type under test.
+     */
+    abstract ConcurrentQueue<Integer> createQueue(int capacity);
+
+    /**
+     * @return How many threads may produce at the same time.
+     */
+    abstract int producers();
+
+    /**
+     * @return How many threads may consume at the same time.
+     */
+    abstract int consumers();
+
+    @Before
+    public void setUp()
+    {
+        capacity = one(integers(2, 200));
+        values = listOf(integers(0, 1000), one(integers(1, capacity)));
+
+        instance = createQueue(capacity);
+    }
+
+    @Test
+    public void testCapacityIsPowerOfTwo()
+    {
+        assertThat(instance.capacity(), greaterThanOrEqualTo(capacity));
+        assertThat(instance.capacity(), lessThan(capacity * 2));
+        assertThat(Integer.bitCount(instance.capacity()), is(1));
+    }
+
+    @Test
+    public void testOfferAndPollInOrder()
+    {
+        for (Integer value : values)
+        {
+            assertThat(instance.offer(value), is(true));
+        }
+
+        assertThat(instance.size(), is(values.size()));
+        assertThat(instance.peek(), is(values.get(0)));
+
+        for (Integer value : values)
+        {
+            assertThat(instance.poll(), is(value));
+        }
+
+        assertThat(instance.poll(), nullValue());
+        assertThat(instance.peek(), nullValue());
+        assertThat(instance.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testOfferWhenFull()
+    {
+        for (int i = 0; i < instance.capacity(); i++)
+        {
+            assertThat(instance.offer(i), is(true));
+        }
+
+        assertThat(instance.offer(-1), is(false));
+        assertThat(instance.size(), is(instance.capacity()));
+        assertThrows(() -> instance.add(-1)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(instance.poll(), is(0));
+        assertThat(instance.offer(-1), is(true));
+    }
+
+    @Test
+    public void testWrapsAround()
+    {
+        for (int lap = 0; lap < 3; lap++)
+        {
+            assertThat(instance.offerAll(values), is(values.size()));
+
+            List<Integer> drained = new ArrayList<>();
+            assertThat(instance.drainTo(drained, Integer.MAX_VALUE), is(values.size()));
+            assertThat(drained, is(values));
+        }
+    }
+
+    @Test
+    public void testOfferAllStopsWhenFull()
+    {
+        List<Integer> many = listOf(integers(0, 1000), instance.capacity() + one(integers(1, 10)));
+
+        assertThat(instance.offerAll(many), is(instance.capacity()));
+        assertThat(instance.offerAll(many), is(0));
+
+        List<Integer> drained = new ArrayList<>();
+        instance.drainTo(drained::add, Integer.MAX_VALUE);
+
+        assertThat(drained, is(many.subList(0, instance.capacity())));
+    }
+
+    @Test
+    public void testDrainToRespectsLimit()
+    {
+        instance.offerAll(values);
+        int limit = one(integers(0, values.size() + 1));
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(instance.drainTo(drained, limit), is(limit));
+        assertThat(drained, is(values.subList(0, limit)));
+        assertThat(instance.size(), is(values.size() - limit));
+    }
+
+    @Test
+    public void testClear()
+    {
+        instance.offerAll(values);
+        instance.clear();
+
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.poll(), nullValue());
+    }
+
+    @Test
+    public void testIterator()
+    {
+        instance.offerAll(values);
+
+        List<Integer> iterated = new ArrayList<>();
+        instance.iterator().forEachRemaining(iterated::add);
+
+        assertThat(iterated, is(values));
+        assertThat(instance.size(), is(values.size()));
+        assertThat(instance.contains(values.get(0)), is(true));
+    }
+
+    @Test
+    public void testIteratorIsWeaklyConsistent()
+    {
+        instance.offerAll(values);
+        int taken = one(integers(0, values.size()));
+
+        Iterator<Integer> iterator = instance.iterator();
+
+        //Elements taken after the iterator was created are skipped
+        instance.drainTo(new ArrayList<>(), taken);
+
+        //Elements added after the iterator was created are not seen
+        instance.offer(-1);
+
+        List<Integer> iterated = new ArrayList<>();
+        iterator.forEachRemaining(iterated::add);
+
+        assertThat(iterated, is(values.subList(taken, values.size())));
+        assertThrows(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testIteratorAfterWrappingAround()
+    {
+        for (int lap = 0; lap < 3; lap++)
+        {
+            instance.offerAll(values);
+
+            List<Integer> iterated = new ArrayList<>();
+            instance.forEach(iterated::add);
+            assertThat(iterated, is(values));
+
+            instance.clear();
+            assertThat(instance.iterator().hasNext(), is(false));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testIteratorDoesNotSupportRemove()
+    {
+        instance.offerAll(values);
+
+        Iterator<Integer> iterator = instance.iterator();
+        iterator.next();
+
+        assertThrows(iterator::remove).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> instance.offer(null)).isInstanceOf(NullPointerException.class);
+        assertThrows(() -> instance.offerAll(Arrays.asList(1, null))).isInstanceOf(NullPointerException.class);
+        assertThat(instance.isEmpty(), is(true));
+        assertThrows(() -> instance.drainTo((java.util.function.Consumer<Integer>) null, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentHandoff() throws Exception
+    {
+        int producers = producers();
+        int consumers = consumers();
+        int perProducer = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        List<Future<List<Integer>>> consumed = new ArrayList<>();
+        List<Future<?>> produced = new ArrayList<>();
+
+        try
+        {
+            for (int p = 0; p < producers; p++)
+            {
+                int first = p * perProducer;
+
+                produced.add(executor.submit(() ->
+                {
+                    for (int i = 0; i < perProducer; i++)
+                    {
+                        instance.put(first + i, WaitStrategies.yielding());
+                    }
+
+                    return null;
+                }));
+            }
+
+            int total = producers * perProducer;
+
+            for (int c = 0; c < consumers; c++)
+            {
+                int share = total / consumers;
+
+                consumed.add(executor.submit(() ->
+                {
+                    List<Integer> taken = new ArrayList<>(share);
+
+                    while (taken.size() < share)
+                    {
+                        taken.add(instance.take(WaitStrategies.backingOff()));
+                    }
+
+                    return taken;
+                }));
+            }
+
+            for (Future<?> future : produced)
+            {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            Set<Integer> seen = new HashSet<>();
+
+            for (Future<List<Integer>> future : consumed)
+            {
+                List<Integer> taken = future.get(60, TimeUnit.SECONDS);
+                seen.addAll(taken);
+
+                //Each producer's elements come out in the order it put them in
+                int[] last = new int[producers];
+                Arrays.fill(last, -1);
+
+                for (Integer value : taken)
+                {
+                    int producer = value / perProducer;
+                    assertThat(value, greaterThan(last[producer]));
+                    last[producer] = value;
+                }
+            }
+
+            //Nothing is lost or duplicated
+            assertThat(seen.size(), is(total));
+            assertThat(instance.isEmpty(), is(true));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
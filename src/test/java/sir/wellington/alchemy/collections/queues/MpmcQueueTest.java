@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class MpmcQueueTest extends ConcurrentQueueContract
+{
+
+    @Override
+    ConcurrentQueue<Integer> createQueue(int capacity)
+    {
+        return Queues.createMpmc(capacity);
+    }
+
+    @Override
+    int producers()
+    {
+        return 4;
+    }
+
+    @Override
+    int consumers()
+    {
+        return 4;
+    }
+}
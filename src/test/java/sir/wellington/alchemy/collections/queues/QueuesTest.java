@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@RunWith(AlchemyTestRunner.class)
+public class QueuesTest
+{
+
+    @Test
+    public void testCannotInstantiate()
+    {
+        assertThrows(() -> new Queues()).isInstanceOf(IllegalAccessException.class);
+    }
+
+    @Test
+    public void testCapacityIsRoundedUp()
+    {
+        assertThat(Queues.createSpsc(1).capacity(), is(2));
+        assertThat(Queues.createMpsc(5).capacity(), is(8));
+        assertThat(Queues.createMpmc(64).capacity(), is(64));
+    }
+
+    @Test
+    public void testWithBadCapacity()
+    {
+        assertThrows(() -> Queues.createSpsc(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Queues.createMpsc(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Queues.createMpmc(RingQueue.MAX_CAPACITY + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.queues;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@RunWith(AlchemyTestRunner.class)
+public class WaitStrategiesTest
+{
+
+    @Test
+    public void testCannotInstantiate()
+    {
+        assertThrows(() -> new WaitStrategies()).isInstanceOf(IllegalAccessException.class);
+    }
+
+    @Test
+    public void testStrategiesReturn()
+    {
+        WaitStrategy[] strategies =
+        {
+            WaitStrategies.spinning(),
+            WaitStrategies.yielding(),
+            WaitStrategies.parking(1, TimeUnit.MICROSECONDS),
+            WaitStrategies.backingOff(),
+            WaitStrategies.backingOff(1, 1, 1, TimeUnit.MICROSECONDS)
+        };
+
+        for (WaitStrategy strategy : strategies)
+        {
+            for (int attempt = 0; attempt < 5; attempt++)
+            {
+                strategy.idle(attempt);
+            }
+        }
+    }
+
+    @Test
+    public void testParkingWaits()
+    {
+        long start = System.nanoTime();
+        WaitStrategies.parking(2, TimeUnit.MILLISECONDS).idle(0);
+
+        //Parking may return early, but not usually
+        assertThat(System.nanoTime() - start, greaterThan(0L));
+    }
+
+    @Test
+    public void testTakeIsInterruptible() throws Exception
+    {
+        ConcurrentQueue<Integer> queue = Queues.createMpmc(4);
+
+        Thread.currentThread().interrupt();
+        assertThrows(() -> queue.take(WaitStrategies.spinning())).isInstanceOf(InterruptedException.class);
+        assertThat(Thread.interrupted(), is(false));
+    }
+
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> WaitStrategies.parking(0, TimeUnit.SECONDS)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> WaitStrategies.parking(1, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> WaitStrategies.backingOff(-1, 0, 1, TimeUnit.SECONDS)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
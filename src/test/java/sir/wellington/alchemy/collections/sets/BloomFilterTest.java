@@ -0,0 +1,284 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(20)
+@RunWith(AlchemyTestRunner.class)
+public class BloomFilterTest
+{
+
+    private List<String> elements;
+    private double falsePositiveRate;
+
+    private BloomFilter<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        elements = listOf(alphanumericStrings(), one(integers(1, 2_000)));
+        falsePositiveRate = one(integers(1, 10)) / 100.0;
+
+        instance = Sets.bloomFilterOf(elements, falsePositiveRate);
+    }
+
+    @Test
+    public void testNoFalseNegatives()
+    {
+        for (String element : elements)
+        {
+            assertThat(instance.mightContain(element), is(true));
+        }
+
+        assertThat(instance.mightContain(null), is(false));
+        assertThat(instance.isConcurrent(), is(false));
+    }
+
+    @Test
+    public void testAddReportsChanges()
+    {
+        String element = one(alphanumericStrings());
+        BloomFilter<String> filter = Sets.createBloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain(element), is(false));
+        assertThat(filter.add(element), is(true));
+        assertThat(filter.add(element), is(false));
+        assertThat(filter.mightContain(element), is(true));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testFalsePositiveRate()
+    {
+        int expected = 20_000;
+        BloomFilter<Integer> filter = BloomFilter.create(expected, falsePositiveRate);
+
+        for (int i = 0; i < expected; i++)
+        {
+            filter.add(i);
+        }
+
+        int trials = 100_000;
+        int falsePositives = 0;
+
+        for (int i = expected; i < expected + trials; i++)
+        {
+            falsePositives += filter.mightContain(i) ? 1 : 0;
+        }
+
+        double rate = (double) falsePositives / trials;
+        assertThat(rate, lessThan(falsePositiveRate * 1.5));
+        assertThat(filter.expectedFalsePositiveRate(), lessThan(falsePositiveRate * 1.5));
+    }
+
+    @DontRepeat
+    @Test
+    public void testFalsePositiveRateAtLowTargets()
+    {
+        int expected = 1_000_000;
+        int trials = 1_000_000;
+
+        for (double target : new double[] { 1e-3, 1e-4 })
+        {
+            BloomFilter<String> filter = BloomFilter.create(expected, target);
+
+            for (int i = 0; i < expected; i++)
+            {
+                filter.add("element-" + i);
+            }
+
+            int falsePositives = 0;
+
+            for (int i = expected; i < expected + trials; i++)
+            {
+                falsePositives += filter.mightContain("element-" + i) ? 1 : 0;
+            }
+
+            assertThat(falsePositives, lessThan((int) (target * trials * 1.5)));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testDefaultHasherUsesAll64Bits()
+    {
+        //Every one of these has a hashCode() of 0
+        int expected = 100_000;
+        BloomFilter<Long> filter = BloomFilter.create(expected, falsePositiveRate);
+
+        for (long i = 0; i < expected; i++)
+        {
+            filter.add(i << 32 | i);
+        }
+
+        int trials = 100_000;
+        int falsePositives = 0;
+
+        for (long i = expected; i < expected + trials; i++)
+        {
+            falsePositives += filter.mightContain(i << 32 | i) ? 1 : 0;
+        }
+
+        assertThat(falsePositives, lessThan((int) (falsePositiveRate * trials * 1.5) + 10));
+    }
+
+    @Test
+    public void testSizingAccountsForBlocks()
+    {
+        long expected = one(integers(1, 1_000_000));
+        BloomFilter<String> filter = BloomFilter.create(expected, falsePositiveRate);
+
+        long blocks = filter.bitSize() / BloomFilter.BLOCK_BITS;
+        double rate = BloomFilter.falsePositiveRate(expected, blocks, filter.hashFunctions());
+
+        assertThat(rate, lessThanOrEqualTo(falsePositiveRate));
+        assertThat(filter.bitSize() % BloomFilter.BLOCK_BITS, is(0L));
+    }
+
+    @Test
+    public void testUnion()
+    {
+        List<String> others = listOf(alphanumericStrings(), one(integers(1, 500)));
+        BloomFilter<String> first = BloomFilter.create(2_500, falsePositiveRate);
+        BloomFilter<String> second = BloomFilter.create(2_500, falsePositiveRate);
+
+        first.addAll(elements);
+        second.addAll(others);
+
+        BloomFilter<String> union = first.union(second);
+
+        elements.forEach(element -> assertThat(union.mightContain(element), is(true)));
+        others.forEach(element -> assertThat(union.mightContain(element), is(true)));
+
+        BloomFilter<String> different = BloomFilter.create(25_000, falsePositiveRate);
+        assertThat(first.isCompatible(different), is(false));
+        assertThrows(() -> first.union(different)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> first.union(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testBytesRoundTrip()
+    {
+        byte[] bytes = instance.toBytes();
+        BloomFilter<String> copy = BloomFilter.fromBytes(bytes);
+
+        assertThat(copy.bitSize(), is(instance.bitSize()));
+        assertThat(copy.hashFunctions(), is(instance.hashFunctions()));
+        assertThat(copy.toBytes(), is(bytes));
+        assertThat(copy.isCompatible(instance), is(true));
+
+        elements.forEach(element -> assertThat(copy.mightContain(element), is(true)));
+
+        BloomFilter<String> concurrent = BloomFilter.fromBytes(bytes, FilterHashing.DEFAULT_HASHER, true);
+        assertThat(concurrent.isConcurrent(), is(true));
+        assertThat(concurrent.toBytes(), is(bytes));
+    }
+
+    @DontRepeat
+    @Test
+    public void testFromBadBytes()
+    {
+        byte[] bytes = instance.toBytes();
+
+        assertThrows(() -> BloomFilter.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.fromBytes(new byte[3])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.fromBytes(Arrays.copyOf(bytes, bytes.length - 1))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.fromBytes(CuckooFilter.create(10, 0.1).toBytes())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testBadArgs()
+    {
+        assertThrows(() -> BloomFilter.create(-1, 0.1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.create(10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.create(10, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.create(10, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> BloomFilter.create(10, 0.1, null, false)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.add(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.addAll(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(Sets.bloomFilterOf(null, 0.1).mightContain("a"), is(false));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentAdds() throws Exception
+    {
+        int threads = 4;
+        int perThread = 5_000;
+        BloomFilter<Integer> filter = BloomFilter.createConcurrent(threads * perThread, 0.01);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                int first = t * perThread;
+
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+
+                    for (int i = first; i < first + perThread; i++)
+                    {
+                        filter.add(i);
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        //No bit set by one thread is lost to another
+        for (int i = 0; i < threads * perThread; i++)
+        {
+            assertThat(filter.mightContain(i), is(true));
+        }
+    }
+}
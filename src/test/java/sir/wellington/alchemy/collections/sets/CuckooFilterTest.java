@@ -0,0 +1,305 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(20)
+@RunWith(AlchemyTestRunner.class)
+public class CuckooFilterTest
+{
+
+    private List<String> elements;
+
+    private CuckooFilter<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        elements = new ArrayList<>(new LinkedHashSet<>(listOf(alphanumericStrings(), one(integers(1, 2_000)))));
+        instance = Sets.cuckooFilterOf(elements, 0.01);
+    }
+
+    @Test
+    public void testNoFalseNegatives()
+    {
+        for (String element : elements)
+        {
+            assertThat(instance.mightContain(element), is(true));
+        }
+
+        assertThat(instance.count(), is((long) elements.size()));
+        assertThat(instance.isFull(), is(false));
+        assertThat(instance.mightContain(null), is(false));
+    }
+
+    @Test
+    public void testFingerprintSize()
+    {
+        assertThat(CuckooFilter.create(10, 0.05).fingerprintBits(), is(8));
+        assertThat(CuckooFilter.create(10, 0.01).fingerprintBits(), is(16));
+        assertThat(CuckooFilter.create(10, 1e-6).fingerprintBits(), is(32));
+    }
+
+    @Test
+    public void testRemovingEverythingEmptiesTheFilter()
+    {
+        for (String element : elements)
+        {
+            assertThat(instance.remove(element), is(true));
+        }
+
+        assertThat(instance.count(), is(0L));
+
+        for (String element : elements)
+        {
+            assertThat(instance.mightContain(element), is(false));
+            assertThat(instance.remove(element), is(false));
+        }
+    }
+
+    @Test
+    public void testDuplicatesAreCounted()
+    {
+        String element = one(alphanumericStrings());
+        CuckooFilter<String> filter = Sets.createCuckooFilter(100, 0.01);
+
+        filter.add(element);
+        filter.add(element);
+        assertThat(filter.count(), is(2L));
+
+        filter.remove(element);
+        assertThat(filter.mightContain(element), is(true));
+
+        filter.remove(element);
+        assertThat(filter.mightContain(element), is(false));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testFalsePositiveRate()
+    {
+        double falsePositiveRate = 0.05;
+        int expected = 20_000;
+        CuckooFilter<Integer> filter = CuckooFilter.create(expected, falsePositiveRate);
+
+        for (int i = 0; i < expected; i++)
+        {
+            assertThat(filter.add(i), is(true));
+        }
+
+        int trials = 100_000;
+        int falsePositives = 0;
+
+        for (int i = expected; i < expected + trials; i++)
+        {
+            falsePositives += filter.mightContain(i) ? 1 : 0;
+        }
+
+        assertThat((double) falsePositives / trials, lessThan(falsePositiveRate));
+        assertThat(filter.expectedFalsePositiveRate(), lessThan(falsePositiveRate));
+    }
+
+    @Test
+    public void testFillingUp()
+    {
+        CuckooFilter<Integer> filter = CuckooFilter.create(100, 0.01);
+        List<Integer> added = new ArrayList<>();
+
+        for (int i = 0; i < filter.capacity() * 2; i++)
+        {
+            if (!filter.add(i))
+            {
+                break;
+            }
+
+            added.add(i);
+        }
+
+        assertThat(filter.isFull(), is(true));
+        assertThat(filter.count(), is((long) added.size()));
+        assertThat((double) added.size(), greaterThan(filter.capacity() * 0.9));
+        assertThat(filter.add(-1), is(false));
+
+        //Nothing is lost, including the fingerprint that could not be placed
+        added.forEach(element -> assertThat(filter.mightContain(element), is(true)));
+
+        assertThat(filter.remove(added.get(0)), is(true));
+        added.subList(1, added.size()).forEach(element -> assertThat(filter.mightContain(element), is(true)));
+    }
+
+    @Test
+    public void testUnion()
+    {
+        List<String> others = listOf(alphanumericStrings(), one(integers(1, 500)));
+        CuckooFilter<String> first = CuckooFilter.create(5_000, 0.01);
+        CuckooFilter<String> second = CuckooFilter.create(5_000, 0.01);
+
+        first.addAll(elements);
+        second.addAll(others);
+
+        CuckooFilter<String> union = first.union(second);
+
+        assertThat(union.count(), is((long) elements.size() + others.size()));
+        elements.forEach(element -> assertThat(union.mightContain(element), is(true)));
+        others.forEach(element -> assertThat(union.mightContain(element), is(true)));
+        assertThat(first.count(), is((long) elements.size()));
+
+        assertThrows(() -> first.union(CuckooFilter.create(50_000, 0.01))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> first.union(CuckooFilter.create(5_000, 0.1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testUnionThatDoesNotFit()
+    {
+        CuckooFilter<Integer> first = CuckooFilter.create(100, 0.01);
+        CuckooFilter<Integer> second = CuckooFilter.create(100, 0.01);
+
+        for (int i = 0; i < 100; i++)
+        {
+            first.add(i);
+            second.add(-i - 1);
+        }
+
+        assertThrows(() -> first.union(second)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testBytesRoundTrip()
+    {
+        byte[] bytes = instance.toBytes();
+        CuckooFilter<String> copy = CuckooFilter.fromBytes(bytes);
+
+        assertThat(copy.count(), is(instance.count()));
+        assertThat(copy.capacity(), is(instance.capacity()));
+        assertThat(copy.toBytes(), is(bytes));
+        elements.forEach(element -> assertThat(copy.mightContain(element), is(true)));
+
+        CuckooFilter<Integer> wide = CuckooFilter.create(1_000, 1e-9);
+        for (int i = 0; i < 1_000; i++)
+        {
+            wide.add(i);
+        }
+
+        CuckooFilter<Integer> wideCopy = CuckooFilter.fromBytes(wide.toBytes(), FilterHashing.DEFAULT_HASHER, true);
+        for (int i = 0; i < 1_000; i++)
+        {
+            assertThat(wideCopy.mightContain(i), is(true));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testFromBadBytes()
+    {
+        byte[] bytes = instance.toBytes();
+
+        assertThrows(() -> CuckooFilter.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CuckooFilter.fromBytes(new byte[12])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CuckooFilter.fromBytes(Arrays.copyOf(bytes, bytes.length + 1))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CuckooFilter.fromBytes(BloomFilter.create(10, 0.1).toBytes())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testBadArgs()
+    {
+        assertThrows(() -> CuckooFilter.create(-1, 0.1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CuckooFilter.create(10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> CuckooFilter.create(Long.MAX_VALUE, 0.1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.add(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(instance.remove(null), is(false));
+        assertThat(Sets.cuckooFilterOf(null, 0.1).count(), is(0L));
+        assertThat(Sets.cuckooFilterOf(Collections.nCopies(100, "a"), 0.1).count(), is(1L));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testConcurrentAddsAndRemoves() throws Exception
+    {
+        int threads = 4;
+        int perThread = 5_000;
+        CuckooFilter<Integer> filter = CuckooFilter.createConcurrent(threads * perThread, 0.01);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                int first = t * perThread;
+
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+
+                    for (int i = first; i < first + perThread; i++)
+                    {
+                        filter.add(i);
+                        assertThat(filter.mightContain(i), is(true));
+                    }
+
+                    //Each thread removes the odd elements it added
+                    for (int i = first + 1; i < first + perThread; i += 2)
+                    {
+                        assertThat(filter.remove(i), is(true));
+                    }
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertThat(filter.count(), is((long) threads * perThread / 2));
+
+        for (int i = 0; i < threads * perThread; i += 2)
+        {
+            assertThat(filter.mightContain(i), is(true));
+        }
+    }
+}
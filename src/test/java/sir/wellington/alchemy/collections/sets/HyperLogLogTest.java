@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(10)
+@RunWith(AlchemyTestRunner.class)
+public class HyperLogLogTest
+{
+
+    private int precision;
+
+    private HyperLogLog<Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        precision = one(integers(HyperLogLog.MIN_PRECISION + 6, HyperLogLog.MAX_PRECISION + 1));
+        instance = HyperLogLog.create(precision);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertThat(instance.cardinality(), is(0L));
+        assertThat(instance.isSparse(), is(true));
+        assertThat(instance.precision(), is(precision));
+    }
+
+    @Test
+    public void testSmallCountsAreNearlyExact()
+    {
+        //Few enough to stay sparse at the lowest precision tested
+        int count = one(integers(1, 200));
+        int first = one(integers(-1_000_000, 1_000_000));
+
+        for (int i = first; i < first + count; i++)
+        {
+            instance.add(i);
+            instance.add(i);
+        }
+
+        assertThat(instance.isSparse(), is(true));
+        assertThat((double) instance.cardinality(), closeTo(count, Math.max(1, count * 0.001)));
+    }
+
+    @Test
+    public void testLargeCountsAreWithinTheError()
+    {
+        int count = one(integers(100_000, 500_000));
+        int first = one(integers(-1_000_000, 1_000_000));
+
+        for (int i = first; i < first + count; i++)
+        {
+            instance.add(i);
+        }
+
+        assertThat(instance.isSparse(), is(false));
+        assertWithinError(instance, count);
+    }
+
+    @Test
+    public void testSparseAndDenseAgreeOnTheSwitch()
+    {
+        HyperLogLog<Integer> sketch = HyperLogLog.create(10);
+        long previous = 0;
+
+        for (int i = 0; i < 5_000; i++)
+        {
+            sketch.add(i);
+
+            if (i % 50 == 0)
+            {
+                long estimate = sketch.cardinality();
+
+                //No jump when the representation changes
+                assertThat((double) estimate, closeTo(i + 1, (i + 1) * 5 * sketch.standardError() + 1));
+                assertThat(estimate, greaterThanOrEqualTo(previous - (long) (i * 0.05)));
+                previous = estimate;
+            }
+        }
+
+        assertThat(sketch.isSparse(), is(false));
+    }
+
+    @Test
+    public void testUnionAndIntersection()
+    {
+        int overlap = one(integers(10_000, 50_000));
+        int onlyFirst = one(integers(10_000, 50_000));
+        int onlySecond = one(integers(10_000, 50_000));
+
+        HyperLogLog<Integer> first = HyperLogLog.create(precision);
+        HyperLogLog<Integer> second = HyperLogLog.create(precision);
+
+        for (int i = 0; i < onlyFirst + overlap; i++)
+        {
+            first.add(i);
+        }
+
+        for (int i = onlyFirst; i < onlyFirst + overlap + onlySecond; i++)
+        {
+            second.add(i);
+        }
+
+        HyperLogLog<Integer> union = first.union(second);
+        int unionSize = onlyFirst + overlap + onlySecond;
+
+        assertWithinError(union, unionSize);
+
+        long intersection = HyperLogLog.estimateIntersection(first, second);
+        assertThat((double) intersection, closeTo(overlap, unionSize * 5 * union.standardError() * 2));
+
+        assertThat(Sets.unionOf(first, null, second, null).cardinality(), is(union.cardinality()));
+    }
+
+    @Test
+    public void testUnionOfSparseSketches()
+    {
+        HyperLogLog<Integer> first = HyperLogLog.create(precision);
+        HyperLogLog<Integer> second = HyperLogLog.create(precision);
+
+        for (int i = 0; i < 100; i++)
+        {
+            first.add(i);
+            second.add(i + 50);
+        }
+
+        HyperLogLog<Integer> union = first.union(second);
+
+        assertThat(union.isSparse(), is(true));
+        assertThat(union.cardinality(), is(150L));
+        assertThat(HyperLogLog.estimateIntersection(first, second), is(50L));
+        assertThat(first.cardinality(), is(100L));
+    }
+
+    @Test
+    public void testUnionFoldsToTheLowerPrecision()
+    {
+        HyperLogLog<Integer> high = HyperLogLog.create(precision);
+        HyperLogLog<Integer> low = HyperLogLog.create(precision - 2);
+        HyperLogLog<Integer> direct = HyperLogLog.create(precision - 2);
+
+        int count = one(integers(10, 200_000));
+
+        for (int i = 0; i < count; i++)
+        {
+            high.add(i);
+            direct.add(i);
+        }
+
+        HyperLogLog<Integer> union = high.union(low);
+
+        //Folding loses nothing, compared to adding at the lower precision to begin with
+        assertThat(union.precision(), is(precision - 2));
+        assertThat(union.cardinality(), is(direct.cardinality()));
+
+        assertThrows(() -> high.merge(low)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testBytesRoundTrip()
+    {
+        int count = one(integers(0, 50_000));
+
+        for (int i = 0; i < count; i++)
+        {
+            instance.add(i);
+        }
+
+        byte[] bytes = instance.toBytes();
+        HyperLogLog<Integer> copy = HyperLogLog.fromBytes(bytes);
+
+        assertThat(copy.cardinality(), is(instance.cardinality()));
+        assertThat(copy.isSparse(), is(instance.isSparse()));
+        assertThat(copy.precision(), is(instance.precision()));
+        assertThat(copy.toBytes(), is(bytes));
+
+        if (!instance.isSparse())
+        {
+            //Six bits per register
+            assertThat(bytes.length, lessThanOrEqualTo(10 + (3 << precision) / 4));
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testFromBadBytes()
+    {
+        byte[] bytes = instance.toBytes();
+
+        assertThrows(() -> HyperLogLog.fromBytes(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> HyperLogLog.fromBytes(new byte[8])).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> HyperLogLog.fromBytes(Arrays.copyOf(bytes, bytes.length + 1))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> HyperLogLog.fromBytes(BloomFilter.create(10, 0.1).toBytes())).isInstanceOf(IllegalArgumentException.class);
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            instance.add(i);
+        }
+
+        byte[] dense = instance.toBytes();
+        assertThrows(() -> HyperLogLog.fromBytes(Arrays.copyOf(dense, dense.length - 1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DontRepeat
+    @Test
+    public void testBadArgs()
+    {
+        assertThrows(() -> HyperLogLog.create(HyperLogLog.MIN_PRECISION - 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> HyperLogLog.create(HyperLogLog.MAX_PRECISION + 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> HyperLogLog.create(10, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.add(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.merge(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> instance.union(HyperLogLog.create(precision, i -> 1L))).isInstanceOf(IllegalArgumentException.class);
+        assertThrows(() -> Sets.unionOf(null, instance)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(Sets.hyperLogLogOf(null).cardinality(), is(0L));
+    }
+
+    private static void assertWithinError(HyperLogLog<?> sketch, long expected)
+    {
+        //Five standard errors
+        double tolerance = expected * 5 * sketch.standardError();
+        assertThat((double) sketch.cardinality(), closeTo(expected, tolerance));
+    }
+}
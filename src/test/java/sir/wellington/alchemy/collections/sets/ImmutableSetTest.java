@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.lists.Lists;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(100)
+@RunWith(AlchemyTestRunner.class)
+public class ImmutableSetTest
+{
+
+    private AlchemyGenerator<String> generator;
+    private Set<String> set;
+
+    private ImmutableSet<String> instance;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphanumericStrings();
+        set = Sets.toSet(listOf(generator, one(integers(1, 200))));
+
+        instance = ImmutableSet.copyOf(set);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        assertThat(instance, is(set));
+        assertThat(set, is((Set<String>) instance));
+        assertThat(instance.size(), is(set.size()));
+        assertThat(instance.hashCode(), is(set.hashCode()));
+
+        //Changes to the original do not show through
+        set.add(generator.get());
+        assertThat(instance, is(not(set)));
+    }
+
+    @Test
+    public void testCopyOfWithDuplicates()
+    {
+        List<String> duplicates = Lists.combine(Lists.copy(set), Lists.copy(set));
+        Collections.shuffle(duplicates);
+
+        ImmutableSet<String> result = ImmutableSet.copyOf(duplicates);
+        assertThat(result, is(set));
+        assertThat(result.size(), is(set.size()));
+        assertThat(result.hashCode(), is(set.hashCode()));
+
+        result = ImmutableSet.of(duplicates.toArray(new String[0]));
+        assertThat(result, is(set));
+    }
+
+    @Test
+    public void testCopyOfImmutableSet()
+    {
+        assertThat(ImmutableSet.copyOf(instance), sameInstance(instance));
+    }
+
+    @DontRepeat
+    @Test
+    public void testEmpty()
+    {
+        ImmutableSet<String> empty = ImmutableSet.empty();
+
+        assertThat(empty, is(empty()));
+        assertThat(empty, sameInstance(ImmutableSet.empty()));
+        assertThat(empty.contains("a"), is(false));
+        assertThat(empty.contains(null), is(false));
+        assertThat(empty.iterator().hasNext(), is(false));
+        assertThat(ImmutableSet.copyOf(null), sameInstance(empty));
+        assertThat(ImmutableSet.copyOf(Sets.create()), sameInstance(empty));
+        assertThat(ImmutableSet.of(), sameInstance(empty));
+    }
+
+    @Test
+    public void testContains()
+    {
+        for (String element : set)
+        {
+            assertThat(instance.contains(element), is(true));
+        }
+
+        assertThat(instance.contains(generator.get()), is(false));
+        assertThat(instance.contains(null), is(false));
+        assertThat(instance.containsAll(set), is(true));
+    }
+
+    @Test
+    public void testWithNull()
+    {
+        set.add(null);
+        instance = ImmutableSet.copyOf(set);
+
+        assertThat(instance.contains(null), is(true));
+        assertThat(instance, is(set));
+        assertThat(instance.hashCode(), is(set.hashCode()));
+        assertThat(Sets.copyOf(instance), is(set));
+    }
+
+    @Test
+    public void testWithCollidingHashes()
+    {
+        //These have the same hashCode, so they all probe from the same slot
+        List<String> colliding = Arrays.asList("Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa");
+
+        ImmutableSet<String> result = ImmutableSet.copyOf(colliding);
+        assertThat(result, is(Sets.copyOf(colliding)));
+
+        for (String element : colliding)
+        {
+            assertThat(result.contains(element), is(true));
+        }
+
+        assertThat(result.contains("AaAaAa"), is(false));
+    }
+
+    @Test
+    public void testIteration()
+    {
+        Set<String> iterated = Sets.create();
+        instance.forEach(iterated::add);
+        assertThat(iterated, is(set));
+
+        List<String> iteratedList = new ArrayList<>();
+        for (String element : instance)
+        {
+            iteratedList.add(element);
+        }
+
+        assertThat(iteratedList.size(), is(set.size()));
+        assertThat(Sets.copyOf(iteratedList), is(set));
+        assertThat(instance.stream().count(), is((long) set.size()));
+
+        Iterator<String> iterator = instance.iterator();
+        iteratedList.forEach(e -> iterator.next());
+        assertThrows(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void testEquals()
+    {
+        assertThat(instance.equals(ImmutableSet.copyOf(set)), is(true));
+
+        Set<String> different = Sets.copyOf(set);
+        different.add(generator.get());
+        assertThat(instance.equals(ImmutableSet.copyOf(different)), is(false));
+        assertThat(instance.equals(different), is(false));
+    }
+
+    @Test
+    public void testCannotBeModified()
+    {
+        String element = set.iterator().next();
+
+        assertThrows(() -> instance.add(generator.get())).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.addAll(set)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.removeAll(set)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.retainAll(set)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.removeIf(e -> true)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(instance::clear).isInstanceOf(UnsupportedOperationException.class);
+
+        Iterator<String> iterator = instance.iterator();
+        iterator.next();
+        assertThrows(iterator::remove).isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(instance, is(set));
+    }
+
+    @DontRepeat
+    @Test
+    public void testEmptyCannotBeModified()
+    {
+        ImmutableSet<String> empty = ImmutableSet.empty();
+
+        assertThrows(empty::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> empty.remove("a")).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> empty.addAll(Sets.create())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testSerialization() throws Exception
+    {
+        ImmutableSet<String> copy = serializedCopy(instance);
+
+        assertThat(copy, is(set));
+        assertThat(copy, not(sameInstance(instance)));
+        assertThat(copy.hashCode(), is(set.hashCode()));
+        set.forEach(element -> assertThat(copy.contains(element), is(true)));
+        assertThrows(() -> copy.add(one(generator))).isInstanceOf(UnsupportedOperationException.class);
+
+        ImmutableSet<String> withNull = ImmutableSet.of(null, one(generator));
+        ImmutableSet<String> nullCopy = serializedCopy(withNull);
+        assertThat(nullCopy, is(withNull));
+        assertThat(nullCopy.contains(null), is(true));
+        assertThat(serializedCopy(ImmutableSet.empty()), sameInstance(ImmutableSet.empty()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializedCopy(T object) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(object);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        {
+            return (T) in.readObject();
+        }
+    }
+}
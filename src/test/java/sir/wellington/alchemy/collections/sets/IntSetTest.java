@@ -0,0 +1,364 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.*;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(25)
+@RunWith(AlchemyTestRunner.class)
+public class IntSetTest
+{
+
+    private Set<Integer> sparse;
+    private Set<Integer> dense;
+
+    @Before
+    public void setUp()
+    {
+        sparse = new HashSet<>(listOf(anyIntegers(), 200));
+
+        //Enough values in a small range to need bitmap containers
+        int start = one(integers(-1_000_000, 1_000_000));
+        dense = new HashSet<>();
+        for (int value : listOf(integers(start, start + 200_000), 20_000))
+        {
+            dense.add(value);
+        }
+    }
+
+    @Test
+    public void testCreate()
+    {
+        IntSet set = IntSet.create();
+        assertThat(set, is(empty()));
+        assertThat(set.containsInt(one(anyIntegers())), is(false));
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        IntSet set = IntSet.copyOf(sparse);
+        assertThat(set, is(sparse));
+        assertThat(set.size(), is(sparse.size()));
+        assertThat(set.hashCode(), is(sparse.hashCode()));
+
+        IntSet denseSet = IntSet.copyOf(dense);
+        assertThat(denseSet, is(dense));
+        assertThat(denseSet.hashCode(), is(dense.hashCode()));
+    }
+
+    @Test
+    public void testCreateFrom()
+    {
+        int first = one(anyIntegers());
+        IntSet set = IntSet.createFrom(first, 1, 2, 3, first);
+
+        assertThat(set, containsInAnyOrder(first, 1, 2, 3));
+    }
+
+    @Test
+    public void testAddAndRemove()
+    {
+        IntSet set = IntSet.create();
+        Set<Integer> expected = new HashSet<>();
+
+        for (int value : dense)
+        {
+            assertThat(set.addInt(value), is(expected.add(value)));
+        }
+
+        List<Integer> toRemove = new ArrayList<>(dense).subList(0, dense.size() / 2);
+        for (int value : toRemove)
+        {
+            assertThat(set.removeInt(value), is(expected.remove(value)));
+            assertThat(set.removeInt(value), is(false));
+        }
+
+        assertThat(set.size(), is(expected.size()));
+        assertThat(set, is(expected));
+        toRemove.forEach(value -> assertThat(set.containsInt(value), is(false)));
+    }
+
+    @Test
+    public void testIterationIsSortedUnsigned()
+    {
+        IntSet set = IntSet.copyOf(sparse);
+
+        long previous = -1;
+        for (int value : set.toIntArray())
+        {
+            long unsigned = Integer.toUnsignedLong(value);
+            assertThat(unsigned, greaterThan(previous));
+            previous = unsigned;
+        }
+    }
+
+    @Test
+    public void testRunOptimize()
+    {
+        int start = one(integers(0, 1_000_000));
+        IntSet set = IntSet.create();
+        for (int value = start; value < start + 100_000; value++)
+        {
+            set.addInt(value);
+        }
+
+        long before = set.sizeInBytes();
+        set.runOptimize();
+
+        assertThat(set.sizeInBytes(), lessThan(before));
+        assertThat(set.size(), is(100_000));
+        assertThat(set.containsInt(start), is(true));
+        assertThat(set.containsInt(start + 99_999), is(true));
+        assertThat(set.containsInt(start + 100_000), is(false));
+        assertThat(set.containsInt(start - 1), is(false));
+
+        //Run containers can still be modified
+        set.removeInt(start + 500);
+        set.addInt(start + 100_000);
+        assertThat(set.containsInt(start + 500), is(false));
+        assertThat(set.containsInt(start + 100_000), is(true));
+        assertThat(set.size(), is(100_000));
+    }
+
+    @Test
+    public void testAddRange()
+    {
+        IntSet set = IntSet.copyOf(dense);
+        Set<Integer> expected = new HashSet<>(dense);
+
+        int start = Collections.min(dense) + one(integers(-100_000, 100_000));
+        int end = start + one(integers(0, 200_000));
+        set.addRange(start, end);
+
+        for (int value = start; value < end; value++)
+        {
+            expected.add(value);
+        }
+
+        assertThat(set.size(), is(expected.size()));
+        assertThat(set, is(expected));
+
+        //Ranges that cross zero span the chunks at both ends of the unsigned order
+        set.addRange(-70_000, 70_000);
+        for (int value = -70_000; value < 70_000; value++)
+        {
+            expected.add(value);
+        }
+
+        assertThat(set.size(), is(expected.size()));
+        assertThat(set, is(expected));
+    }
+
+    @Test
+    public void testAddRangeStoresWholeChunksAsRuns()
+    {
+        int chunks = one(integers(1, 20));
+        IntSet set = IntSet.create();
+        set.addRange(0, chunks << 16);
+
+        assertThat(set.size(), is(chunks << 16));
+        assertThat(set.sizeInBytes(), lessThan((long) BitmapContainer.SIZE_IN_BYTES));
+
+        set.addRange(5, 10);
+        set.addRange(-10, -5);
+        assertThat(set.size(), is((chunks << 16) + 5));
+        assertThat(set.containsInt(-6), is(true));
+        assertThat(set.containsInt(-5), is(false));
+    }
+
+    @Test
+    public void testIteratorRemove()
+    {
+        IntSet set = IntSet.copyOf(dense);
+        set.addAll(sparse);
+        set.addRange(-100, 100);
+
+        Set<Integer> expected = new HashSet<>(set);
+        expected.removeIf(value -> value % 3 == 0);
+
+        Iterator<Integer> iterator = set.iterator();
+
+        while (iterator.hasNext())
+        {
+            if (iterator.next() % 3 == 0)
+            {
+                iterator.remove();
+                assertThrows(iterator::remove).isInstanceOf(IllegalStateException.class);
+            }
+        }
+
+        assertThat(set.size(), is(expected.size()));
+        assertThat(set, is(expected));
+    }
+
+    @Test
+    public void testRemoveIf()
+    {
+        IntSet set = IntSet.copyOf(dense);
+        set.addAll(sparse);
+
+        Set<Integer> expected = new HashSet<>(set);
+        expected.removeIf(value -> value % 2 == 0);
+
+        assertThat(set.removeIf(value -> value % 2 == 0), is(true));
+        assertThat(set.size(), is(expected.size()));
+        assertThat(set, is(expected));
+
+        assertThat(set.removeIf(value -> false), is(false));
+        assertThat(set, is(expected));
+    }
+
+    @Test
+    public void testAnd()
+    {
+        Set<Integer> other = otherDenseSet();
+        Set<Integer> expected = new HashSet<>(dense);
+        expected.retainAll(other);
+
+        IntSet result = IntSet.and(IntSet.copyOf(dense), IntSet.copyOf(other));
+        assertThat(result, is(expected));
+        assertThat(result.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testOr()
+    {
+        Set<Integer> other = otherDenseSet();
+        Set<Integer> expected = new HashSet<>(dense);
+        expected.addAll(other);
+        expected.addAll(sparse);
+
+        IntSet result = IntSet.or(IntSet.or(IntSet.copyOf(dense), IntSet.copyOf(other)), IntSet.copyOf(sparse));
+        assertThat(result, is(expected));
+        assertThat(result.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testAndNot()
+    {
+        Set<Integer> other = otherDenseSet();
+        Set<Integer> expected = new HashSet<>(dense);
+        expected.removeAll(other);
+
+        IntSet result = IntSet.andNot(IntSet.copyOf(dense), IntSet.copyOf(other));
+        assertThat(result, is(expected));
+        assertThat(result.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testXor()
+    {
+        Set<Integer> other = otherDenseSet();
+        Set<Integer> expected = new HashSet<>(dense);
+        expected.addAll(other);
+
+        Set<Integer> both = new HashSet<>(dense);
+        both.retainAll(other);
+        expected.removeAll(both);
+
+        IntSet result = IntSet.xor(IntSet.copyOf(dense), IntSet.copyOf(other));
+        assertThat(result, is(expected));
+        assertThat(result.size(), is(expected.size()));
+    }
+
+    @Test
+    public void testAlgebraWithRunContainers()
+    {
+        IntSet ranges = IntSet.create();
+        ranges.addRange(0, 70_000);
+        ranges.runOptimize();
+
+        IntSet values = IntSet.copyOf(dense);
+        Set<Integer> expected = new HashSet<>(dense);
+        expected.removeIf(value -> value < 0 || value >= 70_000);
+
+        assertThat(IntSet.and(ranges, values), is(expected));
+        assertThat(IntSet.andNot(values, ranges).size(), is(dense.size() - expected.size()));
+    }
+
+    @Test
+    public void testAlgebraDoesNotModifyInputs()
+    {
+        IntSet first = IntSet.copyOf(dense);
+        IntSet second = IntSet.copyOf(otherDenseSet());
+        IntSet firstCopy = first.copy();
+        IntSet secondCopy = second.copy();
+
+        IntSet.and(first, second).clear();
+        IntSet.or(first, second).addInt(one(anyIntegers()));
+        IntSet.xor(first, second).clear();
+        IntSet.andNot(first, second).clear();
+
+        assertThat(first, is(firstCopy));
+        assertThat(second, is(secondCopy));
+    }
+
+    @Test
+    public void testRetainAll()
+    {
+        IntSet set = IntSet.copyOf(dense);
+        Set<Integer> other = otherDenseSet();
+        Set<Integer> expected = new HashSet<>(dense);
+        expected.retainAll(other);
+
+        set.retainAll(other);
+        assertThat(set, is(expected));
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithBadArgs()
+    {
+        assertThrows(() -> IntSet.and(null, IntSet.create()))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> IntSet.create().add(null))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> IntSet.create().removeIf(null))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThrows(() -> IntSet.create().iterator().remove())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private Set<Integer> otherDenseSet()
+    {
+        int min = Collections.min(dense);
+        Set<Integer> other = new HashSet<>(listOf(integers(min, min + 200_000), 20_000));
+
+        //Make sure there is some overlap
+        other.addAll(new ArrayList<>(dense).subList(0, dense.size() / 3));
+        return other;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.AlchemyGenerator.Get.one;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.NumberGenerators.integers;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class PersistentHashSetTest
+{
+
+    private Set<Integer> expected;
+
+    private PersistentHashSet<Integer> instance;
+
+    @Before
+    public void setUp()
+    {
+        List<Integer> values = listOf(integers(-5_000, 5_000), one(integers(1, 1_000)));
+        expected = new HashSet<>(values);
+        instance = Sets.persistentCopyOf(values);
+    }
+
+    @Test
+    public void testCopyOf()
+    {
+        assertThat(instance, is(expected));
+        assertThat(expected, is((Set<Integer>) instance));
+        assertThat(instance.size(), is(expected.size()));
+        assertThat(instance.hashCode(), is(expected.hashCode()));
+        assertThat(PersistentHashSet.copyOf(instance), sameInstance(instance));
+        assertThat(PersistentHashSet.copyOf(null), sameInstance(PersistentHashSet.empty()));
+    }
+
+    @Test
+    public void testPlusAndMinus()
+    {
+        Integer element = 10_000 + one(integers(0, 100));
+
+        PersistentHashSet<Integer> added = instance.plus(element);
+        assertThat(added.contains(element), is(true));
+        assertThat(added.size(), is(expected.size() + 1));
+        assertThat(added.plus(element), sameInstance(added));
+
+        PersistentHashSet<Integer> removed = added.minus(element);
+        assertThat(removed, is(expected));
+        assertThat(removed.minus(element), sameInstance(removed));
+
+        assertThat(instance.contains(element), is(false));
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testPlusAllAndTransient()
+    {
+        List<Integer> more = listOf(integers(5_000, 10_000), one(integers(1, 100)));
+
+        Set<Integer> model = new HashSet<>(expected);
+        model.addAll(more);
+
+        assertThat(instance.plusAll(more), is(model));
+
+        PersistentHashSet.Transient<Integer> builder = instance.asTransient();
+        expected.forEach(builder::remove);
+        builder.add(null);
+
+        assertThat(builder.contains(null), is(true));
+        assertThat(builder.persistent(), contains((Integer) null));
+        assertThrows(() -> builder.add(1)).isInstanceOf(IllegalStateException.class);
+        assertThat(instance, is(expected));
+    }
+
+    @Test
+    public void testRemovingEverythingReturnsEmpty()
+    {
+        PersistentHashSet<Integer> result = instance;
+
+        for (Integer element : expected)
+        {
+            result = result.minus(element);
+        }
+
+        assertThat(result, sameInstance(PersistentHashSet.empty()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testIsReadOnly()
+    {
+        assertThrows(() -> instance.add(1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.remove(1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> instance.iterator().remove()).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2019. Sir Wellington.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sir.wellington.alchemy.collections.sets;
+
+import java.util.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import tech.sirwellington.alchemy.generator.AlchemyGenerator;
+import tech.sirwellington.alchemy.test.junit.runners.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static tech.sirwellington.alchemy.generator.CollectionGenerators.listOf;
+import static tech.sirwellington.alchemy.generator.StringGenerators.alphanumericStrings;
+import static tech.sirwellington.alchemy.test.junit.ThrowableAssertion.*;
+
+/**
+ *
+ * @author SirWellington
+ */
+@Repeat(50)
+@RunWith(AlchemyTestRunner.class)
+public class SetViewTest
+{
+
+    private AlchemyGenerator<String> generator;
+
+    private Set<String> first;
+    private Set<String> second;
+    private Set<String> third;
+
+    @Before
+    public void setUp()
+    {
+        generator = alphanumericStrings();
+
+        first = Sets.toSet(listOf(generator));
+        second = Sets.toSet(listOf(generator));
+        third = Sets.toSet(listOf(generator));
+
+        //Give the sets some overlap
+        List<String> shared = listOf(generator, 10);
+        first.addAll(shared);
+        second.addAll(shared);
+        third.addAll(shared.subList(0, 5));
+        second.addAll(listOf(generator, 3));
+        first.addAll(third);
+    }
+
+    @Test
+    public void testUnionView()
+    {
+        Set<String> expected = Sets.unionOf(first, second, third);
+        SetView<String> view = Sets.unionView(first, second, third);
+
+        assertThat(view, is(expected));
+        assertThat(view.size(), is(expected.size()));
+        assertThat(view.isEmpty(), is(false));
+
+        for (String element : expected)
+        {
+            assertThat(view.contains(element), is(true));
+        }
+
+        assertThat(view.contains(generator.get()), is(false));
+    }
+
+    @Test
+    public void testUnionViewDoesNotRepeatElements()
+    {
+        SetView<String> view = Sets.unionView(first, first, second);
+
+        List<String> iterated = new ArrayList<>();
+        view.forEach(iterated::add);
+
+        assertThat(iterated.size(), is(Sets.toSet(iterated).size()));
+    }
+
+    @Test
+    public void testIntersectionView()
+    {
+        Set<String> expected = Sets.intersectionOf(first, second, third);
+        SetView<String> view = Sets.intersectionView(first, second, third);
+
+        assertThat(view, is(expected));
+        assertThat(view.size(), is(expected.size()));
+
+        for (String element : first)
+        {
+            assertThat(view.contains(element), is(expected.contains(element)));
+        }
+    }
+
+    @Test
+    public void testDifferenceView()
+    {
+        Set<String> expected = Sets.copyOf(first);
+        expected.removeAll(second);
+        expected.removeAll(third);
+
+        SetView<String> view = Sets.differenceView(first, second, third);
+
+        assertThat(view, is(expected));
+        assertThat(view.size(), is(expected.size()));
+
+        for (String element : first)
+        {
+            assertThat(view.contains(element), is(expected.contains(element)));
+        }
+
+        assertThat(view.contains(second.iterator().next()), is(false));
+    }
+
+    @Test
+    public void testViewsReflectChanges()
+    {
+        SetView<String> union = Sets.unionView(first, second);
+        SetView<String> intersection = Sets.intersectionView(first, second);
+        SetView<String> difference = Sets.differenceView(first, second);
+
+        String element = generator.get();
+        assertThat(union.contains(element), is(false));
+
+        first.add(element);
+        assertThat(union.contains(element), is(true));
+        assertThat(difference.contains(element), is(true));
+        assertThat(intersection.contains(element), is(false));
+
+        second.add(element);
+        assertThat(intersection.contains(element), is(true));
+        assertThat(difference.contains(element), is(false));
+    }
+
+    @Test
+    public void testMaterialize()
+    {
+        SetView<String> view = Sets.unionView(first, second);
+        Set<String> copy = view.materialize();
+
+        assertThat(copy, is(Sets.unionOf(first, second)));
+        assertThat(copy, not(instanceOf(SetView.class)));
+
+        //The copy is independent of the underlying sets
+        first.clear();
+        assertThat(copy, not(empty()));
+        assertThat(copy, is(not(view)));
+
+        copy.add(generator.get());
+    }
+
+    @Test
+    public void testViewsAreReadOnly()
+    {
+        SetView<String> view = Sets.unionView(first, second);
+        String element = first.iterator().next();
+
+        assertThrows(() -> view.add(element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> view.remove(element)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> view.addAll(second)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> view.removeAll(second)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> view.retainAll(second)).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(view::clear).isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(first, hasItem(element));
+    }
+
+    @DontRepeat
+    @Test
+    public void testWithNullSets()
+    {
+        assertThat(Sets.unionView(null), is(empty()));
+        assertThat(Sets.intersectionView(null), is(empty()));
+        assertThat(Sets.differenceView(null), is(empty()));
+
+        assertThat(Sets.unionView(first, (Set<String>) null), is(first));
+        assertThat(Sets.intersectionView(first, (Set<String>) null), is(empty()));
+        assertThat(Sets.differenceView(first, (Set<String>) null), is(first));
+        assertThat(Sets.differenceView(null, first), is(empty()));
+    }
+
+    @DontRepeat
+    @Test
+    public void testIteratorWhenExhausted()
+    {
+        Iterator<String> iterator = Sets.intersectionView(first, Sets.create()).iterator();
+
+        assertThat(iterator.hasNext(), is(false));
+        assertThrows(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+}
@@ -16,10 +16,15 @@
 package sir.wellington.alchemy.collections.sets;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import sir.wellington.alchemy.collections.lists.Forking;
 import sir.wellington.alchemy.collections.lists.Lists;
 import tech.sirwellington.alchemy.generator.AlchemyGenerator;
 import tech.sirwellington.alchemy.test.junit.runners.*;
@@ -88,6 +93,21 @@ public class SetsTest
         assertThrows(() -> emptySet.add(generator.get()));
     }
 
+    @Test
+    public void testImmutableCopyOf()
+    {
+        Set<String> copy = Sets.immutableCopyOf(set);
+        assertThat(copy, is(set));
+
+        assertThrows(() -> copy.add(generator.get())).isInstanceOf(UnsupportedOperationException.class);
+        assertThrows(() -> copy.clear()).isInstanceOf(UnsupportedOperationException.class);
+
+        set.add(generator.get());
+        assertThat(copy, is(not(set)));
+
+        assertThat(Sets.immutableCopyOf(null), is(empty()));
+    }
+
     @Test
     public void testNullToEmpty()
     {
@@ -132,6 +152,60 @@ public class SetsTest
         assertThat(result, is(empty()));
     }
 
+    @Test
+    public void testParallelCopyOf()
+    {
+        List<String> list = listOf(generator);
+        list.addAll(list);
+
+        Set<String> result = Sets.parallelCopyOf(list);
+        assertThat(result, is(new HashSet<>(list)));
+        assertThat(Sets.parallelCopyOf(null), is(empty()));
+    }
+
+    @Repeat(5)
+    @Test
+    public void testParallelCopyOfWithLargeCollection()
+    {
+        int size = Forking.PARALLEL_THRESHOLD * 8;
+        Random random = new Random();
+        List<Integer> list = IntStream.range(0, size)
+                                      .mapToObj(i -> random.nextInt(size / 2))
+                                      .collect(Collectors.toList());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            Set<Integer> result = Sets.parallelCopyOf(list, pool);
+            assertThat(result, is(new HashSet<>(list)));
+
+            //The result is concurrent, and can keep growing
+            assertThat(result, instanceOf(ConcurrentHashMap.KeySetView.class));
+            result.add(size);
+            assertThat(result, hasItem(size));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @DontRepeat
+    @Test
+    public void testParallelCopyOfWithBadArgs()
+    {
+        List<String> list = listOf(generator);
+
+        assertThrows(() -> Sets.parallelCopyOf(list, null)).isInstanceOf(IllegalArgumentException.class);
+
+        list.add(null);
+        assertThrows(() -> Sets.parallelCopyOf(list)).isInstanceOf(IllegalArgumentException.class);
+
+        List<Integer> large = new ArrayList<>(Collections.nCopies(Forking.PARALLEL_THRESHOLD * 4, 1));
+        large.add(null);
+        assertThrows(() -> Sets.parallelCopyOf(large)).isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void testIsEmpty()
     {
@@ -196,6 +270,61 @@ public class SetsTest
     }
 
 
+    @Test
+    public void testIntersectionOfWithLists()
+    {
+        List<String> first = listOf(generator);
+        List<String> second = listOf(generator);
+        second.addAll(first.subList(0, first.size() / 2));
+        Collections.shuffle(second);
+
+        Set<String> expected = Sets.copyOf(first);
+        expected.retainAll(second);
+
+        Set<String> intersection = Sets.intersectionOf(first, second);
+        assertThat(intersection, is(expected));
+
+        //Order of the arguments should not matter
+        intersection = Sets.intersectionOf(second, first);
+        assertThat(intersection, is(expected));
+    }
+
+    @Test
+    public void testIntersectionOfSmallAndLarge()
+    {
+        Set<String> small = Sets.toSet(listOf(generator, 5));
+        Set<String> large = Sets.toSet(listOf(generator, 500));
+        large.addAll(small);
+        List<String> largeList = Lists.copy(large);
+
+        Set<String> intersection = Sets.intersectionOf(large, largeList, small);
+        assertThat(intersection, is(small));
+    }
+
+    @Test
+    public void testIntersectionOfWithNullCollection()
+    {
+        Set<String> first = Sets.toSet(listOf(generator));
+        Set<String> intersection = Sets.intersectionOf(first, first, null);
+
+        assertThat(intersection, notNullValue());
+        assertThat(intersection, is(empty()));
+    }
+
+    @Test
+    public void testIntersectionOfIsMutableCopy()
+    {
+        Set<String> first = Sets.toSet(listOf(generator));
+        Set<String> second = Sets.copyOf(first);
+
+        Set<String> intersection = Sets.intersectionOf(first, second);
+        assertThat(intersection, not(sameInstance(first)));
+        assertThat(intersection, not(sameInstance(second)));
+
+        intersection.clear();
+        assertThat(first, not(empty()));
+    }
+
     @DontRepeat
     @Test
     public void testUnionOfWithNoParameters()
@@ -240,6 +369,52 @@ public class SetsTest
         assertThat(union, is(expected));
     }
 
+    @Test
+    public void testIntersectionOfIntSets()
+    {
+        IntSet first = IntSet.createFrom(1, 2, 3, 4, 100_000);
+        IntSet second = IntSet.createFrom(2, 3, 4, 5, 100_000);
+        IntSet third = IntSet.createFrom(3, 4, 100_000, 7);
+
+        IntSet intersection = Sets.intersectionOf(first, second, third);
+        assertThat(intersection, containsInAnyOrder(3, 4, 100_000));
+
+        intersection = Sets.intersectionOf(first, (IntSet) null);
+        assertThat(intersection, is(empty()));
+    }
+
+    @Test
+    public void testUnionOfIntSets()
+    {
+        IntSet first = IntSet.createFrom(1, 2);
+        IntSet second = IntSet.createFrom(2, 3);
+        IntSet third = IntSet.createFrom(-4);
+
+        IntSet union = Sets.unionOf(first, second, third);
+        assertThat(union, containsInAnyOrder(1, 2, 3, -4));
+    }
+
+    @Test
+    public void testDifferenceOfIntSets()
+    {
+        IntSet first = IntSet.createFrom(1, 2, 3, 4);
+        IntSet second = IntSet.createFrom(2);
+        IntSet third = IntSet.createFrom(4, 5);
+
+        IntSet difference = Sets.differenceOf(first, second, third);
+        assertThat(difference, containsInAnyOrder(1, 3));
+    }
+
+    @Test
+    public void testSymmetricDifferenceOfIntSets()
+    {
+        IntSet first = IntSet.createFrom(1, 2, 3);
+        IntSet second = IntSet.createFrom(2, 3, 4);
+
+        IntSet result = Sets.symmetricDifferenceOf(first, second);
+        assertThat(result, containsInAnyOrder(1, 4));
+    }
+
     @Test
     public void testContainTheSameElements()
     {
@@ -318,4 +493,19 @@ public class SetsTest
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    public void testFiltersOf()
+    {
+        BloomFilter<String> bloomFilter = Sets.bloomFilterOf(set, 0.01);
+        CuckooFilter<String> cuckooFilter = Sets.cuckooFilterOf(set, 0.01);
+
+        for (String element : set)
+        {
+            assertThat(bloomFilter.mightContain(element), is(true));
+            assertThat(cuckooFilter.mightContain(element), is(true));
+        }
+
+        assertThat(cuckooFilter.count(), is((long) set.size()));
+    }
+
 }